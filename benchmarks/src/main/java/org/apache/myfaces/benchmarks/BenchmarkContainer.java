@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import java.beans.BeanInfo;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.faces.FactoryFinder;
+import jakarta.faces.application.Resource;
+import jakarta.faces.component.UIComponent;
+import jakarta.faces.component.UIViewRoot;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.render.Renderer;
+import jakarta.faces.render.ResponseStateManager;
+import jakarta.faces.view.StateManagementStrategy;
+import jakarta.faces.view.ViewDeclarationLanguage;
+import jakarta.faces.view.ViewDeclarationLanguageFactory;
+import jakarta.faces.view.ViewMetadata;
+
+import org.apache.myfaces.application.viewstate.StateUtils;
+import org.apache.myfaces.spi.impl.DefaultSerialFactory;
+import org.apache.myfaces.test.mock.MockFacesContext;
+import org.apache.myfaces.test.mock.MockedJsfTestContainer;
+import org.apache.myfaces.view.facelets.PartialStateManagementStrategy;
+
+/**
+ * Mock container with a view declaration language that builds the views with {@link ComponentTrees}
+ * instead of parsing facelets, so the benchmarks only measure the state handling.
+ */
+public class BenchmarkContainer extends MockedJsfTestContainer
+{
+    public static final String VIEW_ID = "/benchmark.xhtml";
+
+    private static final String INPUTS_ATTR = BenchmarkContainer.class.getName() + ".INPUTS";
+
+    private final int inputs;
+    private final StateHolder stateHolder = new StateHolder();
+
+    /**
+     * @param inputs number of input fields of the view
+     */
+    public BenchmarkContainer(int inputs)
+    {
+        this.inputs = inputs;
+    }
+
+    /**
+     * Sets up the container and starts a request with the given context parameters.
+     */
+    public void setUp(Map<String, String> initParameters)
+    {
+        setUpServletContext();
+        initParameters.forEach(servletContext::addInitParameter);
+        servletContext.setAttribute(INPUTS_ATTR, inputs);
+        // done by the FacesConfigurator on startup
+        servletContext.setAttribute(StateUtils.SERIAL_FACTORY, new DefaultSerialFactory());
+
+        FactoryFinder.releaseFactories();
+        setFactories();
+        setUpJSFObjects();
+        renderKit.setResponseStateManager(stateHolder);
+        startRequest();
+        facesContext.getViewRoot().setViewId(VIEW_ID);
+    }
+
+    @Override
+    protected void setFactories()
+    {
+        super.setFactories();
+        FactoryFinder.setFactory(FactoryFinder.VIEW_DECLARATION_LANGUAGE_FACTORY,
+                BenchmarkViewDeclarationLanguageFactory.class.getName());
+    }
+
+    public MockFacesContext getFacesContext()
+    {
+        return facesContext;
+    }
+
+    /**
+     * The state returned by {@link ResponseStateManager#getState(FacesContext, String)} on restore.
+     */
+    public void setState(Object state)
+    {
+        stateHolder.state = state;
+    }
+
+    /**
+     * Replaces the view with a newly built one, marked for partial state saving.
+     */
+    public UIViewRoot buildView()
+    {
+        UIViewRoot view = new UIViewRoot();
+        view.setViewId(VIEW_ID);
+        view.setRenderKitId(facesContext.getViewRoot().getRenderKitId());
+        view.setLocale(facesContext.getViewRoot().getLocale());
+        view.setId(view.createUniqueId(facesContext, null));
+        ComponentTrees.build(view, inputs);
+        ComponentTrees.markInitialState(view);
+        addRenderers(view);
+        facesContext.setViewRoot(view);
+        return view;
+    }
+
+    /**
+     * The mock render kit has no renderers, every lookup of a missing one would be logged.
+     */
+    private void addRenderers(UIComponent component)
+    {
+        if (component.getRendererType() != null
+                && renderKit.getRenderer(component.getFamily(), component.getRendererType()) == null)
+        {
+            renderKit.addRenderer(component.getFamily(), component.getRendererType(), new Renderer()
+            {
+            });
+        }
+        component.getFacetsAndChildren().forEachRemaining(this::addRenderers);
+    }
+
+    public static class BenchmarkViewDeclarationLanguageFactory extends ViewDeclarationLanguageFactory
+    {
+        private final ViewDeclarationLanguage vdl = new BenchmarkViewDeclarationLanguage();
+
+        public BenchmarkViewDeclarationLanguageFactory()
+        {
+            super(null);
+        }
+
+        @Override
+        public ViewDeclarationLanguage getViewDeclarationLanguage(String viewId)
+        {
+            return vdl;
+        }
+
+        @Override
+        public List<ViewDeclarationLanguage> getAllViewDeclarationLanguages()
+        {
+            return Collections.singletonList(vdl);
+        }
+    }
+
+    private static class BenchmarkViewDeclarationLanguage extends ViewDeclarationLanguage
+    {
+        @Override
+        public void buildView(FacesContext context, UIViewRoot root) throws IOException
+        {
+            if (root.getChildCount() == 0)
+            {
+                Integer inputs = (Integer) context.getExternalContext().getApplicationMap().get(INPUTS_ATTR);
+                ComponentTrees.build(root, inputs);
+                ComponentTrees.markInitialState(root);
+            }
+        }
+
+        @Override
+        public UIViewRoot createView(FacesContext context, String viewId)
+        {
+            return context.getApplication().getViewHandler().createView(context, viewId);
+        }
+
+        @Override
+        public ViewMetadata getViewMetadata(FacesContext context, String viewId)
+        {
+            return null;
+        }
+
+        @Override
+        public BeanInfo getComponentMetadata(FacesContext context, Resource componentResource)
+        {
+            // the views have no composite components
+            return null;
+        }
+
+        @Override
+        public Resource getScriptComponentResource(FacesContext context, Resource componentResource)
+        {
+            return null;
+        }
+
+        @Override
+        public void renderView(FacesContext context, UIViewRoot view) throws IOException
+        {
+            if (view.isRendered())
+            {
+                view.encodeAll(context);
+            }
+        }
+
+        @Override
+        public UIViewRoot restoreView(FacesContext context, String viewId)
+        {
+            String renderKitId = context.getApplication().getViewHandler().calculateRenderKitId(context);
+            return getStateManagementStrategy(context, viewId).restoreView(context, viewId, renderKitId);
+        }
+
+        @Override
+        public StateManagementStrategy getStateManagementStrategy(FacesContext context, String viewId)
+        {
+            return new PartialStateManagementStrategy(context);
+        }
+    }
+
+    private static class StateHolder extends ResponseStateManager
+    {
+        private Object state;
+
+        @Override
+        public Object getState(FacesContext context, String viewId)
+        {
+            return state;
+        }
+
+        @Override
+        public boolean isPostback(FacesContext context)
+        {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.faces.component.UIColumn;
+import jakarta.faces.component.UIComponent;
+import jakarta.faces.component.UIInput;
+import jakarta.faces.component.UIViewRoot;
+import jakarta.faces.component.html.HtmlDataTable;
+import jakarta.faces.component.html.HtmlForm;
+import jakarta.faces.component.html.HtmlInputText;
+import jakarta.faces.component.html.HtmlMessage;
+import jakarta.faces.component.html.HtmlOutputLabel;
+import jakarta.faces.component.html.HtmlOutputText;
+import jakarta.faces.component.html.HtmlPanelGroup;
+import jakarta.faces.convert.NumberConverter;
+import jakarta.faces.validator.LengthValidator;
+
+/**
+ * Builds a representative form: labelled inputs with converters, validators and messages, followed by
+ * a data table.
+ */
+public final class ComponentTrees
+{
+    private ComponentTrees()
+    {
+    }
+
+    /**
+     * Adds the components to the given view.
+     *
+     * @param inputs number of input fields
+     */
+    public static void build(UIViewRoot view, int inputs)
+    {
+        HtmlForm form = new HtmlForm();
+        form.setId("form");
+        view.getChildren().add(form);
+
+        for (int i = 0; i < inputs; i++)
+        {
+            HtmlPanelGroup group = new HtmlPanelGroup();
+            group.setId("group" + i);
+            group.setLayout("block");
+            group.setStyleClass("field");
+            form.getChildren().add(group);
+
+            HtmlOutputLabel label = new HtmlOutputLabel();
+            label.setId("label" + i);
+            label.setFor("input" + i);
+            label.setValue("Field " + i);
+            group.getChildren().add(label);
+
+            HtmlInputText input = new HtmlInputText();
+            input.setId("input" + i);
+            input.setMaxlength(20);
+            input.setRequired(i % 2 == 0);
+            if (i % 3 == 0)
+            {
+                input.setConverter(new NumberConverter());
+            }
+            input.addValidator(new LengthValidator(20, 1));
+            group.getChildren().add(input);
+
+            HtmlMessage message = new HtmlMessage();
+            message.setId("message" + i);
+            message.setFor("input" + i);
+            group.getChildren().add(message);
+        }
+
+        List<String> rows = new ArrayList<>();
+        for (int i = 0; i < 20; i++)
+        {
+            rows.add("row" + i);
+        }
+        HtmlDataTable table = new HtmlDataTable();
+        table.setId("table");
+        table.setVar("row");
+        table.setValue(rows);
+        form.getChildren().add(table);
+        for (int i = 0; i < 3; i++)
+        {
+            UIColumn column = new UIColumn();
+            column.setId("column" + i);
+            HtmlOutputText text = new HtmlOutputText();
+            text.setId("text" + i);
+            text.setValue("cell " + i);
+            column.getChildren().add(text);
+            table.getChildren().add(column);
+        }
+    }
+
+    /**
+     * Marks the initial state of every component, as done by the view declaration language after
+     * the view has been built with partial state saving.
+     */
+    public static void markInitialState(UIComponent component)
+    {
+        component.markInitialState();
+        component.getFacetsAndChildren().forEachRemaining(ComponentTrees::markInitialState);
+    }
+
+    /**
+     * Changes the inputs the way a postback does, so the partial state has some content.
+     */
+    public static void simulatePostback(UIComponent component)
+    {
+        if (component instanceof UIInput input)
+        {
+            input.setSubmittedValue("submitted " + input.getId());
+            input.setValid(!input.getId().endsWith("0"));
+        }
+        component.getFacetsAndChildren().forEachRemaining(ComponentTrees::simulatePostback);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.myfaces.util.lang.ConcurrentClockCache;
+import org.apache.myfaces.util.lang.ConcurrentLRUCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookups with a put on every miss, as done by the resource and view id caches, comparing
+ * {@link ConcurrentLRUCache} with {@link ConcurrentClockCache}. The keys are skewed towards the low
+ * numbers and there are more of them than fit into the cache, so evictions happen all the time.
+ * The sample time mode shows the latency spikes of the caller running the eviction.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ConcurrentCacheBenchmark
+{
+    @Param({"lru", "clock"})
+    private String implementation;
+
+    @Param({"500"})
+    private int size;
+
+    @Param({"2000"})
+    private int keys;
+
+    private Cache cache;
+    private String[] keyNames;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        int upperWaterMark = (size * 4 + 3) / 3;
+        if ("lru".equals(implementation))
+        {
+            ConcurrentLRUCache<String, Object> lru = new ConcurrentLRUCache<>(upperWaterMark, size);
+            cache = new Cache()
+            {
+                @Override
+                public Object get(String key)
+                {
+                    return lru.get(key);
+                }
+
+                @Override
+                public void put(String key, Object value)
+                {
+                    lru.put(key, value);
+                }
+            };
+        }
+        else
+        {
+            ConcurrentClockCache<String, Object> clock = new ConcurrentClockCache<>(upperWaterMark, size);
+            cache = new Cache()
+            {
+                @Override
+                public Object get(String key)
+                {
+                    return clock.get(key);
+                }
+
+                @Override
+                public void put(String key, Object value)
+                {
+                    clock.put(key, value);
+                }
+            };
+        }
+
+        keyNames = new String[keys];
+        for (int i = 0; i < keys; i++)
+        {
+            keyNames[i] = "/resources/lib/script" + i + ".js";
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        cache = null;
+    }
+
+    @Benchmark
+    public Object getOrPut()
+    {
+        // the square of an uniform random number makes the low keys hot
+        double random = ThreadLocalRandom.current().nextDouble();
+        String key = keyNames[(int) (random * random * keys)];
+        Object value = cache.get(key);
+        if (value == null)
+        {
+            value = key;
+            cache.put(key, value);
+        }
+        return value;
+    }
+
+    private interface Cache
+    {
+        Object get(String key);
+
+        void put(String key, Object value);
+    }
+}
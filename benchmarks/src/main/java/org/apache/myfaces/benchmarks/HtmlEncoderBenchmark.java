@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.myfaces.renderkit.html.util.HTMLEncoder;
+import org.apache.myfaces.util.lang.FastWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encoding of typical attribute values, text and URIs with {@link HTMLEncoder}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HtmlEncoderBenchmark
+{
+    private static final String TEXT = "The quick brown fox jumps over the lazy dog, 42 times & then <b>more</b>.";
+    private static final String ATTRIBUTE = "ui-button ui-widget ui-state-default ui-corner-all";
+    private static final String URI = "/context/faces/page.xhtml?id=12345&name=some-value&other=x#top";
+
+    private final StringBuilder textBuilder = new StringBuilder(TEXT);
+    private final char[] textChars = TEXT.toCharArray();
+    private final FastWriter writer = new FastWriter(1024);
+
+    @Benchmark
+    public FastWriter text() throws IOException
+    {
+        writer.reset();
+        HTMLEncoder.encode(writer, TEXT, false, false, false);
+        return writer;
+    }
+
+    @Benchmark
+    public FastWriter textCharSequence() throws IOException
+    {
+        writer.reset();
+        HTMLEncoder.encode(writer, textBuilder, false, false, false);
+        return writer;
+    }
+
+    @Benchmark
+    public FastWriter textCharArray() throws IOException
+    {
+        writer.reset();
+        HTMLEncoder.encode(textChars, 0, textChars.length, true, true, false, writer);
+        return writer;
+    }
+
+    @Benchmark
+    public FastWriter attribute() throws IOException
+    {
+        writer.reset();
+        HTMLEncoder.encode(writer, ATTRIBUTE, false, false, false);
+        return writer;
+    }
+
+    @Benchmark
+    public FastWriter uri() throws IOException
+    {
+        writer.reset();
+        HTMLEncoder.encodeURIAttribute(writer, URI, "UTF-8");
+        return writer;
+    }
+}
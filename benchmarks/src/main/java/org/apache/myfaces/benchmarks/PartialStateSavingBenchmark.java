@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.faces.component.UIViewRoot;
+import jakarta.faces.render.RenderKitFactory;
+
+import org.apache.myfaces.application.StateManagerImpl;
+import org.apache.myfaces.view.facelets.PartialStateManagementStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Saving and restoring a view with {@link PartialStateManagementStrategy}, which walks the component
+ * tree and collects the delta state of every component.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PartialStateSavingBenchmark
+{
+    @Param({"10", "100"})
+    private int inputs;
+
+    private BenchmarkContainer container;
+    private PartialStateManagementStrategy strategy;
+    private UIViewRoot view;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        container = new BenchmarkContainer(inputs);
+        container.setUp(Collections.emptyMap());
+        strategy = new PartialStateManagementStrategy(container.getFacesContext());
+
+        view = container.buildView();
+        ComponentTrees.simulatePostback(view);
+        container.setState(strategy.saveView(container.getFacesContext()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        container.tearDownAll();
+        container.tearDown();
+    }
+
+    @Benchmark
+    public Object saveView()
+    {
+        container.getFacesContext().setViewRoot(view);
+        // the state is cached per request
+        container.getFacesContext().getAttributes().remove(StateManagerImpl.SERIALIZED_VIEW_REQUEST_ATTR);
+        return strategy.saveView(container.getFacesContext());
+    }
+
+    @Benchmark
+    public UIViewRoot restoreView()
+    {
+        return strategy.restoreView(container.getFacesContext(), BenchmarkContainer.VIEW_ID,
+                RenderKitFactory.HTML_BASIC_RENDER_KIT);
+    }
+}
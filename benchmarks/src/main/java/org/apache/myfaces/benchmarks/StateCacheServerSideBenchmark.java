@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.faces.application.StateManager;
+
+import org.apache.myfaces.application.viewstate.StateCache;
+import org.apache.myfaces.application.viewstate.StateCacheProviderImpl;
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.view.facelets.PartialStateManagementStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Storing the serialized view state in session and restoring it, through the server side
+ * {@link StateCache}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StateCacheServerSideBenchmark
+{
+    @Param({"true", "false"})
+    private String compress;
+
+    @Param({"50"})
+    private int inputs;
+
+    private BenchmarkContainer container;
+    private StateCache<Object, Object> stateCache;
+    private Object state;
+    private Object viewState;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp()
+    {
+        container = new BenchmarkContainer(inputs);
+        container.setUp(Map.of(StateManager.SERIALIZE_SERVER_STATE_PARAM_NAME, "true",
+                MyfacesConfig.COMPRESS_STATE_IN_SESSION, compress));
+        stateCache = new StateCacheProviderImpl().getStateCache(container.getFacesContext());
+
+        ComponentTrees.simulatePostback(container.buildView());
+        state = new PartialStateManagementStrategy(container.getFacesContext())
+                .saveView(container.getFacesContext());
+        viewState = stateCache.saveSerializedView(container.getFacesContext(), state);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        container.tearDownAll();
+        container.tearDown();
+    }
+
+    @Benchmark
+    public Object saveSerializedView()
+    {
+        return stateCache.saveSerializedView(container.getFacesContext(), state);
+    }
+
+    @Benchmark
+    public Object restoreSerializedView()
+    {
+        // the restored state is cached per request
+        container.getFacesContext().getAttributes().clear();
+        return stateCache.restoreSerializedView(container.getFacesContext(), BenchmarkContainer.VIEW_ID,
+                viewState);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.myfaces.renderkit.html.HtmlResponseWriterImpl;
+import org.apache.myfaces.util.lang.Utf8Writer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Rendering of a large page, mostly literal markup as produced by the Facelets compiler with some dynamic
+ * values in between: through a char Writer encoding to UTF-8 like the servlet container does, compared with
+ * a {@link Utf8Writer} taking the pre-encoded bytes of the literal markup.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Utf8ResponseWriterBenchmark
+{
+    private static final String ROW_START = "\n    <tr class=\"row\">\n      <td class=\"name\">";
+    private static final String ROW_MIDDLE = "</td>\n      <td class=\"value\"><span title=\"Wert in Euro\">";
+    private static final String ROW_END = "</span></td>\n    </tr>";
+    private static final String LABEL = "Überweisung an Müller & Söhne";
+
+    @Param({"1000"})
+    private int rows;
+
+    private final byte[] rowStart = Utf8Writer.encode(ROW_START);
+    private final byte[] rowMiddle = Utf8Writer.encode(ROW_MIDDLE);
+    private final byte[] rowEnd = Utf8Writer.encode(ROW_END);
+    private final byte[] label = Utf8Writer.encode("Überweisung an Müller &amp; Söhne");
+
+    private OutputStream out;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        out = new OutputStream()
+        {
+            @Override
+            public void write(int b)
+            {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len)
+            {
+            }
+        };
+    }
+
+    @Benchmark
+    public void charWriter(Blackhole blackhole) throws IOException
+    {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        HtmlResponseWriterImpl rw = new HtmlResponseWriterImpl(writer, "text/html", "UTF-8", false);
+        rw.startElement("table", null);
+        for (int i = 0; i < rows; i++)
+        {
+            rw.write(ROW_START);
+            rw.writeText(LABEL, null);
+            rw.write(ROW_MIDDLE);
+            rw.writeText(i * 1.5, null);
+            rw.write(ROW_END);
+        }
+        rw.endElement("table");
+        writer.flush();
+        blackhole.consume(rw);
+    }
+
+    @Benchmark
+    public void utf8Writer(Blackhole blackhole) throws IOException
+    {
+        Utf8Writer writer = new Utf8Writer(out);
+        HtmlResponseWriterImpl rw = new HtmlResponseWriterImpl(writer, "text/html", "UTF-8", false);
+        rw.startElement("table", null);
+        for (int i = 0; i < rows; i++)
+        {
+            rw.writeUtf8(ROW_START, rowStart);
+            rw.writeTextUtf8(LABEL, label);
+            rw.writeUtf8(ROW_MIDDLE, rowMiddle);
+            rw.writeText(i * 1.5, null);
+            rw.writeUtf8(ROW_END, rowEnd);
+        }
+        rw.endElement("table");
+        writer.flush();
+        blackhole.consume(rw);
+    }
+}
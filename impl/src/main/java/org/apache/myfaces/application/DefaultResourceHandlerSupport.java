@@ -30,6 +30,7 @@
 import org.apache.myfaces.resource.FacesFlowClassLoaderResourceLoader;
 import org.apache.myfaces.resource.FacesJSResourceLoader;
 import org.apache.myfaces.resource.InternalClassLoaderResourceLoader;
+import org.apache.myfaces.resource.ResourceIndex;
 import org.apache.myfaces.resource.ResourceLoader;
 import org.apache.myfaces.resource.RootExternalContextResourceLoader;
 import org.apache.myfaces.resource.TempDirFileCacheContractResourceLoader;
@@ -94,6 +95,8 @@ public ResourceLoader[] getResourceLoaders()
                                 new ClassLoaderResourceLoader(META_INF_RESOURCES))
                 };
             }
+            // the internal resources are few and looked up by an own class loader
+            ResourceIndex.attach(facesContext, _resourceLoaders[0], _resourceLoaders[1], _resourceLoaders[3]);
         }
         return _resourceLoaders;
     }
@@ -131,6 +134,7 @@ public ContractResourceLoader[] getContractResourceLoaders()
                     new ClassLoaderContractResourceLoader(META_INF_CONTRACTS)
                 };
             }
+            ResourceIndex.attach(facesContext, _contractResourceLoaders);
         }
         return _contractResourceLoaders;
     }
@@ -39,8 +39,14 @@
 import org.apache.myfaces.renderkit.html.util.ResourceUtils;
 import org.apache.myfaces.resource.ContractResource;
 import org.apache.myfaces.resource.ContractResourceLoader;
+import org.apache.myfaces.resource.PrecompressedResourceCache;
+import org.apache.myfaces.resource.ResourceBodyCache;
+import org.apache.myfaces.resource.ResourceBundler;
 import org.apache.myfaces.resource.ResourceCachedInfo;
+import org.apache.myfaces.resource.ResourceFileTransfer;
+import org.apache.myfaces.resource.ResourceFingerprints;
 import org.apache.myfaces.resource.ResourceHandlerCache;
+import org.apache.myfaces.resource.ResourceHandlerCache.ResourceKey;
 import org.apache.myfaces.resource.ResourceHandlerCache.ResourceValue;
 import org.apache.myfaces.resource.ResourceHandlerSupport;
 import org.apache.myfaces.resource.ResourceImpl;
@@ -53,11 +59,14 @@
 import org.apache.myfaces.util.lang.SkipMatchIterator;
 import org.apache.myfaces.util.lang.StringUtils;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.annotation.Annotation;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -101,6 +110,8 @@ public class ResourceHandlerImpl extends ResourceHandler
     
     private ResourceHandlerSupport _resourceHandlerSupport;
     private ResourceHandlerCache _resourceHandlerCache;
+    private ResourceBodyCache _resourceBodyCache;
+    private PrecompressedResourceCache _precompressedResourceCache;
     private Boolean _allowSlashLibraryName;
     private int _resourceBufferSize = -1;
     private String[] _excludedResourceExtensions;
@@ -551,7 +562,16 @@ libraryName, isAllowSlashesLibraryName()))
         }
 
         Resource resource = null;
-        if (libraryName != null)
+        if (ResourceBundler.LIBRARY_NAME.equals(libraryName))
+        {
+            if (MyfacesConfig.getCurrentInstance(facesContext).isResourceBundlingEnabled())
+            {
+                resource = ResourceBundler.getInstance(facesContext).getBundle(facesContext, resourceName,
+                        extContext.getRequestParameterMap().get(ResourceBundler.MEMBERS_PARAM),
+                        name -> isResourceIdentifierExcluded(facesContext, name));
+            }
+        }
+        else if (libraryName != null)
         {
             resource = facesContext.getApplication().getResourceHandler().createResource(resourceName, libraryName);
         }
@@ -572,7 +592,8 @@ libraryName, isAllowSlashesLibraryName()))
             return;
         }
 
-        httpServletResponse.setContentType(_getContentType(resource, facesContext.getExternalContext()));
+        String contentType = _getContentType(resource, facesContext.getExternalContext());
+        httpServletResponse.setContentType(contentType);
 
         Map<String, String> headers = resource.getResponseHeaders();
 
@@ -584,16 +605,52 @@ libraryName, isAllowSlashesLibraryName()))
         // Sets the preferred buffer size for the body of the response
         extContext.setResponseBufferSize(this.getResourceBufferSize());
 
+        ResourceBodyCache bodyCache = getResourceBodyCache();
+        ResourceKey bodyKey = bodyCache.getKey(resource);
+
         //serve up the bytes (taken from trinidad ResourceServlet)
         try
         {
+            File gzipVariant = getGzipVariant(facesContext, httpServletResponse, resource, contentType);
+            if (gzipVariant != null)
+            {
+                httpServletResponse.setHeader("Content-Encoding", PrecompressedResourceCache.GZIP);
+                String eTag = headers.get("ETag");
+                if (eTag != null)
+                {
+                    httpServletResponse.setHeader("ETag", ResourceFingerprints.toGzipETag(eTag));
+                }
+                ResourceFileTransfer.send(extContext, httpServletResponse, gzipVariant, 0, gzipVariant.length());
+                return;
+            }
+
+            File file = ResourceFileTransfer.getFile(resource);
+            if (file != null)
+            {
+                sendFile(extContext, httpServletResponse, file, headers);
+                return;
+            }
+
+            ByteBuffer body = bodyKey == null ? null : bodyCache.get(bodyKey);
+            if (body != null)
+            {
+                httpServletResponse.setContentLength(body.remaining());
+                try (OutputStream out = httpServletResponse.getOutputStream())
+                {
+                    ResourceBodyCache.write(body, out, new byte[this.getResourceBufferSize()]);
+                }
+                return;
+            }
+
             InputStream in = resource.getInputStream();
             OutputStream out = httpServletResponse.getOutputStream();
             byte[] buffer = new byte[this.getResourceBufferSize()];
 
             try
             {
-                int count = pipeBytes(in, out, buffer);
+                int count = bodyKey == null
+                        ? pipeBytes(in, out, buffer)
+                        : pipeBytes(in, out, buffer, bodyCache, bodyKey);
                 //set the content length
                 if (!httpServletResponse.isCommitted())
                 {
@@ -635,6 +692,68 @@ libraryName, isAllowSlashesLibraryName()))
         }
     }
 
+    /**
+     * Sends a resource backed by a file, honoring a single byte Range of the request.
+     */
+    private static void sendFile(ExternalContext extContext, HttpServletResponse httpServletResponse, File file,
+            Map<String, String> headers) throws IOException
+    {
+        long length = file.length();
+        long start = 0;
+        long count = length;
+
+        httpServletResponse.setHeader("Accept-Ranges", "bytes");
+        Map<String, String> requestHeaders = extContext.getRequestHeaderMap();
+        String range = requestHeaders.get("Range");
+        if (range != null && ResourceFileTransfer.isIfRangeSatisfied(requestHeaders.get("If-Range"), headers))
+        {
+            long[] bytes = ResourceFileTransfer.parseRange(range, length);
+            if (bytes == ResourceFileTransfer.UNSATISFIABLE)
+            {
+                httpServletResponse.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                httpServletResponse.setHeader("Content-Range", "bytes */" + length);
+                return;
+            }
+            if (bytes != null)
+            {
+                start = bytes[0];
+                count = bytes[1] - bytes[0] + 1;
+                httpServletResponse.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                httpServletResponse.setHeader("Content-Range", "bytes " + bytes[0] + '-' + bytes[1] + '/' + length);
+            }
+        }
+
+        ResourceFileTransfer.send(extContext, httpServletResponse, file, start, count);
+    }
+
+    /**
+     * Returns the precompressed variant of the resource if the client accepts it. Adds the Vary header
+     * for all resources which could be sent compressed, so caches keep both variants apart.
+     */
+    private File getGzipVariant(FacesContext facesContext, HttpServletResponse httpServletResponse,
+            Resource resource, String contentType)
+    {
+        PrecompressedResourceCache precompressedCache = getPrecompressedResourceCache();
+        if (!precompressedCache.isEnabled() || !precompressedCache.isCompressible(contentType))
+        {
+            return null;
+        }
+
+        ResourceKey key = ResourceBodyCache.createKey(resource);
+        if (key == null)
+        {
+            return null;
+        }
+
+        httpServletResponse.addHeader("Vary", "Accept-Encoding");
+        String acceptEncoding = facesContext.getExternalContext().getRequestHeaderMap().get("Accept-Encoding");
+        if (!PrecompressedResourceCache.acceptsGzip(acceptEncoding))
+        {
+            return null;
+        }
+        return precompressedCache.getGzipVariant(key, resource);
+    }
+
     private static boolean isConnectionAbort(Exception e)
     {
         String exceptionName = e.getClass().getCanonicalName();
@@ -679,6 +798,47 @@ private static int pipeBytes(InputStream in, OutputStream out, byte[] buffer) th
         return count;
     }
 
+    /**
+     * Same as {@link #pipeBytes(InputStream, OutputStream, byte[])}, but also keeps a copy of the bytes
+     * and stores it in the body cache, as long as the resource is not bigger than the cache allows.
+     */
+    private static int pipeBytes(InputStream in, OutputStream out, byte[] buffer,
+            ResourceBodyCache bodyCache, ResourceKey bodyKey) throws IOException
+    {
+        int maxEntrySize = bodyCache.getMaxEntrySize();
+        byte[] body = new byte[Math.min(buffer.length, maxEntrySize)];
+        int count = 0;
+        int length;
+
+        while ((length = (in.read(buffer))) >= 0)
+        {
+            out.write(buffer, 0, length);
+            if (body != null)
+            {
+                if (count + length > maxEntrySize)
+                {
+                    body = null;
+                }
+                else
+                {
+                    if (count + length > body.length)
+                    {
+                        body = Arrays.copyOf(body, Math.min(Math.max(body.length * 2, count + length),
+                                maxEntrySize));
+                    }
+                    System.arraycopy(buffer, 0, body, count, length);
+                }
+            }
+            count += length;
+        }
+
+        if (body != null)
+        {
+            bodyCache.put(bodyKey, body, count);
+        }
+        return count;
+    }
+
     @Override
     public boolean isResourceRequest(FacesContext facesContext)
     {
@@ -937,6 +1097,24 @@ protected ResourceHandlerCache getResourceHandlerCache()
         return _resourceHandlerCache;
     }
 
+    protected ResourceBodyCache getResourceBodyCache()
+    {
+        if (_resourceBodyCache == null)
+        {
+            _resourceBodyCache = new ResourceBodyCache();
+        }
+        return _resourceBodyCache;
+    }
+
+    protected PrecompressedResourceCache getPrecompressedResourceCache()
+    {
+        if (_precompressedResourceCache == null)
+        {
+            _precompressedResourceCache = new PrecompressedResourceCache();
+        }
+        return _precompressedResourceCache;
+    }
+
     protected String _getContentType(Resource resource, ExternalContext externalContext)
     {
         String contentType = resource.getContentType();
@@ -30,7 +30,7 @@
 import org.apache.myfaces.util.ExternalContextUtils;
 import org.apache.myfaces.util.ExternalSpecifications;
 import org.apache.myfaces.util.UrlPatternMatcher;
-import org.apache.myfaces.util.lang.ConcurrentLRUCache;
+import org.apache.myfaces.util.lang.ConcurrentClockCache;
 import org.apache.myfaces.util.lang.StringUtils;
 
 import jakarta.enterprise.inject.spi.BeanManager;
@@ -60,9 +60,9 @@
     
     private MyfacesConfig config;
     
-    private volatile ConcurrentLRUCache<String, Boolean> viewIdExistsCache;
-    private volatile ConcurrentLRUCache<String, String> viewIdDeriveCache;
-    private volatile ConcurrentLRUCache<String, Boolean> viewIdProtectedCache;
+    private volatile ConcurrentClockCache<String, Boolean> viewIdExistsCache;
+    private volatile ConcurrentClockCache<String, String> viewIdDeriveCache;
+    private volatile ConcurrentClockCache<String, Boolean> viewIdProtectedCache;
 
     public static ViewIdSupport getInstance(FacesContext facesContext)
     {
@@ -84,15 +84,15 @@ protected ViewIdSupport(FacesContext facesContext)
         int viewIdCacheSize = config.getViewIdCacheSize();
         if (config.isViewIdExistsCacheEnabled())
         {
-            viewIdExistsCache = new ConcurrentLRUCache<>((viewIdCacheSize * 4 + 3) / 3, viewIdCacheSize);
+            viewIdExistsCache = new ConcurrentClockCache<>((viewIdCacheSize * 4 + 3) / 3, viewIdCacheSize);
         }
         if (config.isViewIdDeriveCacheEnabled())
         {
-            viewIdDeriveCache = new ConcurrentLRUCache<>((viewIdCacheSize * 4 + 3) / 3, viewIdCacheSize);
+            viewIdDeriveCache = new ConcurrentClockCache<>((viewIdCacheSize * 4 + 3) / 3, viewIdCacheSize);
         }
         if (config.isViewIdProtectedCacheEnabled())
         {
-            viewIdProtectedCache = new ConcurrentLRUCache<>((viewIdCacheSize * 4 + 3) / 3, viewIdCacheSize);
+            viewIdProtectedCache = new ConcurrentClockCache<>((viewIdCacheSize * 4 + 3) / 3, viewIdCacheSize);
         }
     }
 
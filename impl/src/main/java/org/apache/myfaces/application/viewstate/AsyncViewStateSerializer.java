@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serializes the views saved in session on a background executor, so the request thread does not
+ * wait for the serialization and compression of the state.
+ *
+ * <p>Virtual threads are used if the JVM supports them, otherwise a small pool of daemon threads.
+ * The number of views waiting for the serialization is bounded, {@link #reserve()} returns null
+ * if the limit is reached and the caller must serialize on its own thread.</p>
+ */
+class AsyncViewStateSerializer
+{
+    private static final Logger log = Logger.getLogger(AsyncViewStateSerializer.class.getName());
+
+    private static final String THREAD_NAME = "myfaces-viewstate-serializer";
+    private static final long SHUTDOWN_TIMEOUT = 10;
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    AsyncViewStateSerializer(int maxPending)
+    {
+        this.executor = createExecutor();
+        this.permits = new Semaphore(Math.max(1, maxPending));
+    }
+
+    private static ExecutorService createExecutor()
+    {
+        try
+        {
+            Method method = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        }
+        catch (ReflectiveOperationException | RuntimeException e)
+        {
+            // no virtual threads available
+        }
+
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), (runnable) ->
+                {
+                    Thread thread = new Thread(runnable, THREAD_NAME + "-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Stops the executor. Views still waiting are serialized before, views submitted afterwards are
+     * serialized on the calling thread.
+     */
+    void shutdown()
+    {
+        executor.shutdown();
+        try
+        {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS))
+            {
+                executor.shutdownNow();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return a pending state to put into the view collection, or null if too many views are waiting
+     *     for the serialization
+     */
+    PendingState reserve()
+    {
+        return permits.tryAcquire() ? new PendingState() : null;
+    }
+
+    /**
+     * Serializes the view in the background. Once done the state is stored in the collection, in
+     * place of the pending state, and threads waiting for the pending state are released.
+     */
+    void submit(SerializedViewCollection collection, SerializedViewKey key, PendingState pending,
+            Supplier<Object> serialization)
+    {
+        Runnable task = () ->
+        {
+            Object state = null;
+            try
+            {
+                state = serialization.get();
+                collection.completePending(key, pending, state);
+            }
+            catch (RuntimeException e)
+            {
+                log.log(Level.SEVERE, "Could not serialize state: " + e.getMessage(), e);
+                collection.completePending(key, pending, null);
+            }
+            finally
+            {
+                pending.complete(state);
+                permits.release();
+            }
+        };
+
+        try
+        {
+            executor.execute(task);
+        }
+        catch (RejectedExecutionException e)
+        {
+            task.run();
+        }
+    }
+
+    /**
+     * Placeholder for a view which is still being serialized. If the session is serialized in
+     * between, the serialized state is written instead.
+     */
+    static final class PendingState implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final transient CountDownLatch latch = new CountDownLatch(1);
+        private transient volatile Object state;
+
+        private void complete(Object state)
+        {
+            this.state = state;
+            latch.countDown();
+        }
+
+        /**
+         * Waits until the view is serialized.
+         *
+         * @return the serialized state or null if the serialization failed or the thread was interrupted
+         */
+        Object await()
+        {
+            try
+            {
+                latch.await();
+                return state;
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        boolean isDone()
+        {
+            return latch.getCount() == 0;
+        }
+
+        private Object writeReplace() throws ObjectStreamException
+        {
+            Object value = await();
+            return value == null ? new Object[]{null, null} : value;
+        }
+    }
+}
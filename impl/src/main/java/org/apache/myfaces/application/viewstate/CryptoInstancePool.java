@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+import java.security.GeneralSecurityException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps Cipher and Mac instances for reuse, so the provider lookup done by getInstance is not repeated on
+ * every request. The instances are pooled per algorithm and not per thread, so it also works with virtual
+ * threads. A pooled instance must be initialized again after {@link #acquire(String)}.
+ */
+class CryptoInstancePool<T>
+{
+    @FunctionalInterface
+    interface Factory<T>
+    {
+        T create(String algorithm) throws GeneralSecurityException;
+    }
+
+    private final Map<String, BlockingQueue<T>> pools = new ConcurrentHashMap<>();
+    private final Factory<T> factory;
+    private final int capacity;
+
+    CryptoInstancePool(Factory<T> factory, int capacity)
+    {
+        this.factory = factory;
+        this.capacity = capacity;
+    }
+
+    T acquire(String algorithm) throws GeneralSecurityException
+    {
+        BlockingQueue<T> pool = pools.get(algorithm);
+        T instance = pool == null ? null : pool.poll();
+        return instance == null ? factory.create(algorithm) : instance;
+    }
+
+    /**
+     * Returns the instance to the pool. If the pool for the algorithm is full, the instance is discarded.
+     */
+    void release(String algorithm, T instance)
+    {
+        if (instance != null)
+        {
+            pools.computeIfAbsent(algorithm, k -> new ArrayBlockingQueue<>(capacity)).offer(instance);
+        }
+    }
+}
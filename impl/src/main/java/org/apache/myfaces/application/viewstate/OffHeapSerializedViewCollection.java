@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+/**
+ * SerializedViewCollection that keeps the serialized views in an {@link OffHeapViewStateStore}. The
+ * session only holds the keys and the id of every stored view.
+ *
+ * <p>The store is not part of the session, so after the session has been passivated or
+ * replicated to another node the views are gone and a ViewExpiredException is thrown on the next
+ * postback.</p>
+ */
+class OffHeapSerializedViewCollection extends SerializedViewCollection
+{
+    private static final long serialVersionUID = 3257912541395874613L;
+
+    private final transient OffHeapViewStateStore store;
+
+    OffHeapSerializedViewCollection(OffHeapViewStateStore store)
+    {
+        this.store = store;
+    }
+
+    @Override
+    protected Object storeState(Object state)
+    {
+        if (state instanceof byte[] bytes && store != null)
+        {
+            Long id = store.put(bytes);
+            if (id != null)
+            {
+                return id;
+            }
+        }
+        return state;
+    }
+
+    @Override
+    public Object get(SerializedViewKey key)
+    {
+        Object state = super.get(key);
+        if (state instanceof Long id)
+        {
+            return store == null ? null : store.get(id);
+        }
+        return state;
+    }
+
+    @Override
+    protected void stateRemoved(SerializedViewKey key, Object state)
+    {
+        if (state instanceof Long id && store != null)
+        {
+            store.remove(id);
+        }
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Application wide store for serialized views, kept outside of the java heap.
+ *
+ * <p>The memory is split into fixed size blocks (a slab), either allocated as direct buffers or mapped
+ * from a file. A stored view takes as many blocks as needed, so there is no fragmentation and no
+ * compaction. When the store is full the least recently used views are evicted, and views not
+ * accessed for longer than the configured time to live are discarded.</p>
+ */
+class OffHeapViewStateStore
+{
+    private static final Logger log = Logger.getLogger(OffHeapViewStateStore.class.getName());
+
+    private static final int MAX_SEGMENT_SIZE = 1 << 30;
+
+    private final int blockSize;
+    private final int blocksPerSegment;
+    private final ByteBuffer[] segments;
+    private final int[] freeBlocks;
+    private int freeBlockCount;
+
+    private final long timeToLive;
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private long bytesHeld;
+
+    /**
+     * @param capacity total size in bytes
+     * @param blockSize size of a single block in bytes
+     * @param timeToLive time in milliseconds a view is kept after its last access, 0 or less means no limit
+     * @param directory if not null, the blocks are mapped from a temporary file in this directory
+     */
+    OffHeapViewStateStore(long capacity, int blockSize, long timeToLive, Path directory) throws IOException
+    {
+        if (blockSize <= 0 || capacity < blockSize)
+        {
+            throw new IllegalArgumentException("Invalid capacity " + capacity + " or block size " + blockSize);
+        }
+
+        this.blockSize = blockSize;
+        this.timeToLive = timeToLive;
+        this.blocksPerSegment = MAX_SEGMENT_SIZE / blockSize;
+
+        int blockCount = (int) Math.min(capacity / blockSize, Integer.MAX_VALUE);
+        int segmentCount = (blockCount + blocksPerSegment - 1) / blocksPerSegment;
+        this.segments = new ByteBuffer[segmentCount];
+
+        if (directory == null)
+        {
+            for (int i = 0; i < segmentCount; i++)
+            {
+                segments[i] = ByteBuffer.allocateDirect(segmentBlocks(i, blockCount) * blockSize);
+            }
+        }
+        else
+        {
+            Path file = Files.createTempFile(directory, "myfaces-viewstate", ".slab");
+            // The mapping stays valid after the channel is closed. The file is unlinked when the channel
+            // is closed below, its space is freed once the mapping is garbage collected.
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE))
+            {
+                long position = 0;
+                for (int i = 0; i < segmentCount; i++)
+                {
+                    int size = segmentBlocks(i, blockCount) * blockSize;
+                    segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+                    position += size;
+                }
+            }
+        }
+
+        this.freeBlocks = new int[blockCount];
+        for (int i = 0; i < blockCount; i++)
+        {
+            freeBlocks[i] = blockCount - 1 - i;
+        }
+        this.freeBlockCount = blockCount;
+
+        if (log.isLoggable(Level.INFO))
+        {
+            log.info("Off-heap view state store initialized with " + blockCount + " blocks of "
+                    + blockSize + " bytes"
+                    + (directory == null ? "" : " mapped from a file in " + directory.toAbsolutePath()));
+        }
+    }
+
+    private int segmentBlocks(int segment, int blockCount)
+    {
+        return Math.min(blocksPerSegment, blockCount - segment * blocksPerSegment);
+    }
+
+    /**
+     * Stores a copy of the given bytes.
+     *
+     * @return the id used to retrieve the bytes, or null if they do not fit into the store at all
+     */
+    public Long put(byte[] bytes)
+    {
+        int needed = Math.max(1, (bytes.length + blockSize - 1) / blockSize);
+        if (needed > freeBlocks.length)
+        {
+            return null;
+        }
+
+        lock.lock();
+        try
+        {
+            long now = System.currentTimeMillis();
+            removeExpired(now);
+
+            Iterator<Entry> it = entries.values().iterator();
+            while (freeBlockCount < needed && it.hasNext())
+            {
+                Entry eldest = it.next();
+                it.remove();
+                release(eldest);
+                evictions.incrementAndGet();
+            }
+
+            int[] blocks = new int[needed];
+            int offset = 0;
+            for (int i = 0; i < needed; i++)
+            {
+                int block = freeBlocks[--freeBlockCount];
+                blocks[i] = block;
+                int length = Math.min(blockSize, bytes.length - offset);
+                segments[block / blocksPerSegment].put((block % blocksPerSegment) * blockSize,
+                        bytes, offset, length);
+                offset += length;
+            }
+
+            Long id = nextId.incrementAndGet();
+            entries.put(id, new Entry(blocks, bytes.length, now));
+            bytesHeld += bytes.length;
+            return id;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return a copy of the stored bytes or null if the entry was evicted or has expired
+     */
+    public byte[] get(Long id)
+    {
+        lock.lock();
+        try
+        {
+            Entry entry = entries.get(id);
+            long now = System.currentTimeMillis();
+            if (entry != null && isExpired(entry, now))
+            {
+                entries.remove(id);
+                release(entry);
+                evictions.incrementAndGet();
+                entry = null;
+            }
+            if (entry == null)
+            {
+                misses.incrementAndGet();
+                return null;
+            }
+
+            entry.lastAccess = now;
+            byte[] bytes = new byte[entry.length];
+            int offset = 0;
+            for (int block : entry.blocks)
+            {
+                int length = Math.min(blockSize, entry.length - offset);
+                segments[block / blocksPerSegment].get((block % blocksPerSegment) * blockSize,
+                        bytes, offset, length);
+                offset += length;
+            }
+            hits.incrementAndGet();
+            return bytes;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    public void remove(Long id)
+    {
+        lock.lock();
+        try
+        {
+            Entry entry = entries.remove(id);
+            if (entry != null)
+            {
+                release(entry);
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private void removeExpired(long now)
+    {
+        if (timeToLive <= 0)
+        {
+            return;
+        }
+        // Access ordered, so the expired entries are always at the beginning
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext())
+        {
+            Entry entry = it.next();
+            if (!isExpired(entry, now))
+            {
+                break;
+            }
+            it.remove();
+            release(entry);
+            evictions.incrementAndGet();
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now)
+    {
+        return timeToLive > 0 && now - entry.lastAccess > timeToLive;
+    }
+
+    private void release(Entry entry)
+    {
+        for (int block : entry.blocks)
+        {
+            freeBlocks[freeBlockCount++] = block;
+        }
+        bytesHeld -= entry.length;
+    }
+
+    public long getBytesHeld()
+    {
+        lock.lock();
+        try
+        {
+            return bytesHeld;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    public int getEntryCount()
+    {
+        lock.lock();
+        try
+        {
+            return entries.size();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    public long getCapacity()
+    {
+        return (long) freeBlocks.length * blockSize;
+    }
+
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    public long getEvictions()
+    {
+        return evictions.get();
+    }
+
+    public double getHitRate()
+    {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    private static class Entry
+    {
+        private final int[] blocks;
+        private final int length;
+        private long lastAccess;
+
+        Entry(int[] blocks, int length, long lastAccess)
+        {
+            this.blocks = blocks;
+            this.length = length;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
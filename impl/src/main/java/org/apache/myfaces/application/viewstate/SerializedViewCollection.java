@@ -18,20 +18,37 @@
  */
 package org.apache.myfaces.application.viewstate;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import jakarta.faces.context.FacesContext;
 import java.util.function.Consumer;
 import org.apache.myfaces.cdi.view.ViewScopeContext;
 import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.spi.ViewStateMetrics;
 import org.apache.myfaces.util.lang.LRULinkedHashMap;
 
 /**
+ * Holds the views stored in session.
  *
+ * <p>Reading a view does not lock. Updates of the eviction order take a short lock, which is
+ * separated from the lock guarding the last key per client window. All operations on the eviction
+ * order are O(1), the view scope destroy callbacks are invoked after the lock is released.</p>
+ *
+ * <p>If enabled, a serialized view is stored as delta against the view it was restored from.
+ * Before a view is removed or replaced, the views stored as delta against it get their full state.</p>
+ *
+ * <p>A view serialized in the background is held as pending state until the serialization is done,
+ * reading it waits for the serialization.</p>
  */
 class SerializedViewCollection implements Serializable
 {
@@ -39,10 +56,13 @@ class SerializedViewCollection implements Serializable
 
     private static final Object[] EMPTY_STATES = new Object[]{null, null};
 
-    private static final long serialVersionUID = -3734849062185115847L;
+    private static final long serialVersionUID = -3734849062185115848L;
 
-    private final List<SerializedViewKey> _keys = new ArrayList<>(MyfacesConfig.NUMBER_OF_VIEWS_IN_SESSION_DEFAULT);
-    private final Map<SerializedViewKey, Object> _serializedViews = new HashMap<>();
+    /**
+     * The keys in eviction order, the oldest first.
+     */
+    private final LinkedHashSet<SerializedViewKey> _keys = new LinkedHashSet<>();
+    private final Map<SerializedViewKey, Object> _serializedViews = new ConcurrentHashMap<>();
 
     /**
      * The viewScopeIds can be shared between multiple entries of the same
@@ -58,182 +78,366 @@ class SerializedViewCollection implements Serializable
     private final Map<SerializedViewKey, SerializedViewKey> _precedence = new HashMap<>();
     private Map<String, SerializedViewKey> _lastWindowKeys = null;
 
+    /**
+     * Guards _keys, _precedence and the view scope id maps.
+     */
+    private final ReentrantLock _lock = new ReentrantLock();
+
+    /**
+     * Guards _lastWindowKeys, so requests of different windows only meet on _lock.
+     */
+    private final ReentrantLock _windowLock = new ReentrantLock();
+
     public void put(FacesContext context, Object state, SerializedViewKey key, SerializedViewKey previousRestoredKey)
     {
         put(context, state, key, previousRestoredKey, null,
                 (oldViewScopeId) -> ViewScopeContext.destroyAll(context, oldViewScopeId));
     }
     
-    public synchronized void put(FacesContext context, Object state, 
+    public void put(FacesContext context, Object state, 
         SerializedViewKey key, SerializedViewKey previousRestoredKey, String viewScopeId)
     {
         put(context, state, key, previousRestoredKey, viewScopeId,
             (oldViewScopeId) -> ViewScopeContext.destroyAll(context, oldViewScopeId));
     }
 
-    public synchronized void put(FacesContext context, Object state, 
+    public void put(FacesContext context, Object state, 
         SerializedViewKey key, SerializedViewKey previousRestoredKey, String viewScopeId,
         Consumer<String> destroyCallback)
     {
-        if (state == null)
-        {
-            state = EMPTY_STATES;
-        }
-        else if (state instanceof Object[] objects &&
-            objects.length == 2 &&
-            objects[0] == null &&
-            objects[1] == null)
+        state = storeState(normalize(state));
+
+        Integer maxCount = getNumberOfSequentialViewsInSession(context);
+        int views = getNumberOfViewsInSession(context);
+        List<String> viewScopeIdsToDestroy = null;
+        int evicted = 0;
+
+        // The delta is computed before taking the lock, it is only used if the base is unchanged by then
+        Object deltaBase = null;
+        DeltaState delta = null;
+        if (state instanceof byte[] bytes && previousRestoredKey != null && !previousRestoredKey.equals(key))
         {
-            // The generated state can be considered zero, set it as null
-            // into the map.
-            state = null;
+            deltaBase = _serializedViews.get(previousRestoredKey);
+            delta = createDelta(previousRestoredKey, deltaBase, bytes, getDeltaSnapshotInterval(context));
         }
 
-        if (_serializedViews.containsKey(key))
+        _lock.lock();
+        try
         {
-            // Update the state, the viewScopeId does not change.
-            _serializedViews.put(key, state);
-            // Make sure the view is at the end of the discard queue
-            while (_keys.remove(key))
+            if (_serializedViews.containsKey(key))
             {
-                // do nothing
+                // Update the state, the viewScopeId does not change.
+                viewScopeIdsToDestroy = materializeDependents(key, viewScopeIdsToDestroy);
+                Object oldState = _serializedViews.put(key, state);
+                if (oldState != state)
+                {
+                    stateRemoved(key, oldState);
+                }
+                // Make sure the view is at the end of the discard queue
+                _keys.remove(key);
+                _keys.add(key);
             }
-            _keys.add(key);
-            return;
-        }
-
-        Integer maxCount = getNumberOfSequentialViewsInSession(context);
-        if (maxCount != null)
-        {
-            if (previousRestoredKey != null)
+            else
             {
-                if (!_serializedViews.isEmpty())
+                if (maxCount != null)
                 {
-                    _precedence.put(key, previousRestoredKey);
+                    if (previousRestoredKey != null)
+                    {
+                        if (!_serializedViews.isEmpty())
+                        {
+                            _precedence.put(key, previousRestoredKey);
+                        }
+                        else
+                        {
+                            // Note when the session is invalidated, _serializedViews map is empty,
+                            // but we could have a not null previousRestoredKey (the last one before
+                            // invalidate the session), so we need to check that condition before
+                            // set the precence. In that way, we ensure the precedence map will always
+                            // have valid keys.
+                            previousRestoredKey = null;
+                        }
+                    }
                 }
-                else
+                if (delta != null && previousRestoredKey != null
+                        && _serializedViews.get(previousRestoredKey) == deltaBase)
                 {
-                    // Note when the session is invalidated, _serializedViews map is empty,
-                    // but we could have a not null previousRestoredKey (the last one before
-                    // invalidate the session), so we need to check that condition before
-                    // set the precence. In that way, we ensure the precedence map will always
-                    // have valid keys.
-                    previousRestoredKey = null;
+                    state = delta;
+                }
+                _serializedViews.put(key, state);
+
+                if (viewScopeId != null)
+                {
+                    if (_viewScopeIds == null)
+                    {
+                        _viewScopeIds = new HashMap<>();
+                    }
+                    _viewScopeIds.put(key, viewScopeId);
+                    if (_viewScopeIdCounts == null)
+                    {
+                        _viewScopeIdCounts = new HashMap<>();
+                    }
+                    _viewScopeIdCounts.merge(viewScopeId, 1, Integer::sum);
+                }
+
+                _keys.remove(key);
+                _keys.add(key);
+
+                if (previousRestoredKey != null && maxCount != null && maxCount > 0)
+                {
+                    int count = 0;
+                    SerializedViewKey previousKey = key;
+                    do
+                    {
+                        previousKey = _precedence.get(previousKey);
+                        count++;
+                    }
+                    while (previousKey != null && count < maxCount);
+
+                    if (previousKey != null)
+                    {
+                        SerializedViewKey keyToRemove = previousKey;
+                        // In theory it should be only one key but just to be sure
+                        // do it in a loop, but in this case if cache old views is on,
+                        // put on that map.
+                        do
+                        {
+                            _keys.remove(keyToRemove);
+                            viewScopeIdsToDestroy = removeView(keyToRemove, viewScopeIdsToDestroy);
+                            evicted++;
+                            keyToRemove = _precedence.remove(keyToRemove);
+                        }
+                        while (keyToRemove != null);
+                    }
+                }
+
+                Iterator<SerializedViewKey> it = _keys.iterator();
+                while (_keys.size() > views)
+                {
+                    SerializedViewKey eldest = it.next();
+                    it.remove();
+                    if (maxCount != null && maxCount > 0)
+                    {
+                        SerializedViewKey keyToRemove = eldest;
+                        // Note in this case the key to delete is the oldest one,
+                        // so it could be at least one precedence, but to be safe
+                        // do it with a loop.
+                        do
+                        {
+                            keyToRemove = _precedence.remove(keyToRemove);
+                        }
+                        while (keyToRemove != null);
+                    }
+
+                    viewScopeIdsToDestroy = removeView(eldest, viewScopeIdsToDestroy);
+                    evicted++;
                 }
             }
         }
-        _serializedViews.put(key, state);
-        
-        if (viewScopeId != null)
+        finally
         {
-            if (_viewScopeIds == null)
+            _lock.unlock();
+        }
+
+        if (evicted > 0)
+        {
+            ViewStateMetrics metrics = getViewStateMetrics(context);
+            if (metrics != null)
             {
-                _viewScopeIds = new HashMap<>();
+                metrics.viewsEvicted(evicted);
             }
-            _viewScopeIds.put(key, viewScopeId);
-            if (_viewScopeIdCounts == null)
+        }
+
+        if (viewScopeIdsToDestroy != null)
+        {
+            for (String oldViewScopeId : viewScopeIdsToDestroy)
             {
-                _viewScopeIdCounts = new HashMap<>();
+                destroyCallback.accept(oldViewScopeId);
             }
-            Integer vscount = _viewScopeIdCounts.get(viewScopeId);
-            vscount = (vscount == null) ? 1 : vscount + 1;
-            _viewScopeIdCounts.put(viewScopeId, vscount);
         }
+    }
 
-        while (_keys.remove(key))
+    private static Object normalize(Object state)
+    {
+        if (state == null)
         {
-            // do nothing
+            return EMPTY_STATES;
         }
-        _keys.add(key);
+        else if (state instanceof Object[] objects &&
+            objects.length == 2 &&
+            objects[0] == null &&
+            objects[1] == null)
+        {
+            // The generated state can be considered zero, set it as a marker
+            // into the map (ConcurrentHashMap does not allow null values).
+            return ZeroState.INSTANCE;
+        }
+        return state;
+    }
 
-        if (previousRestoredKey != null && maxCount != null && maxCount > 0)
+    /**
+     * Replaces a state put while the view was still being serialized with the serialized state. If the
+     * view has been discarded or updated in between, the serialized state is dropped.
+     */
+    void completePending(SerializedViewKey key, AsyncViewStateSerializer.PendingState pending, Object state)
+    {
+        Object stored = storeState(normalize(state));
+        if (!_serializedViews.replace(key, pending, stored))
         {
-            int count = 0;
-            SerializedViewKey previousKey = key;
-            do
-            {
-                previousKey = _precedence.get(previousKey);
-                count++;
-            }
-            while (previousKey != null && count < maxCount);
+            stateRemoved(key, stored);
+        }
+    }
+
+    /**
+     * Called before a state is put into this collection. Subclasses keeping the state outside of the
+     * session can move it here and return the reference to store instead.
+     */
+    protected Object storeState(Object state)
+    {
+        return state;
+    }
+
+    /**
+     * Removes the state of the given key, and returns the list of view scope ids that are not
+     * used anymore. Must be called while holding the lock.
+     */
+    private List<String> removeView(SerializedViewKey key, List<String> viewScopeIdsToDestroy)
+    {
+        viewScopeIdsToDestroy = materializeDependents(key, viewScopeIdsToDestroy);
+        stateRemoved(key, _serializedViews.remove(key));
 
-            if (previousKey != null)
+        if (_viewScopeIds != null)
+        {
+            String oldViewScopeId = _viewScopeIds.remove(key);
+            if (oldViewScopeId != null)
             {
-                SerializedViewKey keyToRemove = previousKey;
-                // In theory it should be only one key but just to be sure
-                // do it in a loop, but in this case if cache old views is on,
-                // put on that map.
-                do
+                Integer vscount = _viewScopeIdCounts.get(oldViewScopeId);
+                vscount = vscount - 1;
+                if (vscount < 1)
                 {
-                    while (_keys.remove(keyToRemove))
-                    {
-                        // do nothing
-                    }
-
-                    _serializedViews.remove(keyToRemove);
-                    
-                    if (_viewScopeIds != null)
+                    _viewScopeIdCounts.remove(oldViewScopeId);
+                    if (viewScopeIdsToDestroy == null)
                     {
-                        String oldViewScopeId = _viewScopeIds.remove(keyToRemove);
-                        if (oldViewScopeId != null)
-                        {
-                            Integer vscount = _viewScopeIdCounts.get(oldViewScopeId);
-                            vscount = vscount - 1;
-                            if (vscount < 1)
-                            {
-                                _viewScopeIdCounts.remove(oldViewScopeId);
-                                destroyCallback.accept(oldViewScopeId);
-                            }
-                            else
-                            {
-                                _viewScopeIdCounts.put(oldViewScopeId, vscount);
-                            }
-                        }
+                        viewScopeIdsToDestroy = new ArrayList<>(1);
                     }
-
-                    keyToRemove = _precedence.remove(keyToRemove);
+                    viewScopeIdsToDestroy.add(oldViewScopeId);
+                }
+                else
+                {
+                    _viewScopeIdCounts.put(oldViewScopeId, vscount);
                 }
-                while (keyToRemove != null);
             }
         }
-        int views = getNumberOfViewsInSession(context);
-        while (_keys.size() > views)
+        return viewScopeIdsToDestroy;
+    }
+
+    /**
+     * Called when a state is discarded from this collection, either because it was replaced
+     * or because the view was evicted. Subclasses keeping the state outside of the
+     * session can release it here.
+     */
+    protected void stateRemoved(SerializedViewKey key, Object state)
+    {
+    }
+
+    /**
+     * @return the delta against the given base or null if the state is better stored in full
+     */
+    private DeltaState createDelta(SerializedViewKey baseKey, Object baseState, byte[] state, int snapshotInterval)
+    {
+        if (snapshotInterval <= 1)
+        {
+            return null;
+        }
+        int depth = baseState instanceof DeltaState baseDelta ? baseDelta.depth + 1 : 1;
+        if (depth >= snapshotInterval)
+        {
+            // time for a full snapshot
+            return null;
+        }
+        byte[] base = resolve(baseKey, baseState);
+        if (base == null)
+        {
+            return null;
+        }
+        byte[] delta = ViewStateDelta.encode(base, state);
+        return delta == null ? null : new DeltaState(baseKey, delta, depth);
+    }
+
+    /**
+     * Replaces the deltas based on the given key with the full state, before the key is removed or
+     * its state replaced. A view whose delta cannot be applied anymore is removed like an evicted one.
+     * Must be called while holding the lock.
+     */
+    private List<String> materializeDependents(SerializedViewKey key, List<String> viewScopeIdsToDestroy)
+    {
+        for (Map.Entry<SerializedViewKey, Object> entry : _serializedViews.entrySet())
         {
-            key = _keys.remove(0);
-            if (maxCount != null && maxCount > 0)
+            if (entry.getValue() instanceof DeltaState delta && delta.base.equals(key))
             {
-                SerializedViewKey keyToRemove = key;
-                // Note in this case the key to delete is the oldest one,
-                // so it could be at least one precedence, but to be safe
-                // do it with a loop.
-                do
+                byte[] state = resolve(entry.getKey(), delta);
+                if (state != null)
                 {
-                    keyToRemove = _precedence.remove(keyToRemove);
+                    entry.setValue(state);
                 }
-                while (keyToRemove != null);
-            }
-
-            _serializedViews.remove(key);
-            
-            if (_viewScopeIds != null)
-            {
-                String oldViewScopeId = _viewScopeIds.remove(key);
-                if (oldViewScopeId != null)
+                else
                 {
-                    Integer vscount = _viewScopeIdCounts.get(oldViewScopeId);
-                    vscount = vscount - 1;
-                    if (vscount < 1)
-                    {
-                        _viewScopeIdCounts.remove(oldViewScopeId);
-                        destroyCallback.accept(oldViewScopeId);
-                    }
-                    else
-                    {
-                        _viewScopeIdCounts.put(oldViewScopeId, vscount);
-                    }
+                    log.warning("Could not apply the delta of a serialized view, the view is discarded");
+                    _keys.remove(entry.getKey());
+                    _precedence.remove(entry.getKey());
+                    viewScopeIdsToDestroy = removeView(entry.getKey(), viewScopeIdsToDestroy);
                 }
             }
         }
+        return viewScopeIdsToDestroy;
+    }
+
+    /**
+     * Applies the chain of deltas for the given state.
+     *
+     * @return the full state or null if a base is not available anymore
+     */
+    private byte[] resolve(SerializedViewKey key, Object state)
+    {
+        if (state instanceof byte[] bytes)
+        {
+            return bytes;
+        }
+        if (!(state instanceof DeltaState delta))
+        {
+            return null;
+        }
+
+        Object baseState = _serializedViews.get(delta.base);
+        if (baseState == null)
+        {
+            // The base has been removed concurrently, but the dependents are materialized before
+            Object current = _serializedViews.get(key);
+            return current == state ? null : resolve(key, current);
+        }
+        byte[] base = resolve(delta.base, baseState);
+        if (base == null)
+        {
+            return null;
+        }
+        try
+        {
+            return ViewStateDelta.decode(base, delta.delta);
+        }
+        catch (IOException e)
+        {
+            log.log(Level.WARNING, "Could not apply the delta of a serialized view", e);
+            return null;
+        }
+    }
+
+    protected ViewStateMetrics getViewStateMetrics(FacesContext context)
+    {
+        return ViewStateMetrics.getInstance(context.getExternalContext());
+    }
+
+    protected int getDeltaSnapshotInterval(FacesContext context)
+    {
+        return MyfacesConfig.getCurrentInstance(context).getViewStateDeltaSnapshotInterval();
     }
 
     protected Integer getNumberOfSequentialViewsInSession(FacesContext context)
@@ -252,42 +456,67 @@ protected int getNumberOfViewsInSession(FacesContext context)
         return MyfacesConfig.getCurrentInstance(context).getNumberOfViewsInSession();
     }
 
-    public synchronized void putLastWindowKey(FacesContext context, String id, SerializedViewKey key)
+    public void putLastWindowKey(FacesContext context, String id, SerializedViewKey key)
     {
-        if (_lastWindowKeys == null)
+        _windowLock.lock();
+        try
         {
-            Integer i = getNumberOfSequentialViewsInSession(context);
-            int j = getNumberOfViewsInSession(context);
-            if (i != null && i> 0)
-            {
-                _lastWindowKeys = new LRULinkedHashMap<>((j / i) + 1);
-            }
-            else
+            if (_lastWindowKeys == null)
             {
-                _lastWindowKeys = new LRULinkedHashMap(j + 1);
+                Integer i = getNumberOfSequentialViewsInSession(context);
+                int j = getNumberOfViewsInSession(context);
+                if (i != null && i> 0)
+                {
+                    _lastWindowKeys = new LRULinkedHashMap<>((j / i) + 1);
+                }
+                else
+                {
+                    _lastWindowKeys = new LRULinkedHashMap(j + 1);
+                }
             }
+            _lastWindowKeys.put(id, key);
+        }
+        finally
+        {
+            _windowLock.unlock();
         }
-        _lastWindowKeys.put(id, key);
     }
 
     public SerializedViewKey getLastWindowKey(FacesContext context, String id)
     {
-        if (_lastWindowKeys != null)
+        _windowLock.lock();
+        try
         {
-            return _lastWindowKeys.get(id);
+            if (_lastWindowKeys != null)
+            {
+                return _lastWindowKeys.get(id);
+            }
+            return null;
+        }
+        finally
+        {
+            _windowLock.unlock();
         }
-        return null;
     }
 
     public Object get(SerializedViewKey key)
     {
         Object value = _serializedViews.get(key);
-        if (value == null)
+        while (value instanceof AsyncViewStateSerializer.PendingState pending)
         {
-            if (_serializedViews.containsKey(key))
+            // Postback before the serialization is done, the state is in the map once it completes
+            pending.await();
+            Object current = _serializedViews.get(key);
+            if (current == pending)
             {
-                return EMPTY_STATES;
+                // interrupted
+                return null;
             }
+            value = current;
+        }
+        if (value == ZeroState.INSTANCE)
+        {
+            return EMPTY_STATES;
         }
         else if (value instanceof Object[] objects &&
             objects.length == 2 &&
@@ -297,6 +526,40 @@ else if (value instanceof Object[] objects &&
             // Remember inside the state map null is stored as an empty array.
             return null;
         }
+        else if (value instanceof DeltaState)
+        {
+            return resolve(key, value);
+        }
         return value;
     }
+
+    /**
+     * A serialized view stored as delta against the state of the view it was restored from.
+     */
+    private static final class DeltaState implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final SerializedViewKey base;
+        private final byte[] delta;
+        /**
+         * Number of deltas to apply up to the last full snapshot.
+         */
+        private final int depth;
+
+        DeltaState(SerializedViewKey base, byte[] delta, int depth)
+        {
+            this.base = base;
+            this.delta = delta;
+            this.depth = depth;
+        }
+    }
+
+    /**
+     * Marker for a state without content, an enum keeps its identity when the session is serialized.
+     */
+    private enum ZeroState
+    {
+        INSTANCE
+    }
 }
@@ -18,6 +18,7 @@
  */
 package org.apache.myfaces.application.viewstate;
 
+import jakarta.faces.context.ExternalContext;
 import jakarta.faces.context.FacesContext;
 
 import org.apache.myfaces.spi.StateCacheProvider;
@@ -45,4 +46,12 @@ public StateCache getStateCache(FacesContext facesContext)
             return serverSide;
         }
     }
+
+    /**
+     * Called on shutdown of the application, stops the background serialization of the server side state.
+     */
+    public static void release(ExternalContext externalContext)
+    {
+        StateCacheServerSide.release(externalContext);
+    }
 }
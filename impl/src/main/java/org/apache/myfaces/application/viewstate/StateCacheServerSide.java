@@ -25,15 +25,15 @@
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 import jakarta.faces.FacesWrapper;
+import jakarta.faces.application.StateManager;
 
 import jakarta.faces.context.ExternalContext;
 import jakarta.faces.context.FacesContext;
@@ -42,7 +42,9 @@
 import org.apache.myfaces.config.webparameters.MyfacesConfig;
 import org.apache.myfaces.context.flash.FlashImpl;
 import org.apache.myfaces.renderkit.RendererUtils;
-import org.apache.myfaces.util.MyFacesObjectInputStream;
+import org.apache.myfaces.spi.SerialFactory;
+import org.apache.myfaces.spi.ViewStateMetrics;
+import org.apache.myfaces.spi.impl.DefaultSerialFactory;
 import org.apache.myfaces.view.ViewScopeProxyMap;
 
 class StateCacheServerSide extends StateCache<Object, Object>
@@ -63,8 +65,15 @@ class StateCacheServerSide extends StateCache<Object, Object>
     public static final String RESTORED_VIEW_KEY_REQUEST_ATTR = 
         StateCacheServerSide.class.getName() + ".RESTORED_VIEW_KEY";
 
+    public static final String OFF_HEAP_VIEW_STATE_STORE_ATTR =
+        StateCacheServerSide.class.getName() + ".OFF_HEAP_VIEW_STATE_STORE";
+
+    private static final String ASYNC_SERIALIZER_ATTR =
+        StateCacheServerSide.class.getName() + ".ASYNC_SERIALIZER";
+
     public static final int UNCOMPRESSED_FLAG = 0;
     public static final int COMPRESSED_FLAG = 1;
+    public static final int DICTIONARY_COMPRESSED_FLAG = 2;
 
     private final boolean useFlashScopePurgeViewsInSession;
     private final int numberOfSequentialViewsInSession;
@@ -74,6 +83,10 @@ class StateCacheServerSide extends StateCache<Object, Object>
     private final SessionViewStorageFactory sessionViewStorageFactory;
     private final CsrfSessionTokenFactory csrfSessionTokenFactory;
     private final StateTokenProcessor stateTokenProcessor;
+    private final SerialFactory serialFactory;
+    private final ViewStateDictionaryCompressor dictionaryCompressor;
+    private final AsyncViewStateSerializer asyncSerializer;
+    private final ViewStateMetrics metrics;
     
     public StateCacheServerSide()
     {
@@ -87,13 +100,14 @@ public StateCacheServerSide()
         compressStateInSession = config.isCompressStateInSession();
         
         String randomMode = config.getRandomKeyInViewStateSessionToken();
+        KeyFactory<byte[]> keyFactory;
         if (MyfacesConfig.RANDOM_KEY_IN_VIEW_STATE_SESSION_TOKEN_SECURE_RANDOM.equals(randomMode))
         {
-            sessionViewStorageFactory = new SessionViewStorageFactoryImpl(new KeyFactorySecureRandom(facesContext));
+            keyFactory = new KeyFactorySecureRandom(facesContext);
         }
         else if (MyfacesConfig.RANDOM_KEY_IN_VIEW_STATE_SESSION_TOKEN_RANDOM.equals(randomMode))
         {
-            sessionViewStorageFactory = new SessionViewStorageFactoryImpl(new KeyFactoryRandom(facesContext));
+            keyFactory = new KeyFactoryRandom(facesContext);
         }
         else
         {
@@ -103,7 +117,18 @@ else if (MyfacesConfig.RANDOM_KEY_IN_VIEW_STATE_SESSION_TOKEN_RANDOM.equals(rand
                         + randomMode + "\" is not supported (anymore)."
                         + " Fallback to \"secureRandom\"");
             }
-            sessionViewStorageFactory = new SessionViewStorageFactoryImpl(new KeyFactorySecureRandom(facesContext));
+            keyFactory = new KeyFactorySecureRandom(facesContext);
+        }
+
+        OffHeapViewStateStore offHeapStore = createOffHeapViewStateStore(config);
+        if (offHeapStore != null)
+        {
+            sessionViewStorageFactory = new SessionViewStorageFactoryOffHeap(keyFactory, offHeapStore);
+            facesContext.getExternalContext().getApplicationMap().put(OFF_HEAP_VIEW_STATE_STORE_ATTR, offHeapStore);
+        }
+        else
+        {
+            sessionViewStorageFactory = new SessionViewStorageFactoryImpl(keyFactory);
         }
         
         String csrfRandomMode = config.getRandomKeyInCsrfSessionToken();
@@ -117,6 +142,101 @@ else if (MyfacesConfig.RANDOM_KEY_IN_VIEW_STATE_SESSION_TOKEN_RANDOM.equals(rand
         }
         
         stateTokenProcessor = new StateTokenProcessorServerSide();
+
+        SerialFactory factory = (SerialFactory) facesContext.getExternalContext().getApplicationMap()
+                .get(StateUtils.SERIAL_FACTORY);
+        serialFactory = factory == null ? new DefaultSerialFactory() : factory;
+
+        dictionaryCompressor = compressStateInSession
+                ? ViewStateDictionaryCompressor.getInstance(facesContext.getExternalContext())
+                : null;
+
+        if (config.isAsyncSerializeServerState() && !serializeStateInSession)
+        {
+            log.warning(MyfacesConfig.ASYNC_SERIALIZE_SERVER_STATE + " is ignored because "
+                    + StateManager.SERIALIZE_SERVER_STATE_PARAM_NAME + " is not enabled.");
+        }
+        metrics = ViewStateMetrics.getInstance(facesContext.getExternalContext());
+
+        if (config.isAsyncSerializeServerState() && serializeStateInSession && isSerializeViewOverridden())
+        {
+            log.warning(MyfacesConfig.ASYNC_SERIALIZE_SERVER_STATE + " is ignored because "
+                    + getClass().getName() + " overrides serializeView(FacesContext, Object).");
+            asyncSerializer = null;
+        }
+        else if (config.isAsyncSerializeServerState() && serializeStateInSession)
+        {
+            // shared by the instances of the application and shut down with it, see release
+            asyncSerializer = (AsyncViewStateSerializer) facesContext.getExternalContext().getApplicationMap()
+                    .computeIfAbsent(ASYNC_SERIALIZER_ATTR,
+                            (k) -> new AsyncViewStateSerializer(config.getAsyncSerializeServerStateMaxPending()));
+        }
+        else
+        {
+            asyncSerializer = null;
+        }
+    }
+
+    /**
+     * The background serialization does not have a FacesContext, so it can't call an overridden
+     * {@link #serializeView(FacesContext, Object)}.
+     */
+    private boolean isSerializeViewOverridden()
+    {
+        for (Class<?> clazz = getClass(); clazz != StateCacheServerSide.class; clazz = clazz.getSuperclass())
+        {
+            try
+            {
+                clazz.getDeclaredMethod("serializeView", FacesContext.class, Object.class);
+                return true;
+            }
+            catch (NoSuchMethodException e)
+            {
+                // not overridden by this class
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Called on shutdown of the application, stops the background serialization of the views.
+     */
+    static void release(ExternalContext externalContext)
+    {
+        AsyncViewStateSerializer serializer = (AsyncViewStateSerializer) externalContext.getApplicationMap()
+                .remove(ASYNC_SERIALIZER_ATTR);
+        if (serializer != null)
+        {
+            serializer.shutdown();
+        }
+    }
+    
+    private OffHeapViewStateStore createOffHeapViewStateStore(MyfacesConfig config)
+    {
+        if (config.getOffHeapViewStateStoreSize() <= 0)
+        {
+            return null;
+        }
+        if (!serializeStateInSession)
+        {
+            log.warning(MyfacesConfig.OFF_HEAP_VIEW_STATE_STORE_SIZE + " is ignored because "
+                    + StateManager.SERIALIZE_SERVER_STATE_PARAM_NAME + " is not enabled.");
+            return null;
+        }
+
+        try
+        {
+            String directory = config.getOffHeapViewStateStoreDirectory();
+            return new OffHeapViewStateStore(config.getOffHeapViewStateStoreSize() * 1024L * 1024L,
+                    config.getOffHeapViewStateStoreBlockSize(),
+                    config.getOffHeapViewStateStoreTimeToLive() * 60000L,
+                    directory == null || directory.isBlank() ? null : Path.of(directory));
+        }
+        catch (IOException | RuntimeException e)
+        {
+            log.log(Level.SEVERE, "Could not create the off-heap view state store, views are stored in session", e);
+            return null;
+        }
     }
     
     //------------------------------------- METHODS COPIED FROM JspStateManagerImpl--------------------------------
@@ -188,14 +308,23 @@ else if (viewMap instanceof FacesWrapper wrapper)
             }
 
         }
+        // The arrays of the state are built for this request only, so it can be serialized while the response
+        // is written. The values they reference, e.g. local values and attributes of the components, are shared
+        // with the view and must not be changed once it is rendered, see ASYNC_SERIALIZE_SERVER_STATE.
+        AsyncViewStateSerializer.PendingState pending = asyncSerializer != null ? asyncSerializer.reserve() : null;
+        Object state = pending != null ? pending : serializeView(context, serializedView);
         if (viewScopeProxyMap != null)
         {
-            viewCollection.put(context, serializeView(context, serializedView), nextKey, key,
-                    viewScopeProxyMap.getViewScopeId());
+            viewCollection.put(context, state, nextKey, key, viewScopeProxyMap.getViewScopeId());
         }
         else
         {
-            viewCollection.put(context, serializeView(context, serializedView), nextKey, key);
+            viewCollection.put(context, state, nextKey, key);
+        }
+        if (pending != null)
+        {
+            String viewId = context.getViewRoot().getViewId();
+            asyncSerializer.submit(viewCollection, nextKey, pending, () -> serializeView(viewId, serializedView));
         }
 
         ClientWindow clientWindow = context.getExternalContext().getClientWindow();
@@ -304,6 +433,14 @@ protected Object nextViewSequence(FacesContext facescontext)
     }
 
     protected Object serializeView(FacesContext context, Object serializedView)
+    {
+        return serializeView(context.getViewRoot().getViewId(), serializedView);
+    }
+
+    /**
+     * Does not access the FacesContext, so it can be called from the background serialization.
+     */
+    private Object serializeView(String viewId, Object serializedView)
     {
         if (log.isLoggable(Level.FINEST))
         {
@@ -317,6 +454,7 @@ protected Object serializeView(FacesContext context, Object serializedView)
                 log.finest("Processing serializeView - serialize state in session");
             }
 
+            long start = metrics != null ? System.nanoTime() : 0;
             ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
             try
             {
@@ -328,8 +466,16 @@ protected Object serializeView(FacesContext context, Object serializedView)
                         log.finest("Processing serializeView - serialize compressed");
                     }
 
-                    os.write(COMPRESSED_FLAG);
-                    os = new GZIPOutputStream(os, 1024);
+                    if (dictionaryCompressor != null)
+                    {
+                        os.write(DICTIONARY_COMPRESSED_FLAG);
+                        os = dictionaryCompressor.compress(viewId, os);
+                    }
+                    else
+                    {
+                        os.write(COMPRESSED_FLAG);
+                        os = new GZIPOutputStream(os, 1024);
+                    }
                 }
                 else
                 {
@@ -341,13 +487,19 @@ protected Object serializeView(FacesContext context, Object serializedView)
                     os.write(UNCOMPRESSED_FLAG);
                 }
 
-                try (ObjectOutputStream out = new ObjectOutputStream(os))
+                CountingOutputStream counter = metrics != null ? new CountingOutputStream(os) : null;
+                try (OutputStream out = counter != null ? counter : os)
                 {
-                    out.writeObject(serializedView);
+                    serialFactory.writeObject(serializedView, out);
                 }
                 
                 baos.close();
 
+                if (metrics != null)
+                {
+                    metrics.stateSerialized(viewId, baos.size(), counter.getCount(), System.nanoTime() - start);
+                }
+
                 if (log.isLoggable(Level.FINEST))
                 {
                     log.finest("Exiting serializeView - serialized. Bytes : " + baos.size());
@@ -391,23 +543,24 @@ protected Object deserializeView(Object state)
                 ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
 
                 InputStream is = bais;
-                if (is.read() == COMPRESSED_FLAG)
+                int flag = is.read();
+                if (flag == COMPRESSED_FLAG)
                 {
                     is = new GZIPInputStream(is);
                 }
-
-                ObjectInputStream ois = new MyFacesObjectInputStream(is);
-                try
-                {
-                    return ois.readObject();
-                }
-                finally
+                else if (flag == DICTIONARY_COMPRESSED_FLAG)
                 {
-                    if (ois != null)
+                    if (dictionaryCompressor == null)
                     {
-                        ois.close();
-                        ois = null;
+                        throw new IOException("State compressed with a dictionary, but "
+                                + MyfacesConfig.VIEW_STATE_COMPRESSION_DICTIONARY_SAMPLES + " is not enabled");
                     }
+                    is = dictionaryCompressor.decompress(is);
+                }
+
+                try (InputStream in = is)
+                {
+                    return serialFactory.readObject(in);
                 }
             }
             catch (IOException | ClassNotFoundException e) 
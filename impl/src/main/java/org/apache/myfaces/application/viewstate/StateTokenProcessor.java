@@ -18,6 +18,9 @@
  */
 package org.apache.myfaces.application.viewstate;
 
+import java.io.IOException;
+import java.io.Writer;
+
 import jakarta.faces.context.FacesContext;
 
 /**
@@ -31,6 +34,15 @@
     public abstract Object decode(FacesContext facesContext, String token);
     
     public abstract String encode(FacesContext facesContext, Object savedStateObject);
+
+    /**
+     * Writes the token directly to the given writer. The written characters must be the same as the ones
+     * returned by {@link #encode(FacesContext, Object)} and must not require escaping inside an html attribute.
+     */
+    public void encode(FacesContext facesContext, Object savedStateObject, Writer writer) throws IOException
+    {
+        writer.write(encode(facesContext, savedStateObject));
+    }
     
     public boolean isStateless(FacesContext facesContext, String token)
     {
@@ -18,6 +18,9 @@
  */
 package org.apache.myfaces.application.viewstate;
 
+import java.io.IOException;
+import java.io.Writer;
+
 import jakarta.faces.context.FacesContext;
 
 /**
@@ -49,4 +52,15 @@ public String encode(FacesContext facesContext, Object savedStateObject)
         String serializedState = StateUtils.construct(savedStateObject, facesContext.getExternalContext());
         return serializedState;
     }
+
+    @Override
+    public void encode(FacesContext facesContext, Object savedStateObject, Writer writer) throws IOException
+    {
+        if (facesContext.getViewRoot().isTransient())
+        {
+            writer.write(STATELESS_TOKEN);
+            return;
+        }
+        StateUtils.construct(savedStateObject, facesContext.getExternalContext(), writer);
+    }
 }
@@ -20,9 +20,16 @@
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.security.GeneralSecurityException;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.Random;
 import java.util.logging.Level;
@@ -30,20 +37,27 @@
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
+import javax.crypto.AEADBadTagException;
 import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.CipherOutputStream;
 import javax.crypto.KeyGenerator;
 import javax.crypto.Mac;
 import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import jakarta.faces.FacesException;
 import jakarta.faces.application.ViewExpiredException;
 import jakarta.faces.context.ExternalContext;
+import jakarta.faces.context.FacesContext;
 import jakarta.servlet.ServletContext;
 
 import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFWebConfigParam;
 import org.apache.myfaces.core.api.shared.lang.Assert;
 import org.apache.myfaces.spi.SerialFactory;
+import org.apache.myfaces.spi.ViewStateMetrics;
+import org.apache.myfaces.util.lang.FastByteArrayInputStream;
 
 /**
  * <p>This Class exposes a handful of methods related to encryption,
@@ -61,7 +75,11 @@
  * <i>org.apache.myfaces.ALGORITHM</i> parameter</li>
  * <li>The default mode and padding can be overridden using the
  * <i>org.apache.myfaces.ALGORITHM.PARAMETERS</i> parameter</li>
- * <li>This class has not been tested with modes other than ECB and CBC</li>
+ * <li>This class has not been tested with modes other than ECB, CBC and GCM</li>
+ * <li>With an AEAD mode like <i>GCM/NoPadding</i> the view state is encrypted and authenticated
+ * in one pass, no MAC is added and a random nonce is used for every view state instead of
+ * the initialization vector</li>
+ * <li>Cipher and Mac instances are pooled and reused between requests</li>
  * <li>An initialization vector can be specified via the
  * <i>org.apache.myfaces.ALGORITHM.IV</i> parameter</li>
  * <li>The default MAC algorithm can be overridden using the
@@ -92,6 +110,18 @@
 
     public static final String ZIP_CHARSET = "ISO-8859-1";
 
+    private static final int BUFFER_SIZE = 4096;
+
+    private static final int CRYPTO_POOL_CAPACITY = 64;
+    private static final CryptoInstancePool<Cipher> CIPHER_POOL
+            = new CryptoInstancePool<>(Cipher::getInstance, CRYPTO_POOL_CAPACITY);
+    private static final CryptoInstancePool<Mac> MAC_POOL
+            = new CryptoInstancePool<>(Mac::getInstance, CRYPTO_POOL_CAPACITY);
+
+    private static final int GCM_NONCE_LENGTH = 12;
+    private static final int GCM_TAG_LENGTH = 128;
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
     public static final String DEFAULT_ALGORITHM = "AES";
     public static final String DEFAULT_ALGORITHM_PARAMS = "ECB/PKCS5Padding";
 
@@ -134,7 +164,8 @@
     public static final String INIT_ALGORITHM_IV = INIT_ALGORITHM + ".IV";
     
     /**
-     * Defines the default mode and padding used for the encryption algorithm
+     * Defines the default mode and padding used for the encryption algorithm. An AEAD mode like
+     * "GCM/NoPadding" replaces the separate Message Authentication Code.
      */
     @JSFWebConfigParam(name="org.apache.myfaces.ALGORITHM.PARAMETERS",since="1.1",
             defaultValue="ECB/PKCS5Padding",group="state")
@@ -257,24 +288,100 @@ public static boolean isSecure(ExternalContext externalContext)
      */
     public static final String construct(Object object, ExternalContext ctx)
     {
-        byte[] bytes = getAsByteArray(object, ctx);
-        if (enableCompression(ctx))
+        StringBuilderWriter writer = new StringBuilderWriter();
+        try
         {
-            bytes = compress(bytes);
+            construct(object, ctx, writer);
         }
-        if (isSecure(ctx))
+        catch (IOException e)
         {
-            bytes = encrypt(bytes, ctx);
+            throw new FacesException(e);
         }
-        bytes = encode(bytes);
+        return writer.toString();
+    }
 
+    /**
+     * Streaming variant of {@link #construct(Object, ExternalContext)}. The state is serialized, compressed,
+     * encrypted and Base64 encoded in a single pass and written to the given writer, so no intermediate copies
+     * of the whole state are created. The written value is the same as the one returned by
+     * {@link #construct(Object, ExternalContext)} and only contains characters that are safe inside
+     * an html attribute.
+     */
+    public static void construct(Object object, ExternalContext ctx, Writer writer) throws IOException
+    {
+        SerialFactory serialFactory = getSerialFactory(ctx);
+        ViewStateMetrics metrics = ViewStateMetrics.getInstance(ctx);
+        long start = metrics != null ? System.nanoTime() : 0;
+        CountingOutputStream stateCounter = null;
+        CountingOutputStream uncompressedCounter = null;
+
+        CryptoContext crypto = null;
         try
         {
-            return new String(bytes, ZIP_CHARSET);
+            OutputStream out = Base64.getEncoder().wrap(new AsciiOutputStream(writer));
+            if (metrics != null)
+            {
+                stateCounter = new CountingOutputStream(out);
+                out = stateCounter;
+            }
+            if (isSecure(ctx))
+            {
+                byte[] nonce;
+                try
+                {
+                    crypto = acquireCryptoContext(ctx);
+                    nonce = crypto.initEncrypt();
+                }
+                catch (GeneralSecurityException e)
+                {
+                    throw new FacesException(e);
+                }
+
+                if (nonce != null)
+                {
+                    out.write(nonce);
+                    out = new CipherOutputStream(out, crypto.cipher);
+                }
+                else
+                {
+                    //EtM (Encrypt-then-MAC) Composition Approach
+                    out = new CipherOutputStream(new MacOutputStream(out, crypto.mac), crypto.cipher);
+                }
+            }
+            if (enableCompression(ctx))
+            {
+                // Never with the trained dictionaries of the server side state: they hold content of other
+                // sessions, so the compressed length sent to the browser would tell how much of it matches.
+                out = new GZIPOutputStream(out, BUFFER_SIZE);
+            }
+
+            if (metrics != null)
+            {
+                uncompressedCounter = new CountingOutputStream(out);
+                out = uncompressedCounter;
+            }
+
+            try (OutputStream stream = out)
+            {
+                serialFactory.writeObject(object, stream);
+            }
+
+            if (metrics != null)
+            {
+                FacesContext facesContext = FacesContext.getCurrentInstance();
+                String viewId = facesContext != null && facesContext.getViewRoot() != null
+                        ? facesContext.getViewRoot().getViewId()
+                        : null;
+                metrics.stateSerialized(viewId, stateCounter.getCount(), uncompressedCounter.getCount(),
+                        System.nanoTime() - start);
+            }
         }
-        catch (UnsupportedEncodingException e)
+        finally
         {
-            throw new FacesException(e);
+            if (crypto != null)
+            {
+                crypto.release();
+            }
         }
     }
 
@@ -288,9 +395,7 @@ public static final String construct(Object object, ExternalContext ctx)
      */
     public static final byte[] getAsByteArray(Object object, ExternalContext ctx)
     {
-        // get the Factory that was instantiated @ startup
-        SerialFactory serialFactory = (SerialFactory) ctx.getApplicationMap().get(SERIAL_FACTORY);
-        Assert.notNull(serialFactory, "serialFactory");
+        SerialFactory serialFactory = getSerialFactory(ctx);
 
         try
         {
@@ -306,14 +411,25 @@ public static byte[] encrypt(byte[] insecure, ExternalContext externalContext)
     {
         Assert.notNull(externalContext, "externalContext");
 
-        testConfiguration(externalContext);
-
+        CryptoContext crypto = null;
         try
         {
-            Mac mac = createMac(externalContext);
-            Cipher cipher = createCipher(externalContext, Cipher.ENCRYPT_MODE);
+            crypto = acquireCryptoContext(externalContext);
+            Cipher cipher = crypto.cipher;
+            byte[] nonce = crypto.initEncrypt();
+
+            if (nonce != null)
+            {
+                // AEAD, the nonce is sent in front of the encrypted data and the cipher adds the tag
+                byte[] secure = new byte[nonce.length + cipher.getOutputSize(insecure.length)];
+                System.arraycopy(nonce, 0, secure, 0, nonce.length);
+                int secureCount = cipher.doFinal(insecure, 0, insecure.length, secure, nonce.length);
+                return nonce.length + secureCount == secure.length
+                        ? secure : Arrays.copyOf(secure, nonce.length + secureCount);
+            }
 
             //EtM (Encrypt-then-MAC) Composition Approach
+            Mac mac = crypto.mac;
             int macLenght = mac.getMacLength();
             byte[] secure = new byte[cipher.getOutputSize(insecure.length) + macLenght];
             int secureCount = cipher.doFinal(insecure, 0, insecure.length, secure);
@@ -326,6 +442,13 @@ public static byte[] encrypt(byte[] insecure, ExternalContext externalContext)
         {
             throw new FacesException(e);
         }
+        finally
+        {
+            if (crypto != null)
+            {
+                crypto.release();
+            }
+        }
     }
 
     public static final byte[] compress(byte[] bytes)
@@ -358,10 +481,13 @@ public static final byte[] encode(byte[] bytes)
 
     /**
      * This fires during the Restore View phase, restoring state.
+     * 
+     * The Base64 decoded token is the only full copy of the state. It is authenticated in place and then
+     * decrypted, decompressed and deserialized as a stream.
      */
     public static final Object reconstruct(String string, ExternalContext ctx)
     {
-        byte[] bytes;
+        CryptoContext crypto = null;
         try
         {
             if (log.isLoggable(Level.FINE))
@@ -370,18 +496,41 @@ public static final Object reconstruct(String string, ExternalContext ctx)
                 log.fine("Processing serialized viewstate string with hashCode : " + string.hashCode());
             }
 
-            bytes = string.getBytes(ZIP_CHARSET);
-            bytes = decode(bytes);
+            SerialFactory serialFactory = getSerialFactory(ctx);
+
+            byte[] bytes = Base64.getDecoder().decode(string);
+            InputStream in;
             if (isSecure(ctx))
             {
-                bytes = decrypt(bytes, ctx);
+                crypto = acquireCryptoContext(ctx);
+                if (crypto.mac == null)
+                {
+                    // AEAD, the tag is verified by doFinal before anything is returned. Decrypted in place,
+                    // the plain text is never longer than the nonce and cipher text.
+                    int offset = crypto.initDecrypt(bytes);
+                    int length = crypto.cipher.doFinal(bytes, offset, bytes.length - offset, bytes, 0);
+                    in = new FastByteArrayInputStream(bytes, length);
+                }
+                else
+                {
+                    int length = verifyMac(bytes, crypto.mac);
+                    crypto.initDecrypt(bytes);
+                    in = new CipherInputStream(new FastByteArrayInputStream(bytes, length), crypto.cipher);
+                }
+            }
+            else
+            {
+                in = new FastByteArrayInputStream(bytes);
             }
             if (enableCompression(ctx))
             {
-                bytes = decompress(bytes);
+                in = new GZIPInputStream(in, BUFFER_SIZE);
             }
 
-            return getAsObject(bytes, ctx);
+            try (InputStream stream = in)
+            {
+                return serialFactory.readObject(stream);
+            }
         }
         catch (Throwable e)
         {
@@ -391,6 +540,13 @@ public static final Object reconstruct(String string, ExternalContext ctx)
             }
             return null;
         }
+        finally
+        {
+            if (crypto != null)
+            {
+                crypto.release();
+            }
+        }
     }
 
     public static final byte[] decode(byte[] bytes)
@@ -432,44 +588,135 @@ public static byte[] decrypt(byte[] secure, ExternalContext externalContext)
     {
         Assert.notNull(externalContext, "externalContext");
 
-        testConfiguration(externalContext);
-
+        CryptoContext crypto = null;
         try
         {
-            Mac mac = createMac(externalContext);
-            Cipher cipher = createCipher(externalContext, Cipher.DECRYPT_MODE);
+            crypto = acquireCryptoContext(externalContext);
+            if (crypto.mac == null)
+            {
+                int offset = crypto.initDecrypt(secure);
+                try
+                {
+                    return crypto.cipher.doFinal(secure, offset, secure.length - offset);
+                }
+                catch (AEADBadTagException e)
+                {
+                    throw new ViewExpiredException();
+                }
+            }
 
             //EtM (Encrypt-then-MAC) Composition Approach
-            int macLenght = mac.getMacLength();
-            mac.update(secure, 0, secure.length - macLenght);
-            byte[] signedDigestHash = mac.doFinal();
+            int length = verifyMac(secure, crypto.mac);
+            crypto.initDecrypt(secure);
+            return crypto.cipher.doFinal(secure, 0, length);
+        }
+        catch (Exception e)
+        {
+            throw new FacesException(e);
+        }
+        finally
+        {
+            if (crypto != null)
+            {
+                crypto.release();
+            }
+        }
+    }
 
-            boolean isMacEqual = true;
-            for (int i = 0; i < signedDigestHash.length; i++)
+    /**
+     * Takes a Cipher and, unless an AEAD mode is configured, a Mac from the pools. The returned context must be
+     * released when done.
+     */
+    private static CryptoContext acquireCryptoContext(ExternalContext ctx) throws GeneralSecurityException
+    {
+        testConfiguration(ctx);
+
+        String algorithmParams = findAlgorithmParams(ctx);
+        String transformation = findAlgorithm(ctx) + '/' + algorithmParams;
+        SecretKey secretKey = getSecret(ctx);
+
+        Mac mac = null;
+        String macAlgorithm = null;
+        if (!isAuthenticatedEncryption(algorithmParams))
+        {
+            macAlgorithm = findMacAlgorithm(ctx);
+            mac = MAC_POOL.acquire(macAlgorithm);
+            try
             {
-                if (signedDigestHash[i] != secure[secure.length - macLenght + i])
-                {
-                    isMacEqual = false;
-                    // MYFACES-2934 Must compare *ALL* bytes of the hash, 
-                    // otherwise a side-channel timing attack is theoretically possible
-                    // but with a very very low probability, because the
-                    // comparison time is too small to be measured compared to
-                    // the overall request time and in real life applications,
-                    // there are too many uncertainties involved.
-                    //break;
-                }
+                mac.init(getMacSecret(ctx));
             }
-            if (!isMacEqual)
+            catch (GeneralSecurityException | RuntimeException e)
             {
-                throw new ViewExpiredException();
+                MAC_POOL.release(macAlgorithm, mac);
+                throw e;
             }
-            
-            return cipher.doFinal(secure, 0, secure.length - macLenght);
         }
-        catch (Exception e)
+
+        Cipher cipher;
+        try
         {
-            throw new FacesException(e);
+            cipher = CIPHER_POOL.acquire(transformation);
         }
+        catch (GeneralSecurityException | RuntimeException e)
+        {
+            if (mac != null)
+            {
+                MAC_POOL.release(macAlgorithm, mac);
+            }
+            throw e;
+        }
+
+        if (log.isLoggable(Level.FINE))
+        {
+            log.fine("De/encrypting with " + transformation);
+        }
+
+        return new CryptoContext(transformation, cipher, secretKey,
+                mac == null ? null : findInitializationVector(ctx), macAlgorithm, mac);
+    }
+
+    private static boolean isAuthenticatedEncryption(String algorithmParams)
+    {
+        return algorithmParams.startsWith("GCM");
+    }
+
+    /**
+     * Checks the Message Authentication Code appended to the given encrypted bytes.
+     *
+     * @return the length of the encrypted bytes without the MAC
+     * @throws ViewExpiredException if the MAC does not match
+     */
+    private static int verifyMac(byte[] secure, Mac mac)
+    {
+        int macLenght = mac.getMacLength();
+        int length = secure.length - macLenght;
+        if (length < 0)
+        {
+            throw new ViewExpiredException();
+        }
+        mac.update(secure, 0, length);
+        byte[] signedDigestHash = mac.doFinal();
+
+        boolean isMacEqual = true;
+        for (int i = 0; i < signedDigestHash.length; i++)
+        {
+            if (signedDigestHash[i] != secure[length + i])
+            {
+                isMacEqual = false;
+                // MYFACES-2934 Must compare *ALL* bytes of the hash, 
+                // otherwise a side-channel timing attack is theoretically possible
+                // but with a very very low probability, because the
+                // comparison time is too small to be measured compared to
+                // the overall request time and in real life applications,
+                // there are too many uncertainties involved.
+                //break;
+            }
+        }
+        if (!isMacEqual)
+        {
+            throw new ViewExpiredException();
+        }
+        return length;
     }
 
     /**
@@ -482,9 +729,7 @@ public static byte[] decrypt(byte[] secure, ExternalContext externalContext)
      */
     public static final Object getAsObject(byte[] bytes, ExternalContext ctx)
     {
-        // get the Factory that was instantiated @ startup
-        SerialFactory serialFactory = (SerialFactory) ctx.getApplicationMap().get(SERIAL_FACTORY);
-        Assert.notNull(serialFactory, "serialFactory");
+        SerialFactory serialFactory = getSerialFactory(ctx);
 
         try
         {
@@ -496,6 +741,14 @@ public static final Object getAsObject(byte[] bytes, ExternalContext ctx)
         }
     }
 
+    private static SerialFactory getSerialFactory(ExternalContext ctx)
+    {
+        // get the Factory that was instantiated @ startup
+        SerialFactory serialFactory = (SerialFactory) ctx.getApplicationMap().get(SERIAL_FACTORY);
+        Assert.notNull(serialFactory, "serialFactory");
+        return serialFactory;
+    }
+
     /**
      * Utility method for generating base 64 encoded strings.
      * 
@@ -811,4 +1064,197 @@ private static byte[] findMacSecret(String secret, String algorithm)
         
         return bytes;
     }
+
+    /**
+     * Cipher and Mac taken from the pools for a single de/encryption. The Mac is null for AEAD modes, which
+     * use a random nonce for every state instead of the configured initialization vector.
+     */
+    private static final class CryptoContext
+    {
+        private final String transformation;
+        private final Cipher cipher;
+        private final SecretKey secretKey;
+        private final byte[] iv;
+        private final String macAlgorithm;
+        private final Mac mac;
+
+        CryptoContext(String transformation, Cipher cipher, SecretKey secretKey, byte[] iv,
+                String macAlgorithm, Mac mac)
+        {
+            this.transformation = transformation;
+            this.cipher = cipher;
+            this.secretKey = secretKey;
+            this.iv = iv;
+            this.macAlgorithm = macAlgorithm;
+            this.mac = mac;
+        }
+
+        /**
+         * @return the nonce that must be written in front of the encrypted data, or null if not AEAD
+         */
+        byte[] initEncrypt() throws GeneralSecurityException
+        {
+            if (mac == null)
+            {
+                byte[] nonce = new byte[GCM_NONCE_LENGTH];
+                SECURE_RANDOM.nextBytes(nonce);
+                cipher.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(GCM_TAG_LENGTH, nonce));
+                return nonce;
+            }
+            init(Cipher.ENCRYPT_MODE);
+            return null;
+        }
+
+        /**
+         * @return the offset of the encrypted data, after the nonce if AEAD
+         */
+        int initDecrypt(byte[] secure) throws GeneralSecurityException
+        {
+            if (mac == null)
+            {
+                if (secure.length < GCM_NONCE_LENGTH)
+                {
+                    throw new ViewExpiredException();
+                }
+                cipher.init(Cipher.DECRYPT_MODE, secretKey,
+                        new GCMParameterSpec(GCM_TAG_LENGTH, secure, 0, GCM_NONCE_LENGTH));
+                return GCM_NONCE_LENGTH;
+            }
+            init(Cipher.DECRYPT_MODE);
+            return 0;
+        }
+
+        private void init(int mode) throws GeneralSecurityException
+        {
+            if (iv != null)
+            {
+                cipher.init(mode, secretKey, new IvParameterSpec(iv));
+            }
+            else
+            {
+                cipher.init(mode, secretKey);
+            }
+        }
+
+        void release()
+        {
+            // Pooled instances are initialized again before the next use, so it does not matter
+            // in which state they are released
+            CIPHER_POOL.release(transformation, cipher);
+            if (mac != null)
+            {
+                MAC_POOL.release(macAlgorithm, mac);
+            }
+        }
+    }
+
+    /**
+     * Passes the written bytes to a MAC and appends the MAC when closed.
+     */
+    private static class MacOutputStream extends FilterOutputStream
+    {
+        private final Mac mac;
+
+        MacOutputStream(OutputStream out, Mac mac)
+        {
+            super(out);
+            this.mac = mac;
+        }
+
+        @Override
+        public void write(int b) throws IOException
+        {
+            mac.update((byte) b);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            mac.update(b, off, len);
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            out.write(mac.doFinal());
+            out.close();
+        }
+    }
+
+    /**
+     * Writes the Base64 encoded bytes as characters. The target writer is not closed.
+     */
+    private static class AsciiOutputStream extends OutputStream
+    {
+        private final Writer writer;
+        private final char[] buffer = new char[BUFFER_SIZE];
+
+        AsciiOutputStream(Writer writer)
+        {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(int b) throws IOException
+        {
+            writer.write((char) (b & 0xFF));
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            while (len > 0)
+            {
+                int count = Math.min(len, buffer.length);
+                for (int i = 0; i < count; i++)
+                {
+                    buffer[i] = (char) (b[off + i] & 0xFF);
+                }
+                writer.write(buffer, 0, count);
+                off += count;
+                len -= count;
+            }
+        }
+    }
+
+    private static class StringBuilderWriter extends Writer
+    {
+        private final StringBuilder builder = new StringBuilder(1024);
+
+        @Override
+        public void write(int c)
+        {
+            builder.append((char) c);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len)
+        {
+            builder.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len)
+        {
+            builder.append(str, off, off + len);
+        }
+
+        @Override
+        public void flush()
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+        @Override
+        public String toString()
+        {
+            return builder.toString();
+        }
+    }
 }
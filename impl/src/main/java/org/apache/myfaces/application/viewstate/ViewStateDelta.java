@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Binary delta between two serialized views, made of copy operations referring to the base and of inserted
+ * literal bytes. Successive states of the same view differ in a few places only, so the delta is usually a
+ * small fraction of the state.
+ *
+ * <p>Format: varint target length, then operations until the target is complete. A copy is encoded as
+ * <code>varint (length - MIN_MATCH) &lt;&lt; 1 | 1</code> followed by the varint base offset, an insert as
+ * <code>varint length &lt;&lt; 1</code> followed by the bytes.</p>
+ */
+final class ViewStateDelta
+{
+    private static final int MIN_MATCH = 8;
+    private static final int MIN_HASH_BITS = 8;
+    private static final int MAX_HASH_BITS = 20;
+
+    private ViewStateDelta()
+    {
+    }
+
+    /**
+     * @return the delta or null if it would not be smaller than half the target
+     */
+    static byte[] encode(byte[] base, byte[] target)
+    {
+        int limit = target.length / 2;
+        if (base.length < MIN_MATCH || target.length < MIN_MATCH)
+        {
+            return null;
+        }
+
+        int bits = Math.max(MIN_HASH_BITS, Math.min(MAX_HASH_BITS, 32 - Integer.numberOfLeadingZeros(base.length)));
+        int[] table = new int[1 << bits];
+        Arrays.fill(table, -1);
+        for (int i = 0; i + MIN_MATCH <= base.length; i++)
+        {
+            table[hash(base, i, bits)] = i;
+        }
+
+        Output out = new Output(Math.min(limit + 16, 1024));
+        out.writeVarint(target.length);
+
+        int literalStart = 0;
+        int i = 0;
+        while (i + MIN_MATCH <= target.length)
+        {
+            int candidate = table[hash(target, i, bits)];
+            int length = candidate < 0 ? 0 : matchLength(base, candidate, target, i);
+            if (length < MIN_MATCH)
+            {
+                i++;
+                continue;
+            }
+
+            // extend the match backwards into the pending literal bytes
+            while (i > literalStart && candidate > 0 && base[candidate - 1] == target[i - 1])
+            {
+                i--;
+                candidate--;
+                length++;
+            }
+
+            out.writeInsert(target, literalStart, i - literalStart);
+            out.writeVarint(((length - MIN_MATCH) << 1) | 1);
+            out.writeVarint(candidate);
+            if (out.size > limit)
+            {
+                return null;
+            }
+
+            i += length;
+            literalStart = i;
+        }
+        out.writeInsert(target, literalStart, target.length - literalStart);
+
+        return out.size > limit ? null : Arrays.copyOf(out.buffer, out.size);
+    }
+
+    static byte[] decode(byte[] base, byte[] delta) throws IOException
+    {
+        int[] position = new int[1];
+        int targetLength = readVarint(delta, position);
+        byte[] target = new byte[targetLength];
+        int written = 0;
+        while (written < targetLength)
+        {
+            int op = readVarint(delta, position);
+            if ((op & 1) == 1)
+            {
+                int length = (op >>> 1) + MIN_MATCH;
+                int offset = readVarint(delta, position);
+                if (offset + length > base.length || written + length > targetLength)
+                {
+                    throw new IOException("Invalid delta copy");
+                }
+                System.arraycopy(base, offset, target, written, length);
+                written += length;
+            }
+            else
+            {
+                int length = op >>> 1;
+                if (position[0] + length > delta.length || written + length > targetLength)
+                {
+                    throw new IOException("Invalid delta insert");
+                }
+                System.arraycopy(delta, position[0], target, written, length);
+                position[0] += length;
+                written += length;
+            }
+        }
+        return target;
+    }
+
+    private static int hash(byte[] data, int offset, int bits)
+    {
+        long value = 0;
+        for (int i = 0; i < MIN_MATCH; i++)
+        {
+            value = (value << 8) | (data[offset + i] & 0xFF);
+        }
+        return (int) ((value * 0x9E3779B97F4A7C15L) >>> (64 - bits));
+    }
+
+    private static int matchLength(byte[] base, int baseOffset, byte[] target, int targetOffset)
+    {
+        int max = Math.min(base.length - baseOffset, target.length - targetOffset);
+        int length = 0;
+        while (length < max && base[baseOffset + length] == target[targetOffset + length])
+        {
+            length++;
+        }
+        return length;
+    }
+
+    private static int readVarint(byte[] data, int[] position) throws IOException
+    {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7)
+        {
+            if (position[0] >= data.length)
+            {
+                throw new IOException("Truncated delta");
+            }
+            int b = data[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+            {
+                return value;
+            }
+        }
+        throw new IOException("Invalid delta varint");
+    }
+
+    private static final class Output
+    {
+        private byte[] buffer;
+        private int size;
+
+        Output(int capacity)
+        {
+            buffer = new byte[capacity];
+        }
+
+        private void ensureCapacity(int additional)
+        {
+            if (size + additional > buffer.length)
+            {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additional));
+            }
+        }
+
+        void writeVarint(int value)
+        {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0)
+            {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeInsert(byte[] data, int offset, int length)
+        {
+            if (length > 0)
+            {
+                writeVarint(length << 1);
+                ensureCapacity(length);
+                System.arraycopy(data, offset, buffer, size, length);
+                size += length;
+            }
+        }
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+import jakarta.faces.context.ExternalContext;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+
+/**
+ * Compresses serialized views with preset Deflater dictionaries, trained per view id from the first
+ * saved states of that view. Views of the same page share most of their component ids, class names and
+ * attribute keys, so a dictionary made of earlier states shrinks the following ones considerably.
+ *
+ * <p>The compressed data is a zlib stream. Its header contains the Adler-32 checksum of the dictionary,
+ * which is used to look the dictionary up again when inflating. Until a dictionary is trained for a view,
+ * its states are compressed without dictionary. The dictionaries are kept in application scope.</p>
+ */
+public class ViewStateDictionaryCompressor
+{
+    private static final Logger log = Logger.getLogger(ViewStateDictionaryCompressor.class.getName());
+
+    private static final String APPLICATION_KEY = ViewStateDictionaryCompressor.class.getName();
+
+    /**
+     * The deflate window, the compressor cannot refer to anything before that.
+     */
+    private static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+    private static final int BUFFER_SIZE = 1024;
+
+    /**
+     * First byte of a zlib stream with the default window size, a GZIP stream starts with 0x1f.
+     */
+    private static final int ZLIB_HEADER = 0x78;
+
+    private final int sampleCount;
+    private final int maxViews;
+    private final Map<String, List<byte[]>> samples = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> dictionaries = new ConcurrentHashMap<>();
+    private final Map<Integer, byte[]> dictionariesById = new ConcurrentHashMap<>();
+
+    public ViewStateDictionaryCompressor(int sampleCount, int maxViews)
+    {
+        this.sampleCount = sampleCount;
+        this.maxViews = maxViews;
+    }
+
+    /**
+     * @return the compressor of the application or null if dictionary compression is not enabled
+     */
+    public static ViewStateDictionaryCompressor getInstance(ExternalContext externalContext)
+    {
+        MyfacesConfig config = MyfacesConfig.getCurrentInstance(externalContext);
+        if (config.getViewStateCompressionDictionarySamples() <= 0)
+        {
+            return null;
+        }
+
+        Map<String, Object> applicationMap = externalContext.getApplicationMap();
+        ViewStateDictionaryCompressor compressor = (ViewStateDictionaryCompressor) applicationMap.get(APPLICATION_KEY);
+        if (compressor == null)
+        {
+            synchronized (ViewStateDictionaryCompressor.class)
+            {
+                compressor = (ViewStateDictionaryCompressor) applicationMap.get(APPLICATION_KEY);
+                if (compressor == null)
+                {
+                    compressor = new ViewStateDictionaryCompressor(config.getViewStateCompressionDictionarySamples(),
+                            config.getViewStateCompressionDictionaryMaxViews());
+                    applicationMap.put(APPLICATION_KEY, compressor);
+                }
+            }
+        }
+        return compressor;
+    }
+
+    /**
+     * Wraps the given stream, everything written to the returned stream is compressed with the dictionary
+     * of the view. If there is none yet, the written data is used as a sample to train one.
+     * Closing the returned stream closes the given stream.
+     */
+    public OutputStream compress(String viewId, OutputStream out)
+    {
+        byte[] dictionary = viewId == null ? null : dictionaries.get(viewId);
+
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        if (dictionary != null)
+        {
+            deflater.setDictionary(dictionary);
+        }
+        boolean sample = dictionary == null && viewId != null && isTraining(viewId);
+        return new SamplingDeflaterOutputStream(out, deflater, sample ? viewId : null);
+    }
+
+    /**
+     * Wraps a stream created by {@link #compress(String, OutputStream)}. Plain GZIP streams are also accepted.
+     */
+    public InputStream decompress(InputStream in) throws IOException
+    {
+        PushbackInputStream pushback = new PushbackInputStream(in, 1);
+        int first = pushback.read();
+        if (first != -1)
+        {
+            pushback.unread(first);
+        }
+        if (first != ZLIB_HEADER)
+        {
+            return new GZIPInputStream(pushback, BUFFER_SIZE);
+        }
+        return new DictionaryInflaterInputStream(pushback);
+    }
+
+    private boolean isTraining(String viewId)
+    {
+        return samples.containsKey(viewId) || dictionaries.size() + samples.size() < maxViews;
+    }
+
+    void addSample(String viewId, byte[] sample)
+    {
+        samples.compute(viewId, (key, list) ->
+        {
+            if (dictionaries.containsKey(key))
+            {
+                return null;
+            }
+            if (list == null)
+            {
+                list = new ArrayList<>(sampleCount);
+            }
+            list.add(sample);
+            if (list.size() < sampleCount)
+            {
+                return list;
+            }
+
+            byte[] dictionary = train(list);
+            Adler32 adler = new Adler32();
+            adler.update(dictionary);
+            byte[] existing = dictionariesById.putIfAbsent((int) adler.getValue(), dictionary);
+            if (existing == null || Arrays.equals(existing, dictionary))
+            {
+                dictionaries.put(key, dictionary);
+                if (log.isLoggable(Level.FINE))
+                {
+                    log.fine("Trained compression dictionary of " + dictionary.length + " bytes for view " + key);
+                }
+            }
+            // else the checksum clashes with the dictionary of another view, keep compressing without
+            return null;
+        });
+    }
+
+    /**
+     * Builds the dictionary from the beginning of each sample, oldest first. Deflate finds matches closer to
+     * the end of the dictionary cheaper, so the newest sample comes last.
+     */
+    private static byte[] train(List<byte[]> samples)
+    {
+        int perSample = MAX_DICTIONARY_SIZE / samples.size();
+        int size = 0;
+        for (byte[] sample : samples)
+        {
+            size += Math.min(sample.length, perSample);
+        }
+
+        byte[] dictionary = new byte[size];
+        int offset = 0;
+        for (byte[] sample : samples)
+        {
+            int length = Math.min(sample.length, perSample);
+            System.arraycopy(sample, 0, dictionary, offset, length);
+            offset += length;
+        }
+        return dictionary;
+    }
+
+    int getDictionaryCount()
+    {
+        return dictionaries.size();
+    }
+
+    private class SamplingDeflaterOutputStream extends DeflaterOutputStream
+    {
+        private final String viewId;
+        private byte[] sample;
+        private int sampleLength;
+
+        SamplingDeflaterOutputStream(OutputStream out, Deflater deflater, String viewId)
+        {
+            super(out, deflater, BUFFER_SIZE);
+            this.viewId = viewId;
+            if (viewId != null)
+            {
+                this.sample = new byte[BUFFER_SIZE];
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException
+        {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            if (sample != null && sampleLength < MAX_DICTIONARY_SIZE)
+            {
+                int length = Math.min(len, MAX_DICTIONARY_SIZE - sampleLength);
+                if (sampleLength + length > sample.length)
+                {
+                    sample = Arrays.copyOf(sample,
+                            Math.min(MAX_DICTIONARY_SIZE, Math.max(sample.length * 2, sampleLength + length)));
+                }
+                System.arraycopy(b, off, sample, sampleLength, length);
+                sampleLength += length;
+            }
+            super.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            try
+            {
+                super.close();
+            }
+            finally
+            {
+                // not the default deflater, so it is not released by DeflaterOutputStream
+                def.end();
+            }
+            if (sample != null)
+            {
+                addSample(viewId, Arrays.copyOf(sample, sampleLength));
+                sample = null;
+            }
+        }
+    }
+
+    private class DictionaryInflaterInputStream extends InflaterInputStream
+    {
+        DictionaryInflaterInputStream(InputStream in)
+        {
+            super(in, new Inflater(), BUFFER_SIZE);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            int n = super.read(b, off, len);
+            if (n == -1 && inf.needsDictionary())
+            {
+                byte[] dictionary = dictionariesById.get(inf.getAdler());
+                if (dictionary == null)
+                {
+                    throw new ZipException("Unknown compression dictionary " + Integer.toHexString(inf.getAdler()));
+                }
+                inf.setDictionary(dictionary);
+                n = super.read(b, off, len);
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            try
+            {
+                super.close();
+            }
+            finally
+            {
+                inf.end();
+            }
+        }
+    }
+}
@@ -790,6 +790,300 @@
     public static final String EXCEPTION_TYPES_TO_IGNORE_IN_LOGGING =
             "org.apache.myfaces.EXCEPTION_TYPES_TO_IGNORE_IN_LOGGING";
 
+    /**
+     * Size in megabytes of the off-heap store used to keep the serialized views outside of the session.
+     * By default 0, which means the views are stored in the session as usual.
+     * 
+     * <p>Only applicable if state saving method is "server" (= default) and if
+     * <code>jakarta.faces.SERIALIZE_SERVER_STATE</code> is <code>true</code>. The session then only holds
+     * the keys of the views. The views are not replicated along with the session.</p>
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="0", group="state", tags="performance")
+    public static final String OFF_HEAP_VIEW_STATE_STORE_SIZE = "org.apache.myfaces.OFF_HEAP_VIEW_STATE_STORE_SIZE";
+    private static final int OFF_HEAP_VIEW_STATE_STORE_SIZE_DEFAULT = 0;
+
+    /**
+     * Size in bytes of the blocks the off-heap view state store is divided into. A serialized view
+     * takes as many blocks as needed.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="4096", group="state", tags="performance")
+    public static final String OFF_HEAP_VIEW_STATE_STORE_BLOCK_SIZE =
+            "org.apache.myfaces.OFF_HEAP_VIEW_STATE_STORE_BLOCK_SIZE";
+    private static final int OFF_HEAP_VIEW_STATE_STORE_BLOCK_SIZE_DEFAULT = 4096;
+
+    /**
+     * Time in minutes a view is kept in the off-heap view state store after it was last accessed.
+     * By default 0, which means views are only evicted when the store is full (least recently used first).
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="0", group="state")
+    public static final String OFF_HEAP_VIEW_STATE_STORE_TIME_TO_LIVE =
+            "org.apache.myfaces.OFF_HEAP_VIEW_STATE_STORE_TIME_TO_LIVE";
+    private static final long OFF_HEAP_VIEW_STATE_STORE_TIME_TO_LIVE_DEFAULT = 0L;
+
+    /**
+     * If set, the off-heap view state store is backed by a memory mapped temporary file in this directory
+     * instead of direct memory.
+     */
+    @JSFWebConfigParam(since="5.0", group="state")
+    public static final String OFF_HEAP_VIEW_STATE_STORE_DIRECTORY =
+            "org.apache.myfaces.OFF_HEAP_VIEW_STATE_STORE_DIRECTORY";
+
+    /**
+     * Number of saved states of a view used to train a preset compression dictionary for that view.
+     * By default 0, which means every state is compressed with plain GZIP.
+     * 
+     * <p>Only applicable to the server side state if it is compressed, see
+     * <code>org.apache.myfaces.COMPRESS_STATE_IN_SESSION</code>. The client side state is always compressed
+     * with plain GZIP, as its compressed length would reveal how much it matches the states of other sessions
+     * the dictionary was trained with. The dictionaries are only kept in memory, states compressed with a
+     * dictionary cannot be restored after a restart or on another cluster node.</p>
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="0", group="state", tags="performance")
+    public static final String VIEW_STATE_COMPRESSION_DICTIONARY_SAMPLES =
+            "org.apache.myfaces.VIEW_STATE_COMPRESSION_DICTIONARY_SAMPLES";
+    private static final int VIEW_STATE_COMPRESSION_DICTIONARY_SAMPLES_DEFAULT = 0;
+
+    /**
+     * Maximum number of views a compression dictionary is trained for. Each dictionary takes up to 32KB.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="200", group="state", tags="performance")
+    public static final String VIEW_STATE_COMPRESSION_DICTIONARY_MAX_VIEWS =
+            "org.apache.myfaces.VIEW_STATE_COMPRESSION_DICTIONARY_MAX_VIEWS";
+    private static final int VIEW_STATE_COMPRESSION_DICTIONARY_MAX_VIEWS_DEFAULT = 200;
+
+    /**
+     * If greater than 1, a serialized view saved in session after a postback is stored as a binary delta
+     * against the state of the view it was restored from, and every given number of states a full snapshot
+     * is stored again. By default 0, which means every view is stored in full.
+     * 
+     * <p>Only applicable if state saving method is "server" (= default) and if
+     * <code>jakarta.faces.SERIALIZE_SERVER_STATE</code> is <code>true</code>. It reduces the session size
+     * for pages doing many ajax postbacks, restoring a view needs to apply the deltas up to the last
+     * snapshot. Compressed states hardly differ in a compact way, so it is best combined with
+     * <code>org.apache.myfaces.COMPRESS_STATE_IN_SESSION</code> set to <code>false</code>.</p>
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="0", group="state", tags="performance")
+    public static final String VIEW_STATE_DELTA_SNAPSHOT_INTERVAL =
+            "org.apache.myfaces.VIEW_STATE_DELTA_SNAPSHOT_INTERVAL";
+    private static final int VIEW_STATE_DELTA_SNAPSHOT_INTERVAL_DEFAULT = 0;
+
+    /**
+     * Serialize the views saved in session on a background executor instead of the request thread.
+     * Virtual threads are used if the JVM supports them.
+     * 
+     * <p>Only applicable if state saving method is "server" (= default) and if
+     * <code>jakarta.faces.SERIALIZE_SERVER_STATE</code> is <code>true</code>. A postback arriving before the
+     * serialization is done waits for it. Views saved this way are not stored as delta.</p>
+     * 
+     * <p>The state is not copied before it is serialized: values referenced by the state of the components,
+     * like the local value of an input or an attribute, must not be changed after the view is rendered.
+     * It is not used for subclasses of the server side state cache overriding
+     * <code>serializeView(FacesContext, Object)</code>.</p>
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="false", expectedValues="true,false", group="state",
+            tags="performance")
+    public static final String ASYNC_SERIALIZE_SERVER_STATE = "org.apache.myfaces.ASYNC_SERIALIZE_SERVER_STATE";
+    private static final boolean ASYNC_SERIALIZE_SERVER_STATE_DEFAULT = false;
+
+    /**
+     * Maximum number of views waiting for the background serialization. If the limit is reached,
+     * the view is serialized on the request thread.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="100", group="state", tags="performance")
+    public static final String ASYNC_SERIALIZE_SERVER_STATE_MAX_PENDING =
+            "org.apache.myfaces.ASYNC_SERIALIZE_SERVER_STATE_MAX_PENDING";
+    private static final int ASYNC_SERIALIZE_SERVER_STATE_MAX_PENDING_DEFAULT = 100;
+
+    /**
+     * Collect metrics about the view state: per view the size of the serialized state, the compression
+     * ratio and the time needed to save and restore the state, plus the restore misses and the views
+     * evicted from session. The default implementation publishes them as JMX MBean
+     * <code>org.apache.myfaces:type=ViewStateMetrics</code>, a custom one can be registered as service
+     * <code>org.apache.myfaces.spi.ViewStateMetrics</code>.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="false", expectedValues="true,false", group="state",
+            tags="performance")
+    public static final String VIEW_STATE_METRICS = "org.apache.myfaces.VIEW_STATE_METRICS";
+    private static final boolean VIEW_STATE_METRICS_DEFAULT = false;
+
+    /**
+     * Maximum number of bytes of resource bodies kept in memory by the default ResourceHandler, so frequently
+     * requested resources are served without reading them again from the jar or the file system. When the
+     * limit is reached the least recently used bodies are evicted. Resources that could contain value
+     * expressions (like css files) are not cached. Set it to 0 to disable the cache. Only active when the
+     * ProjectStage is Production.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="10485760", group="resources", tags="performance")
+    public static final String RESOURCE_BODY_CACHE_SIZE = "org.apache.myfaces.RESOURCE_BODY_CACHE_SIZE";
+    private static final long RESOURCE_BODY_CACHE_SIZE_DEFAULT = 10485760L;
+
+    /**
+     * Maximum size in bytes of a single resource body stored in the resource body cache. Bigger resources
+     * are always read from their source.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="524288", group="resources", tags="performance")
+    public static final String RESOURCE_BODY_CACHE_MAX_ENTRY_SIZE =
+            "org.apache.myfaces.RESOURCE_BODY_CACHE_MAX_ENTRY_SIZE";
+    private static final int RESOURCE_BODY_CACHE_MAX_ENTRY_SIZE_DEFAULT = 524288;
+
+    /**
+     * Serve gzip compressed variants of text based resources (javascript, css without value expressions,
+     * json, xml, svg...) to clients sending a matching Accept-Encoding header. A variant shipped next to the
+     * resource with the .gz suffix is used if available, otherwise the variant is compressed once into the
+     * temporary directory of the ServletContext. Only active when the ProjectStage is Production.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="false", expectedValues="true,false", group="resources",
+            tags="performance")
+    public static final String RESOURCE_PRECOMPRESSION_ENABLED = "org.apache.myfaces.RESOURCE_PRECOMPRESSION_ENABLED";
+    private static final boolean RESOURCE_PRECOMPRESSION_ENABLED_DEFAULT = false;
+
+    /**
+     * Send a strong ETag header, based on a hash of the resource content, for resources served by the default
+     * ResourceHandler, and answer requests with a matching If-None-Match header with 304 Not Modified. The hash
+     * is computed once on first access. Resources that could contain value expressions (like css files) are
+     * not hashed. Only active when the ProjectStage is Production.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="false", expectedValues="true,false", group="resources",
+            tags="performance")
+    public static final String RESOURCE_ETAG_ENABLED = "org.apache.myfaces.RESOURCE_ETAG_ENABLED";
+    private static final boolean RESOURCE_ETAG_ENABLED_DEFAULT = false;
+
+    /**
+     * Add the hash of the resource content as <code>v</code> parameter to the resource URLs. Requests for
+     * the current version of a resource are answered with a one year, immutable Cache-Control header, so
+     * browsers and proxies never need to revalidate them. Resources that could contain value expressions
+     * (like css files) keep their plain URL. Only active when the ProjectStage is Production.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="false", expectedValues="true,false", group="resources",
+            tags="performance")
+    public static final String RESOURCE_FINGERPRINT_URLS = "org.apache.myfaces.RESOURCE_FINGERPRINT_URLS";
+    private static final boolean RESOURCE_FINGERPRINT_URLS_DEFAULT = false;
+
+    /**
+     * Compile resources that could contain value expressions (like css files) once into literal segments and
+     * expressions, instead of filtering them byte by byte on every request. The compiled resources are kept
+     * in a cache of org.apache.myfaces.RESOURCE_HANDLER_CACHE_SIZE entries. Only active when the ProjectStage
+     * is Production.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="true", expectedValues="true,false", group="resources",
+            tags="performance")
+    public static final String RESOURCE_TEMPLATE_CACHE_ENABLED = "org.apache.myfaces.RESOURCE_TEMPLATE_CACHE_ENABLED";
+    private static final boolean RESOURCE_TEMPLATE_CACHE_ENABLED_DEFAULT = true;
+
+    /**
+     * Render the scripts of the head, that do not contain value expressions, as bundles: every sequence of
+     * h:outputScript resources without pass through attributes is concatenated into one response, served under
+     * a content hashed name. Stylesheets are not bundled, as they could contain value expressions. Only active
+     * when the ProjectStage is Production.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="false", expectedValues="true,false", group="resources",
+            tags="performance")
+    public static final String RESOURCE_BUNDLING_ENABLED = "org.apache.myfaces.RESOURCE_BUNDLING_ENABLED";
+    private static final boolean RESOURCE_BUNDLING_ENABLED_DEFAULT = false;
+
+    /**
+     * Scan /resources, /contracts and the META-INF/resources, META-INF/flows and META-INF/contracts entries of
+     * the classpath once at startup, and answer the library, version and existence checks of the resource
+     * loaders from that index instead of looking them up on every miss. Resources added at runtime are not
+     * found. Only active when the ProjectStage is Production.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="false", expectedValues="true,false", group="resources",
+            tags="performance")
+    public static final String RESOURCE_INDEX_ENABLED = "org.apache.myfaces.RESOURCE_INDEX_ENABLED";
+    private static final boolean RESOURCE_INDEX_ENABLED_DEFAULT = false;
+
+    /**
+     * Write the response to the servlet OutputStream through a UTF-8 encoding writer instead of the servlet
+     * Writer, when the response character encoding is UTF-8. Literal markup of Facelets pages is then encoded
+     * once and written as bytes on every request, only dynamic values are encoded per request.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="false", expectedValues="true,false", group="render",
+            tags="performance")
+    public static final String UTF8_RESPONSE_WRITER_ENABLED = "org.apache.myfaces.UTF8_RESPONSE_WRITER_ENABLED";
+    private static final boolean UTF8_RESPONSE_WRITER_ENABLED_DEFAULT = false;
+
+    /**
+     * Stream the response while the view is rendered: the response is flushed after the end tag of the
+     * elements configured with {@link #STREAMING_RENDER_FLUSH_ELEMENTS} and after any end tag once
+     * {@link #STREAMING_RENDER_FLUSH_SIZE} characters have been written since the last flush. Content buffered
+     * behind a client side state marker is still written at the end of the request. Ajax requests are not
+     * affected. Once the response is committed, errors during the rest of the rendering can't be redirected
+     * to an error page anymore.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="false", expectedValues="true,false", group="render",
+            tags="performance")
+    public static final String STREAMING_RENDER_ENABLED = "org.apache.myfaces.STREAMING_RENDER_ENABLED";
+    private static final boolean STREAMING_RENDER_ENABLED_DEFAULT = false;
+
+    /**
+     * Comma separated list of the elements after which end tag the response is flushed when
+     * {@link #STREAMING_RENDER_ENABLED} is enabled.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="head,form", group="render", tags="performance")
+    public static final String STREAMING_RENDER_FLUSH_ELEMENTS = "org.apache.myfaces.STREAMING_RENDER_FLUSH_ELEMENTS";
+    private static final String STREAMING_RENDER_FLUSH_ELEMENTS_DEFAULT = "head,form";
+
+    /**
+     * Number of characters written since the last flush after which the response is flushed at the next end
+     * tag when {@link #STREAMING_RENDER_ENABLED} is enabled. 0 disables flushing by size.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="8192", group="render", tags="performance")
+    public static final String STREAMING_RENDER_FLUSH_SIZE = "org.apache.myfaces.STREAMING_RENDER_FLUSH_SIZE";
+    private static final int STREAMING_RENDER_FLUSH_SIZE_DEFAULT = 8192;
+
+    /**
+     * Number of char buffers kept per application to buffer the rendered content, e.g. behind a client side
+     * state marker, so following requests can use them again instead of allocating new ones. 0 disables the
+     * pooling.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="0", group="render", tags="performance")
+    public static final String RENDER_BUFFER_POOL_SIZE = "org.apache.myfaces.RENDER_BUFFER_POOL_SIZE";
+    private static final int RENDER_BUFFER_POOL_SIZE_DEFAULT = 0;
+
+    /**
+     * Profile the rendering of the views: the time spent and the characters written while encoding each
+     * component with a renderer, aggregated per component type, per client id and per component stack. The
+     * default implementation publishes them as JMX MBean <code>org.apache.myfaces:type=RenderProfiler</code>,
+     * which can also dump the stacks in the collapsed format used by flame graph tools. A custom
+     * implementation can be registered as service <code>org.apache.myfaces.spi.RenderProfiler</code>.
+     * Profiling adds some overhead to every rendered component.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="false", expectedValues="true,false", group="render",
+            tags="performance")
+    public static final String RENDER_PROFILER = "org.apache.myfaces.RENDER_PROFILER";
+    private static final boolean RENDER_PROFILER_DEFAULT = false;
+
+    /**
+     * Collect the time spent in each phase of the lifecycle, per view: Restore View, Apply Request Values,
+     * Process Validations, Update Model Values, Invoke Application and Render Response, plus the whole request.
+     * Requests slower than {@link #LIFECYCLE_METRICS_SLOW_REQUEST_THRESHOLD} are sampled with their phase
+     * times. The default implementation publishes them as JMX MBean
+     * <code>org.apache.myfaces:type=LifecycleMetrics</code>, a custom one can be registered as service
+     * <code>org.apache.myfaces.spi.LifecycleMetrics</code>.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="false", expectedValues="true,false", group="lifecycle",
+            tags="performance")
+    public static final String LIFECYCLE_METRICS = "org.apache.myfaces.LIFECYCLE_METRICS";
+    private static final boolean LIFECYCLE_METRICS_DEFAULT = false;
+
+    /**
+     * Time in milliseconds after which a request is kept as slow request sample when
+     * {@link #LIFECYCLE_METRICS} is enabled. 0 disables the sampling.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="1000", group="lifecycle", tags="performance")
+    public static final String LIFECYCLE_METRICS_SLOW_REQUEST_THRESHOLD =
+            "org.apache.myfaces.LIFECYCLE_METRICS_SLOW_REQUEST_THRESHOLD";
+    private static final int LIFECYCLE_METRICS_SLOW_REQUEST_THRESHOLD_DEFAULT = 1000;
+
+    /**
+     * Maximum number of fragments kept by <code>&lt;ui:cache&gt;</code> per scope, i.e. in the application, in
+     * each session and in each view. Once the limit is reached, the expired fragments are discarded first,
+     * then the oldest one.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="1000", group="render", tags="performance")
+    public static final String FRAGMENT_CACHE_SIZE = "org.apache.myfaces.FRAGMENT_CACHE_SIZE";
+    private static final int FRAGMENT_CACHE_SIZE_DEFAULT = 1000;
+
     // we need it, applicationImpl not ready probably
     private ProjectStage projectStage = ProjectStage.Production;
     private boolean strictJsf2AllowSlashLibraryName;
@@ -870,6 +1164,34 @@
     private boolean elResolverTracing = EL_RESOLVER_TRACING_DEFAULT;
     private long faceletsRefreshPeriod = -1;
     private List<String> exceptionTypesToIgnoreInLogging = new ArrayList<>();
+    private int offHeapViewStateStoreSize = OFF_HEAP_VIEW_STATE_STORE_SIZE_DEFAULT;
+    private int offHeapViewStateStoreBlockSize = OFF_HEAP_VIEW_STATE_STORE_BLOCK_SIZE_DEFAULT;
+    private long offHeapViewStateStoreTimeToLive = OFF_HEAP_VIEW_STATE_STORE_TIME_TO_LIVE_DEFAULT;
+    private String offHeapViewStateStoreDirectory;
+    private int viewStateCompressionDictionarySamples = VIEW_STATE_COMPRESSION_DICTIONARY_SAMPLES_DEFAULT;
+    private int viewStateCompressionDictionaryMaxViews = VIEW_STATE_COMPRESSION_DICTIONARY_MAX_VIEWS_DEFAULT;
+    private int viewStateDeltaSnapshotInterval = VIEW_STATE_DELTA_SNAPSHOT_INTERVAL_DEFAULT;
+    private boolean asyncSerializeServerState = ASYNC_SERIALIZE_SERVER_STATE_DEFAULT;
+    private int asyncSerializeServerStateMaxPending = ASYNC_SERIALIZE_SERVER_STATE_MAX_PENDING_DEFAULT;
+    private boolean viewStateMetrics = VIEW_STATE_METRICS_DEFAULT;
+    private long resourceBodyCacheSize = RESOURCE_BODY_CACHE_SIZE_DEFAULT;
+    private int resourceBodyCacheMaxEntrySize = RESOURCE_BODY_CACHE_MAX_ENTRY_SIZE_DEFAULT;
+    private boolean resourcePrecompressionEnabled = RESOURCE_PRECOMPRESSION_ENABLED_DEFAULT;
+    private boolean resourceETagEnabled = RESOURCE_ETAG_ENABLED_DEFAULT;
+    private boolean resourceFingerprintUrls = RESOURCE_FINGERPRINT_URLS_DEFAULT;
+    private boolean resourceTemplateCacheEnabled = RESOURCE_TEMPLATE_CACHE_ENABLED_DEFAULT;
+    private boolean resourceBundlingEnabled = RESOURCE_BUNDLING_ENABLED_DEFAULT;
+    private boolean resourceIndexEnabled = RESOURCE_INDEX_ENABLED_DEFAULT;
+    private boolean utf8ResponseWriterEnabled = UTF8_RESPONSE_WRITER_ENABLED_DEFAULT;
+    private boolean streamingRenderEnabled = STREAMING_RENDER_ENABLED_DEFAULT;
+    private String[] streamingRenderFlushElements = StringUtils.splitShortString(
+            STREAMING_RENDER_FLUSH_ELEMENTS_DEFAULT, ',');
+    private int streamingRenderFlushSize = STREAMING_RENDER_FLUSH_SIZE_DEFAULT;
+    private int renderBufferPoolSize = RENDER_BUFFER_POOL_SIZE_DEFAULT;
+    private boolean renderProfiler = RENDER_PROFILER_DEFAULT;
+    private boolean lifecycleMetrics = LIFECYCLE_METRICS_DEFAULT;
+    private int lifecycleMetricsSlowRequestThreshold = LIFECYCLE_METRICS_SLOW_REQUEST_THRESHOLD_DEFAULT;
+    private int fragmentCacheSize = FRAGMENT_CACHE_SIZE_DEFAULT;
     
     private static final boolean MYFACES_IMPL_AVAILABLE;
     private static final boolean RI_IMPL_AVAILABLE;
@@ -1346,6 +1668,96 @@ else if (refreshTransientBuildOnPSS.equalsIgnoreCase("true") ||
             }
         }
         
+        cfg.offHeapViewStateStoreSize = getInt(extCtx, OFF_HEAP_VIEW_STATE_STORE_SIZE,
+                OFF_HEAP_VIEW_STATE_STORE_SIZE_DEFAULT);
+        cfg.offHeapViewStateStoreBlockSize = getInt(extCtx, OFF_HEAP_VIEW_STATE_STORE_BLOCK_SIZE,
+                OFF_HEAP_VIEW_STATE_STORE_BLOCK_SIZE_DEFAULT);
+        cfg.offHeapViewStateStoreTimeToLive = getLong(extCtx, OFF_HEAP_VIEW_STATE_STORE_TIME_TO_LIVE,
+                OFF_HEAP_VIEW_STATE_STORE_TIME_TO_LIVE_DEFAULT);
+        cfg.offHeapViewStateStoreDirectory = getString(extCtx, OFF_HEAP_VIEW_STATE_STORE_DIRECTORY,
+                null);
+
+        cfg.viewStateCompressionDictionarySamples = getInt(extCtx, VIEW_STATE_COMPRESSION_DICTIONARY_SAMPLES,
+                VIEW_STATE_COMPRESSION_DICTIONARY_SAMPLES_DEFAULT);
+        cfg.viewStateCompressionDictionaryMaxViews = getInt(extCtx, VIEW_STATE_COMPRESSION_DICTIONARY_MAX_VIEWS,
+                VIEW_STATE_COMPRESSION_DICTIONARY_MAX_VIEWS_DEFAULT);
+
+        cfg.viewStateDeltaSnapshotInterval = getInt(extCtx, VIEW_STATE_DELTA_SNAPSHOT_INTERVAL,
+                VIEW_STATE_DELTA_SNAPSHOT_INTERVAL_DEFAULT);
+
+        cfg.asyncSerializeServerState = getBoolean(extCtx, ASYNC_SERIALIZE_SERVER_STATE,
+                ASYNC_SERIALIZE_SERVER_STATE_DEFAULT);
+        cfg.asyncSerializeServerStateMaxPending = getInt(extCtx, ASYNC_SERIALIZE_SERVER_STATE_MAX_PENDING,
+                ASYNC_SERIALIZE_SERVER_STATE_MAX_PENDING_DEFAULT);
+
+        cfg.viewStateMetrics = getBoolean(extCtx, VIEW_STATE_METRICS, VIEW_STATE_METRICS_DEFAULT);
+
+        cfg.resourceBodyCacheSize = getLong(extCtx, RESOURCE_BODY_CACHE_SIZE, RESOURCE_BODY_CACHE_SIZE_DEFAULT);
+        if (cfg.projectStage != ProjectStage.Production)
+        {
+            cfg.resourceBodyCacheSize = 0;
+        }
+        cfg.resourceBodyCacheMaxEntrySize = getInt(extCtx, RESOURCE_BODY_CACHE_MAX_ENTRY_SIZE,
+                RESOURCE_BODY_CACHE_MAX_ENTRY_SIZE_DEFAULT);
+
+        cfg.resourcePrecompressionEnabled = getBoolean(extCtx, RESOURCE_PRECOMPRESSION_ENABLED,
+                RESOURCE_PRECOMPRESSION_ENABLED_DEFAULT);
+        if (cfg.projectStage != ProjectStage.Production)
+        {
+            cfg.resourcePrecompressionEnabled = false;
+        }
+
+        cfg.resourceETagEnabled = getBoolean(extCtx, RESOURCE_ETAG_ENABLED, RESOURCE_ETAG_ENABLED_DEFAULT);
+        cfg.resourceFingerprintUrls = getBoolean(extCtx, RESOURCE_FINGERPRINT_URLS,
+                RESOURCE_FINGERPRINT_URLS_DEFAULT);
+        if (cfg.projectStage != ProjectStage.Production)
+        {
+            cfg.resourceETagEnabled = false;
+            cfg.resourceFingerprintUrls = false;
+        }
+
+        cfg.resourceTemplateCacheEnabled = getBoolean(extCtx, RESOURCE_TEMPLATE_CACHE_ENABLED,
+                RESOURCE_TEMPLATE_CACHE_ENABLED_DEFAULT);
+        if (cfg.projectStage != ProjectStage.Production)
+        {
+            cfg.resourceTemplateCacheEnabled = false;
+        }
+
+        cfg.resourceBundlingEnabled = getBoolean(extCtx, RESOURCE_BUNDLING_ENABLED,
+                RESOURCE_BUNDLING_ENABLED_DEFAULT);
+        if (cfg.projectStage != ProjectStage.Production)
+        {
+            cfg.resourceBundlingEnabled = false;
+        }
+
+        cfg.resourceIndexEnabled = getBoolean(extCtx, RESOURCE_INDEX_ENABLED,
+                RESOURCE_INDEX_ENABLED_DEFAULT);
+        if (cfg.projectStage != ProjectStage.Production)
+        {
+            cfg.resourceIndexEnabled = false;
+        }
+
+        cfg.utf8ResponseWriterEnabled = getBoolean(extCtx, UTF8_RESPONSE_WRITER_ENABLED,
+                UTF8_RESPONSE_WRITER_ENABLED_DEFAULT);
+
+        cfg.streamingRenderEnabled = getBoolean(extCtx, STREAMING_RENDER_ENABLED,
+                STREAMING_RENDER_ENABLED_DEFAULT);
+        cfg.streamingRenderFlushElements = StringUtils.trim(StringUtils.splitShortString(
+                getString(extCtx, STREAMING_RENDER_FLUSH_ELEMENTS, STREAMING_RENDER_FLUSH_ELEMENTS_DEFAULT), ','));
+        cfg.streamingRenderFlushSize = getInt(extCtx, STREAMING_RENDER_FLUSH_SIZE,
+                STREAMING_RENDER_FLUSH_SIZE_DEFAULT);
+
+        cfg.renderBufferPoolSize = getInt(extCtx, RENDER_BUFFER_POOL_SIZE,
+                RENDER_BUFFER_POOL_SIZE_DEFAULT);
+
+        cfg.renderProfiler = getBoolean(extCtx, RENDER_PROFILER, RENDER_PROFILER_DEFAULT);
+
+        cfg.lifecycleMetrics = getBoolean(extCtx, LIFECYCLE_METRICS, LIFECYCLE_METRICS_DEFAULT);
+        cfg.lifecycleMetricsSlowRequestThreshold = getInt(extCtx, LIFECYCLE_METRICS_SLOW_REQUEST_THRESHOLD,
+                LIFECYCLE_METRICS_SLOW_REQUEST_THRESHOLD_DEFAULT);
+
+        cfg.fragmentCacheSize = getInt(extCtx, FRAGMENT_CACHE_SIZE, FRAGMENT_CACHE_SIZE_DEFAULT);
+
         return cfg;
     }
 
@@ -1815,5 +2227,139 @@ public List<String> getExceptionTypesToIgnoreInLogging()
     {
         return exceptionTypesToIgnoreInLogging;
     }
-}
 
+    public int getOffHeapViewStateStoreSize()
+    {
+        return offHeapViewStateStoreSize;
+    }
+
+    public int getOffHeapViewStateStoreBlockSize()
+    {
+        return offHeapViewStateStoreBlockSize;
+    }
+
+    public long getOffHeapViewStateStoreTimeToLive()
+    {
+        return offHeapViewStateStoreTimeToLive;
+    }
+
+    public String getOffHeapViewStateStoreDirectory()
+    {
+        return offHeapViewStateStoreDirectory;
+    }
+
+    public int getViewStateCompressionDictionarySamples()
+    {
+        return viewStateCompressionDictionarySamples;
+    }
+
+    public int getViewStateCompressionDictionaryMaxViews()
+    {
+        return viewStateCompressionDictionaryMaxViews;
+    }
+
+    public int getViewStateDeltaSnapshotInterval()
+    {
+        return viewStateDeltaSnapshotInterval;
+    }
+
+    public boolean isAsyncSerializeServerState()
+    {
+        return asyncSerializeServerState;
+    }
+
+    public int getAsyncSerializeServerStateMaxPending()
+    {
+        return asyncSerializeServerStateMaxPending;
+    }
+
+    public boolean isViewStateMetrics()
+    {
+        return viewStateMetrics;
+    }
+
+    public long getResourceBodyCacheSize()
+    {
+        return resourceBodyCacheSize;
+    }
+
+    public int getResourceBodyCacheMaxEntrySize()
+    {
+        return resourceBodyCacheMaxEntrySize;
+    }
+
+    public boolean isResourcePrecompressionEnabled()
+    {
+        return resourcePrecompressionEnabled;
+    }
+
+    public boolean isResourceETagEnabled()
+    {
+        return resourceETagEnabled;
+    }
+
+    public boolean isResourceFingerprintUrls()
+    {
+        return resourceFingerprintUrls;
+    }
+
+    public boolean isResourceTemplateCacheEnabled()
+    {
+        return resourceTemplateCacheEnabled;
+    }
+
+    public boolean isResourceBundlingEnabled()
+    {
+        return resourceBundlingEnabled;
+    }
+
+    public boolean isResourceIndexEnabled()
+    {
+        return resourceIndexEnabled;
+    }
+
+    public boolean isUtf8ResponseWriterEnabled()
+    {
+        return utf8ResponseWriterEnabled;
+    }
+
+    public boolean isStreamingRenderEnabled()
+    {
+        return streamingRenderEnabled;
+    }
+
+    public String[] getStreamingRenderFlushElements()
+    {
+        return streamingRenderFlushElements;
+    }
+
+    public int getStreamingRenderFlushSize()
+    {
+        return streamingRenderFlushSize;
+    }
+
+    public int getRenderBufferPoolSize()
+    {
+        return renderBufferPoolSize;
+    }
+
+    public boolean isRenderProfiler()
+    {
+        return renderProfiler;
+    }
+
+    public boolean isLifecycleMetrics()
+    {
+        return lifecycleMetrics;
+    }
+
+    public int getLifecycleMetricsSlowRequestThreshold()
+    {
+        return lifecycleMetricsSlowRequestThreshold;
+    }
+
+    public int getFragmentCacheSize()
+    {
+        return fragmentCacheSize;
+    }
+}
@@ -42,6 +42,7 @@
 import org.apache.myfaces.core.api.shared.lang.SharedStringBuilder;
 import org.apache.myfaces.util.lang.EnumerationIterator;
 import org.apache.myfaces.util.lang.StringUtils;
+import org.apache.myfaces.util.lang.Utf8Writer;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -61,6 +62,7 @@
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -94,6 +96,7 @@ public final class ServletExternalContextImpl extends ServletExternalContextImpl
     private FlashFactory _flashFactory;
     private Flash _flash;
     private FacesContext _currentFacesContext;
+    private Utf8Writer _utf8Writer;
 
     public ServletExternalContextImpl(final ServletContext servletContext, 
             final ServletRequest servletRequest,
@@ -139,6 +142,20 @@ public ServletExternalContextImpl(final ServletContext servletContext,
     public void release()
     {
         super.release(); // releases fields on ServletExternalContextImplBase
+
+        if (_utf8Writer != null)
+        {
+            try
+            {
+                _utf8Writer.flushBuffer();
+            }
+            catch (IOException e)
+            {
+                // the client is gone, nothing to do about it
+                log.log(Level.FINE, "Could not write the response", e);
+            }
+            _utf8Writer = null;
+        }
         
         _currentFacesContext = null;
         _servletRequest = null;
@@ -216,6 +233,11 @@ public String getResponseContentType()
     @Override
     public OutputStream getResponseOutputStream() throws IOException
     {
+        if (_utf8Writer != null)
+        {
+            // keep the order of what was already written through the writer
+            _utf8Writer.flushBuffer();
+        }
         return _servletResponse.getOutputStream();
     }
 
@@ -225,6 +247,23 @@ public OutputStream getResponseOutputStream() throws IOException
     @Override
     public Writer getResponseOutputWriter() throws IOException
     {
+        if (_utf8Writer != null)
+        {
+            return _utf8Writer;
+        }
+        if (MyfacesConfig.getCurrentInstance(this).isUtf8ResponseWriterEnabled()
+                && "UTF-8".equalsIgnoreCase(_servletResponse.getCharacterEncoding()))
+        {
+            try
+            {
+                _utf8Writer = new Utf8Writer(_servletResponse.getOutputStream());
+                return _utf8Writer;
+            }
+            catch (IllegalStateException e)
+            {
+                // getWriter() was already called, e.g. by a filter
+            }
+        }
         return _servletResponse.getWriter();
     }
 
@@ -608,6 +647,10 @@ else if (_servletResponse instanceof HttpServletResponse response)
     public void responseFlushBuffer() throws IOException
     {
         checkHttpServletResponse();
+        if (_utf8Writer != null)
+        {
+            _utf8Writer.flushBuffer();
+        }
         _httpServletResponse.flushBuffer();
     }
 
@@ -618,6 +661,11 @@ public void responseFlushBuffer() throws IOException
     public void responseReset()
     {
         checkHttpServletResponse();
+        if (_utf8Writer != null)
+        {
+            _utf8Writer.reset();
+            _utf8Writer = null;
+        }
         _httpServletResponse.reset();
     }
 
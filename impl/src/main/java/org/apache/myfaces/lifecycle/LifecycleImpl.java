@@ -40,6 +40,7 @@
 
 import org.apache.myfaces.config.FacesConfigurator;
 import org.apache.myfaces.core.api.shared.lang.Assert;
+import org.apache.myfaces.spi.LifecycleMetrics;
 import org.apache.myfaces.util.DebugUtils;
 
 /**
@@ -58,6 +59,8 @@ public class LifecycleImpl extends Lifecycle
      * the first request has been processed.
      */
     public static final String FIRST_REQUEST_PROCESSED_PARAM = "org.apache.myfaces.lifecycle.first.request.processed";
+
+    private static final String REQUEST_TIMES_KEY = LifecycleImpl.class.getName() + ".REQUEST_TIMES";
     
     private final PhaseExecutor[] lifecycleExecutors;
     private final PhaseExecutor renderExecutor;
@@ -74,6 +77,9 @@ public class LifecycleImpl extends Lifecycle
      * note in this case the semantic of the variable must be preserved.
      */
     private volatile boolean _firstRequestProcessed = false;
+
+    private volatile LifecycleMetrics metrics;
+    private volatile boolean metricsResolved = false;
     
     public LifecycleImpl()
     {
@@ -164,6 +170,8 @@ boolean executePhase(FacesContext context, PhaseExecutor executor, PhaseListener
 
         PhaseId currentPhaseId = executor.getPhase();
         Flash flash = context.getExternalContext().getFlash();
+        LifecycleMetrics lifecycleMetrics = getMetrics(context);
+        long start = lifecycleMetrics == null ? 0 : System.nanoTime();
 
         try
         {
@@ -210,7 +218,11 @@ boolean executePhase(FacesContext context, PhaseExecutor executor, PhaseListener
             phaseListenerMgr.informPhaseListenersAfter(currentPhaseId);
             
             flash.doPostPhaseActions(context);
-            
+
+            if (lifecycleMetrics != null)
+            {
+                phaseExecuted(context, lifecycleMetrics, currentPhaseId, start);
+            }
         }
         
         context.getExceptionHandler().handle();
@@ -231,6 +243,25 @@ boolean executePhase(FacesContext context, PhaseExecutor executor, PhaseListener
 
     @Override
     public void render(FacesContext facesContext) throws FacesException
+    {
+        LifecycleMetrics lifecycleMetrics = getMetrics(facesContext);
+        if (lifecycleMetrics == null)
+        {
+            doRender(facesContext, null);
+            return;
+        }
+
+        try
+        {
+            doRender(facesContext, lifecycleMetrics);
+        }
+        finally
+        {
+            requestCompleted(facesContext, lifecycleMetrics);
+        }
+    }
+
+    private void doRender(FacesContext facesContext, LifecycleMetrics lifecycleMetrics)
     {
         // if the response is complete we should not be invoking the phase listeners
         if (isResponseComplete(facesContext, renderExecutor.getPhase(), true))
@@ -244,6 +275,7 @@ public void render(FacesContext facesContext) throws FacesException
 
         PhaseListenerManager phaseListenerMgr = new PhaseListenerManager(this, facesContext, getPhaseListeners());
         Flash flash = facesContext.getExternalContext().getFlash();
+        long start = lifecycleMetrics == null ? 0 : System.nanoTime();
 
         try
         {
@@ -279,6 +311,11 @@ public void render(FacesContext facesContext) throws FacesException
             // publish a field in the application map to indicate
             // that the first request has been processed
             requestProcessed(facesContext);
+
+            if (lifecycleMetrics != null)
+            {
+                phaseExecuted(facesContext, lifecycleMetrics, renderExecutor.getPhase(), start);
+            }
         }
 
         facesContext.getExceptionHandler().handle();
@@ -295,6 +332,52 @@ public void render(FacesContext facesContext) throws FacesException
         }
     }
 
+    /**
+     * @return the lifecycle metrics or null if they are not enabled
+     */
+    private LifecycleMetrics getMetrics(FacesContext facesContext)
+    {
+        if (!metricsResolved)
+        {
+            metrics = LifecycleMetrics.getInstance(facesContext.getExternalContext());
+            metricsResolved = true;
+        }
+        return metrics;
+    }
+
+    private void phaseExecuted(FacesContext facesContext, LifecycleMetrics lifecycleMetrics, PhaseId phaseId,
+            long start)
+    {
+        long end = System.nanoTime();
+        long[] times = (long[]) facesContext.getAttributes().get(REQUEST_TIMES_KEY);
+        if (times == null)
+        {
+            // the start of the request at index 0, which is not used by any phase
+            times = new long[PhaseId.VALUES.size()];
+            times[0] = start;
+            facesContext.getAttributes().put(REQUEST_TIMES_KEY, times);
+        }
+        times[phaseId.getOrdinal()] += end - start;
+
+        lifecycleMetrics.phaseExecuted(getViewId(facesContext), phaseId, end - start);
+    }
+
+    private void requestCompleted(FacesContext facesContext, LifecycleMetrics lifecycleMetrics)
+    {
+        long[] times = (long[]) facesContext.getAttributes().remove(REQUEST_TIMES_KEY);
+        if (times != null)
+        {
+            long nanos = System.nanoTime() - times[0];
+            times[0] = 0;
+            lifecycleMetrics.requestCompleted(getViewId(facesContext), nanos, times);
+        }
+    }
+
+    private static String getViewId(FacesContext facesContext)
+    {
+        return facesContext.getViewRoot() == null ? null : facesContext.getViewRoot().getViewId();
+    }
+
     private boolean isResponseComplete(FacesContext facesContext, PhaseId phase, boolean before)
     {
         boolean flag = false;
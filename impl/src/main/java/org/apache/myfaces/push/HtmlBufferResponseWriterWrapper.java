@@ -22,6 +22,7 @@
 import jakarta.faces.context.ResponseWriter;
 import java.io.*;
 import org.apache.myfaces.renderkit.html.HtmlResponseWriterImpl;
+import org.apache.myfaces.util.lang.CharBufferPool;
 import org.apache.myfaces.util.lang.FastWriter;
 
 /**
@@ -68,7 +69,20 @@ public ResponseWriter getInitialWriter()
      */
     static public HtmlBufferResponseWriterWrapper getInstance(ResponseWriter initialWriter)
     {
-        FastWriter bufferWriter = new FastWriter();
+        return getInstance(initialWriter, null);
+    }
+
+    /**Create an instance of the HtmlBufferResponseWriterWrapper with a buffer taken from a pool.
+     *
+     * @param initialWriter The writer the content should have originally gone to, this will only be used 
+     *        to copy settings.
+     * @param pool The pool to take the buffer from, if null a new buffer is allocated. The buffer is returned
+     *        on {@link #release()}.
+     * @return A properly initialized writer which stores the output in a buffer; writer is wrapped.
+     */
+    static public HtmlBufferResponseWriterWrapper getInstance(ResponseWriter initialWriter, CharBufferPool pool)
+    {
+        FastWriter bufferWriter = pool == null ? new FastWriter() : new FastWriter(1024, pool);
         PrintWriter wrapperWriter = new PrintWriter(bufferWriter, true);
 
         return new HtmlBufferResponseWriterWrapper(initialWriter, bufferWriter, wrapperWriter);
@@ -105,4 +119,11 @@ public String toString()
         wrapperWriter.close();
         return bufferWriter.toString();
     }
+
+    /**Return the buffer to its pool. The content is discarded.
+     */
+    public void release()
+    {
+        bufferWriter.release();
+    }
 }
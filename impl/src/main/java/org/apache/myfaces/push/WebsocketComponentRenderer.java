@@ -48,6 +48,7 @@
 import org.apache.myfaces.renderkit.html.util.HTML;
 import org.apache.myfaces.renderkit.html.util.HtmlRendererUtils;
 import org.apache.myfaces.renderkit.html.util.ResourceUtils;
+import org.apache.myfaces.util.lang.CharBufferPool;
 
 @JSFRenderer(renderKitId = "HTML_BASIC",
         family = "jakarta.faces.Script",
@@ -79,7 +80,8 @@ public void processEvent(ComponentSystemEvent event)
 
     private HtmlBufferResponseWriterWrapper getResponseWriter(FacesContext context)
     {
-        return HtmlBufferResponseWriterWrapper.getInstance(context.getResponseWriter());
+        return HtmlBufferResponseWriterWrapper.getInstance(context.getResponseWriter(),
+                CharBufferPool.getInstance(context));
     }
 
     @Override
@@ -255,6 +257,7 @@ public void encodeEnd(FacesContext facesContext, UIComponent c) throws IOExcepti
             HtmlBufferResponseWriterWrapper htmlBufferResponseWriter =
                     (HtmlBufferResponseWriterWrapper) responseWriter;
             init.getUIWebsocketMarkupList().add(htmlBufferResponseWriter.toString());
+            htmlBufferResponseWriter.release();
 
             facesContext.setResponseWriter(htmlBufferResponseWriter.getInitialWriter());
         }
@@ -49,7 +49,7 @@
 import org.apache.myfaces.push.WebsocketSessionClusterSerializedRestore;
 import org.apache.myfaces.config.webparameters.MyfacesConfig;
 import org.apache.myfaces.push.Json;
-import org.apache.myfaces.util.lang.ConcurrentLRUCache;
+import org.apache.myfaces.util.lang.ConcurrentClockCache;
 import org.apache.myfaces.util.lang.Lazy;
 
 import static jakarta.websocket.CloseReason.CloseCodes.NORMAL_CLOSURE;
@@ -57,7 +57,7 @@
 @ApplicationScoped
 public class WebsocketSessionManager
 {
-    private Lazy<ConcurrentLRUCache<String, Collection<Reference<Session>>>> sessionMap;
+    private Lazy<ConcurrentClockCache<String, Collection<Reference<Session>>>> sessionMap;
 
     private Lazy<ConcurrentHashMap<UserChannelKey, Set<String>>> userMap;
     private Queue<String> restoreQueue;
@@ -72,13 +72,13 @@ public void init()
         sessionMap = new Lazy<>(() ->
         {
             int size = MyfacesConfig.WEBSOCKET_MAX_CONNECTIONS_DEFAULT;
-            return new ConcurrentLRUCache<>((size * 4 + 3) / 3, size);
+            return new ConcurrentClockCache<>((size * 4 + 3) / 3, size);
         });
         restoreQueue = new ConcurrentLinkedQueue<>();
         userMap = new Lazy<>(ConcurrentHashMap::new);
     }
 
-    public ConcurrentLRUCache<String, Collection<Reference<Session>>> getSessionMap()
+    public ConcurrentClockCache<String, Collection<Reference<Session>>> getSessionMap()
     {
         return sessionMap.get();
     }
@@ -90,7 +90,7 @@ public ConcurrentMap<UserChannelKey, Set<String>> getUserMap()
 
     public void registerSessionToken(String channelToken)
     {
-        ConcurrentLRUCache<String, Collection<Reference<Session>>> sessionMap = this.getSessionMap();
+        ConcurrentClockCache<String, Collection<Reference<Session>>> sessionMap = this.getSessionMap();
         if (sessionMap.get(channelToken) == null)
         {
             sessionMap.put(channelToken, new ConcurrentLinkedQueue<>());
@@ -132,14 +132,14 @@ public Set<String> getChannelTokensForUser(Serializable user, String channel)
     public void initSessionMap(ExternalContext context)
     {
         int size = MyfacesConfig.getCurrentInstance(context).getWebsocketMaxConnections();
-        ConcurrentLRUCache<String, Collection<Reference<Session>>> newSessionMap
-                = new ConcurrentLRUCache<>((size * 4 + 3) / 3, size);
+        ConcurrentClockCache<String, Collection<Reference<Session>>> newSessionMap
+                = new ConcurrentClockCache<>((size * 4 + 3) / 3, size);
         
         synchronized (sessionMap)
         {
             if (sessionMap.isInitialized())
             {
-                // If a Session has been restored, it could be already a lruCache instantiated, so in this case
+                // If a Session has been restored, it could be already a cache instantiated, so in this case
                 // we need to fill the new one with the old instances, but only the instances that are active
                 // at the moment.
                 Set<Map.Entry<String, Collection<Reference<Session>>>> entries = sessionMap.get()
@@ -181,7 +181,7 @@ public boolean addOrUpdateSession(String channelToken, Session session)
                     "session.id = {1}", new Object[] {channelToken ,session.getId()});
         }
         
-        ConcurrentLRUCache<String, Collection<Reference<Session>>> sessionMap = this.getSessionMap();
+        ConcurrentClockCache<String, Collection<Reference<Session>>> sessionMap = this.getSessionMap();
         Collection<Reference<Session>> sessions = sessionMap.get(channelToken);
         if (sessions == null)
         {
@@ -342,7 +342,7 @@ public void synchronizeSessionInstances()
     {
         Queue<String> queue = getRestoredQueue();
         // The queue is always empty, unless a deserialization of Session instances happen. If that happens, 
-        // we need to ensure all Session instances that were deserialized are on the LRU cache, so all instances
+        // we need to ensure all Session instances that were deserialized are on the cache, so all instances
         // receive the message when a "push" is done.
         // This is not the ideal, but this is the best we have with the current websocket spec.
         if (!queue.isEmpty())
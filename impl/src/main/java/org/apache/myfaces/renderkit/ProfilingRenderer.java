@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.renderkit;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+import jakarta.faces.component.UIComponent;
+import jakarta.faces.component.UIViewRoot;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.render.Renderer;
+import jakarta.faces.render.RendererWrapper;
+
+import org.apache.myfaces.spi.RenderProfiler;
+import org.apache.myfaces.view.facelets.StateWriter;
+
+/**
+ * Measures the time and the output between encodeBegin and encodeEnd of the wrapped renderer and reports it to
+ * the {@link RenderProfiler}.
+ *
+ * <p>The components being encoded are kept as a stack in the attributes of the FacesContext, so the time spent
+ * in the children encoded by a renderer can be subtracted from the time of the parent.</p>
+ */
+public class ProfilingRenderer extends RendererWrapper
+{
+    private static final String FRAMES_KEY = ProfilingRenderer.class.getName() + ".FRAMES";
+
+    private final RenderProfiler profiler;
+
+    public ProfilingRenderer(Renderer delegate, RenderProfiler profiler)
+    {
+        super(delegate);
+        this.profiler = profiler;
+    }
+
+    @Override
+    public void encodeBegin(FacesContext context, UIComponent component) throws IOException
+    {
+        ArrayList<Frame> frames = (ArrayList<Frame>) context.getAttributes().get(FRAMES_KEY);
+        if (frames == null)
+        {
+            frames = new ArrayList<>();
+            context.getAttributes().put(FRAMES_KEY, frames);
+        }
+
+        String name = component.getClass().getSimpleName();
+        if (name.isEmpty())
+        {
+            name = component.getClass().getName();
+        }
+        String stack;
+        if (frames.isEmpty())
+        {
+            UIViewRoot viewRoot = context.getViewRoot();
+            stack = (viewRoot == null ? "" : viewRoot.getViewId()) + ';' + name;
+        }
+        else
+        {
+            stack = frames.get(frames.size() - 1).stack + ';' + name;
+        }
+
+        StateWriter stateWriter = StateWriter.getCurrentInstance(context);
+        frames.add(new Frame(component, stack, stateWriter == null ? -1 : stateWriter.getWrittenCount(),
+                System.nanoTime()));
+
+        super.encodeBegin(context, component);
+    }
+
+    @Override
+    public void encodeEnd(FacesContext context, UIComponent component) throws IOException
+    {
+        super.encodeEnd(context, component);
+
+        long end = System.nanoTime();
+        ArrayList<Frame> frames = (ArrayList<Frame>) context.getAttributes().get(FRAMES_KEY);
+        if (frames == null)
+        {
+            return;
+        }
+
+        // Frames of components whose encodeEnd was never called, e.g. after an exception, are discarded
+        Frame frame = null;
+        while (!frames.isEmpty())
+        {
+            Frame last = frames.remove(frames.size() - 1);
+            if (last.component == component)
+            {
+                frame = last;
+                break;
+            }
+        }
+        if (frame == null)
+        {
+            return;
+        }
+
+        long nanos = end - frame.start;
+        if (!frames.isEmpty())
+        {
+            frames.get(frames.size() - 1).childNanos += nanos;
+        }
+
+        long written = -1;
+        StateWriter stateWriter = StateWriter.getCurrentInstance(context);
+        if (stateWriter != null && frame.written >= 0)
+        {
+            written = stateWriter.getWrittenCount() - frame.written;
+        }
+
+        UIViewRoot viewRoot = context.getViewRoot();
+        profiler.componentRendered(viewRoot == null ? null : viewRoot.getViewId(),
+                component.getClass().getName(), component.getClientId(context), frame.stack,
+                nanos, nanos - frame.childNanos, written);
+    }
+
+    private static final class Frame
+    {
+        private final UIComponent component;
+        private final String stack;
+        private final long written;
+        private final long start;
+        private long childNanos;
+
+        Frame(UIComponent component, String stack, long written, long start)
+        {
+            this.component = component;
+            this.stack = stack;
+            this.written = written;
+            this.start = start;
+        }
+    }
+}
@@ -19,8 +19,14 @@
 package org.apache.myfaces.renderkit.html;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
+import jakarta.faces.application.Resource;
+import jakarta.faces.application.ResourceHandler;
 import jakarta.faces.component.UIComponent;
 import jakarta.faces.component.UIViewRoot;
 import jakarta.faces.context.FacesContext;
@@ -29,8 +35,11 @@
 
 import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFRenderer;
 import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.renderkit.html.util.ComponentAttrs;
 import org.apache.myfaces.renderkit.html.util.HTML;
 import org.apache.myfaces.renderkit.html.util.HtmlRendererUtils;
+import org.apache.myfaces.renderkit.html.util.ResourceUtils;
+import org.apache.myfaces.resource.ResourceBundler;
 
 /**
  * Renderer used by h:head component
@@ -44,6 +53,12 @@ public class HtmlHeadRenderer extends Renderer
 {
     private final static String PROFILE_ATTR = "profile";
 
+    /**
+     * The attributes of a h:outputScript which are not lost when the script is bundled.
+     */
+    private final static Set<String> BUNDLE_ATTRIBUTES = Set.of(ComponentAttrs.NAME_ATTR,
+            ComponentAttrs.LIBRARY_ATTR, ComponentAttrs.TARGET_ATTR);
+
     private final static String[] HEAD_PASSTHROUGH_ATTRIBUTES = { HTML.DIR_ATTR,
             HTML.LANG_ATTR, PROFILE_ATTR};
 
@@ -78,10 +93,17 @@ public void encodeEnd(FacesContext facesContext, UIComponent component) throws I
         UIViewRoot root = facesContext.getViewRoot();
 
         List<UIComponent> componentResources = root.getComponentResources(facesContext, "head");
-        for (int i = 0, childCount = componentResources.size(); i < childCount; i++)
+        if (myfacesConfig.isResourceBundlingEnabled() && !facesContext.getPartialViewContext().isPartialRequest())
         {
-            UIComponent child = componentResources.get(i);
-            child.encodeAll(facesContext);
+            encodeBundledResources(facesContext, writer, componentResources);
+        }
+        else
+        {
+            for (int i = 0, childCount = componentResources.size(); i < childCount; i++)
+            {
+                UIComponent child = componentResources.get(i);
+                child.encodeAll(facesContext);
+            }
         }
         
         writer.endElement(HTML.HEAD_ELEM);
@@ -91,4 +113,162 @@ public void encodeEnd(FacesContext facesContext, UIComponent component) throws I
             writer.flush();
         }
     }
+
+    /**
+     * Encodes the resources of the head, rendering every sequence of bundleable scripts as one bundle. The
+     * order of the resources is preserved.
+     */
+    private void encodeBundledResources(FacesContext facesContext, ResponseWriter writer,
+            List<UIComponent> componentResources) throws IOException
+    {
+        ResourceBundler bundler = ResourceBundler.getInstance(facesContext);
+        List<UIComponent> components = new ArrayList<>();
+        List<Resource> resources = new ArrayList<>();
+
+        for (int i = 0, childCount = componentResources.size(); i < childCount; i++)
+        {
+            UIComponent child = componentResources.get(i);
+            Resource resource = getBundleableResource(facesContext, bundler, child);
+            if (resource != null && isPending(resources, resource))
+            {
+                // a duplicate, the renderer would skip it as well
+                continue;
+            }
+            if (resource != null && !resources.isEmpty()
+                    && !resource.getContentType().equals(resources.get(0).getContentType()))
+            {
+                encodeBundle(facesContext, writer, bundler, components, resources);
+            }
+
+            if (resource == null)
+            {
+                encodeBundle(facesContext, writer, bundler, components, resources);
+                child.encodeAll(facesContext);
+            }
+            else
+            {
+                components.add(child);
+                resources.add(resource);
+            }
+        }
+        encodeBundle(facesContext, writer, bundler, components, resources);
+    }
+
+    /**
+     * @return the resource of a h:outputScript, if it is not rendered yet and can be part of a bundle,
+     *      null otherwise
+     */
+    private Resource getBundleableResource(FacesContext facesContext, ResourceBundler bundler,
+            UIComponent component)
+    {
+        String rendererType = component.getRendererType();
+        if (!ResourceUtils.DEFAULT_SCRIPT_RENDERER_TYPE.equals(rendererType)
+                || !component.isRendered() || component.getChildCount() > 0 || hasCustomAttributes(component))
+        {
+            return null;
+        }
+        Renderer renderer = facesContext.getRenderKit().getRenderer(component.getFamily(), rendererType);
+        if (renderer == null || renderer.getClass() != HtmlScriptRenderer.class)
+        {
+            return null;
+        }
+
+        Map<String, Object> attributes = component.getAttributes();
+        String resourceName = (String) attributes.get(ComponentAttrs.NAME_ATTR);
+        String libraryName = (String) attributes.get(ComponentAttrs.LIBRARY_ATTR);
+        if (resourceName == null || resourceName.isEmpty() || resourceName.indexOf('?') >= 0
+                || ResourceUtils.isRenderedScript(facesContext, libraryName, resourceName))
+        {
+            return null;
+        }
+
+        ResourceHandler resourceHandler = facesContext.getApplication().getResourceHandler();
+        Resource resource = libraryName == null
+                ? resourceHandler.createResource(resourceName)
+                : resourceHandler.createResource(resourceName, libraryName);
+        if (resource == null || !bundler.isBundleable(resource)
+                || ResourceUtils.isRenderedScript(facesContext, resource.getLibraryName(),
+                        resource.getResourceName()))
+        {
+            return null;
+        }
+        return resource;
+    }
+
+    /**
+     * @return true if the component has attributes a bundle would not render, like pass through attributes
+     */
+    private static boolean hasCustomAttributes(UIComponent component)
+    {
+        Map<String, Object> passThroughAttributes = component.getPassThroughAttributes(false);
+        if (passThroughAttributes != null && !passThroughAttributes.isEmpty())
+        {
+            return true;
+        }
+        for (String name : component.getAttributes().keySet())
+        {
+            // qualified names are markers of the view declaration language
+            if (!BUNDLE_ATTRIBUTES.contains(name) && name.indexOf('.') < 0)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPending(List<Resource> resources, Resource resource)
+    {
+        for (int i = 0; i < resources.size(); i++)
+        {
+            Resource pending = resources.get(i);
+            if (pending.getResourceName().equals(resource.getResourceName())
+                    && Objects.equals(pending.getLibraryName(), resource.getLibraryName()))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Renders the pending scripts as one bundle, or every script by its own renderer if there is no bundle.
+     */
+    private void encodeBundle(FacesContext facesContext, ResponseWriter writer, ResourceBundler bundler,
+            List<UIComponent> components, List<Resource> resources) throws IOException
+    {
+        if (components.isEmpty())
+        {
+            return;
+        }
+
+        Resource bundle = resources.size() > 1 ? bundler.getBundle(facesContext, resources) : null;
+        if (bundle != null)
+        {
+            for (int i = 0; i < components.size(); i++)
+            {
+                Map<String, Object> attributes = components.get(i).getAttributes();
+                ResourceUtils.markScriptAsRendered(facesContext, (String) attributes.get(ComponentAttrs.LIBRARY_ATTR),
+                        (String) attributes.get(ComponentAttrs.NAME_ATTR));
+                ResourceUtils.markScriptAsRendered(facesContext, resources.get(i).getLibraryName(),
+                        resources.get(i).getResourceName());
+            }
+
+            // like HtmlScriptRenderer, which renders no attributes of the component
+            writer.startElement(HTML.SCRIPT_ELEM, components.get(0));
+            HtmlRendererUtils.renderScriptType(facesContext, writer);
+            writer.writeURIAttribute(HTML.SRC_ATTR,
+                    facesContext.getExternalContext().encodeResourceURL(bundle.getRequestPath()), null);
+            writer.endElement(HTML.SCRIPT_ELEM);
+        }
+        else
+        {
+            for (int i = 0; i < components.size(); i++)
+            {
+                components.get(i).encodeAll(facesContext);
+            }
+        }
+
+        components.clear();
+        resources.clear();
+    }
 }
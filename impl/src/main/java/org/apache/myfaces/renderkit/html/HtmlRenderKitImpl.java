@@ -42,7 +42,9 @@
 import org.apache.myfaces.config.webparameters.MyfacesConfig;
 import org.apache.myfaces.renderkit.LazyRenderKit;
 import org.apache.myfaces.renderkit.ContentTypeUtils;
+import org.apache.myfaces.renderkit.ProfilingRenderer;
 import org.apache.myfaces.core.api.shared.lang.Assert;
+import org.apache.myfaces.spi.RenderProfiler;
 import org.apache.myfaces.util.lang.ClassUtils;
 
 /**
@@ -60,6 +62,8 @@ public class HtmlRenderKitImpl extends RenderKit implements LazyRenderKit
     private ResponseStateManager _responseStateManager;
     private Map<String, ClientBehaviorRenderer> _clientBehaviorRenderers;
     private MyfacesConfig myfacesConfig;
+    private RenderProfiler _renderProfiler;
+    private Map<Renderer, Renderer> _profilingRenderers;
     
     // ~ Constructors -------------------------------------------------------------------------------
 
@@ -68,6 +72,7 @@ public HtmlRenderKitImpl()
         _renderers = new ConcurrentHashMap<>(64, 0.75f, 1);
         _responseStateManager = new HtmlResponseStateManager();
         _clientBehaviorRenderers = new HashMap<>();
+        _profilingRenderers = new ConcurrentHashMap<>();
         myfacesConfig = MyfacesConfig.getCurrentInstance();
     }
 
@@ -117,9 +122,31 @@ public Renderer getRenderer(String componentFamily, String rendererType)
             renderer = wrapper.getWrapped();
             familyRendererMap.put(rendererType, renderer);
         }
+        if (renderer != null && myfacesConfig.isRenderProfiler())
+        {
+            renderer = getProfilingRenderer(renderer);
+        }
         return renderer;
     }
 
+    private Renderer getProfilingRenderer(Renderer renderer)
+    {
+        if (_renderProfiler == null)
+        {
+            FacesContext facesContext = FacesContext.getCurrentInstance();
+            if (facesContext == null)
+            {
+                return renderer;
+            }
+            _renderProfiler = RenderProfiler.getInstance(facesContext.getExternalContext());
+            if (_renderProfiler == null)
+            {
+                return renderer;
+            }
+        }
+        return _profilingRenderers.computeIfAbsent(renderer, (r) -> new ProfilingRenderer(r, _renderProfiler));
+    }
+
     @Override
     public void addRenderer(String componentFamily, String rendererType, Renderer renderer)
     {
@@ -338,7 +365,13 @@ else if (isAjaxRequest)
             characterEncoding = ContentTypeUtils.DEFAULT_CHAR_ENCODING;
         }
 
-        if (myfacesConfig.isEarlyFlushEnabled())
+        if (myfacesConfig.isStreamingRenderEnabled())
+        {
+            return new StreamingHtmlResponseWriterImpl(writer, selectedContentType, characterEncoding,
+                myfacesConfig.isWrapScriptContentWithXmlCommentTag(), writerContentType,
+                myfacesConfig.getStreamingRenderFlushElements(), myfacesConfig.getStreamingRenderFlushSize());
+        }
+        else if (myfacesConfig.isEarlyFlushEnabled())
         {
             return new EarlyFlushHtmlResponseWriterImpl(writer, selectedContentType, characterEncoding, 
                 myfacesConfig.isWrapScriptContentWithXmlCommentTag(), writerContentType);
@@ -19,6 +19,7 @@
 package org.apache.myfaces.renderkit.html;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -30,11 +31,14 @@
 import jakarta.faces.render.ResponseStateManager;
 
 import org.apache.myfaces.application.viewstate.StateCache;
+import org.apache.myfaces.application.viewstate.StateTokenProcessor;
 import org.apache.myfaces.config.webparameters.MyfacesConfig;
 import org.apache.myfaces.renderkit.MyfacesResponseStateManager;
+import org.apache.myfaces.renderkit.html.util.EncodedAttributeValue;
 import org.apache.myfaces.renderkit.html.util.HTML;
 import org.apache.myfaces.spi.StateCacheProvider;
 import org.apache.myfaces.spi.StateCacheProviderFactory;
+import org.apache.myfaces.spi.ViewStateMetrics;
 import org.apache.myfaces.util.ViewNamespaceUtils;
 
 /**
@@ -52,6 +56,7 @@ public class HtmlResponseStateManager extends MyfacesResponseStateManager
 
     private StateCacheProvider stateCacheFactory;
     private MyfacesConfig myfacesConfig;
+    private ViewStateMetrics metrics;
     
     public HtmlResponseStateManager()
     {        
@@ -61,6 +66,7 @@ public HtmlResponseStateManager()
         stateCacheFactory = StateCacheProviderFactory
                 .getStateCacheProviderFactory(facesContext.getExternalContext())
                 .getStateCacheProvider(facesContext.getExternalContext());
+        metrics = ViewStateMetrics.getInstance(facesContext.getExternalContext());
     }
     
     @Override
@@ -117,12 +123,19 @@ private void writeViewStateField(FacesContext facesContext, ResponseWriter respo
             String viewNamespace)
         throws IOException
     {
-        String serializedState = getStateCache(facesContext).getStateTokenProcessor(facesContext)
-                .encode(facesContext, savedState);
+        StateTokenProcessor stateTokenProcessor = getStateCache(facesContext).getStateTokenProcessor(facesContext);
 
+        Object serializedState;
         if (log.isLoggable(Level.FINE)) 
         {
-             log.fine("Writing serialized ViewState string with hashCode: " + serializedState.hashCode());
+            String token = stateTokenProcessor.encode(facesContext, savedState);
+            log.fine("Writing serialized ViewState string with hashCode: " + token.hashCode());
+            serializedState = token;
+        }
+        else
+        {
+            // Let the token processor write the state straight into the response
+            serializedState = new ViewStateValue(facesContext, stateTokenProcessor, savedState);
         }
 
         responseWriter.startElement(HTML.INPUT_ELEM, null);
@@ -163,12 +176,14 @@ private void writeRenderKitIdField(FacesContext facesContext, ResponseWriter res
     public Object getState(FacesContext facesContext, String viewId)
     {
         Object savedState = getSavedState(facesContext);
-        if (savedState == null)
+        Object state = savedState == null
+                ? null
+                : getStateCache(facesContext).restoreSerializedView(facesContext, viewId, savedState);
+        if (state == null && metrics != null)
         {
-            return null;
+            metrics.restoreMissed(viewId);
         }
-
-        return getStateCache(facesContext).restoreSerializedView(facesContext, viewId, savedState);
+        return state;
     }
 
     /**
@@ -338,4 +353,30 @@ public static String generateUpdateViewStateId(FacesContext facesContext)
             separator + ResponseStateManager.VIEW_STATE_PARAM + separator + count;
         return id;
     }
+
+    private static class ViewStateValue implements EncodedAttributeValue
+    {
+        private final FacesContext facesContext;
+        private final StateTokenProcessor stateTokenProcessor;
+        private final Object savedState;
+
+        ViewStateValue(FacesContext facesContext, StateTokenProcessor stateTokenProcessor, Object savedState)
+        {
+            this.facesContext = facesContext;
+            this.stateTokenProcessor = stateTokenProcessor;
+            this.savedState = savedState;
+        }
+
+        @Override
+        public void writeTo(Writer writer) throws IOException
+        {
+            stateTokenProcessor.encode(facesContext, savedState, writer);
+        }
+
+        @Override
+        public String toString()
+        {
+            return stateTokenProcessor.encode(facesContext, savedState);
+        }
+    }
 }
@@ -40,7 +40,10 @@
 import org.apache.myfaces.renderkit.html.util.UnicodeEncoder;
 import org.apache.myfaces.util.CommentUtils;
 import org.apache.myfaces.util.lang.StreamCharBuffer;
+import org.apache.myfaces.util.lang.Utf8Writer;
+import org.apache.myfaces.view.facelets.StateWriter;
 import org.apache.myfaces.renderkit.html.util.HTML;
+import org.apache.myfaces.renderkit.html.util.EncodedAttributeValue;
 import org.apache.myfaces.renderkit.html.util.HTMLEncoder;
 import org.apache.myfaces.core.api.shared.lang.Assert;
 
@@ -793,7 +796,15 @@ public void writeAttribute(String name, Object value, String componentPropertyNa
             _currentWriter.write(' ');
             _currentWriter.write(name);
             _currentWriter.write("=\"");
-            if (value != null)
+            if (value instanceof EncodedAttributeValue encodedValue)
+            {
+                encodedValue.writeTo(_currentWriter);
+            }
+            else if (value instanceof CharSequence text)
+            {
+                HTMLEncoder.encode(_currentWriter, text, false, false, !_isUTF8);
+            }
+            else if (value != null)
             {
                 HTMLEncoder.encode(_currentWriter, value.toString(), false, false, !_isUTF8);
             }
@@ -806,7 +817,11 @@ private void encodeAndWriteAttribute(String name, Object value) throws IOExcepti
         _currentWriter.write(' ');
         _currentWriter.write(name);
         _currentWriter.write("=\"");
-        if (value != null)
+        if (value instanceof CharSequence text)
+        {
+            HTMLEncoder.encode(_currentWriter, text, false, false, !_isUTF8);
+        }
+        else if (value != null)
         {
             HTMLEncoder.encode(_currentWriter, value.toString(), false, false, !_isUTF8);
         }
@@ -839,7 +854,7 @@ private void encodeAndWriteURIAttribute(String name, Object value) throws IOExce
         _currentWriter.write(' ');
         _currentWriter.write(name);
         _currentWriter.write("=\"");
-        if (strValue.toLowerCase().startsWith("javascript:"))
+        if (strValue.regionMatches(true, 0, "javascript:", 0, 11))
         {
             HTMLEncoder.encode(_currentWriter, strValue, false, false, !_isUTF8);
         }
@@ -868,10 +883,9 @@ public void writeText(Object value, String componentPropertyName) throws IOExcep
 
         closeStartTagIfNecessary();
 
-        String strValue = value.toString();
-
         if (isScriptOrStyle())
         {
+            String strValue = value.toString();
             // Don't bother encoding anything if chosen character encoding is UTF-8
             if (_isUTF8)
             {
@@ -882,9 +896,13 @@ public void writeText(Object value, String componentPropertyName) throws IOExcep
                 UnicodeEncoder.encode(_currentWriter, strValue);
             }
         }
+        else if (value instanceof CharSequence text)
+        {
+            HTMLEncoder.encode(_currentWriter, text, false, false, !_isUTF8);
+        }
         else
         {
-            HTMLEncoder.encode(_currentWriter, strValue, false, false, !_isUTF8);
+            HTMLEncoder.encode(_currentWriter, value.toString(), false, false, !_isUTF8);
         }
     }
 
@@ -1014,6 +1032,78 @@ public void write(char[] cbuf, int off, int len) throws IOException
         }
     }
 
+    /**
+     * Same as {@link #write(char[], int, int)} for the whole array, but writes the given UTF-8 encoding of it
+     * if the underlying writer is a {@link Utf8Writer}.
+     */
+    public void writeUtf8(char[] cbuf, byte[] utf8) throws IOException
+    {
+        closeStartTagIfNecessary();
+        if (!writeBytes(utf8))
+        {
+            write(cbuf, 0, cbuf.length);
+        }
+    }
+
+    /**
+     * Same as {@link #write(String)}, but writes the given UTF-8 encoding of the string if the underlying
+     * writer is a {@link Utf8Writer}.
+     */
+    public void writeUtf8(String str, byte[] utf8) throws IOException
+    {
+        closeStartTagIfNecessary();
+        if (!writeBytes(utf8))
+        {
+            write(str);
+        }
+    }
+
+    /**
+     * Same as {@link #writeText(Object, String)}, but writes the given UTF-8 encoding of the escaped text if
+     * the underlying writer is a {@link Utf8Writer}. Inside script and style elements the text is not
+     * escaped, so the bytes are not used there.
+     */
+    public void writeTextUtf8(String text, byte[] escapedUtf8) throws IOException
+    {
+        closeStartTagIfNecessary();
+        if (isScriptOrStyle() || !writeBytes(escapedUtf8))
+        {
+            writeText(text, null);
+        }
+    }
+
+    /**
+     * @return true if UTF-8 encoded bytes passed to {@link #writeUtf8(char[], byte[])} and
+     *     {@link #writeTextUtf8(String, byte[])} are currently written as they are
+     */
+    public boolean isUtf8Output()
+    {
+        if (!_isUTF8 || _currentWriter != _outputWriter)
+        {
+            return false;
+        }
+        return _outputWriter instanceof Utf8Writer
+                || _outputWriter instanceof StateWriter && ((StateWriter) _outputWriter).isUtf8Output();
+    }
+
+    private boolean writeBytes(byte[] utf8) throws IOException
+    {
+        if (!_isUTF8 || _currentWriter != _outputWriter)
+        {
+            return false;
+        }
+        if (_outputWriter instanceof Utf8Writer)
+        {
+            ((Utf8Writer) _outputWriter).writeUtf8(utf8);
+            return true;
+        }
+        if (_outputWriter instanceof StateWriter)
+        {
+            return ((StateWriter) _outputWriter).writeUtf8(utf8);
+        }
+        return false;
+    }
+
     @Override
     public void write(int c) throws IOException
     {
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.renderkit.html;
+
+import java.io.IOException;
+import java.io.Writer;
+import jakarta.faces.FacesException;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.context.PartialViewContext;
+import jakarta.faces.context.ResponseWriter;
+import org.apache.myfaces.view.facelets.StateWriter;
+
+/**
+ * Html response writer which streams the response while the view is rendered. The underlying writer is
+ * flushed after the end tag of the configured elements and, if a flush size is given, after the first end
+ * tag once that many characters have been written since the last flush.
+ *
+ * <p>The flush goes through the {@link StateWriter}, which ignores it while the content is buffered behind
+ * a state marker, so state replacement keeps working. Ajax and partial requests are never flushed.</p>
+ */
+public class StreamingHtmlResponseWriterImpl extends HtmlResponseWriterImpl
+{
+    private final String[] _flushElements;
+    private final int _flushSize;
+    private final StateWriter _stateWriter;
+    private long _lastFlushCount;
+    private Boolean _streaming;
+
+    public StreamingHtmlResponseWriterImpl(Writer writer, String contentType, String characterEncoding,
+            boolean wrapScriptContentWithXmlCommentTag, String writerContentTypeMode,
+            String[] flushElements, int flushSize) throws FacesException
+    {
+        super(writer, contentType, characterEncoding, wrapScriptContentWithXmlCommentTag, writerContentTypeMode);
+        _flushElements = flushElements;
+        _flushSize = flushSize;
+        _stateWriter = writer instanceof StateWriter stateWriter ? stateWriter : null;
+    }
+
+    @Override
+    public ResponseWriter cloneWithWriter(Writer writer)
+    {
+        return new StreamingHtmlResponseWriterImpl(writer, getContentType(), getCharacterEncoding(),
+                getWrapScriptContentWithXmlCommentTag(), getWriterContentTypeMode(), _flushElements, _flushSize);
+    }
+
+    @Override
+    public void endElement(String name) throws IOException
+    {
+        super.endElement(name);
+
+        if (isFlushElement(name))
+        {
+            flushResponse();
+        }
+        else if (_flushSize > 0 && _stateWriter != null
+                && _stateWriter.getWrittenCount() - _lastFlushCount >= _flushSize)
+        {
+            flushResponse();
+        }
+    }
+
+    private boolean isFlushElement(String name)
+    {
+        for (int i = 0; i < _flushElements.length; i++)
+        {
+            if (_flushElements[i].equalsIgnoreCase(name))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void flushResponse() throws IOException
+    {
+        if (_streaming == null)
+        {
+            FacesContext facesContext = getFacesContext();
+            PartialViewContext partialViewContext = facesContext.getPartialViewContext();
+            _streaming = !partialViewContext.isAjaxRequest() && !partialViewContext.isPartialRequest();
+        }
+        if (_streaming)
+        {
+            forceFlush();
+            if (_stateWriter != null)
+            {
+                _lastFlushCount = _stateWriter.getWrittenCount();
+            }
+        }
+    }
+}
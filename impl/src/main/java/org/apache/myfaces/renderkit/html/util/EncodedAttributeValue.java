@@ -0,0 +1,34 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.renderkit.html.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Attribute value that writes itself to the response and only produces characters which do not need to be
+ * escaped inside a double quoted attribute, like a Base64 encoded view state.
+ *
+ * <p>{@link org.apache.myfaces.renderkit.html.HtmlResponseWriterImpl} streams such values directly into the
+ * response. Any other ResponseWriter uses {@link #toString()}, which must return the same characters.</p>
+ */
+public interface EncodedAttributeValue
+{
+    void writeTo(Writer writer) throws IOException;
+}
@@ -35,6 +35,53 @@
     private static final String SB_ENCODE_URI_QUERY = HTMLEncoder.class.getName() + "#SB_ENCODE_URI_QUERY";
     private static final String SB_ENCODE_PERCENT = HTMLEncoder.class.getName() + "#SB_ENCODE_PERCENT";
 
+    /**
+     * Basic latin characters which could need to be encoded as text, indexed by
+     * {@link #textEscapeIndex(boolean, boolean)}. The encode loops only look up this table for the common
+     * characters and write everything else in runs.
+     */
+    private static final boolean[][] TEXT_ESCAPE = new boolean[4][0x80];
+
+    /**
+     * Basic latin characters which could need to be percent encoded in the scheme and hier-part of an URI,
+     * or which start its query or fragment.
+     */
+    private static final boolean[] URI_ESCAPE = new boolean[0x80];
+
+    /**
+     * Basic latin characters which could need to be encoded in the query or fragment of an URI.
+     */
+    private static final boolean[] URI_QUERY_ESCAPE = new boolean[0x80];
+
+    static
+    {
+        for (int i = 0; i < TEXT_ESCAPE.length; i++)
+        {
+            boolean[] escape = TEXT_ESCAPE[i];
+            // http://www.w3.org/MarkUp/html3/specialchars.html
+            // From C0 extension U+0000-U+001F only U+0009, U+000A and
+            // U+000D are valid control characters
+            for (int c = 0; c <= 0x1F; c++)
+            {
+                escape[c] = c != 0x09 && c != 0x0A && c != 0x0D;
+            }
+            escape['"'] = true;
+            escape['&'] = true;
+            escape['<'] = true;
+            escape['>'] = true;
+            escape['\n'] = (i & 1) != 0;
+            escape[' '] = (i & 2) != 0;
+        }
+
+        for (int c = 0; c < 0x80; c++)
+        {
+            boolean escape = c <= 0x20 || c == 0x7F || c == '"' || c == '<' || c == '>' || c == '\\'
+                    || c == '^' || c == '`' || c == '{' || c == '|' || c == '}' || c == '%';
+            URI_ESCAPE[c] = escape || c == '?' || c == '#';
+            URI_QUERY_ESCAPE[c] = escape || c == '&';
+        }
+    }
+
     /**
      * Variant of {@link #encode} where encodeNewline is false and encodeNbsp is true.
      * 
@@ -97,91 +144,38 @@ public static String encode(FacesContext context, String string,
             return "";
         }
 
+        boolean[] escape = TEXT_ESCAPE[textEscapeIndex(encodeNewline, encodeSubsequentBlanksToNbsp)];
         StringBuilder sb = null;    //create later on demand
-        String app;
-        char c = ' ';
-        char prevC;
+        int start = 0;
         int length = string.length();
         for (int i = 0; i < length; ++i)
         {
-            app = null;
-            prevC = c;
-            c = string.charAt(i);
-            
-            // All characters before letters
-            if ((int)c < 0x41)
+            char c = string.charAt(i);
+            if (c < 0x80 ? !escape[c] : !encodeNonLatin || c == 0x80)
             {
-                switch (c)
-                {
-                    case '"': app = "&quot;"; break;    //"
-                    case '&': app = "&amp;"; break;     //&
-                    case '<': app = "&lt;"; break;      //<
-                    case '>': app = "&gt;"; break;      //>
-                    case ' ':
-                        if (encodeSubsequentBlanksToNbsp && prevC == ' ')
-                        {
-                            //Space at beginning or after another space
-                            app = "&#160;";
-                        }
-                        break;
-                    case '\n':
-                        if (encodeNewline)
-                        {
-                            app = "<br/>";
-                        }
-                        break;
-                    default:
-                        break;
-                }
-                // http://www.w3.org/MarkUp/html3/specialchars.html
-                // From C0 extension U+0000-U+001F only U+0009, U+000A and
-                // U+000D are valid control characters
-                if (c <= 0x1F && c != 0x09 && c != 0x0A && c != 0x0D)
-                {
-                    // Ignore escape character
-                    app = "";
-                }
+                continue;
             }
-            else if (encodeNonLatin && (int)c > 0x80)
+            //Space at beginning or after another space
+            if (c == ' ' && i > 0 && string.charAt(i - 1) != ' ')
             {
-                 switch(c)
-                 {
-                    //german umlauts
-                    case '\u00E4' : app = "&auml;";  break;
-                    case '\u00C4' : app = "&Auml;";  break;
-                    case '\u00F6' : app = "&ouml;";  break;
-                    case '\u00D6' : app = "&Ouml;";  break;
-                    case '\u00FC' : app = "&uuml;";  break;
-                    case '\u00DC' : app = "&Uuml;";  break;
-                    case '\u00DF' : app = "&szlig;"; break;
-
-                    //misc
-                    //case 0x80: app = "&euro;"; break;  sometimes euro symbol is ascii 128, should we support it?
-                    case '\u20AC': app = "&euro;";  break;
-                    case '\u00AB': app = "&laquo;"; break;
-                    case '\u00BB': app = "&raquo;"; break;
-                    case '\u00A0': app = "&#160;"; break;
+                continue;
+            }
 
-                    default :
-                        //encode all non basic latin characters
-                        app = "&#" + ((int)c) + ';';
-                    break;
-                }
+            if (sb == null)
+            {
+                sb = SharedStringBuilder.get(context, SB_ENCODE, length + 16);
             }
-            if (app != null)
+            sb.append(string, start, i);
+            start = i + 1;
+
+            String app = textEntity(c);
+            if (app == null)
             {
-                if (sb == null)
-                {
-                    sb = SharedStringBuilder.get(context, SB_ENCODE, string.substring(0, i));
-                }
-                sb.append(app);
+                sb.append("&#").append((int) c).append(';');
             }
             else
             {
-                if (sb != null)
-                {
-                    sb.append(c);
-                }
+                sb.append(app);
             }
         }
 
@@ -189,10 +183,8 @@ else if (encodeNonLatin && (int)c > 0x80)
         {
             return string;
         }
-        else
-        {
-            return sb.toString();
-        }
+        sb.append(string, start, length);
+        return sb.toString();
     }
     
     /**
@@ -255,87 +247,28 @@ public static void encode(Writer writer, String string,
             return;
         }
 
+        boolean[] escape = TEXT_ESCAPE[textEscapeIndex(encodeNewline, encodeSubsequentBlanksToNbsp)];
         int start = 0;
-        String app;
-        char c = ' ';
-        char prevC;
         int length = string.length();
         for (int i = 0; i < length; ++i)
         {
-            app = null;
-            prevC = c;
-            c = string.charAt(i);
-            
-            // All characters before letters
-            if ((int)c < 0x41)
+            char c = string.charAt(i);
+            if (c < 0x80 ? !escape[c] : !encodeNonLatin || c == 0x80)
             {
-                switch (c)
-                {
-                    case '"': app = "&quot;"; break;    //"
-                    case '&': app = "&amp;"; break;     //&
-                    case '<': app = "&lt;"; break;      //<
-                    case '>': app = "&gt;"; break;      //>
-                    case ' ':
-                        if (encodeSubsequentBlanksToNbsp &&
-                                prevC == ' ')
-                        {
-                            //Space at beginning or after another space
-                            app = "&#160;";
-                        }
-                        break;
-                    case '\n':
-                        if (encodeNewline)
-                        {
-                            app = "<br/>";
-                        }
-                        break;
-                    default:
-                        break;
-                }
-                // http://www.w3.org/MarkUp/html3/specialchars.html
-                // From C0 extension U+0000-U+001F only U+0009, U+000A and
-                // U+000D are valid control characters
-                if (c <= 0x1F && c != 0x09 && c != 0x0A && c != 0x0D)
-                {
-                    // Ignore escape character
-                    app = "";
-                }
+                continue;
             }
-            else if (encodeNonLatin && (int)c > 0x80)
+            //Space at beginning or after another space
+            if (c == ' ' && i > 0 && string.charAt(i - 1) != ' ')
             {
-                 switch(c)
-                 {
-                    //german umlauts
-                    case '\u00E4' : app = "&auml;";  break;
-                    case '\u00C4' : app = "&Auml;";  break;
-                    case '\u00F6' : app = "&ouml;";  break;
-                    case '\u00D6' : app = "&Ouml;";  break;
-                    case '\u00FC' : app = "&uuml;";  break;
-                    case '\u00DC' : app = "&Uuml;";  break;
-                    case '\u00DF' : app = "&szlig;"; break;
-
-                    //misc
-                    //case 0x80: app = "&euro;"; break;  sometimes euro symbol is ascii 128, should we support it?
-                    case '\u20AC': app = "&euro;";  break;
-                    case '\u00AB': app = "&laquo;"; break;
-                    case '\u00BB': app = "&raquo;"; break;
-                    case '\u00A0': app = "&#160;"; break;
-
-                    default :
-                        //encode all non basic latin characters
-                        app = "&#" + ((int)c) + ';';
-                    break;
-                }
+                continue;
             }
-            if (app != null)
+
+            if (start < i)
             {
-                if (start < i)
-                {
-                    writer.write(string, start, i-start);
-                }
-                start = i+1;
-                writer.write(app);
+                writer.write(string, start, i - start);
             }
+            start = i + 1;
+            writeTextEntity(writer, c);
         }
 
         if (start == 0)
@@ -344,7 +277,52 @@ else if (encodeNonLatin && (int)c > 0x80)
         }
         else if (start < length)
         {
-            writer.write(string,start,length-start);
+            writer.write(string, start, length - start);
+        }
+    }
+
+    /**
+     * Variant of {@link #encode(Writer, String, boolean, boolean, boolean)} for any CharSequence, for example
+     * a StringBuilder, without creating a String from it. Strings are written in runs, the characters of any
+     * other CharSequence are written one by one.
+     *
+     * @param writer
+     * @param text
+     * @param encodeNewline
+     * @param encodeSubsequentBlanksToNbsp
+     * @param encodeNonLatin
+     * @throws IOException
+     */
+    public static void encode(Writer writer, CharSequence text,
+                                 boolean encodeNewline,
+                                 boolean encodeSubsequentBlanksToNbsp,
+                                 boolean encodeNonLatin) throws IOException
+    {
+        if (text instanceof String string)
+        {
+            encode(writer, string, encodeNewline, encodeSubsequentBlanksToNbsp, encodeNonLatin);
+            return;
+        }
+        if (text == null)
+        {
+            return;
+        }
+
+        boolean[] escape = TEXT_ESCAPE[textEscapeIndex(encodeNewline, encodeSubsequentBlanksToNbsp)];
+        char prevC = ' ';
+        int length = text.length();
+        for (int i = 0; i < length; ++i)
+        {
+            char c = text.charAt(i);
+            if ((c < 0x80 ? !escape[c] : !encodeNonLatin || c == 0x80) || (c == ' ' && prevC != ' '))
+            {
+                writer.write(c);
+            }
+            else
+            {
+                writeTextEntity(writer, c);
+            }
+            prevC = c;
         }
     }
 
@@ -423,99 +401,102 @@ public static void encode(char[] string, int offset, int length,
             return;
         }
         offset = Math.max(0, offset);
-        int realLength = Math.min(length, string.length - offset);
+        int end = offset + Math.min(length, string.length - offset);
 
-        String app;
-        char c = ' ';
-        char prevC;
+        boolean[] escape = TEXT_ESCAPE[textEscapeIndex(encodeNewline, encodeSubsequentBlanksToNbsp)];
         int start = offset;
-        
-        for (int i = offset; i < offset + realLength; ++i)
+        for (int i = offset; i < end; ++i)
         {
-            app = null;
-            prevC = c;
-            c = string[i];
-
-            // All characters before letters
-            if ((int)c < 0x41)
+            char c = string[i];
+            if (c < 0x80 ? !escape[c] : !encodeNonLatin || c == 0x80)
             {
-                switch (c)
-                {
-                    case '"': app = "&quot;"; break;    //"
-                    case '&': app = "&amp;"; break;     //&
-                    case '<': app = "&lt;"; break;      //<
-                    case '>': app = "&gt;"; break;      //>
-                    case ' ':
-                        if (encodeSubsequentBlanksToNbsp &&
-                                prevC == ' ')
-                        {
-                            //Space at beginning or after another space
-                            app = "&#160;";
-                        }
-                        break;
-                    case '\n':
-                        if (encodeNewline)
-                        {
-                            app = "<br/>";
-                        }
-                        break;
-                    default:
-                        break;
-                }
-                // http://www.w3.org/MarkUp/html3/specialchars.html
-                // From C0 extension U+0000-U+001F only U+0009, U+000A and
-                // U+000D are valid control characters
-                if (c <= 0x1F && c != 0x09 && c != 0x0A && c != 0x0D)
-                {
-                    // Ignore escape character
-                    app = "";
-                }
+                continue;
             }
-            else if (encodeNonLatin && (int)c > 0x80)
+            //Space at beginning or after another space
+            if (c == ' ' && i > offset && string[i - 1] != ' ')
             {
-                 switch(c)
-                 {
-                    //german umlauts
-                    case '\u00E4' : app = "&auml;";  break;
-                    case '\u00C4' : app = "&Auml;";  break;
-                    case '\u00F6' : app = "&ouml;";  break;
-                    case '\u00D6' : app = "&Ouml;";  break;
-                    case '\u00FC' : app = "&uuml;";  break;
-                    case '\u00DC' : app = "&Uuml;";  break;
-                    case '\u00DF' : app = "&szlig;"; break;
-
-                    //misc
-                    //case 0x80: app = "&euro;"; break;  sometimes euro symbol is ascii 128, should we support it?
-                    case '\u20AC': app = "&euro;";  break;
-                    case '\u00AB': app = "&laquo;"; break;
-                    case '\u00BB': app = "&raquo;"; break;
-                    case '\u00A0': app = "&#160;"; break;
-
-                    default :
-                        //encode all non basic latin characters
-                        app = "&#" + ((int)c) + ';';
-                    break;
-                }
+                continue;
             }
-            if (app != null)
+
+            if (start < i)
             {
-                if (start < i)
-                {
-                    writer.write(string, start, i-start);
-                }
-                start = i+1;
-                writer.write(app);
+                writer.write(string, start, i - start);
             }
+            start = i + 1;
+            writeTextEntity(writer, c);
         }
 
-        if (start == offset)
+        if (start < end)
         {
-            writer.write(string, offset, realLength);
+            writer.write(string, start, end - start);
+        }
+    }
+
+    /**
+     * Returns the replacement of a character marked in {@link #TEXT_ESCAPE} or of a non latin character,
+     * null if the character is written as numeric character reference.
+     */
+    private static String textEntity(char c)
+    {
+        switch (c)
+        {
+            case '"': return "&quot;";    //"
+            case '&': return "&amp;";     //&
+            case '<': return "&lt;";      //<
+            case '>': return "&gt;";      //>
+            case ' ': return "&#160;";
+            case '\n': return "<br/>";
+
+            //german umlauts
+            case '\u00E4' : return "&auml;";
+            case '\u00C4' : return "&Auml;";
+            case '\u00F6' : return "&ouml;";
+            case '\u00D6' : return "&Ouml;";
+            case '\u00FC' : return "&uuml;";
+            case '\u00DC' : return "&Uuml;";
+            case '\u00DF' : return "&szlig;";
+
+            //misc
+            //case 0x80: app = "&euro;"; break;  sometimes euro symbol is ascii 128, should we support it?
+            case '\u20AC': return "&euro;";
+            case '\u00AB': return "&laquo;";
+            case '\u00BB': return "&raquo;";
+            case '\u00A0': return "&#160;";
+
+            default:
+                // Invalid control characters are ignored,
+                // all other non basic latin characters are encoded
+                return c <= 0x1F ? "" : null;
+        }
+    }
+
+    private static void writeTextEntity(Writer writer, char c) throws IOException
+    {
+        String app = textEntity(c);
+        if (app != null)
+        {
+            writer.write(app);
+            return;
+        }
+
+        writer.write('&');
+        writer.write('#');
+        int value = c;
+        int divisor = 1;
+        while (divisor * 10 <= value)
+        {
+            divisor *= 10;
         }
-        else if (start < offset+realLength)
+        for (; divisor > 0; divisor /= 10)
         {
-            writer.write(string,start,offset+realLength-start);
+            writer.write('0' + (value / divisor) % 10);
         }
+        writer.write(';');
+    }
+
+    private static int textEscapeIndex(boolean encodeNewline, boolean encodeSubsequentBlanksToNbsp)
+    {
+        return (encodeNewline ? 1 : 0) | (encodeSubsequentBlanksToNbsp ? 2 : 0);
     }
     
     private static final String HEX_CHARSET = "0123456789ABCDEF";
@@ -544,6 +525,14 @@ public static String encodeURIAttribute(FacesContext context, final String strin
         {
             app = null;
             c = string.charAt(i);
+            if (c < 0x80 && !URI_ESCAPE[c])
+            {
+                if (sb != null)
+                {
+                    sb.append(c);
+                }
+                continue;
+            }
             
             // This are the guidelines to be taken into account by this algorithm to encode:
             
@@ -819,6 +808,14 @@ private static String encodeURIQuery(FacesContext context, final String string,
         {
             app = null;
             c = string.charAt(i);
+            if (c < 0x80 && !URI_QUERY_ESCAPE[c])
+            {
+                if (sb != null)
+                {
+                    sb.append(c);
+                }
+                continue;
+            }
             
             // - From %00 to %20 (' ' %20 could encode as +, but %20 also works, so we keep %20)
             // - <"> %22 (If there is encode of "%", there is a risk of duplicate encoding, so 
@@ -940,6 +937,10 @@ public static void encodeURIAttribute(Writer writer, final String string, final
         {
             app = null;
             c = string.charAt(i);
+            if (c < 0x80 && !URI_ESCAPE[c])
+            {
+                continue;
+            }
             
             // This are the guidelines to be taken into account by this algorithm to encode:
             
@@ -1232,6 +1233,10 @@ private static void encodeURIQuery(Writer writer, final String string, int offse
         {
             app = null;
             c = string.charAt(i);
+            if (c < 0x80 && !URI_QUERY_ESCAPE[c])
+            {
+                continue;
+            }
             
             // - From %00 to %20 (' ' %20 could encode as +, but %20 also works, so we keep %20)
             // - <"> %22 (If there is encode of "%", there is a risk of duplicate encoding, so 
@@ -37,6 +37,9 @@ public class BaseResourceHandlerSupport extends ResourceHandlerSupport
     
     private Long _startupTime;
     private Long _maxTimeExpires;
+    private ResourceFingerprints _resourceFingerprints;
+    private ResourceTemplateCache _resourceTemplateCache;
+    private Boolean _resourceTemplateCacheEnabled;
         
     public BaseResourceHandlerSupport()
     {
@@ -131,4 +134,31 @@ public long getMaxTimeExpires()
         }
         return _maxTimeExpires;
     }
+
+    @Override
+    public ResourceFingerprints getResourceFingerprints()
+    {
+        if (_resourceFingerprints == null)
+        {
+            MyfacesConfig config = MyfacesConfig.getCurrentInstance();
+            _resourceFingerprints = new ResourceFingerprints(config.isResourceETagEnabled(),
+                    config.isResourceFingerprintUrls(), config.getResourceBufferSize());
+        }
+        return _resourceFingerprints;
+    }
+
+    @Override
+    public ResourceTemplateCache getResourceTemplateCache()
+    {
+        if (_resourceTemplateCacheEnabled == null)
+        {
+            MyfacesConfig config = MyfacesConfig.getCurrentInstance();
+            if (config.isResourceTemplateCacheEnabled())
+            {
+                _resourceTemplateCache = new ResourceTemplateCache(config.getResourceHandlerCacheSize());
+            }
+            _resourceTemplateCacheEnabled = config.isResourceTemplateCacheEnabled();
+        }
+        return _resourceTemplateCache;
+    }
 }
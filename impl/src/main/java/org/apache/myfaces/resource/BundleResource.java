@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.faces.application.Resource;
+import jakarta.faces.application.ResourceHandler;
+import jakarta.faces.context.FacesContext;
+
+import org.apache.myfaces.application.FacesServletMapping;
+import org.apache.myfaces.application.FacesServletMappingUtils;
+
+/**
+ * The concatenated content of several resources, created by {@link ResourceBundler}.
+ *
+ * <p>The resource name is the hash of the content, so a bundle can be cached forever by the user agent.
+ * The request path carries the names of the bundled resources as well, so the bundle can be rebuilt
+ * when it is not cached, for example after a restart.</p>
+ */
+class BundleResource extends Resource
+{
+    private final byte[] content;
+    private final String hash;
+    private final String members;
+    private String requestPath;
+
+    BundleResource(byte[] content, String hash, String extension, String contentType, String members)
+    {
+        this.content = content;
+        this.hash = hash;
+        this.members = members;
+        setResourceName(hash + extension);
+        setLibraryName(ResourceBundler.LIBRARY_NAME);
+        setContentType(contentType);
+    }
+
+    String getMembers()
+    {
+        return members;
+    }
+
+    @Override
+    public InputStream getInputStream()
+    {
+        return new ByteArrayInputStream(content);
+    }
+
+    @Override
+    public String getRequestPath()
+    {
+        if (requestPath == null)
+        {
+            FacesContext context = FacesContext.getCurrentInstance();
+            FacesServletMapping mapping = FacesServletMappingUtils.getCurrentRequestFacesServletMapping(context);
+            if (mapping.isExactMapping())
+            {
+                // resources can't be exact, lets fallback to a generic one
+                mapping = FacesServletMappingUtils.getGenericPrefixOrSuffixMapping(context);
+            }
+
+            String path;
+            if (mapping.isExtensionMapping())
+            {
+                path = ResourceHandler.RESOURCE_IDENTIFIER + '/' + getResourceName() + mapping.getExtension();
+            }
+            else
+            {
+                path = ResourceHandler.RESOURCE_IDENTIFIER + '/' + getResourceName();
+                path = (mapping.getPrefix() == null) ? path : mapping.getPrefix() + path;
+            }
+            path = path + "?ln=" + getLibraryName() + '&' + ResourceBundler.MEMBERS_PARAM + '=' + members;
+
+            requestPath = context.getApplication().getViewHandler().getResourceURL(context, path);
+        }
+        return requestPath;
+    }
+
+    @Override
+    public Map<String, String> getResponseHeaders()
+    {
+        Map<String, String> headers = new HashMap<>(2, 1f);
+        headers.put("ETag", ResourceFingerprints.toETag(hash));
+        headers.put("Cache-Control", ResourceFingerprints.IMMUTABLE_CACHE_CONTROL);
+        return headers;
+    }
+
+    /**
+     * @return null, a bundle exists only in memory
+     */
+    @Override
+    public URL getURL()
+    {
+        return null;
+    }
+
+    @Override
+    public boolean userAgentNeedsUpdate(FacesContext context)
+    {
+        String ifNoneMatch = context.getExternalContext().getRequestHeaderMap().get("If-None-Match");
+        return ifNoneMatch == null || !ResourceFingerprints.matches(ifNoneMatch, hash);
+    }
+}
@@ -128,6 +128,12 @@ protected ClassLoader getClassLoader()
     @Override
     public boolean libraryExists(String libraryName, String contractName)
     {
+        ResourceIndex resourceIndex = getResourceIndex();
+        if (resourceIndex != null)
+        {
+            return resourceIndex.exists(contractName + '/' + libraryName);
+        }
+
         String prefix = getPrefix();
         if (prefix != null && !prefix.isEmpty())
         {
@@ -134,6 +134,12 @@ protected ClassLoader getClassLoader()
     @Override
     public boolean libraryExists(String libraryName)
     {
+        ResourceIndex resourceIndex = getResourceIndex();
+        if (resourceIndex != null)
+        {
+            return resourceIndex.exists(libraryName);
+        }
+
         String prefix = getPrefix();
         if (prefix != null && !prefix.isEmpty())
         {
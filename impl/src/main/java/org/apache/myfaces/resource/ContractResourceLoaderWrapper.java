@@ -132,6 +132,18 @@ public boolean resourceExists(ResourceMeta resourceMeta)
         return getWrapped().resourceExists(resourceMeta);
     }
 
+    @Override
+    public ResourceIndex getResourceIndex()
+    {
+        return getWrapped().getResourceIndex();
+    }
+
+    @Override
+    public void setResourceIndex(ResourceIndex resourceIndex)
+    {
+        getWrapped().setResourceIndex(resourceIndex);
+    }
+
     @Override
     public Iterator<String> iterator(FacesContext facesContext, String path, 
             int maxDepth, ResourceVisitOption... options)
@@ -55,6 +55,11 @@ public ExternalContextContractResourceLoader(String prefix)
 
     protected Set<String> getResourcePaths(String contractName, String path)
     {
+        ResourceIndex resourceIndex = getResourceIndex();
+        if (resourceIndex != null)
+        {
+            return resourceIndex.getResourcePaths(getPrefix(), contractName + '/' + path);
+        }
         return FacesContext.getCurrentInstance().getExternalContext().getResourcePaths(
             getPrefix() + '/' + contractName + '/' + path);
     }
@@ -179,6 +184,12 @@ public ResourceMeta createResourceMeta(String prefix, String libraryName, String
     @Override
     public boolean libraryExists(String libraryName, String contractName)
     {
+        ResourceIndex resourceIndex = getResourceIndex();
+        if (resourceIndex != null)
+        {
+            return resourceIndex.exists(contractName + '/' + libraryName);
+        }
+
         String prefix = getPrefix();
         if (prefix != null && !prefix.isEmpty())
         {
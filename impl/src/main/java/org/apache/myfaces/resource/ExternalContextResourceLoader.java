@@ -56,6 +56,11 @@ public ExternalContextResourceLoader(String prefix)
 
     protected Set<String> getResourcePaths(String path)
     {
+        ResourceIndex resourceIndex = getResourceIndex();
+        if (resourceIndex != null)
+        {
+            return resourceIndex.getResourcePaths(getPrefix(), path);
+        }
         return FacesContext.getCurrentInstance().getExternalContext().getResourcePaths(getPrefix() + '/' + path);
     }
 
@@ -184,6 +189,12 @@ public ResourceMeta createResourceMeta(String prefix, String libraryName, String
     @Override
     public boolean libraryExists(String libraryName)
     {
+        ResourceIndex resourceIndex = getResourceIndex();
+        if (resourceIndex != null)
+        {
+            return resourceIndex.exists(libraryName);
+        }
+
         String prefix = getPrefix();
         if (prefix != null && !prefix.isEmpty())
         {
@@ -0,0 +1,319 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.faces.FacesException;
+import jakarta.faces.application.Resource;
+import jakarta.faces.context.FacesContext;
+import jakarta.servlet.ServletContext;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.resource.ResourceHandlerCache.ResourceKey;
+
+/**
+ * Provides gzip compressed variants of resources, so they are compressed only once instead of on
+ * every request.
+ *
+ * <p>If a variant with the .gz suffix is shipped next to the resource it is used as is, otherwise the
+ * resource is compressed into a subdirectory of the ServletContext temporary directory. Resources
+ * which do not get smaller are remembered and always sent uncompressed.</p>
+ */
+public class PrecompressedResourceCache
+{
+    private static final Logger log = Logger.getLogger(PrecompressedResourceCache.class.getName());
+
+    public static final String GZIP = "gzip";
+
+    /**
+     * Subdir of the ServletContext tmp dir to store the compressed variants.
+     */
+    private static final String TEMP_FOLDER_BASE_DIR = "oam-rh-gzip";
+
+    private static final String GZIP_SUFFIX = ".gz";
+
+    private static final Variant UNCOMPRESSED = new Variant(null);
+
+    private final File directory;
+    private final int bufferSize;
+    private final Map<ResourceKey, Future<Variant>> variants = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+
+    public PrecompressedResourceCache()
+    {
+        this(FacesContext.getCurrentInstance());
+    }
+
+    private PrecompressedResourceCache(FacesContext facesContext)
+    {
+        this(MyfacesConfig.getCurrentInstance(facesContext).isResourcePrecompressionEnabled()
+                ? getTempDir(facesContext) : null,
+                MyfacesConfig.getCurrentInstance(facesContext).getResourceBufferSize());
+    }
+
+    /**
+     * @param directory directory for the compressed variants, null disables the compression
+     * @param bufferSize size of the buffer used to copy the resources
+     */
+    public PrecompressedResourceCache(File directory, int bufferSize)
+    {
+        this.bufferSize = bufferSize;
+        this.directory = directory == null ? null : initDirectory(directory);
+    }
+
+    private static File getTempDir(FacesContext facesContext)
+    {
+        File tempdir = (File) facesContext.getExternalContext().getApplicationMap().get(ServletContext.TEMPDIR);
+        if (tempdir == null)
+        {
+            log.warning("No temporary directory available, resources are not precompressed");
+            return null;
+        }
+        return new File(tempdir, TEMP_FOLDER_BASE_DIR);
+    }
+
+    private static File initDirectory(File directory)
+    {
+        if (directory.isDirectory())
+        {
+            // Clear the variants of a previous run
+            File[] files = directory.listFiles();
+            if (files != null)
+            {
+                for (File file : files)
+                {
+                    file.delete();
+                }
+            }
+        }
+        else if (!directory.mkdirs())
+        {
+            log.warning("Could not create " + directory.getAbsolutePath() + ", resources are not precompressed");
+            return null;
+        }
+        return directory;
+    }
+
+    public boolean isEnabled()
+    {
+        return directory != null;
+    }
+
+    /**
+     * @return true if resources of the given content type are worth to compress
+     */
+    public boolean isCompressible(String contentType)
+    {
+        if (contentType == null)
+        {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        int parameters = type.indexOf(';');
+        if (parameters >= 0)
+        {
+            type = type.substring(0, parameters).trim();
+        }
+        return type.startsWith("text/")
+                || type.endsWith("/javascript")
+                || type.endsWith("/json")
+                || type.endsWith("+json")
+                || type.endsWith("/xml")
+                || type.endsWith("+xml");
+    }
+
+    /**
+     * @return true if the given Accept-Encoding header allows gzip
+     */
+    public static boolean acceptsGzip(String acceptEncoding)
+    {
+        if (acceptEncoding == null)
+        {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(","))
+        {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (GZIP.equalsIgnoreCase(name) || "*".equals(name) || "x-gzip".equalsIgnoreCase(name))
+            {
+                for (int i = 1; i < parts.length; i++)
+                {
+                    String parameter = parts[i].trim();
+                    if (parameter.startsWith("q="))
+                    {
+                        try
+                        {
+                            return Double.parseDouble(parameter.substring(2)) > 0;
+                        }
+                        catch (NumberFormatException e)
+                        {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the gzip compressed variant of the given resource, creating it on first access.
+     *
+     * @param key the key of the resource, see {@link ResourceBodyCache#createKey(Resource)}
+     * @return the compressed file, or null if the resource should be sent uncompressed
+     */
+    public File getGzipVariant(ResourceKey key, Resource resource)
+    {
+        if (!isEnabled())
+        {
+            return null;
+        }
+
+        Future<Variant> variant = variants.get(key);
+        if (variant == null)
+        {
+            // compress outside of the map, concurrent requests of the same resource wait for the task
+            FutureTask<Variant> task = new FutureTask<>(() -> createVariant(resource));
+            variant = variants.putIfAbsent(key, task);
+            if (variant == null)
+            {
+                variant = task;
+                task.run();
+            }
+        }
+
+        try
+        {
+            return variant.get().file;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        catch (ExecutionException e)
+        {
+            // retry on the next request
+            variants.remove(key, variant);
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new FacesException(e.getCause());
+        }
+    }
+
+    private Variant createVariant(Resource resource)
+    {
+        File target = new File(directory, "resource-" + nextId.incrementAndGet() + GZIP_SUFFIX);
+        File temp = new File(directory, target.getName() + ".tmp");
+        try
+        {
+            if (!copyShippedVariant(resource, temp))
+            {
+                long size = compress(resource, temp);
+                if (temp.length() >= size)
+                {
+                    Files.deleteIfExists(temp.toPath());
+                    return UNCOMPRESSED;
+                }
+            }
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+            if (log.isLoggable(Level.FINE))
+            {
+                log.fine("Created gzip variant " + target.getName() + " of resource " + resource.getLibraryName()
+                        + ':' + resource.getResourceName());
+            }
+            return new Variant(target);
+        }
+        catch (IOException e)
+        {
+            log.log(Level.WARNING, "Could not create gzip variant of resource " + resource.getLibraryName()
+                    + ':' + resource.getResourceName(), e);
+            temp.delete();
+            return UNCOMPRESSED;
+        }
+    }
+
+    private static boolean copyShippedVariant(Resource resource, File target)
+    {
+        URL url = resource.getURL();
+        if (url == null)
+        {
+            return false;
+        }
+        try (InputStream in = new URL(url.toExternalForm() + GZIP_SUFFIX).openStream())
+        {
+            Files.copy(in, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        }
+        catch (IOException e)
+        {
+            // no variant shipped
+            return false;
+        }
+    }
+
+    private long compress(Resource resource, File target) throws IOException
+    {
+        long size = 0;
+        byte[] buffer = new byte[bufferSize];
+        try (InputStream in = resource.getInputStream();
+                OutputStream out = new GZIPOutputStream(Files.newOutputStream(target.toPath()), bufferSize))
+        {
+            int length;
+            while ((length = in.read(buffer)) >= 0)
+            {
+                out.write(buffer, 0, length);
+                size += length;
+            }
+        }
+        return size;
+    }
+
+    private static class Variant
+    {
+        private final File file;
+
+        Variant(File file)
+        {
+            this.file = file;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.resource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.faces.application.Resource;
+import jakarta.faces.context.FacesContext;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.resource.ResourceHandlerCache.ResourceKey;
+
+/**
+ * Keeps the bodies of frequently served resources in memory, so they can be sent without reading
+ * them again from the jar or the file system.
+ *
+ * <p>The cache is bounded by the total number of bytes held, the least recently used bodies are
+ * evicted first. Only plain {@link ResourceImpl} instances are cached, and only if they cannot contain
+ * value expressions, because their content must not depend on the request.</p>
+ */
+public class ResourceBodyCache
+{
+    private static final Logger log = Logger.getLogger(ResourceBodyCache.class.getName());
+
+    private final long maxSize;
+    private final int maxEntrySize;
+
+    private final Map<ResourceKey, ByteBuffer> bodies = new LinkedHashMap<>(64, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private long bytesHeld;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ResourceBodyCache()
+    {
+        this(MyfacesConfig.getCurrentInstance(FacesContext.getCurrentInstance()));
+    }
+
+    public ResourceBodyCache(MyfacesConfig config)
+    {
+        this(config.getResourceBodyCacheSize(), config.getResourceBodyCacheMaxEntrySize());
+    }
+
+    /**
+     * @param maxSize total number of bytes held by the cache, 0 or less disables it
+     * @param maxEntrySize maximum number of bytes of a single body
+     */
+    public ResourceBodyCache(long maxSize, int maxEntrySize)
+    {
+        this.maxSize = maxSize;
+        this.maxEntrySize = (int) Math.min(maxEntrySize, Math.max(maxSize, 0));
+
+        if (log.isLoggable(Level.FINE))
+        {
+            log.log(Level.FINE, "Initializing ResourceBodyCache; Size = " + maxSize
+                    + ", max entry size = " + this.maxEntrySize);
+        }
+    }
+
+    public boolean isEnabled()
+    {
+        return maxSize > 0 && maxEntrySize > 0;
+    }
+
+    public int getMaxEntrySize()
+    {
+        return maxEntrySize;
+    }
+
+    /**
+     * @return the key used to cache the body of the given resource, or null if it must not be cached
+     */
+    public ResourceKey getKey(Resource resource)
+    {
+        return isEnabled() ? createKey(resource) : null;
+    }
+
+    /**
+     * @return a key identifying the content of the given resource, or null if its content could
+     *     depend on the request
+     */
+    public static ResourceKey createKey(Resource resource)
+    {
+        if (resource == null || resource.getClass() != ResourceImpl.class)
+        {
+            return null;
+        }
+
+        ResourceImpl resourceImpl = (ResourceImpl) resource;
+        if (resourceImpl.couldResourceContainValueExpressions())
+        {
+            return null;
+        }
+
+        return resourceImpl.getContentKey();
+    }
+
+    /**
+     * @return a read-only view of the cached body, or null if it is not cached
+     */
+    public ByteBuffer get(ResourceKey key)
+    {
+        ByteBuffer body;
+        lock.lock();
+        try
+        {
+            body = bodies.get(key);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        if (body == null)
+        {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return body.duplicate();
+    }
+
+    /**
+     * Stores the given body, evicting the least recently used bodies if needed. Bodies bigger than
+     * {@link #getMaxEntrySize()} are ignored.
+     */
+    public void put(ResourceKey key, byte[] body, int length)
+    {
+        if (!isEnabled() || length > maxEntrySize)
+        {
+            return;
+        }
+
+        byte[] copy = new byte[length];
+        System.arraycopy(body, 0, copy, 0, length);
+        ByteBuffer buffer = ByteBuffer.wrap(copy).asReadOnlyBuffer();
+
+        lock.lock();
+        try
+        {
+            ByteBuffer previous = bodies.put(key, buffer);
+            if (previous != null)
+            {
+                bytesHeld -= previous.capacity();
+            }
+            bytesHeld += length;
+
+            Iterator<ByteBuffer> it = bodies.values().iterator();
+            while (bytesHeld > maxSize && it.hasNext())
+            {
+                ByteBuffer eldest = it.next();
+                it.remove();
+                bytesHeld -= eldest.capacity();
+                evictions.incrementAndGet();
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    public void clear()
+    {
+        lock.lock();
+        try
+        {
+            bodies.clear();
+            bytesHeld = 0;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of the given body, using the given buffer to copy them.
+     *
+     * @return the number of bytes written
+     */
+    public static int write(ByteBuffer body, OutputStream out, byte[] buffer) throws IOException
+    {
+        int count = 0;
+        while (body.hasRemaining())
+        {
+            int length = Math.min(buffer.length, body.remaining());
+            body.get(buffer, 0, length);
+            out.write(buffer, 0, length);
+            count += length;
+        }
+        return count;
+    }
+
+    public long getBytesHeld()
+    {
+        lock.lock();
+        try
+        {
+            return bytesHeld;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    public int getEntryCount()
+    {
+        lock.lock();
+        try
+        {
+            return bodies.size();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    public long getMaxSize()
+    {
+        return maxSize;
+    }
+
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    public long getEvictions()
+    {
+        return evictions.get();
+    }
+
+    public double getHitRate()
+    {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.faces.application.Resource;
+import jakarta.faces.application.ResourceHandler;
+import jakarta.faces.context.FacesContext;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.util.lang.ConcurrentClockCache;
+
+/**
+ * Concatenates the scripts of a page into one {@link Resource}, so the user agent loads them with one
+ * request instead of one request per resource.
+ *
+ * <p>Only scripts whose content cannot depend on the request are bundled, see
+ * {@link ResourceBodyCache#createKey(Resource)}. Stylesheets are never bundled, their content could always
+ * contain value expressions. Bundles are served from the library {@link #LIBRARY_NAME}, named by the hash
+ * of their content. The bundles created while rendering are kept in a cache of
+ * org.apache.myfaces.RESOURCE_HANDLER_CACHE_SIZE entries, the ones rebuilt from a request are not cached.</p>
+ */
+public class ResourceBundler
+{
+    private static final Logger log = Logger.getLogger(ResourceBundler.class.getName());
+
+    private static final String INSTANCE_KEY = ResourceBundler.class.getName();
+
+    /**
+     * Library of the bundle resources.
+     */
+    public static final String LIBRARY_NAME = "myfaces.bundle";
+
+    /**
+     * Request parameter listing the resources of a bundle, as comma separated library:name pairs.
+     */
+    public static final String MEMBERS_PARAM = "b";
+
+    private static final int MAX_MEMBERS = 64;
+
+    private static final byte[] SEPARATOR = "\n;\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final ConcurrentClockCache<String, BundleResource> bundles;
+    private final int bufferSize;
+
+    public static ResourceBundler getInstance(FacesContext facesContext)
+    {
+        ResourceBundler bundler = (ResourceBundler)
+                facesContext.getExternalContext().getApplicationMap().get(INSTANCE_KEY);
+        if (bundler == null)
+        {
+            MyfacesConfig config = MyfacesConfig.getCurrentInstance(facesContext);
+            bundler = new ResourceBundler(config.getResourceHandlerCacheSize(), config.getResourceBufferSize());
+            facesContext.getExternalContext().getApplicationMap().put(INSTANCE_KEY, bundler);
+        }
+        return bundler;
+    }
+
+    public ResourceBundler(int maxSize, int bufferSize)
+    {
+        this.bundles = new ConcurrentClockCache<>((maxSize * 4 + 3) / 3, maxSize);
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @return true if the content of the resource can be part of a bundle
+     */
+    public boolean isBundleable(Resource resource)
+    {
+        if (ResourceBodyCache.createKey(resource) == null || !isScript(resource.getContentType())
+                || getExtension(resource.getResourceName()) == null)
+        {
+            return false;
+        }
+        ResourceMeta meta = ((ResourceImpl) resource).getResourceMeta();
+        return meta.getLocalePrefix() == null && meta.getContractName() == null;
+    }
+
+    /**
+     * Returns the bundle of the given resources, which must all be bundleable and of the same content type.
+     * The bundle is cached, so the user agent gets it without reading the resources again.
+     *
+     * @return the bundle, or null if the content of a resource could not be read
+     */
+    public Resource getBundle(FacesContext facesContext, List<Resource> resources)
+    {
+        StringBuilder members = new StringBuilder(resources.size() * 32);
+        for (int i = 0; i < resources.size(); i++)
+        {
+            Resource resource = resources.get(i);
+            if (i > 0)
+            {
+                members.append(',');
+            }
+            if (resource.getLibraryName() != null)
+            {
+                members.append(resource.getLibraryName());
+            }
+            members.append(':').append(resource.getResourceName());
+        }
+
+        String key = members.toString();
+        BundleResource bundle = bundles.get(key);
+        if (bundle == null)
+        {
+            bundle = createBundle(resources, key);
+            if (bundle != null)
+            {
+                bundles.put(key, bundle);
+            }
+        }
+        return bundle;
+    }
+
+    /**
+     * Returns the bundle requested by the user agent. A bundle that is not cached, e.g. after a restart, is
+     * rebuilt from its members but not cached, as the members are chosen by the request.
+     *
+     * @param resourceName the requested resource name, the hash of the bundle content
+     * @param members the value of the {@link #MEMBERS_PARAM} request parameter
+     * @param excluded matches the resource names which must not be served, see
+     *      {@link ResourceHandler#RESOURCE_EXCLUDES_PARAM_NAME}
+     * @return the bundle, or null if the members are invalid or the content does not match the name anymore
+     */
+    public Resource getBundle(FacesContext facesContext, String resourceName, String members,
+            Predicate<String> excluded)
+    {
+        if (members == null || members.isEmpty())
+        {
+            return null;
+        }
+
+        BundleResource bundle = bundles.get(members);
+        if (bundle == null)
+        {
+            String[] names = members.split(",", MAX_MEMBERS + 1);
+            if (names.length > MAX_MEMBERS)
+            {
+                return null;
+            }
+
+            ResourceHandler resourceHandler = facesContext.getApplication().getResourceHandler();
+            List<Resource> resources = new ArrayList<>(names.length);
+            for (String name : names)
+            {
+                int index = name.indexOf(':');
+                if (index < 0 || excluded.test(name.substring(index + 1)))
+                {
+                    return null;
+                }
+                Resource resource = index == 0
+                        ? resourceHandler.createResource(name.substring(1))
+                        : resourceHandler.createResource(name.substring(index + 1), name.substring(0, index));
+                if (resource == null || !isBundleable(resource) || (!resources.isEmpty()
+                        && !resource.getContentType().equals(resources.get(0).getContentType())))
+                {
+                    return null;
+                }
+                resources.add(resource);
+            }
+
+            bundle = createBundle(resources, members);
+            if (bundle == null)
+            {
+                return null;
+            }
+        }
+        return bundle.getResourceName().equals(resourceName) ? bundle : null;
+    }
+
+    private BundleResource createBundle(List<Resource> resources, String members)
+    {
+        ByteArrayOutputStream content = new ByteArrayOutputStream(bufferSize);
+        byte[] buffer = new byte[bufferSize];
+        for (int i = 0; i < resources.size(); i++)
+        {
+            Resource resource = resources.get(i);
+            if (i > 0)
+            {
+                content.write(SEPARATOR, 0, SEPARATOR.length);
+            }
+            try (InputStream in = resource.getInputStream())
+            {
+                if (in == null)
+                {
+                    return null;
+                }
+                int length;
+                while ((length = in.read(buffer)) >= 0)
+                {
+                    content.write(buffer, 0, length);
+                }
+            }
+            catch (IOException e)
+            {
+                log.log(Level.WARNING, "Could not read resource " + resource.getLibraryName()
+                        + ':' + resource.getResourceName() + " for bundle " + members, e);
+                return null;
+            }
+        }
+
+        byte[] bytes = content.toByteArray();
+        String hash;
+        try
+        {
+            hash = ResourceFingerprints.toHash(MessageDigest.getInstance("SHA-256").digest(bytes));
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            log.log(Level.WARNING, "Could not compute the hash of bundle " + members, e);
+            return null;
+        }
+        return new BundleResource(bytes, hash, getExtension(resources.get(0).getResourceName()),
+                resources.get(0).getContentType(), members);
+    }
+
+    private static String getExtension(String resourceName)
+    {
+        int index = resourceName.lastIndexOf('.');
+        return index < 0 || index < resourceName.lastIndexOf('/') ? null : resourceName.substring(index);
+    }
+
+    private static boolean isScript(String contentType)
+    {
+        return contentType != null && contentType.endsWith("/javascript");
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import jakarta.faces.application.Resource;
+import jakarta.faces.context.ExternalContext;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Sends resources backed by a file through a {@link FileChannel}, or through the sendfile support of
+ * the container if available, and implements single byte ranges as described in RFC 7233.
+ */
+public final class ResourceFileTransfer
+{
+    /**
+     * Returned by {@link #parseRange(String, long)} if the range cannot be satisfied.
+     */
+    public static final long[] UNSATISFIABLE = new long[0];
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    private ResourceFileTransfer()
+    {
+    }
+
+    /**
+     * @return the file containing the content of the given resource, or null if the resource is not
+     *     backed by a file or its content could depend on the request
+     */
+    public static File getFile(Resource resource)
+    {
+        if (ResourceBodyCache.createKey(resource) == null)
+        {
+            return null;
+        }
+
+        URL url = resource.getURL();
+        if (url == null || !"file".equals(url.getProtocol()))
+        {
+            return null;
+        }
+
+        try
+        {
+            File file = new File(url.toURI());
+            return file.isFile() ? file : null;
+        }
+        catch (URISyntaxException | IllegalArgumentException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Parses a Range header. Only a single range is supported, a header with multiple ranges is ignored,
+     * which is allowed by RFC 7233.
+     *
+     * @return the first and last byte position, null if the whole content should be sent or
+     *     {@link #UNSATISFIABLE}
+     */
+    public static long[] parseRange(String range, long length)
+    {
+        if (range == null || !range.startsWith(BYTES_UNIT) || range.indexOf(',') >= 0)
+        {
+            return null;
+        }
+
+        String spec = range.substring(BYTES_UNIT.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0)
+        {
+            return null;
+        }
+
+        try
+        {
+            long start;
+            long end;
+            if (dash == 0)
+            {
+                // suffix range, the last n bytes
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0 || length == 0)
+                {
+                    return UNSATISFIABLE;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            }
+            else
+            {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? Long.MAX_VALUE : Long.parseLong(spec.substring(dash + 1));
+                if (end < start)
+                {
+                    return null;
+                }
+                if (start >= length)
+                {
+                    return UNSATISFIABLE;
+                }
+                end = Math.min(end, length - 1);
+            }
+            return new long[] { start, end };
+        }
+        catch (NumberFormatException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Checks the If-Range header against the validators of the response, a range is only sent if the
+     * representation did not change.
+     *
+     * @param responseHeaders the headers of the resource, see {@link Resource#getResponseHeaders()}
+     */
+    public static boolean isIfRangeSatisfied(String ifRange, Map<String, String> responseHeaders)
+    {
+        if (ifRange == null)
+        {
+            return true;
+        }
+        if (ifRange.startsWith("W/"))
+        {
+            // weak entity tags are never satisfied, see RFC 7233
+            return false;
+        }
+        if (ifRange.startsWith("\""))
+        {
+            // strong comparison, which also fails if the resource only has a weak entity tag
+            return ifRange.equals(responseHeaders.get("ETag"));
+        }
+        return ifRange.equals(responseHeaders.get("Last-Modified"));
+    }
+
+    /**
+     * Sends count bytes of the given file starting at the given position. The status and the other
+     * headers must be set before.
+     */
+    public static void send(ExternalContext externalContext, HttpServletResponse response, File file,
+            long start, long count) throws IOException
+    {
+        if (count <= Integer.MAX_VALUE)
+        {
+            response.setContentLength((int) count);
+        }
+        else
+        {
+            response.setHeader("Content-Length", Long.toString(count));
+        }
+
+        Map<String, Object> requestMap = externalContext.getRequestMap();
+        if (count > 0 && Boolean.TRUE.equals(requestMap.get(SENDFILE_SUPPORT)))
+        {
+            // The container sends the file after the request has been processed
+            requestMap.put(SENDFILE_FILENAME, file.getCanonicalPath());
+            requestMap.put(SENDFILE_START, start);
+            requestMap.put(SENDFILE_END, start + count);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                OutputStream out = response.getOutputStream())
+        {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = count;
+            while (remaining > 0)
+            {
+                long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0)
+                {
+                    // the file was truncated meanwhile
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.faces.application.Resource;
+
+import org.apache.myfaces.resource.ResourceHandlerCache.ResourceKey;
+
+/**
+ * Hashes of the resource contents, used as strong ETag and as version parameter of fingerprinted
+ * resource URLs.
+ *
+ * <p>The hash of a resource is computed once, on first access. Only resources whose content cannot
+ * depend on the request are hashed, see {@link ResourceBodyCache#createKey(Resource)}.</p>
+ */
+public class ResourceFingerprints
+{
+    private static final Logger log = Logger.getLogger(ResourceFingerprints.class.getName());
+
+    /**
+     * Request parameter carrying the hash in fingerprinted resource URLs.
+     */
+    public static final String VERSION_PARAM = "v";
+
+    /**
+     * Cache-Control header value for requests of the current version of a fingerprinted resource.
+     */
+    public static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private static final String GZIP_ETAG_SUFFIX = "-gzip";
+
+    private static final int HASH_BYTES = 12;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final boolean eTagEnabled;
+    private final boolean fingerprintUrls;
+    private final int bufferSize;
+    private final Map<ResourceKey, String> hashes = new ConcurrentHashMap<>();
+
+    public ResourceFingerprints(boolean eTagEnabled, boolean fingerprintUrls, int bufferSize)
+    {
+        this.eTagEnabled = eTagEnabled;
+        this.fingerprintUrls = fingerprintUrls;
+        this.bufferSize = bufferSize;
+    }
+
+    public boolean isETagEnabled()
+    {
+        return eTagEnabled;
+    }
+
+    public boolean isFingerprintUrls()
+    {
+        return fingerprintUrls;
+    }
+
+    /**
+     * @return the hash of the resource content, or null if the resource cannot be hashed
+     */
+    public String getHash(Resource resource)
+    {
+        ResourceKey key = ResourceBodyCache.createKey(resource);
+        if (key == null)
+        {
+            return null;
+        }
+
+        String hash = hashes.get(key);
+        if (hash == null)
+        {
+            // hashed outside of the map, concurrent first requests may hash the same content twice
+            hash = computeHash(resource);
+            String existing = hashes.putIfAbsent(key, hash);
+            if (existing != null)
+            {
+                hash = existing;
+            }
+        }
+        return hash.isEmpty() ? null : hash;
+    }
+
+    private String computeHash(Resource resource)
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[bufferSize];
+            try (InputStream in = resource.getInputStream())
+            {
+                if (in == null)
+                {
+                    return "";
+                }
+                int length;
+                while ((length = in.read(buffer)) >= 0)
+                {
+                    digest.update(buffer, 0, length);
+                }
+            }
+
+            return toHash(digest.digest());
+        }
+        catch (IOException | NoSuchAlgorithmException e)
+        {
+            log.log(Level.WARNING, "Could not compute the hash of resource " + resource.getLibraryName()
+                    + ':' + resource.getResourceName(), e);
+            return "";
+        }
+    }
+
+    /**
+     * @return the leading bytes of the given digest as hex string
+     */
+    static String toHash(byte[] digest)
+    {
+        char[] hash = new char[HASH_BYTES * 2];
+        for (int i = 0; i < HASH_BYTES; i++)
+        {
+            hash[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+            hash[i * 2 + 1] = HEX[digest[i] & 0xf];
+        }
+        return new String(hash);
+    }
+
+    public static String toETag(String hash)
+    {
+        return '"' + hash + '"';
+    }
+
+    /**
+     * @return the ETag of the gzip compressed variant of the resource with the given ETag
+     */
+    public static String toGzipETag(String eTag)
+    {
+        return eTag.substring(0, eTag.length() - 1) + GZIP_ETAG_SUFFIX + '"';
+    }
+
+    /**
+     * Checks an If-None-Match header against the hash of a resource, using the weak comparison as
+     * required by RFC 7232. ETags of the compressed variant match as well.
+     */
+    public static boolean matches(String ifNoneMatch, String hash)
+    {
+        for (String tag : ifNoneMatch.split(","))
+        {
+            tag = tag.trim();
+            if ("*".equals(tag))
+            {
+                return true;
+            }
+            if (tag.startsWith("W/"))
+            {
+                tag = tag.substring(2);
+            }
+            if (tag.length() < 2 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"')
+            {
+                continue;
+            }
+            tag = tag.substring(1, tag.length() - 1);
+            if (tag.equals(hash) || tag.equals(hash + GZIP_ETAG_SUFFIX))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -24,7 +24,7 @@
 import jakarta.faces.context.FacesContext;
 
 import org.apache.myfaces.config.webparameters.MyfacesConfig;
-import org.apache.myfaces.util.lang.ConcurrentLRUCache;
+import org.apache.myfaces.util.lang.ConcurrentClockCache;
 
 public class ResourceHandlerCache
 {
@@ -32,9 +32,9 @@
 
     private boolean _resourceCacheEnabled;
 
-    private volatile ConcurrentLRUCache<Object, ResourceValue> _resourceCacheMap = null;
-    private volatile ConcurrentLRUCache<Object, ResourceValue> _viewResourceCacheMap = null;
-    private volatile ConcurrentLRUCache<Object, Boolean> _libraryExistsCacheMap = null;
+    private volatile ConcurrentClockCache<Object, ResourceValue> _resourceCacheMap = null;
+    private volatile ConcurrentClockCache<Object, ResourceValue> _viewResourceCacheMap = null;
+    private volatile ConcurrentClockCache<Object, Boolean> _libraryExistsCacheMap = null;
 
     public ResourceHandlerCache()
     {
@@ -52,9 +52,9 @@ public ResourceHandlerCache()
         {
             int maxSize = myfacesConfig.getResourceHandlerCacheSize();
 
-            _resourceCacheMap = new ConcurrentLRUCache<>((maxSize * 4 + 3) / 3, maxSize);
-            _viewResourceCacheMap = new ConcurrentLRUCache<>((maxSize * 4 + 3) / 3, maxSize);
-            _libraryExistsCacheMap = new ConcurrentLRUCache<>((maxSize * 4 + 3) / 3, maxSize / 5);
+            _resourceCacheMap = new ConcurrentClockCache<>((maxSize * 4 + 3) / 3, maxSize);
+            _viewResourceCacheMap = new ConcurrentClockCache<>((maxSize * 4 + 3) / 3, maxSize);
+            _libraryExistsCacheMap = new ConcurrentClockCache<>((maxSize * 4 + 3) / 3, maxSize / 5);
         }
     }
     
@@ -91,4 +91,24 @@ public String getResourceIdentifier()
     {
         return ResourceHandler.RESOURCE_IDENTIFIER;
     }
+
+    /**
+     * Return the content hashes used for ETags and fingerprinted resource URLs.
+     * 
+     * @return null if neither of them is supported
+     */
+    public ResourceFingerprints getResourceFingerprints()
+    {
+        return null;
+    }
+
+    /**
+     * Return the cache of compiled resources containing value expressions.
+     * 
+     * @return null if the resources should be filtered on every request
+     */
+    public ResourceTemplateCache getResourceTemplateCache()
+    {
+        return null;
+    }
 }
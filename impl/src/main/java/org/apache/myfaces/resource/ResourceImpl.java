@@ -18,6 +18,7 @@
  */
 package org.apache.myfaces.resource;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -31,6 +32,7 @@
 import org.apache.myfaces.application.FacesServletMapping;
 import org.apache.myfaces.application.FacesServletMappingUtils;
 import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.resource.ResourceHandlerCache.ResourceKey;
 
 /**
  * Default implementation for resources
@@ -84,6 +86,17 @@ public InputStream getInputStream() throws IOException
     {
         if (couldResourceContainValueExpressions())
         {
+            ResourceTemplateCache templateCache = _resourceHandlerSupport.getResourceTemplateCache();
+            if (templateCache != null)
+            {
+                ResourceTemplate template = templateCache.getTemplate(this);
+                if (template == null)
+                {
+                    return null;
+                }
+                return new ByteArrayInputStream(template.render(FacesContext.getCurrentInstance(),
+                        getLibraryName(), getResourceName()));
+            }
             return new ValueExpressionFilterInputStream(
                     getResourceLoader().getResourceInputStream(_resourceMeta), getLibraryName(), getResourceName()); 
         }
@@ -93,7 +106,7 @@ public InputStream getInputStream() throws IOException
         }
     }
     
-    private boolean couldResourceContainValueExpressions()
+    boolean couldResourceContainValueExpressions()
     {
         if (_resourceMeta.couldResourceContainValueExpressions())
         {
@@ -159,6 +172,15 @@ public String getRequestPath()
                 path = path + (useAmp ? '&' : '?') + "con=" + _resourceMeta.getContractName();
                 useAmp = true;
             }
+            ResourceFingerprints fingerprints = _resourceHandlerSupport.getResourceFingerprints();
+            if (fingerprints != null && fingerprints.isFingerprintUrls())
+            {
+                String hash = fingerprints.getHash(this);
+                if (hash != null)
+                {
+                    path = path + (useAmp ? '&' : '?') + ResourceFingerprints.VERSION_PARAM + '=' + hash;
+                }
+            }
             _requestPath = context.getApplication().getViewHandler().getResourceURL(context, path);
         }
         return _requestPath;
@@ -171,7 +193,7 @@ public Map<String, String> getResponseHeaders()
         
         if (facesContext.getApplication().getResourceHandler().isResourceRequest(facesContext))
         {
-            Map<String, String> headers = new HashMap<>(2, 1f);
+            Map<String, String> headers = new HashMap<>(3, 1f);
             
             long lastModified = getLastModified(facesContext);
             
@@ -204,6 +226,25 @@ else if (_resourceMeta instanceof AliasResourceMetaImpl
                     headers.put("Cache-Control", "max-age=" + (_resourceHandlerSupport.getMaxTimeExpires()/1000));
                 }
             }
+
+            ResourceFingerprints fingerprints = _resourceHandlerSupport.getResourceFingerprints();
+            if (fingerprints != null && (fingerprints.isETagEnabled() || fingerprints.isFingerprintUrls()))
+            {
+                String hash = fingerprints.getHash(this);
+                if (hash != null)
+                {
+                    if (fingerprints.isETagEnabled())
+                    {
+                        headers.put("ETag", ResourceFingerprints.toETag(hash));
+                    }
+                    // Only the current version can be cached forever, an outdated URL must be revalidated
+                    if (fingerprints.isFingerprintUrls() && hash.equals(facesContext.getExternalContext()
+                            .getRequestParameterMap().get(ResourceFingerprints.VERSION_PARAM)))
+                    {
+                        headers.put("Cache-Control", ResourceFingerprints.IMMUTABLE_CACHE_CONTROL);
+                    }
+                }
+            }
             
             return headers;
         }
@@ -240,6 +281,21 @@ public boolean userAgentNeedsUpdate(FacesContext context)
         // This method is called from ResourceHandlerImpl.handleResourceRequest and if
         // returns false send a 304 Not Modified response.
         
+        // If-None-Match takes precedence over If-Modified-Since, see RFC 7232
+        ResourceFingerprints fingerprints = _resourceHandlerSupport.getResourceFingerprints();
+        if (fingerprints != null && fingerprints.isETagEnabled())
+        {
+            String ifNoneMatch = context.getExternalContext().getRequestHeaderMap().get("If-None-Match");
+            if (ifNoneMatch != null)
+            {
+                String hash = fingerprints.getHash(this);
+                if (hash != null)
+                {
+                    return !ResourceFingerprints.matches(ifNoneMatch, hash);
+                }
+            }
+        }
+
         String ifModifiedSinceString = context.getExternalContext().getRequestHeaderMap().get("If-Modified-Since");
         
         if (ifModifiedSinceString == null)
@@ -288,6 +344,15 @@ protected ResourceMeta getResourceMeta()
         return _resourceMeta;
     }
 
+    /**
+     * @return a key identifying the resource content, independent of how the resource is requested
+     */
+    ResourceKey getContentKey()
+    {
+        return new ResourceKey(_resourceMeta.getResourceIdentifier(), _resourceMeta.getLibraryName(),
+                getContentType(), _resourceMeta.getLocalePrefix(), _resourceMeta.getContractName());
+    }
+
     @Override
     public boolean isContractResource()
     {
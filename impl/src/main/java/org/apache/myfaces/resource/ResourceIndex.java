@@ -0,0 +1,358 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.resource;
+
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import jakarta.faces.application.ResourceHandler;
+import jakarta.faces.context.ExternalContext;
+import jakarta.faces.context.FacesContext;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.util.WebConfigParamUtils;
+import org.apache.myfaces.util.lang.ClassUtils;
+
+/**
+ * Immutable index of all files and directories below a resource root, either a directory of the webapp
+ * (like /resources) or a path of the classpath (like META-INF/resources).
+ *
+ * <p>Resource loaders with an index answer {@link ResourceLoader#libraryExists(String)},
+ * {@link ResourceLoader#resourceExists(ResourceMeta)} and the lookup of library and resource versions from
+ * the index, so a miss does not cost a classloader or servlet context lookup. The indexes are built once,
+ * on startup, see {@link #initialize(FacesContext)}.</p>
+ */
+public class ResourceIndex
+{
+    private static final Logger log = Logger.getLogger(ResourceIndex.class.getName());
+
+    private static final String INSTANCE_KEY = ResourceIndex.class.getName();
+
+    private static final String META_INF_RESOURCES = "META-INF/resources";
+    private static final String META_INF_FLOWS = "META-INF/flows";
+    private static final String META_INF_CONTRACTS = "META-INF/contracts";
+    private static final String RESOURCES = "resources";
+    private static final String CONTRACTS = "contracts";
+
+    /**
+     * Children of each directory, the names of directories end with '/'. The root directory is "".
+     */
+    private final Map<String, Set<String>> directories = new HashMap<>();
+    private final Set<String> files = new HashSet<>();
+
+    private ResourceIndex()
+    {
+    }
+
+    /**
+     * Builds the indexes of the default resource roots, if enabled.
+     */
+    public static void initialize(FacesContext facesContext)
+    {
+        if (!MyfacesConfig.getCurrentInstance(facesContext).isResourceIndexEnabled())
+        {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        ExternalContext externalContext = facesContext.getExternalContext();
+        getInstance(facesContext, '/' + WebConfigParamUtils.getStringInitParameter(externalContext,
+                ResourceHandler.WEBAPP_RESOURCES_DIRECTORY_PARAM_NAME, RESOURCES));
+        getInstance(facesContext, '/' + WebConfigParamUtils.getStringInitParameter(externalContext,
+                ResourceHandler.WEBAPP_CONTRACTS_DIRECTORY_PARAM_NAME, CONTRACTS));
+        getInstance(facesContext, META_INF_RESOURCES);
+        getInstance(facesContext, META_INF_FLOWS);
+        getInstance(facesContext, META_INF_CONTRACTS);
+
+        if (log.isLoggable(Level.INFO))
+        {
+            log.info("Resource index built in " + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+    /**
+     * Sets the index of their root on the given loaders, if enabled.
+     */
+    public static void attach(FacesContext facesContext, ResourceLoader... loaders)
+    {
+        if (!MyfacesConfig.getCurrentInstance(facesContext).isResourceIndexEnabled())
+        {
+            return;
+        }
+        for (ResourceLoader loader : loaders)
+        {
+            loader.setResourceIndex(getInstance(facesContext, loader.getPrefix()));
+        }
+    }
+
+    /**
+     * Returns the index of a resource root. Roots starting with '/' are directories of the webapp, all
+     * others are paths of the classpath.
+     *
+     * @return the index, or null if the root could not be indexed completely
+     */
+    @SuppressWarnings("unchecked")
+    public static ResourceIndex getInstance(FacesContext facesContext, String root)
+    {
+        if (root == null || root.isEmpty())
+        {
+            return null;
+        }
+
+        Map<String, Object> applicationMap = facesContext.getExternalContext().getApplicationMap();
+        Map<String, Optional<ResourceIndex>> indexes = (Map<String, Optional<ResourceIndex>>)
+                applicationMap.get(INSTANCE_KEY);
+        if (indexes == null)
+        {
+            indexes = new ConcurrentHashMap<>();
+            applicationMap.put(INSTANCE_KEY, indexes);
+        }
+
+        return indexes.computeIfAbsent(root, r -> Optional.ofNullable(r.charAt(0) == '/'
+                ? scan(facesContext.getExternalContext(), r)
+                : scan(r, ClassUtils.getContextClassLoader(), ResourceIndex.class.getClassLoader()))).orElse(null);
+    }
+
+    /**
+     * Indexes a directory of the webapp.
+     */
+    static ResourceIndex scan(ExternalContext externalContext, String root)
+    {
+        ResourceIndex index = new ResourceIndex();
+        index.directories.put("", new HashSet<>());
+        index.scanDirectory(externalContext, root + '/', root.length() + 1);
+        return index;
+    }
+
+    private void scanDirectory(ExternalContext externalContext, String directory, int rootLength)
+    {
+        Set<String> paths = externalContext.getResourcePaths(directory);
+        if (paths == null)
+        {
+            return;
+        }
+        for (String path : paths)
+        {
+            if (path.endsWith("/"))
+            {
+                addDirectory(path.substring(rootLength, path.length() - 1));
+                scanDirectory(externalContext, path, rootLength);
+            }
+            else
+            {
+                addFile(path.substring(rootLength));
+            }
+        }
+    }
+
+    /**
+     * Indexes a path in the directories and jars of the classpath of the given class loaders. Jars are
+     * found by their manifest, so jars without directory entries are indexed as well.
+     *
+     * @return the index, or null if a part of the classpath could not be scanned
+     */
+    static ResourceIndex scan(String root, ClassLoader... classLoaders)
+    {
+        ResourceIndex index = new ResourceIndex();
+        index.directories.put("", new HashSet<>());
+        Set<String> scanned = new HashSet<>();
+        try
+        {
+            for (ClassLoader classLoader : classLoaders)
+            {
+                if (classLoader == null)
+                {
+                    continue;
+                }
+                for (String name : new String[] { root, "META-INF/MANIFEST.MF" })
+                {
+                    Enumeration<URL> urls = classLoader.getResources(name);
+                    while (urls.hasMoreElements())
+                    {
+                        URL url = urls.nextElement();
+                        if ("file".equals(url.getProtocol()))
+                        {
+                            if (name.equals(root) && scanned.add(url.toExternalForm()))
+                            {
+                                index.scanDirectory(Paths.get(url.toURI()));
+                            }
+                        }
+                        else if (!index.scanJar(url, root, scanned))
+                        {
+                            log.warning("Could not index resources in " + url + ", resource index for "
+                                    + root + " disabled");
+                            return null;
+                        }
+                    }
+                }
+            }
+        }
+        catch (IOException | URISyntaxException | RuntimeException e)
+        {
+            log.log(Level.WARNING, "Could not index resources of " + root + ", resource index disabled", e);
+            return null;
+        }
+        return index;
+    }
+
+    private void scanDirectory(Path root) throws IOException
+    {
+        try (Stream<Path> paths = Files.walk(root))
+        {
+            paths.filter(path -> !path.equals(root)).forEach(path ->
+            {
+                String relative = root.relativize(path).toString().replace('\\', '/');
+                if (Files.isDirectory(path))
+                {
+                    addDirectory(relative);
+                }
+                else
+                {
+                    addFile(relative);
+                }
+            });
+        }
+    }
+
+    private boolean scanJar(URL url, String root, Set<String> scanned) throws IOException
+    {
+        URLConnection connection = url.openConnection();
+        if (!(connection instanceof JarURLConnection jarConnection))
+        {
+            return false;
+        }
+        jarConnection.setUseCaches(false);
+        if (!scanned.add(jarConnection.getJarFileURL().toExternalForm()))
+        {
+            return true;
+        }
+
+        String prefix = root + '/';
+        try (JarFile jar = jarConnection.getJarFile())
+        {
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements())
+            {
+                String name = entries.nextElement().getName();
+                if (name.length() > prefix.length() && name.startsWith(prefix))
+                {
+                    if (name.endsWith("/"))
+                    {
+                        addDirectory(name.substring(prefix.length(), name.length() - 1));
+                    }
+                    else
+                    {
+                        addFile(name.substring(prefix.length()));
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private void addFile(String path)
+    {
+        files.add(path);
+        addChild(path, false);
+    }
+
+    private void addDirectory(String path)
+    {
+        if (!directories.containsKey(path))
+        {
+            directories.put(path, new HashSet<>());
+            addChild(path, true);
+        }
+    }
+
+    private void addChild(String path, boolean directory)
+    {
+        int index = path.lastIndexOf('/');
+        String parent = index < 0 ? "" : path.substring(0, index);
+        String name = index < 0 ? path : path.substring(index + 1);
+        addDirectory(parent);
+        directories.get(parent).add(directory ? name + '/' : name);
+    }
+
+    /**
+     * @param path a path relative to the root, like library/1_0/resource.js
+     * @return true if a file or directory exists at the given path
+     */
+    public boolean exists(String path)
+    {
+        path = normalize(path);
+        return files.contains(path) || directories.containsKey(path);
+    }
+
+    /**
+     * Lists a directory like {@link ExternalContext#getResourcePaths(String)} does.
+     *
+     * @param root the root of this index, the returned paths start with it
+     * @param path the directory relative to the root
+     * @return the paths of the files and directories in the directory, or null if it does not exist
+     */
+    public Set<String> getResourcePaths(String root, String path)
+    {
+        path = normalize(path);
+        Set<String> children = directories.get(path);
+        if (children == null)
+        {
+            return null;
+        }
+
+        String parent = path.isEmpty() ? root + '/' : root + '/' + path + '/';
+        Set<String> paths = new HashSet<>(children.size() * 4 / 3 + 1);
+        for (String child : children)
+        {
+            paths.add(parent + child);
+        }
+        return Collections.unmodifiableSet(paths);
+    }
+
+    public int getFileCount()
+    {
+        return files.size();
+    }
+
+    private static String normalize(String path)
+    {
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.endsWith("/") ? path.length() - 1 : path.length();
+        return start == 0 && end == path.length() ? path : path.substring(start, Math.max(start, end));
+    }
+}
@@ -26,7 +26,7 @@
 import jakarta.faces.context.FacesContext;
 
 import org.apache.myfaces.config.webparameters.MyfacesConfig;
-import org.apache.myfaces.util.lang.ConcurrentLRUCache;
+import org.apache.myfaces.util.lang.ConcurrentClockCache;
 
 /**
  * Base class for resource loaders.  Resource loaders can lookup resources 
@@ -39,7 +39,8 @@
     
     private String prefix;
     private boolean resourceCacheEnabled;
-    private ConcurrentLRUCache<Object, Boolean> resourceExistsCache;
+    private ConcurrentClockCache<Object, Boolean> resourceExistsCache;
+    private ResourceIndex resourceIndex;
     
     public ResourceLoader(String prefix)
     {
@@ -52,7 +53,7 @@ public ResourceLoader(String prefix)
         if (this.resourceCacheEnabled)
         {
             int maxSize = myfacesConfig.getResourceHandlerCacheSize();
-            this.resourceExistsCache = new ConcurrentLRUCache<>(maxSize * 2, maxSize);
+            this.resourceExistsCache = new ConcurrentClockCache<>(maxSize * 2, maxSize);
         }
     }
 
@@ -90,6 +91,13 @@ public boolean resourceExists(ResourceMeta resourceMeta)
             return false;
         }
 
+        if (resourceIndex != null)
+        {
+            return resourceIndex.exists(resourceMeta.getContractName() == null
+                    ? resourceMeta.getResourceIdentifier()
+                    : resourceMeta.getContractName() + '/' + resourceMeta.getResourceIdentifier());
+        }
+
         if (resourceCacheEnabled)
         {
             Boolean exists = resourceExistsCache.get(resourceMeta);
@@ -205,4 +213,17 @@ public void setPrefix(String prefix)
     {
         this.prefix = prefix;
     }
+
+    /**
+     * @return the index of all resources below the prefix, or null if the resources are looked up
+     */
+    public ResourceIndex getResourceIndex()
+    {
+        return resourceIndex;
+    }
+
+    public void setResourceIndex(ResourceIndex resourceIndex)
+    {
+        this.resourceIndex = resourceIndex;
+    }
 }
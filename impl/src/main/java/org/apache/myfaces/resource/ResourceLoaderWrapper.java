@@ -90,6 +90,18 @@ public boolean resourceExists(ResourceMeta resourceMeta)
         return getWrapped().resourceExists(resourceMeta);
     }
 
+    @Override
+    public ResourceIndex getResourceIndex()
+    {
+        return getWrapped().getResourceIndex();
+    }
+
+    @Override
+    public void setResourceIndex(ResourceIndex resourceIndex)
+    {
+        getWrapped().setResourceIndex(resourceIndex);
+    }
+
     @Override
     protected Comparator<String> getVersionComparator()
     {
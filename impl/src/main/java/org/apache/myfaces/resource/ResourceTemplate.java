@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.el.ELContext;
+import jakarta.el.ELException;
+import jakarta.el.ValueExpression;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.event.ExceptionQueuedEvent;
+import jakarta.faces.event.ExceptionQueuedEventContext;
+
+/**
+ * A resource containing value expressions, split once into literal segments and expressions.
+ *
+ * <p>Rendering writes the literal segments as a whole and only evaluates the expressions, instead of
+ * filtering the resource byte by byte like {@link ValueExpressionFilterInputStream} does. The syntax is
+ * the same: everything between <code>#{</code> and the next <code>}</code> is an expression, an
+ * unterminated expression is copied as is.</p>
+ */
+public class ResourceTemplate
+{
+    private static final Logger log = Logger.getLogger(ResourceTemplate.class.getName());
+
+    /**
+     * Either byte[] for literal content or Slot for an expression.
+     */
+    private final Object[] segments;
+    private final int literalLength;
+
+    private ResourceTemplate(Object[] segments, int literalLength)
+    {
+        this.segments = segments;
+        this.literalLength = literalLength;
+    }
+
+    public static ResourceTemplate compile(InputStream in) throws IOException
+    {
+        byte[] content = in.readAllBytes();
+        List<Object> segments = new ArrayList<>();
+
+        int literalStart = 0;
+        int literalLength = 0;
+        int i = 0;
+        while (i < content.length - 1)
+        {
+            if (content[i] == '#' && content[i + 1] == '{')
+            {
+                int end = indexOf(content, (byte) '}', i + 2);
+                if (end < 0)
+                {
+                    break;
+                }
+                if (i > literalStart)
+                {
+                    segments.add(copy(content, literalStart, i));
+                    literalLength += i - literalStart;
+                }
+                // Same conversion as ValueExpressionFilterInputStream, one char per byte
+                char[] expression = new char[end - i + 1];
+                for (int j = 0; j < expression.length; j++)
+                {
+                    expression[j] = (char) (content[i + j] & 0xff);
+                }
+                segments.add(new Slot(new String(expression)));
+                i = end + 1;
+                literalStart = i;
+            }
+            else
+            {
+                i++;
+            }
+        }
+        if (literalStart < content.length)
+        {
+            segments.add(copy(content, literalStart, content.length));
+            literalLength += content.length - literalStart;
+        }
+
+        return new ResourceTemplate(segments.toArray(), literalLength);
+    }
+
+    private static int indexOf(byte[] content, byte b, int from)
+    {
+        for (int i = from; i < content.length; i++)
+        {
+            if (content[i] == b)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] copy(byte[] content, int from, int to)
+    {
+        byte[] segment = new byte[to - from];
+        System.arraycopy(content, from, segment, 0, segment.length);
+        return segment;
+    }
+
+    public boolean hasExpressions()
+    {
+        return segments.length > 1 || (segments.length == 1 && segments[0] instanceof Slot);
+    }
+
+    /**
+     * Writes the resource, evaluating the expressions against the given context.
+     *
+     * @param libraryName library of the resource, used to resolve relative resource references
+     */
+    public void write(FacesContext context, String libraryName, String resourceName, OutputStream out)
+            throws IOException
+    {
+        if (libraryName != null && hasExpressions())
+        {
+            ResourceELUtils.saveResourceLibraryForResolver(context, libraryName);
+        }
+        try
+        {
+            for (Object segment : segments)
+            {
+                if (segment instanceof byte[] literal)
+                {
+                    out.write(literal);
+                }
+                else
+                {
+                    out.write(((Slot) segment).evaluate(context, libraryName, resourceName)
+                            .getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+        finally
+        {
+            if (libraryName != null && hasExpressions())
+            {
+                ResourceELUtils.removeResourceLibraryForResolver(context);
+            }
+        }
+    }
+
+    public byte[] render(FacesContext context, String libraryName, String resourceName) throws IOException
+    {
+        if (segments.length == 1 && segments[0] instanceof byte[] literal)
+        {
+            return literal;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(literalLength + 64 * (segments.length / 2 + 1));
+        write(context, libraryName, resourceName, out);
+        return out.toByteArray();
+    }
+
+    private static class Slot
+    {
+        private final String expression;
+        private volatile ValueExpression valueExpression;
+
+        Slot(String expression)
+        {
+            this.expression = expression;
+        }
+
+        String evaluate(FacesContext context, String libraryName, String resourceName)
+        {
+            ELContext elContext = context.getELContext();
+            try
+            {
+                ValueExpression ve = valueExpression;
+                if (ve == null)
+                {
+                    ve = context.getApplication().getExpressionFactory()
+                            .createValueExpression(elContext, expression, String.class);
+                    valueExpression = ve;
+                }
+                String value = (String) ve.getValue(elContext);
+                return value == null ? "" : value;
+            }
+            catch (ELException e)
+            {
+                ExceptionQueuedEventContext equecontext = new ExceptionQueuedEventContext(context, e, null);
+                context.getApplication().publishEvent(context, ExceptionQueuedEvent.class, equecontext);
+
+                if (log.isLoggable(Level.SEVERE))
+                {
+                    log.severe("Cannot evaluate EL expression " + expression.substring(2, expression.length() - 1)
+                            + " in resource " + (libraryName == null ? "" : libraryName) + ':'
+                            + (resourceName == null ? "" : resourceName));
+                }
+                return expression;
+            }
+        }
+    }
+}
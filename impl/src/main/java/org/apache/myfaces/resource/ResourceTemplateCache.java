@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.myfaces.resource.ResourceHandlerCache.ResourceKey;
+import org.apache.myfaces.util.lang.ConcurrentClockCache;
+
+/**
+ * Keeps the compiled {@link ResourceTemplate} of resources containing value expressions, so they are
+ * parsed only once.
+ */
+public class ResourceTemplateCache
+{
+    private final ConcurrentClockCache<ResourceKey, ResourceTemplate> templates;
+
+    public ResourceTemplateCache(int maxSize)
+    {
+        templates = new ConcurrentClockCache<>((maxSize * 4 + 3) / 3, maxSize);
+    }
+
+    /**
+     * @return the compiled template of the resource, or null if the resource does not exist
+     */
+    public ResourceTemplate getTemplate(ResourceImpl resource) throws IOException
+    {
+        ResourceKey key = resource.getContentKey();
+        ResourceTemplate template = templates.get(key);
+        if (template == null)
+        {
+            try (InputStream in = resource.getResourceLoader().getResourceInputStream(resource.getResourceMeta()))
+            {
+                if (in == null)
+                {
+                    return null;
+                }
+                template = ResourceTemplate.compile(in);
+            }
+            // Compiling twice on concurrent first requests is harmless, the templates are equal
+            templates.put(key, template);
+        }
+        return template;
+    }
+}
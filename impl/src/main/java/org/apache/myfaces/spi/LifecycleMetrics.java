@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi;
+
+import jakarta.faces.context.ExternalContext;
+import jakarta.faces.event.PhaseId;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.spi.impl.DefaultLifecycleMetrics;
+import org.apache.myfaces.spi.impl.SpiUtils;
+
+/**
+ * SPI to collect the time spent in the phases of the lifecycle, enabled with
+ * {@link MyfacesConfig#LIFECYCLE_METRICS}.
+ *
+ * <p>The default implementation keeps histograms per view and phase, samples slow requests and publishes
+ * them as JMX MBean. A custom implementation, for example reporting to a metrics library, can be registered
+ * as service.</p>
+ *
+ * <p>The methods are called by the request threads after every phase, so they should only record the
+ * values and leave the reporting to another thread.</p>
+ *
+ * @since 5.0
+ */
+public abstract class LifecycleMetrics
+{
+    /**
+     * @return the metrics of the application or null if they are not enabled
+     */
+    public static LifecycleMetrics getInstance(ExternalContext ctx)
+    {
+        return SpiUtils.getApplicationInstance(ctx, LifecycleMetrics.class, DefaultLifecycleMetrics.class,
+                MyfacesConfig::isLifecycleMetrics, LifecycleMetrics::init);
+    }
+
+    /**
+     * Called on shutdown of the application.
+     */
+    public static void release(ExternalContext ctx)
+    {
+        SpiUtils.releaseApplicationInstance(ctx, LifecycleMetrics.class, LifecycleMetrics::destroy);
+    }
+
+    public void init(ExternalContext ctx)
+    {
+    }
+
+    public void destroy()
+    {
+    }
+
+    /**
+     * A phase has been executed, the time includes the phase listeners.
+     *
+     * @param viewId the id of the view at the end of the phase, null if there is none
+     */
+    public abstract void phaseExecuted(String viewId, PhaseId phaseId, long nanos);
+
+    /**
+     * The response has been rendered or completed.
+     *
+     * @param viewId the id of the view at the end of the request, null if there is none
+     * @param nanos the time from the start of the first phase to the end of the request
+     * @param phaseNanos the time spent in each phase, indexed by {@link PhaseId#getOrdinal()}
+     */
+    public abstract void requestCompleted(String viewId, long nanos, long[] phaseNanos);
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi;
+
+import jakarta.faces.context.ExternalContext;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.spi.impl.DefaultRenderProfiler;
+import org.apache.myfaces.spi.impl.SpiUtils;
+
+/**
+ * SPI to profile the rendering of views, enabled with {@link MyfacesConfig#RENDER_PROFILER}.
+ *
+ * <p>Every component encoded by a renderer is reported once its encoding has ended. The default
+ * implementation aggregates the samples per component type, client id and component stack and publishes
+ * them as JMX MBean. A custom implementation can be registered as service.</p>
+ *
+ * <p>{@link #componentRendered} is called on the request thread for every encoded component, so it adds
+ * directly to the render time it measures.</p>
+ *
+ * @since 5.0
+ */
+public abstract class RenderProfiler
+{
+    /**
+     * @return the profiler of the application or null if it is not enabled
+     */
+    public static RenderProfiler getInstance(ExternalContext ctx)
+    {
+        return SpiUtils.getApplicationInstance(ctx, RenderProfiler.class, DefaultRenderProfiler.class,
+                MyfacesConfig::isRenderProfiler, RenderProfiler::init);
+    }
+
+    /**
+     * Called on shutdown of the application.
+     */
+    public static void release(ExternalContext ctx)
+    {
+        SpiUtils.releaseApplicationInstance(ctx, RenderProfiler.class, RenderProfiler::destroy);
+    }
+
+    public void init(ExternalContext ctx)
+    {
+    }
+
+    public void destroy()
+    {
+    }
+
+    /**
+     * A component has been encoded.
+     *
+     * @param viewId the id of the rendered view
+     * @param componentType the class name of the component
+     * @param clientId the client id of the component
+     * @param stack the simple class names of the enclosing components encoded by a renderer and of the component
+     *        itself, starting with the view id and separated by ';'
+     * @param nanos the time from the start of encodeBegin to the end of encodeEnd, including the children
+     * @param selfNanos the time without the children encoded by a renderer
+     * @param written the number of characters written including the children, -1 if unknown
+     */
+    public abstract void componentRendered(String viewId, String componentType, String clientId, String stack,
+            long nanos, long selfNanos, long written);
+}
@@ -53,6 +53,26 @@ public Object toObject(byte[] bytes) throws IOException, ClassNotFoundException
         }
     }
 
+    /**
+     * Serializes the given object into the passed stream. The stream is not closed, so the caller can
+     * keep writing (or finish a wrapping compression stream) after this method returns.
+     */
+    public void writeObject(Object object, OutputStream outputStream) throws IOException
+    {
+        ObjectOutputStream oos = getObjectOutputStream(outputStream);
+        oos.writeObject(object);
+        oos.flush();
+    }
+
+    /**
+     * Reads back an object previously written by {@link #writeObject(Object, OutputStream)}.
+     */
+    public Object readObject(InputStream inputStream) throws IOException, ClassNotFoundException
+    {
+        ObjectInputStream ois = getObjectInputStream(inputStream);
+        return ois.readObject();
+    }
+
     protected abstract ObjectOutputStream getObjectOutputStream(OutputStream outputStream) throws IOException;
 
     protected abstract ObjectInputStream getObjectInputStream(InputStream inputStream) throws IOException;
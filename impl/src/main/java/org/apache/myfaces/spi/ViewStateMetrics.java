@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi;
+
+import jakarta.faces.context.ExternalContext;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.spi.impl.DefaultViewStateMetrics;
+import org.apache.myfaces.spi.impl.SpiUtils;
+
+/**
+ * SPI to collect metrics about the view state, enabled with
+ * {@link MyfacesConfig#VIEW_STATE_METRICS}.
+ *
+ * <p>The default implementation keeps histograms per view and publishes them as JMX MBean. A custom
+ * implementation, for example reporting to a metrics library, can be registered as service.</p>
+ *
+ * <p>The methods are called concurrently by the request threads and must not block.</p>
+ *
+ * @since 5.0
+ */
+public abstract class ViewStateMetrics
+{
+    /**
+     * @return the metrics of the application or null if they are not enabled
+     */
+    public static ViewStateMetrics getInstance(ExternalContext ctx)
+    {
+        return SpiUtils.getApplicationInstance(ctx, ViewStateMetrics.class, DefaultViewStateMetrics.class,
+                MyfacesConfig::isViewStateMetrics, ViewStateMetrics::init);
+    }
+
+    /**
+     * Called on shutdown of the application.
+     */
+    public static void release(ExternalContext ctx)
+    {
+        SpiUtils.releaseApplicationInstance(ctx, ViewStateMetrics.class, ViewStateMetrics::destroy);
+    }
+
+    public void init(ExternalContext ctx)
+    {
+    }
+
+    public void destroy()
+    {
+    }
+
+    /**
+     * The state of the view has been saved, the time includes the serialization by the state cache.
+     */
+    public abstract void viewSaved(String viewId, long nanos);
+
+    /**
+     * The view has been restored from its state.
+     */
+    public abstract void viewRestored(String viewId, long nanos);
+
+    /**
+     * The state of the view has been serialized.
+     *
+     * @param bytes the size of the serialized state
+     * @param uncompressedBytes the size before compression, the same as bytes if the state is not compressed
+     */
+    public abstract void stateSerialized(String viewId, long bytes, long uncompressedBytes, long nanos);
+
+    /**
+     * No state could be found for a postback, which ends in a ViewExpiredException.
+     */
+    public abstract void restoreMissed(String viewId);
+
+    /**
+     * Views have been discarded from the session to make room for new ones.
+     */
+    public abstract void viewsEvicted(int count);
+}
@@ -0,0 +1,627 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi.impl;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.myfaces.util.lang.ClassUtils;
+import org.apache.myfaces.util.lang.FastByteArrayInputStream;
+import org.apache.myfaces.util.lang.FastByteArrayOutputStream;
+
+/**
+ * SerialFactory that writes the view state tree with a compact, tag based binary format instead of
+ * plain java serialization.
+ *
+ * <p>The types produced by the state saving algorithm (Object[], HashMap, ArrayList, String, boxed
+ * primitives, enums, Class and the attached state wrappers of jakarta.faces.component) are encoded
+ * natively. Strings and class names are written once and referenced by index afterwards, so the
+ * repeated property keys and client ids of a view cost only a couple of bytes each. Any other value
+ * is handed to java serialization: all of them are written with a single ObjectOutputStream, so
+ * shared references between those objects are preserved like before.</p>
+ *
+ * <p>Identity is not preserved for the natively encoded containers (Object[], HashMap, ArrayList).
+ * The state saving algorithm never shares them, but a custom StateHolder that relies on two
+ * attributes pointing to the same list should keep using {@link DefaultSerialFactory}.</p>
+ *
+ * <p>Streams written by java serialization (for example by {@link DefaultSerialFactory} before
+ * switching the factory) are still read back correctly.</p>
+ *
+ * <p>Enable it with the init parameter org.apache.myfaces.SERIAL_FACTORY.</p>
+ */
+public class BinarySerialFactory extends DefaultSerialFactory
+{
+    private static final Logger log = Logger.getLogger(BinarySerialFactory.class.getName());
+
+    /**
+     * First byte of the binary format. Java serialization always starts with 0xAC, so both formats
+     * can be told apart without any additional header.
+     */
+    static final int MAGIC = 0x4D;
+    static final int VERSION = 1;
+
+    private static final int JAVA_SERIALIZATION_MAGIC = 0xAC;
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte INTEGER = 3;
+    private static final byte LONG = 4;
+    private static final byte SHORT = 5;
+    private static final byte BYTE = 6;
+    private static final byte CHARACTER = 7;
+    private static final byte FLOAT = 8;
+    private static final byte DOUBLE = 9;
+    private static final byte STRING = 10;
+    private static final byte STRING_REF = 11;
+    private static final byte LONG_STRING = 12;
+    private static final byte OBJECT_ARRAY = 13;
+    private static final byte ARRAY_LIST = 14;
+    private static final byte HASH_MAP = 15;
+    private static final byte ENUM = 16;
+    private static final byte CLASS = 17;
+    private static final byte ATTACHED_STATE_WRAPPER = 18;
+    private static final byte ATTACHED_DELTA_WRAPPER = 19;
+    private static final byte ATTACHED_LIST_STATE_WRAPPER = 20;
+    private static final byte ATTACHED_COLLECTION_STATE_WRAPPER = 21;
+    private static final byte SERIALIZED = 22;
+
+    /**
+     * Strings longer than this can exceed the 65535 bytes limit of DataOutput.writeUTF.
+     */
+    private static final int MAX_UTF_CHARS = 65535 / 3;
+
+    private static final WrapperAccessor ATTACHED_STATE_WRAPPER_ACCESSOR = new WrapperAccessor(
+            "jakarta.faces.component._AttachedStateWrapper",
+            new Class<?>[] { Class.class, Object.class }, "getClazz", "getWrappedStateObject");
+    private static final WrapperAccessor ATTACHED_DELTA_WRAPPER_ACCESSOR = new WrapperAccessor(
+            "jakarta.faces.component._AttachedDeltaWrapper",
+            new Class<?>[] { Class.class, Object.class }, null, "getWrappedStateObject");
+    private static final WrapperAccessor ATTACHED_LIST_STATE_WRAPPER_ACCESSOR = new WrapperAccessor(
+            "jakarta.faces.component._AttachedListStateWrapper",
+            new Class<?>[] { List.class }, null, "getWrappedStateList");
+    private static final WrapperAccessor ATTACHED_COLLECTION_STATE_WRAPPER_ACCESSOR = new WrapperAccessor(
+            "jakarta.faces.component._AttachedCollectionStateWrapper",
+            new Class<?>[] { Class.class, List.class }, "getClazz", "getWrappedStateList");
+
+    @Override
+    public byte[] toByteArray(Object object) throws IOException
+    {
+        FastByteArrayOutputStream out = new FastByteArrayOutputStream(1024);
+        writeObject(object, out);
+
+        byte[] bytes = new byte[out.getSize()];
+        System.arraycopy(out.getByteArray(), 0, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    @Override
+    public Object toObject(byte[] bytes) throws IOException, ClassNotFoundException
+    {
+        return readObject(new FastByteArrayInputStream(bytes));
+    }
+
+    @Override
+    public void writeObject(Object object, OutputStream outputStream) throws IOException
+    {
+        StateWriter writer = new StateWriter();
+        writer.write(object);
+
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.write(MAGIC);
+        out.write(VERSION);
+        if (writer.serializables.isEmpty())
+        {
+            writeVarInt(out, 0);
+        }
+        else
+        {
+            FastByteArrayOutputStream serialized = new FastByteArrayOutputStream(512);
+            ObjectOutputStream oos = getObjectOutputStream(serialized);
+            oos.writeObject(writer.serializables.toArray());
+            oos.flush();
+
+            writeVarInt(out, serialized.getSize());
+            out.write(serialized.getByteArray(), 0, serialized.getSize());
+        }
+        out.write(writer.buffer.getByteArray(), 0, writer.buffer.getSize());
+        out.flush();
+    }
+
+    @Override
+    public Object readObject(InputStream inputStream) throws IOException, ClassNotFoundException
+    {
+        PushbackInputStream in = new PushbackInputStream(inputStream, 1);
+        int magic = in.read();
+        if (magic != MAGIC)
+        {
+            if (magic == JAVA_SERIALIZATION_MAGIC)
+            {
+                // State written with plain java serialization
+                in.unread(magic);
+                return super.readObject(in);
+            }
+            throw new StreamCorruptedException("Invalid stream header: " + magic);
+        }
+
+        DataInputStream data = new DataInputStream(in);
+        int version = data.read();
+        if (version != VERSION)
+        {
+            throw new StreamCorruptedException("Unsupported stream version: " + version);
+        }
+
+        Object[] serializables = null;
+        int serializedLength = readVarInt(data);
+        if (serializedLength > 0)
+        {
+            byte[] serialized = new byte[serializedLength];
+            data.readFully(serialized);
+            try (ObjectInputStream ois = getObjectInputStream(new FastByteArrayInputStream(serialized)))
+            {
+                serializables = (Object[]) ois.readObject();
+            }
+        }
+
+        return new StateReader(data, serializables).read();
+    }
+
+    static void writeVarInt(DataOutputStream out, int value) throws IOException
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarInt(DataInputStream in) throws IOException
+    {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7)
+        {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+            {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Malformed variable length integer");
+    }
+
+    /**
+     * Encodes the state tree into an in-memory buffer, collecting the values that need java
+     * serialization so they can be written with a single ObjectOutputStream afterwards.
+     */
+    private static class StateWriter
+    {
+        private final FastByteArrayOutputStream buffer = new FastByteArrayOutputStream(1024);
+        private final DataOutputStream out = new DataOutputStream(buffer);
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final List<Object> serializables = new ArrayList<>();
+
+        void write(Object value) throws IOException
+        {
+            if (value == null)
+            {
+                out.write(NULL);
+                return;
+            }
+
+            Class<?> type = value.getClass();
+            if (type == String.class)
+            {
+                writeString((String) value);
+            }
+            else if (type == Object[].class)
+            {
+                Object[] array = (Object[]) value;
+                out.write(OBJECT_ARRAY);
+                writeVarInt(out, array.length);
+                for (Object item : array)
+                {
+                    write(item);
+                }
+            }
+            else if (type == Boolean.class)
+            {
+                out.write(((Boolean) value) ? TRUE : FALSE);
+            }
+            else if (type == Integer.class)
+            {
+                int i = (Integer) value;
+                out.write(INTEGER);
+                // zigzag, so small negative numbers stay small too
+                writeVarInt(out, (i << 1) ^ (i >> 31));
+            }
+            else if (type == HashMap.class)
+            {
+                Map<?, ?> map = (Map<?, ?>) value;
+                out.write(HASH_MAP);
+                writeVarInt(out, map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet())
+                {
+                    write(entry.getKey());
+                    write(entry.getValue());
+                }
+            }
+            else if (type == ArrayList.class)
+            {
+                out.write(ARRAY_LIST);
+                writeList((List<?>) value);
+            }
+            else if (value instanceof Enum)
+            {
+                out.write(ENUM);
+                writeString(((Enum<?>) value).getDeclaringClass().getName());
+                writeString(((Enum<?>) value).name());
+            }
+            else if (ATTACHED_STATE_WRAPPER_ACCESSOR.handles(type))
+            {
+                out.write(ATTACHED_STATE_WRAPPER);
+                write(ATTACHED_STATE_WRAPPER_ACCESSOR.getClazz(value));
+                write(ATTACHED_STATE_WRAPPER_ACCESSOR.getWrapped(value));
+            }
+            else if (ATTACHED_DELTA_WRAPPER_ACCESSOR.handles(type))
+            {
+                out.write(ATTACHED_DELTA_WRAPPER);
+                write(ATTACHED_DELTA_WRAPPER_ACCESSOR.getWrapped(value));
+            }
+            else if (ATTACHED_LIST_STATE_WRAPPER_ACCESSOR.handles(type)
+                    && ATTACHED_LIST_STATE_WRAPPER_ACCESSOR.getWrapped(value) != null)
+            {
+                out.write(ATTACHED_LIST_STATE_WRAPPER);
+                writeList((List<?>) ATTACHED_LIST_STATE_WRAPPER_ACCESSOR.getWrapped(value));
+            }
+            else if (ATTACHED_COLLECTION_STATE_WRAPPER_ACCESSOR.handles(type)
+                    && ATTACHED_COLLECTION_STATE_WRAPPER_ACCESSOR.getWrapped(value) != null)
+            {
+                out.write(ATTACHED_COLLECTION_STATE_WRAPPER);
+                write(ATTACHED_COLLECTION_STATE_WRAPPER_ACCESSOR.getClazz(value));
+                writeList((List<?>) ATTACHED_COLLECTION_STATE_WRAPPER_ACCESSOR.getWrapped(value));
+            }
+            else if (type == Class.class && !((Class<?>) value).isPrimitive() && !((Class<?>) value).isArray())
+            {
+                out.write(CLASS);
+                writeString(((Class<?>) value).getName());
+            }
+            else if (type == Long.class)
+            {
+                out.write(LONG);
+                out.writeLong((Long) value);
+            }
+            else if (type == Short.class)
+            {
+                out.write(SHORT);
+                out.writeShort((Short) value);
+            }
+            else if (type == Byte.class)
+            {
+                out.write(BYTE);
+                out.writeByte((Byte) value);
+            }
+            else if (type == Character.class)
+            {
+                out.write(CHARACTER);
+                out.writeChar((Character) value);
+            }
+            else if (type == Float.class)
+            {
+                out.write(FLOAT);
+                out.writeFloat((Float) value);
+            }
+            else if (type == Double.class)
+            {
+                out.write(DOUBLE);
+                out.writeDouble((Double) value);
+            }
+            else
+            {
+                out.write(SERIALIZED);
+                writeVarInt(out, serializables.size());
+                serializables.add(value);
+            }
+        }
+
+        private void writeList(List<?> list) throws IOException
+        {
+            writeVarInt(out, list.size());
+            for (int i = 0, size = list.size(); i < size; i++)
+            {
+                write(list.get(i));
+            }
+        }
+
+        private void writeString(String value) throws IOException
+        {
+            Integer index = strings.get(value);
+            if (index != null)
+            {
+                out.write(STRING_REF);
+                writeVarInt(out, index);
+                return;
+            }
+
+            strings.put(value, strings.size());
+            if (value.length() <= MAX_UTF_CHARS)
+            {
+                out.write(STRING);
+                out.writeUTF(value);
+            }
+            else
+            {
+                out.write(LONG_STRING);
+                writeVarInt(out, value.length());
+                out.writeChars(value);
+            }
+        }
+    }
+
+    private static class StateReader
+    {
+        private final DataInputStream in;
+        private final Object[] serializables;
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Class<?>> classes = new HashMap<>();
+
+        StateReader(DataInputStream in, Object[] serializables)
+        {
+            this.in = in;
+            this.serializables = serializables;
+        }
+
+        Object read() throws IOException, ClassNotFoundException
+        {
+            int tag = in.readUnsignedByte();
+            switch (tag)
+            {
+                case NULL:
+                    return null;
+                case TRUE:
+                    return Boolean.TRUE;
+                case FALSE:
+                    return Boolean.FALSE;
+                case INTEGER:
+                    int zigzag = readVarInt(in);
+                    return (zigzag >>> 1) ^ -(zigzag & 1);
+                case LONG:
+                    return in.readLong();
+                case SHORT:
+                    return in.readShort();
+                case BYTE:
+                    return in.readByte();
+                case CHARACTER:
+                    return in.readChar();
+                case FLOAT:
+                    return in.readFloat();
+                case DOUBLE:
+                    return in.readDouble();
+                case STRING:
+                case STRING_REF:
+                case LONG_STRING:
+                    return readString(tag);
+                case OBJECT_ARRAY:
+                    Object[] array = new Object[readVarInt(in)];
+                    for (int i = 0; i < array.length; i++)
+                    {
+                        array[i] = read();
+                    }
+                    return array;
+                case ARRAY_LIST:
+                    return readList();
+                case HASH_MAP:
+                    int size = readVarInt(in);
+                    Map<Object, Object> map = new HashMap<>((int) (size / 0.75f) + 1);
+                    for (int i = 0; i < size; i++)
+                    {
+                        Object key = read();
+                        map.put(key, read());
+                    }
+                    return map;
+                case ENUM:
+                    Class enumClass = readClass();
+                    return Enum.valueOf(enumClass, readString(in.readUnsignedByte()));
+                case CLASS:
+                    return readClass();
+                case ATTACHED_STATE_WRAPPER:
+                    Object clazz = read();
+                    return ATTACHED_STATE_WRAPPER_ACCESSOR.newInstance(clazz, read());
+                case ATTACHED_DELTA_WRAPPER:
+                    return ATTACHED_DELTA_WRAPPER_ACCESSOR.newInstance(null, read());
+                case ATTACHED_LIST_STATE_WRAPPER:
+                    return ATTACHED_LIST_STATE_WRAPPER_ACCESSOR.newInstance(readList());
+                case ATTACHED_COLLECTION_STATE_WRAPPER:
+                    Object collectionClass = read();
+                    return ATTACHED_COLLECTION_STATE_WRAPPER_ACCESSOR.newInstance(collectionClass, readList());
+                case SERIALIZED:
+                    int index = readVarInt(in);
+                    if (serializables == null || index >= serializables.length)
+                    {
+                        throw new StreamCorruptedException("Invalid serialized object reference: " + index);
+                    }
+                    return serializables[index];
+                default:
+                    throw new StreamCorruptedException("Invalid type code: " + tag);
+            }
+        }
+
+        private List<Object> readList() throws IOException, ClassNotFoundException
+        {
+            int size = readVarInt(in);
+            List<Object> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++)
+            {
+                list.add(read());
+            }
+            return list;
+        }
+
+        private String readString(int tag) throws IOException
+        {
+            String value;
+            if (tag == STRING_REF)
+            {
+                int index = readVarInt(in);
+                if (index >= strings.size())
+                {
+                    throw new StreamCorruptedException("Invalid string reference: " + index);
+                }
+                return strings.get(index);
+            }
+            else if (tag == STRING)
+            {
+                value = in.readUTF();
+            }
+            else if (tag == LONG_STRING)
+            {
+                char[] chars = new char[readVarInt(in)];
+                for (int i = 0; i < chars.length; i++)
+                {
+                    chars[i] = in.readChar();
+                }
+                value = new String(chars);
+            }
+            else
+            {
+                throw new StreamCorruptedException("Expected string but found type code: " + tag);
+            }
+            strings.add(value);
+            return value;
+        }
+
+        private Class<?> readClass() throws IOException, ClassNotFoundException
+        {
+            String name = readString(in.readUnsignedByte());
+            Class<?> clazz = classes.get(name);
+            if (clazz == null)
+            {
+                clazz = ClassUtils.classForName(name);
+                classes.put(name, clazz);
+            }
+            return clazz;
+        }
+    }
+
+    /**
+     * Reflective access to the package private state wrappers of jakarta.faces.component. If the
+     * classes are not available (or not accessible), values of that type are simply handed to
+     * java serialization.
+     */
+    private static class WrapperAccessor
+    {
+        private final Class<?> type;
+        private final Constructor<?> constructor;
+        private final Method clazzGetter;
+        private final Method wrappedGetter;
+
+        WrapperAccessor(String className, Class<?>[] parameterTypes, String clazzGetterName,
+                String wrappedGetterName)
+        {
+            Class<?> resolvedType = null;
+            Constructor<?> resolvedConstructor = null;
+            Method resolvedClazzGetter = null;
+            Method resolvedWrappedGetter = null;
+            try
+            {
+                resolvedType = Class.forName(className, false, BinarySerialFactory.class.getClassLoader());
+                resolvedConstructor = resolvedType.getDeclaredConstructor(parameterTypes);
+                resolvedConstructor.setAccessible(true);
+                if (clazzGetterName != null)
+                {
+                    resolvedClazzGetter = resolvedType.getDeclaredMethod(clazzGetterName);
+                    resolvedClazzGetter.setAccessible(true);
+                }
+                resolvedWrappedGetter = resolvedType.getDeclaredMethod(wrappedGetterName);
+                resolvedWrappedGetter.setAccessible(true);
+            }
+            catch (Exception | LinkageError e)
+            {
+                if (log.isLoggable(Level.FINE))
+                {
+                    log.log(Level.FINE, "Cannot access " + className + ", java serialization will be used", e);
+                }
+                resolvedType = null;
+            }
+            this.type = resolvedType;
+            this.constructor = resolvedConstructor;
+            this.clazzGetter = resolvedClazzGetter;
+            this.wrappedGetter = resolvedWrappedGetter;
+        }
+
+        boolean handles(Class<?> candidate)
+        {
+            return type != null && type == candidate;
+        }
+
+        Object getClazz(Object wrapper) throws IOException
+        {
+            return invoke(clazzGetter, wrapper);
+        }
+
+        Object getWrapped(Object wrapper) throws IOException
+        {
+            return invoke(wrappedGetter, wrapper);
+        }
+
+        Object newInstance(Object... args) throws IOException
+        {
+            if (type == null)
+            {
+                throw new StreamCorruptedException("State wrapper class not available");
+            }
+            try
+            {
+                return constructor.newInstance(args);
+            }
+            catch (ReflectiveOperationException | IllegalArgumentException e)
+            {
+                throw new IOException("Cannot create instance of " + type.getName(), e);
+            }
+        }
+
+        private static Object invoke(Method method, Object wrapper) throws IOException
+        {
+            try
+            {
+                return method.invoke(wrapper);
+            }
+            catch (ReflectiveOperationException e)
+            {
+                throw new IOException("Cannot read state from " + wrapper.getClass().getName(), e);
+            }
+        }
+    }
+}
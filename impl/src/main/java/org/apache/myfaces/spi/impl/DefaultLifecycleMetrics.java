@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.ObjectName;
+
+import jakarta.faces.context.ExternalContext;
+import jakarta.faces.event.PhaseId;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.spi.LifecycleMetrics;
+
+/**
+ * Keeps the lifecycle metrics in memory and publishes them as MBean
+ * <code>org.apache.myfaces:type=LifecycleMetrics,name=&lt;context path&gt;</code>.
+ *
+ * <p>The times are kept in the same lock free histograms as the view state metrics, one per phase and view
+ * plus one for the whole request. The latest slow requests are kept in a ring buffer.</p>
+ */
+public class DefaultLifecycleMetrics extends LifecycleMetrics implements LifecycleMetricsMXBean
+{
+    private static final Logger log = Logger.getLogger(DefaultLifecycleMetrics.class.getName());
+
+    static final int MAX_VIEWS = 1000;
+    static final String OTHER_VIEWS = "*";
+    static final int MAX_SLOW_REQUESTS = 100;
+
+    /**
+     * Index of the whole request in the histograms, unused by the phases.
+     */
+    private static final int REQUEST = PhaseId.ANY_PHASE.getOrdinal();
+
+    private final Map<String, DefaultViewStateMetrics.Histogram[]> views = new ConcurrentHashMap<>();
+    private final DefaultViewStateMetrics.Histogram[] totals = newHistograms();
+    private final AtomicReferenceArray<SlowRequestSample> slowRequests =
+            new AtomicReferenceArray<>(MAX_SLOW_REQUESTS);
+    private final AtomicLong slowRequestCount = new AtomicLong();
+    private long slowRequestThreshold = 1000L * 1000000L;
+    private ObjectName objectName;
+
+    @Override
+    public void init(ExternalContext ctx)
+    {
+        slowRequestThreshold = MyfacesConfig.getCurrentInstance(ctx).getLifecycleMetricsSlowRequestThreshold()
+                * 1000000L;
+
+        objectName = MBeanSupport.register(ctx, this, "LifecycleMetrics");
+    }
+
+    @Override
+    public void destroy()
+    {
+        MBeanSupport.unregister(objectName);
+        objectName = null;
+    }
+
+    private static DefaultViewStateMetrics.Histogram[] newHistograms()
+    {
+        DefaultViewStateMetrics.Histogram[] histograms = new DefaultViewStateMetrics.Histogram[PhaseId.VALUES.size()];
+        for (int i = 0; i < histograms.length; i++)
+        {
+            histograms[i] = new DefaultViewStateMetrics.Histogram();
+        }
+        return histograms;
+    }
+
+    private DefaultViewStateMetrics.Histogram[] getViewHistograms(String viewId)
+    {
+        String key = viewId == null ? OTHER_VIEWS : viewId;
+        DefaultViewStateMetrics.Histogram[] histograms = views.get(key);
+        if (histograms == null)
+        {
+            if (views.size() >= MAX_VIEWS)
+            {
+                key = OTHER_VIEWS;
+            }
+            histograms = views.computeIfAbsent(key, (k) -> newHistograms());
+        }
+        return histograms;
+    }
+
+    /**
+     * @param threshold the time in milliseconds after which a request is sampled, 0 disables the sampling
+     */
+    public void setSlowRequestThreshold(long threshold)
+    {
+        this.slowRequestThreshold = threshold * 1000000L;
+    }
+
+    @Override
+    public void phaseExecuted(String viewId, PhaseId phaseId, long nanos)
+    {
+        int index = phaseId.getOrdinal();
+        getViewHistograms(viewId)[index].record(nanos);
+        totals[index].record(nanos);
+    }
+
+    @Override
+    public void requestCompleted(String viewId, long nanos, long[] phaseNanos)
+    {
+        getViewHistograms(viewId)[REQUEST].record(nanos);
+        totals[REQUEST].record(nanos);
+
+        if (slowRequestThreshold > 0 && nanos >= slowRequestThreshold)
+        {
+            SlowRequestSample sample = new SlowRequestSample(viewId, System.currentTimeMillis(), nanos, phaseNanos);
+            slowRequests.set((int) (slowRequestCount.getAndIncrement() % MAX_SLOW_REQUESTS), sample);
+            if (log.isLoggable(Level.FINE))
+            {
+                log.fine("Slow request for view " + viewId + ": " + (nanos / 1000000) + " ms");
+            }
+        }
+    }
+
+    @Override
+    public LifecyclePhaseStatistics[] getPhases()
+    {
+        List<LifecyclePhaseStatistics> statistics = new ArrayList<>();
+        for (Map.Entry<String, DefaultViewStateMetrics.Histogram[]> entry : views.entrySet())
+        {
+            addStatistics(statistics, entry.getKey(), entry.getValue());
+        }
+        return statistics.toArray(LifecyclePhaseStatistics[]::new);
+    }
+
+    @Override
+    public LifecyclePhaseStatistics[] getPhaseTotals()
+    {
+        List<LifecyclePhaseStatistics> statistics = new ArrayList<>();
+        addStatistics(statistics, null, totals);
+        return statistics.toArray(LifecyclePhaseStatistics[]::new);
+    }
+
+    private static void addStatistics(List<LifecyclePhaseStatistics> statistics, String viewId,
+            DefaultViewStateMetrics.Histogram[] histograms)
+    {
+        for (int i = 0; i < histograms.length; i++)
+        {
+            if (histograms[i].getCount() > 0)
+            {
+                String phase = i == REQUEST ? "REQUEST" : PhaseId.VALUES.get(i).getName();
+                statistics.add(new LifecyclePhaseStatistics(viewId, phase, histograms[i]));
+            }
+        }
+    }
+
+    @Override
+    public SlowRequestSample[] getSlowRequests()
+    {
+        List<SlowRequestSample> samples = new ArrayList<>(MAX_SLOW_REQUESTS);
+        long last = slowRequestCount.get();
+        for (long i = last - 1; i >= 0 && i >= last - MAX_SLOW_REQUESTS; i--)
+        {
+            SlowRequestSample sample = slowRequests.get((int) (i % MAX_SLOW_REQUESTS));
+            if (sample != null)
+            {
+                samples.add(sample);
+            }
+        }
+        return samples.toArray(SlowRequestSample[]::new);
+    }
+
+    @Override
+    public long getSlowRequestThreshold()
+    {
+        return slowRequestThreshold / 1000000L;
+    }
+
+    @Override
+    public void reset()
+    {
+        views.clear();
+        for (int i = 0; i < totals.length; i++)
+        {
+            totals[i] = new DefaultViewStateMetrics.Histogram();
+        }
+        for (int i = 0; i < MAX_SLOW_REQUESTS; i++)
+        {
+            slowRequests.set(i, null);
+        }
+        slowRequestCount.set(0);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi.impl;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import javax.management.ObjectName;
+
+import jakarta.faces.context.ExternalContext;
+
+import org.apache.myfaces.spi.RenderProfiler;
+
+/**
+ * Keeps the render profile in memory and publishes it as MBean
+ * <code>org.apache.myfaces:type=RenderProfiler,name=&lt;context path&gt;</code>.
+ *
+ * <p>Client ids and stacks depend on the rendered views, so the number of tracked entries is bounded. Once
+ * the limit is reached, new entries are aggregated under "*".</p>
+ */
+public class DefaultRenderProfiler extends RenderProfiler implements RenderProfilerMXBean
+{
+    static final int MAX_ENTRIES = 1000;
+    static final int MAX_STACKS = 10000;
+    static final String OTHER = "*";
+
+    private final Map<String, ProfileMetrics> componentTypes = new ConcurrentHashMap<>();
+    private final Map<String, ProfileMetrics> clientIds = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> stacks = new ConcurrentHashMap<>();
+    private ObjectName objectName;
+
+    @Override
+    public void init(ExternalContext ctx)
+    {
+        objectName = MBeanSupport.register(ctx, this, "RenderProfiler");
+    }
+
+    @Override
+    public void destroy()
+    {
+        MBeanSupport.unregister(objectName);
+        objectName = null;
+    }
+
+    private static <V> V getBounded(Map<String, V> map, String key, int max,
+            Function<String, V> factory)
+    {
+        V value = map.get(key);
+        if (value == null)
+        {
+            value = map.computeIfAbsent(map.size() >= max ? OTHER : key, factory);
+        }
+        return value;
+    }
+
+    @Override
+    public void componentRendered(String viewId, String componentType, String clientId, String stack,
+            long nanos, long selfNanos, long written)
+    {
+        getBounded(componentTypes, componentType, MAX_ENTRIES, (k) -> new ProfileMetrics())
+                .record(nanos, selfNanos, written);
+        getBounded(clientIds, viewId + '#' + clientId, MAX_ENTRIES, (k) -> new ProfileMetrics())
+                .record(nanos, selfNanos, written);
+        getBounded(stacks, stack, MAX_STACKS, (k) -> new LongAdder()).add(selfNanos);
+    }
+
+    @Override
+    public RenderProfileStatistics[] getComponentTypes()
+    {
+        return toStatistics(componentTypes);
+    }
+
+    @Override
+    public RenderProfileStatistics[] getClientIds()
+    {
+        return toStatistics(clientIds);
+    }
+
+    private static RenderProfileStatistics[] toStatistics(Map<String, ProfileMetrics> map)
+    {
+        return map.entrySet().stream()
+                .map((entry) -> new RenderProfileStatistics(entry.getKey(), entry.getValue()))
+                .toArray(RenderProfileStatistics[]::new);
+    }
+
+    @Override
+    public String dumpCollapsedStacks()
+    {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(stacks).entrySet())
+        {
+            sb.append(entry.getKey()).append(' ').append(entry.getValue().sum() / 1000).append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void reset()
+    {
+        componentTypes.clear();
+        clientIds.clear();
+        stacks.clear();
+    }
+
+    static final class ProfileMetrics
+    {
+        final LongAdder count = new LongAdder();
+        final LongAdder time = new LongAdder();
+        final LongAdder selfTime = new LongAdder();
+        final LongAccumulator maxTime = new LongAccumulator(Math::max, 0);
+        final LongAdder written = new LongAdder();
+
+        void record(long nanos, long selfNanos, long chars)
+        {
+            count.increment();
+            time.add(nanos);
+            selfTime.add(selfNanos);
+            maxTime.accumulate(nanos);
+            if (chars > 0)
+            {
+                written.add(chars);
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.ObjectName;
+
+import jakarta.faces.context.ExternalContext;
+
+import org.apache.myfaces.spi.ViewStateMetrics;
+
+/**
+ * Keeps the view state metrics in memory and publishes them as MBean
+ * <code>org.apache.myfaces:type=ViewStateMetrics,name=&lt;context path&gt;</code>.
+ *
+ * <p>The values are kept in histograms with power of two buckets, so recording is lock free and
+ * percentiles are approximated by the upper bound of their bucket.</p>
+ */
+public class DefaultViewStateMetrics extends ViewStateMetrics implements ViewStateMetricsMXBean
+{
+    /**
+     * Restore misses carry the viewId of the request, so the number of tracked views is bounded.
+     */
+    static final int MAX_VIEWS = 1000;
+    static final String OTHER_VIEWS = "*";
+
+    private final Map<String, ViewMetrics> views = new ConcurrentHashMap<>();
+    private final LongAdder restoreMisses = new LongAdder();
+    private final LongAdder viewsEvicted = new LongAdder();
+    private ObjectName objectName;
+
+    @Override
+    public void init(ExternalContext ctx)
+    {
+        objectName = MBeanSupport.register(ctx, this, "ViewStateMetrics");
+    }
+
+    @Override
+    public void destroy()
+    {
+        MBeanSupport.unregister(objectName);
+        objectName = null;
+    }
+
+    private ViewMetrics getViewMetrics(String viewId)
+    {
+        String key = viewId == null ? OTHER_VIEWS : viewId;
+        ViewMetrics metrics = views.get(key);
+        if (metrics == null)
+        {
+            if (views.size() >= MAX_VIEWS)
+            {
+                key = OTHER_VIEWS;
+            }
+            metrics = views.computeIfAbsent(key, (k) -> new ViewMetrics());
+        }
+        return metrics;
+    }
+
+    @Override
+    public void viewSaved(String viewId, long nanos)
+    {
+        getViewMetrics(viewId).saveTime.record(nanos);
+    }
+
+    @Override
+    public void viewRestored(String viewId, long nanos)
+    {
+        getViewMetrics(viewId).restoreTime.record(nanos);
+    }
+
+    @Override
+    public void stateSerialized(String viewId, long bytes, long uncompressedBytes, long nanos)
+    {
+        ViewMetrics metrics = getViewMetrics(viewId);
+        metrics.serializeTime.record(nanos);
+        metrics.stateSize.record(bytes);
+        metrics.uncompressedSize.add(uncompressedBytes);
+    }
+
+    @Override
+    public void restoreMissed(String viewId)
+    {
+        restoreMisses.increment();
+        getViewMetrics(viewId).restoreMisses.increment();
+    }
+
+    @Override
+    public void viewsEvicted(int count)
+    {
+        viewsEvicted.add(count);
+    }
+
+    @Override
+    public ViewStateStatistics[] getViews()
+    {
+        return views.entrySet().stream()
+                .map((entry) -> new ViewStateStatistics(entry.getKey(), entry.getValue()))
+                .toArray(ViewStateStatistics[]::new);
+    }
+
+    @Override
+    public ViewStateStatistics getView(String viewId)
+    {
+        ViewMetrics metrics = views.get(viewId);
+        return metrics == null ? null : new ViewStateStatistics(viewId, metrics);
+    }
+
+    @Override
+    public long getRestoreMisses()
+    {
+        return restoreMisses.sum();
+    }
+
+    @Override
+    public long getViewsEvicted()
+    {
+        return viewsEvicted.sum();
+    }
+
+    @Override
+    public void reset()
+    {
+        views.clear();
+        restoreMisses.reset();
+        viewsEvicted.reset();
+    }
+
+    static final class ViewMetrics
+    {
+        final Histogram saveTime = new Histogram();
+        final Histogram restoreTime = new Histogram();
+        final Histogram serializeTime = new Histogram();
+        final Histogram stateSize = new Histogram();
+        final LongAdder uncompressedSize = new LongAdder();
+        final LongAdder restoreMisses = new LongAdder();
+    }
+
+    /**
+     * Histogram of positive values, the bucket i holds the values from 2^i to 2^(i+1) - 1.
+     */
+    static final class Histogram
+    {
+        private final AtomicLongArray buckets = new AtomicLongArray(64);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        void record(long value)
+        {
+            long v = Math.max(0, value);
+            buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(v >>> 1));
+            count.increment();
+            sum.add(v);
+            max.accumulate(v);
+        }
+
+        long getCount()
+        {
+            return count.sum();
+        }
+
+        long getSum()
+        {
+            return sum.sum();
+        }
+
+        long getMean()
+        {
+            long c = count.sum();
+            return c == 0 ? 0 : sum.sum() / c;
+        }
+
+        long getMax()
+        {
+            return max.get();
+        }
+
+        /**
+         * @return the upper bound of the bucket holding the given percentile, at most the max value
+         */
+        long getPercentile(double percentile)
+        {
+            long total = count.sum();
+            if (total == 0)
+            {
+                return 0;
+            }
+            long threshold = (long) Math.ceil(total * percentile);
+            long cumulated = 0;
+            for (int i = 0; i < 64; i++)
+            {
+                cumulated += buckets.get(i);
+                if (cumulated >= threshold)
+                {
+                    return Math.min((1L << (i + 1)) - 1, getMax());
+                }
+            }
+            return getMax();
+        }
+    }
+}
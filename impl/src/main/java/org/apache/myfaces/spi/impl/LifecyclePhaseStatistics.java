@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi.impl;
+
+/**
+ * Snapshot of the time spent in a phase of the lifecycle. Times are in microseconds.
+ */
+public class LifecyclePhaseStatistics
+{
+    private final String viewId;
+    private final String phase;
+    private final long count;
+    private final long totalTime;
+    private final long timeMean;
+    private final long time95thPercentile;
+    private final long timeMax;
+
+    LifecyclePhaseStatistics(String viewId, String phase, DefaultViewStateMetrics.Histogram time)
+    {
+        this.viewId = viewId;
+        this.phase = phase;
+        this.count = time.getCount();
+        this.totalTime = time.getSum() / 1000;
+        this.timeMean = time.getMean() / 1000;
+        this.time95thPercentile = time.getPercentile(0.95) / 1000;
+        this.timeMax = time.getMax() / 1000;
+    }
+
+    /**
+     * @return the view id, null for the totals of all views
+     */
+    public String getViewId()
+    {
+        return viewId;
+    }
+
+    /**
+     * @return the name of the {@link jakarta.faces.event.PhaseId} or REQUEST for the whole request
+     */
+    public String getPhase()
+    {
+        return phase;
+    }
+
+    public long getCount()
+    {
+        return count;
+    }
+
+    public long getTotalTime()
+    {
+        return totalTime;
+    }
+
+    public long getTimeMean()
+    {
+        return timeMean;
+    }
+
+    public long getTime95thPercentile()
+    {
+        return time95thPercentile;
+    }
+
+    public long getTimeMax()
+    {
+        return timeMax;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi.impl;
+
+import java.lang.management.ManagementFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import jakarta.faces.context.ExternalContext;
+
+/**
+ * Registers the MBeans of the default SPI implementations, named
+ * <code>org.apache.myfaces:type=&lt;type&gt;,name=&lt;context path&gt;</code>.
+ */
+final class MBeanSupport
+{
+    private static final Logger log = Logger.getLogger(MBeanSupport.class.getName());
+
+    private MBeanSupport()
+    {
+    }
+
+    /**
+     * @return the name of the registered MBean, or null if it could not be registered
+     */
+    static ObjectName register(ExternalContext ctx, Object mbean, String type)
+    {
+        String name = null;
+        try
+        {
+            name = ctx.getApplicationContextPath();
+        }
+        catch (UnsupportedOperationException e)
+        {
+            // not available outside of a servlet container
+        }
+        try
+        {
+            ObjectName objectName = new ObjectName("org.apache.myfaces:type=" + type + ",name="
+                    + ObjectName.quote(name == null || name.isEmpty() ? "/" : name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, objectName);
+            return objectName;
+        }
+        catch (JMException | RuntimeException e)
+        {
+            log.log(Level.WARNING, "Could not register the " + type + " MBean", e);
+            return null;
+        }
+    }
+
+    /**
+     * @param objectName the name returned by {@link #register(ExternalContext, Object, String)}, may be null
+     */
+    static void unregister(ObjectName objectName)
+    {
+        if (objectName == null)
+        {
+            return;
+        }
+        try
+        {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        }
+        catch (JMException e)
+        {
+            log.log(Level.FINE, "Could not unregister the MBean " + objectName, e);
+        }
+    }
+}
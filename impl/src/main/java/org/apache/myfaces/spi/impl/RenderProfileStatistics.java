@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi.impl;
+
+/**
+ * Snapshot of the render profile of a component type or a client id. Times are in microseconds, the written
+ * output in characters.
+ */
+public class RenderProfileStatistics
+{
+    private final String name;
+    private final long count;
+    private final long totalTime;
+    private final long selfTime;
+    private final long meanTime;
+    private final long maxTime;
+    private final long written;
+
+    RenderProfileStatistics(String name, DefaultRenderProfiler.ProfileMetrics metrics)
+    {
+        this.name = name;
+        this.count = metrics.count.sum();
+        this.totalTime = metrics.time.sum() / 1000;
+        this.selfTime = metrics.selfTime.sum() / 1000;
+        this.meanTime = count == 0 ? 0 : totalTime / count;
+        this.maxTime = metrics.maxTime.get() / 1000;
+        this.written = metrics.written.sum();
+    }
+
+    /**
+     * @return the component type or the view id and client id separated by '#'
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    public long getCount()
+    {
+        return count;
+    }
+
+    public long getTotalTime()
+    {
+        return totalTime;
+    }
+
+    /**
+     * @return the total time without the time spent in the children encoded by a renderer
+     */
+    public long getSelfTime()
+    {
+        return selfTime;
+    }
+
+    public long getMeanTime()
+    {
+        return meanTime;
+    }
+
+    public long getMaxTime()
+    {
+        return maxTime;
+    }
+
+    public long getWritten()
+    {
+        return written;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi.impl;
+
+import jakarta.faces.event.PhaseId;
+
+/**
+ * A request slower than the threshold of the {@link DefaultLifecycleMetrics}. Times are in microseconds.
+ */
+public class SlowRequestSample
+{
+    private final String viewId;
+    private final long timestamp;
+    private final long time;
+    private final long restoreViewTime;
+    private final long applyRequestValuesTime;
+    private final long processValidationsTime;
+    private final long updateModelValuesTime;
+    private final long invokeApplicationTime;
+    private final long renderResponseTime;
+
+    SlowRequestSample(String viewId, long timestamp, long nanos, long[] phaseNanos)
+    {
+        this.viewId = viewId;
+        this.timestamp = timestamp;
+        this.time = nanos / 1000;
+        this.restoreViewTime = phaseNanos[PhaseId.RESTORE_VIEW.getOrdinal()] / 1000;
+        this.applyRequestValuesTime = phaseNanos[PhaseId.APPLY_REQUEST_VALUES.getOrdinal()] / 1000;
+        this.processValidationsTime = phaseNanos[PhaseId.PROCESS_VALIDATIONS.getOrdinal()] / 1000;
+        this.updateModelValuesTime = phaseNanos[PhaseId.UPDATE_MODEL_VALUES.getOrdinal()] / 1000;
+        this.invokeApplicationTime = phaseNanos[PhaseId.INVOKE_APPLICATION.getOrdinal()] / 1000;
+        this.renderResponseTime = phaseNanos[PhaseId.RENDER_RESPONSE.getOrdinal()] / 1000;
+    }
+
+    public String getViewId()
+    {
+        return viewId;
+    }
+
+    /**
+     * @return the end of the request in milliseconds since the epoch
+     */
+    public long getTimestamp()
+    {
+        return timestamp;
+    }
+
+    public long getTime()
+    {
+        return time;
+    }
+
+    public long getRestoreViewTime()
+    {
+        return restoreViewTime;
+    }
+
+    public long getApplyRequestValuesTime()
+    {
+        return applyRequestValuesTime;
+    }
+
+    public long getProcessValidationsTime()
+    {
+        return processValidationsTime;
+    }
+
+    public long getUpdateModelValuesTime()
+    {
+        return updateModelValuesTime;
+    }
+
+    public long getInvokeApplicationTime()
+    {
+        return invokeApplicationTime;
+    }
+
+    public long getRenderResponseTime()
+    {
+        return renderResponseTime;
+    }
+}
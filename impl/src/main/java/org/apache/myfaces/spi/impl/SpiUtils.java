@@ -19,11 +19,15 @@
 package org.apache.myfaces.spi.impl;
 
 import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import jakarta.faces.context.ExternalContext;
 
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
 import org.apache.myfaces.util.lang.ClassUtils;
 import org.apache.myfaces.spi.ServiceProviderFinderFactory;
 
@@ -52,6 +56,54 @@ public static Object build(ExternalContext ectx, Class spiClass, Class defaultIm
         return ClassUtils.newInstance(defaultImpl);
     }
 
+    /**
+     * Returns the instance of an optional SPI, which is built and initialized once per application and kept
+     * in the application map under the name of the SPI class.
+     *
+     * @param enabled checks the config parameter enabling the SPI
+     * @return the instance, or null if the SPI is not enabled
+     */
+    public static <T> T getApplicationInstance(ExternalContext ectx, Class<T> spiClass,
+            Class<? extends T> defaultImpl, Predicate<MyfacesConfig> enabled, BiConsumer<T, ExternalContext> init)
+    {
+        T instance = spiClass.cast(ectx.getApplicationMap().get(spiClass.getName()));
+        if (instance != null)
+        {
+            return instance;
+        }
+        if (!enabled.test(MyfacesConfig.getCurrentInstance(ectx)))
+        {
+            return null;
+        }
+
+        synchronized (spiClass)
+        {
+            instance = spiClass.cast(ectx.getApplicationMap().get(spiClass.getName()));
+            if (instance == null)
+            {
+                instance = spiClass.cast(build(ectx, spiClass, defaultImpl));
+                init.accept(instance, ectx);
+                ectx.getApplicationMap().put(spiClass.getName(), instance);
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Removes the instance returned by
+     * {@link #getApplicationInstance(ExternalContext, Class, Class, Predicate, BiConsumer)} on shutdown of
+     * the application.
+     */
+    public static <T> void releaseApplicationInstance(ExternalContext ectx, Class<T> spiClass,
+            Consumer<T> destroy)
+    {
+        T instance = spiClass.cast(ectx.getApplicationMap().remove(spiClass.getName()));
+        if (instance != null)
+        {
+            destroy.accept(instance);
+        }
+    }
+
     private static Logger getLogger()
     {
         return Logger.getLogger(SpiUtils.class.getName());
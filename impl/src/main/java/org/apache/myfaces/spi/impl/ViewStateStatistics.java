@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi.impl;
+
+/**
+ * Snapshot of the view state metrics of a single view. Sizes are in bytes, times in microseconds.
+ */
+public class ViewStateStatistics
+{
+    private final String viewId;
+    private final long saveCount;
+    private final long saveTimeMean;
+    private final long saveTime95thPercentile;
+    private final long saveTimeMax;
+    private final long restoreCount;
+    private final long restoreTimeMean;
+    private final long restoreTime95thPercentile;
+    private final long restoreTimeMax;
+    private final long restoreMisses;
+    private final long serializeCount;
+    private final long serializeTimeMean;
+    private final long stateSizeMean;
+    private final long stateSize95thPercentile;
+    private final long stateSizeMax;
+    private final double compressionRatio;
+
+    ViewStateStatistics(String viewId, DefaultViewStateMetrics.ViewMetrics metrics)
+    {
+        this.viewId = viewId;
+        this.saveCount = metrics.saveTime.getCount();
+        this.saveTimeMean = metrics.saveTime.getMean() / 1000;
+        this.saveTime95thPercentile = metrics.saveTime.getPercentile(0.95) / 1000;
+        this.saveTimeMax = metrics.saveTime.getMax() / 1000;
+        this.restoreCount = metrics.restoreTime.getCount();
+        this.restoreTimeMean = metrics.restoreTime.getMean() / 1000;
+        this.restoreTime95thPercentile = metrics.restoreTime.getPercentile(0.95) / 1000;
+        this.restoreTimeMax = metrics.restoreTime.getMax() / 1000;
+        this.restoreMisses = metrics.restoreMisses.sum();
+        this.serializeCount = metrics.serializeTime.getCount();
+        this.serializeTimeMean = metrics.serializeTime.getMean() / 1000;
+        this.stateSizeMean = metrics.stateSize.getMean();
+        this.stateSize95thPercentile = metrics.stateSize.getPercentile(0.95);
+        this.stateSizeMax = metrics.stateSize.getMax();
+        long compressed = metrics.stateSize.getSum();
+        this.compressionRatio = compressed == 0 ? 1 : (double) metrics.uncompressedSize.sum() / compressed;
+    }
+
+    public String getViewId()
+    {
+        return viewId;
+    }
+
+    public long getSaveCount()
+    {
+        return saveCount;
+    }
+
+    public long getSaveTimeMean()
+    {
+        return saveTimeMean;
+    }
+
+    public long getSaveTime95thPercentile()
+    {
+        return saveTime95thPercentile;
+    }
+
+    public long getSaveTimeMax()
+    {
+        return saveTimeMax;
+    }
+
+    public long getRestoreCount()
+    {
+        return restoreCount;
+    }
+
+    public long getRestoreTimeMean()
+    {
+        return restoreTimeMean;
+    }
+
+    public long getRestoreTime95thPercentile()
+    {
+        return restoreTime95thPercentile;
+    }
+
+    public long getRestoreTimeMax()
+    {
+        return restoreTimeMax;
+    }
+
+    public long getRestoreMisses()
+    {
+        return restoreMisses;
+    }
+
+    public long getSerializeCount()
+    {
+        return serializeCount;
+    }
+
+    public long getSerializeTimeMean()
+    {
+        return serializeTimeMean;
+    }
+
+    public long getStateSizeMean()
+    {
+        return stateSizeMean;
+    }
+
+    public long getStateSize95thPercentile()
+    {
+        return stateSize95thPercentile;
+    }
+
+    public long getStateSizeMax()
+    {
+        return stateSizeMax;
+    }
+
+    /**
+     * @return the size before compression divided by the size of the serialized states
+     */
+    public double getCompressionRatio()
+    {
+        return compressionRatio;
+    }
+}
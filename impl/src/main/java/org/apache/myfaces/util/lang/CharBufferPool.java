@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.util.lang;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import jakarta.faces.context.FacesContext;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+
+/**
+ * Bounded pool of char buffers used to hold rendered content, so the buffers of a request can be used again by
+ * the next ones instead of being allocated every time.
+ *
+ * <p>The pool keeps a fixed number of slots which are taken and filled with compare and set, so borrowing never
+ * blocks and doesn't pin virtual threads. New buffers are sized by the average content written into the
+ * returned ones. Buffers much larger than the average are not kept, so a single large page doesn't hold on to
+ * its memory for good.</p>
+ */
+public final class CharBufferPool
+{
+    private static final String INSTANCE_KEY = CharBufferPool.class.getName();
+
+    /**
+     * Returned buffers larger than this number of chars are never kept.
+     */
+    private static final int MAX_BUFFER_SIZE = 1 << 20;
+
+    private static final int MIN_BUFFER_SIZE = 1024;
+
+    private final AtomicReferenceArray<char[]> slots;
+    private volatile int averageSize = MIN_BUFFER_SIZE;
+
+    /**
+     * @return the pool of the current application or null if render buffers are not pooled
+     */
+    public static CharBufferPool getInstance(FacesContext facesContext)
+    {
+        MyfacesConfig config = MyfacesConfig.getCurrentInstance(facesContext);
+        if (config.getRenderBufferPoolSize() <= 0)
+        {
+            return null;
+        }
+
+        CharBufferPool pool = (CharBufferPool)
+                facesContext.getExternalContext().getApplicationMap().get(INSTANCE_KEY);
+        if (pool == null)
+        {
+            pool = new CharBufferPool(config.getRenderBufferPoolSize());
+            facesContext.getExternalContext().getApplicationMap().put(INSTANCE_KEY, pool);
+        }
+        return pool;
+    }
+
+    /**
+     * @param size the maximum number of buffers kept
+     */
+    public CharBufferPool(int size)
+    {
+        this.slots = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * @return a pooled buffer of at least the given size or a new one, sized by the recently used content
+     */
+    public char[] borrow(int minimumSize)
+    {
+        // Buffers much smaller than the recent content would only be replaced by larger ones right away
+        int wanted = Math.max(minimumSize, averageSize >> 1);
+        for (int i = 0; i < slots.length(); i++)
+        {
+            char[] buffer = slots.get(i);
+            if (buffer != null && buffer.length >= wanted && slots.compareAndSet(i, buffer, null))
+            {
+                return buffer;
+            }
+        }
+        return new char[Math.max(minimumSize, averageSize)];
+    }
+
+    /**
+     * Returns a buffer without taking its content into account for the size of new buffers, e.g. one which
+     * was replaced by a larger buffer.
+     */
+    public void release(char[] buffer)
+    {
+        if (buffer.length > MAX_BUFFER_SIZE || buffer.length > averageSize * 8)
+        {
+            return;
+        }
+        int smallest = -1;
+        char[] smallestBuffer = buffer;
+        for (int i = 0; i < slots.length(); i++)
+        {
+            char[] pooled = slots.get(i);
+            if (pooled == null)
+            {
+                if (slots.compareAndSet(i, null, buffer))
+                {
+                    return;
+                }
+            }
+            else if (pooled.length < smallestBuffer.length)
+            {
+                smallest = i;
+                smallestBuffer = pooled;
+            }
+        }
+        // The pool is full, keep the larger buffer instead of the smallest pooled one
+        if (smallest >= 0)
+        {
+            slots.compareAndSet(smallest, smallestBuffer, buffer);
+        }
+    }
+
+    /**
+     * Returns a buffer which was used to hold the given number of chars.
+     */
+    public void release(char[] buffer, int used)
+    {
+        release(buffer);
+        // Moving average over roughly the last 8 buffers, lost updates between threads don't matter
+        int average = averageSize;
+        averageSize = Math.max(MIN_BUFFER_SIZE, Math.min(MAX_BUFFER_SIZE, average + ((used - average) >> 3)));
+    }
+
+    /**
+     * @return the number of buffers currently kept in the pool
+     */
+    public int getPooledCount()
+    {
+        int count = 0;
+        for (int i = 0; i < slots.length(); i++)
+        {
+            if (slots.get(i) != null)
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getAverageSize()
+    {
+        return averageSize;
+    }
+}
@@ -0,0 +1,490 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.util.lang;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded cache based upon ConcurrentHashMap, evicting entries with the CLOCK (second chance) algorithm.
+ * <p>
+ * Every entry is appended to a ring when it is put into the cache, and a hit only sets the entry's reference
+ * bit. To evict, the hand takes the entry at the head of the ring: a referenced entry gets its bit cleared
+ * and is moved to the tail, an unreferenced one is removed. Every entry is passed over at most once before
+ * it is evicted, so eviction is amortized O(1) and there is never a sort of the whole cache on the caller's
+ * thread, unlike {@link ConcurrentLRUCache}.</p>
+ * <p>
+ * Like {@link ConcurrentLRUCache}, nothing is evicted until the size exceeds the 'upperWaterMark', then the
+ * put brings it down to the 'lowerWaterMark', or leaves that to the thread already evicting. Only if the size
+ * runs over the 'upperWaterMark' by more than the distance between the water marks, puts wait for the eviction
+ * lock.</p>
+ * <p>
+ * Optionally, a background thread does the eviction instead, then puts only evict themselves when the thread
+ * cannot keep up.</p>
+ */
+public class ConcurrentClockCache<K, V>
+{
+    private final ConcurrentHashMap<K, Node<K, V>> map;
+    private final ConcurrentLinkedQueue<Node<K, V>> ring = new ConcurrentLinkedQueue<>();
+    private final int upperWaterMark;
+    private final int lowerWaterMark;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AtomicInteger removedNodes = new AtomicInteger();
+    private final AtomicLong ticks = new AtomicLong();
+    private final Stats stats = new Stats();
+    private final EvictionListener<K, V> evictionListener;
+    private volatile boolean evictionRequired = false;
+    private volatile boolean live = true;
+    private CleanupThread cleanupThread;
+
+    public ConcurrentClockCache(int upperWaterMark, int lowerWaterMark, int initialSize,
+            boolean runCleanupThread, EvictionListener<K, V> evictionListener)
+    {
+        if (upperWaterMark < 1)
+        {
+            throw new IllegalArgumentException("upperWaterMark must be > 0");
+        }
+        if (lowerWaterMark >= upperWaterMark)
+        {
+            throw new IllegalArgumentException("lowerWaterMark must be < upperWaterMark");
+        }
+        this.map = new ConcurrentHashMap<>(initialSize);
+        this.upperWaterMark = upperWaterMark;
+        this.lowerWaterMark = Math.max(lowerWaterMark, 0);
+        this.evictionListener = evictionListener;
+        if (runCleanupThread)
+        {
+            cleanupThread = new CleanupThread(this);
+            cleanupThread.start();
+        }
+    }
+
+    public ConcurrentClockCache(int size, int lowerWatermark)
+    {
+        this(size, lowerWatermark, (int) Math.ceil(0.75 * size), false, null);
+    }
+
+    public void setAlive(boolean live)
+    {
+        this.live = live;
+    }
+
+    public V get(K key)
+    {
+        Node<K, V> node = map.get(key);
+        if (node == null)
+        {
+            if (live)
+            {
+                stats.misses.increment();
+            }
+            return null;
+        }
+        if (live)
+        {
+            // only write when something changes, so hits on the same entry do not contend on it
+            if (!node.referenced)
+            {
+                node.referenced = true;
+            }
+            // a hit ranks after the last put, a put after all hits before it
+            long tick = 2 * ticks.get() + 1;
+            if (node.lastAccessed != tick)
+            {
+                node.lastAccessed = tick;
+            }
+            stats.hits.increment();
+        }
+        return node.value;
+    }
+
+    public V remove(K key)
+    {
+        Node<K, V> node = map.remove(key);
+        if (node == null)
+        {
+            return null;
+        }
+        stats.size.decrementAndGet();
+        retire(node);
+        return node.value;
+    }
+
+    public V put(K key, V val)
+    {
+        if (val == null)
+        {
+            return null;
+        }
+        Node<K, V> node = new Node<>(key, val, 2 * ticks.incrementAndGet());
+        Node<K, V> oldNode = map.put(key, node);
+        ring.offer(node);
+
+        int currentSize;
+        if (oldNode == null)
+        {
+            currentSize = stats.size.incrementAndGet();
+        }
+        else
+        {
+            currentSize = stats.size.get();
+            retire(oldNode);
+        }
+        if (live)
+        {
+            stats.puts.increment();
+        }
+        else
+        {
+            stats.nonLivePuts.increment();
+        }
+
+        if (currentSize > upperWaterMark + (upperWaterMark - lowerWaterMark))
+        {
+            // the thread evicting does not keep up, e.g. it is not scheduled
+            evictionLock.lock();
+            try
+            {
+                sweep(lowerWaterMark);
+            }
+            finally
+            {
+                evictionLock.unlock();
+            }
+        }
+        else if (currentSize > upperWaterMark)
+        {
+            if (cleanupThread != null)
+            {
+                cleanupThread.wakeThread();
+            }
+            else
+            {
+                evictionRequired = true;
+                evict(lowerWaterMark);
+            }
+        }
+        return oldNode == null ? null : oldNode.value;
+    }
+
+    /**
+     * Marks a node which is no longer in the map, it is dropped from the ring when the hand passes over it.
+     * If there are more of them than live entries, the ring is purged right away, so a cache which never
+     * reaches its water marks does not accumulate them.
+     */
+    private void retire(Node<K, V> node)
+    {
+        node.removed = true;
+        if (removedNodes.incrementAndGet() > Math.max(stats.size.get(), 16))
+        {
+            evict(upperWaterMark);
+        }
+    }
+
+    /**
+     * Moves the hand until the size is down to the given target.
+     * Returns immediately if another thread is already evicting, that thread takes over the eviction if a
+     * put exceeded the upper water mark in the meantime.
+     */
+    void evict(int target)
+    {
+        while (evictionLock.tryLock())
+        {
+            try
+            {
+                evictionRequired = false;
+                if (removedNodes.get() > Math.max(stats.size.get(), 16))
+                {
+                    removedNodes.set(0);
+                    ring.removeIf(n -> n.removed);
+                }
+                sweep(target);
+            }
+            finally
+            {
+                evictionLock.unlock();
+            }
+            if (!evictionRequired)
+            {
+                return;
+            }
+            target = lowerWaterMark;
+        }
+    }
+
+    private void sweep(int target)
+    {
+        // every entry gets a second chance at most once per pass, so this bounds the work
+        // even if other threads keep referencing entries in the meantime
+        int budget = 2 * (stats.size.get() + removedNodes.get()) + 1;
+        while (stats.size.get() > target && budget-- > 0)
+        {
+            Node<K, V> node = ring.poll();
+            if (node == null)
+            {
+                break;
+            }
+            if (node.removed)
+            {
+                removedNodes.decrementAndGet();
+            }
+            else if (node.referenced)
+            {
+                node.referenced = false;
+                ring.offer(node);
+            }
+            else if (map.remove(node.key, node))
+            {
+                node.removed = true;
+                stats.size.decrementAndGet();
+                stats.evictions.increment();
+                if (evictionListener != null)
+                {
+                    evictionListener.evictedEntry(node.key, node.value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns 'n' number of oldest accessed entries present in this cache, the oldest first.
+     * <p>
+     * The access order is only tracked at the granularity of puts, entries accessed between the same
+     * two puts are in no particular order.</p>
+     */
+    public Map<K, V> getOldestAccessedItems(int n)
+    {
+        return getItems(n, false);
+    }
+
+    /**
+     * Returns 'n' number of latest accessed entries present in this cache, the latest first.
+     */
+    public Map<K, V> getLatestAccessedItems(int n)
+    {
+        return getItems(n, true);
+    }
+
+    private Map<K, V> getItems(int n, boolean latest)
+    {
+        Map<K, V> result = new LinkedHashMap<>();
+        if (n <= 0)
+        {
+            return result;
+        }
+        // sort a copy of the access times, they keep changing while sorting
+        List<Map.Entry<Long, Node<K, V>>> nodes = new ArrayList<>(map.size());
+        for (Node<K, V> node : map.values())
+        {
+            nodes.add(new AbstractMap.SimpleImmutableEntry<>(node.lastAccessed, node));
+        }
+        Comparator<Map.Entry<Long, Node<K, V>>> order = Map.Entry.comparingByKey();
+        nodes.sort(latest ? order.reversed() : order);
+        for (int i = 0; i < n && i < nodes.size(); i++)
+        {
+            Node<K, V> node = nodes.get(i).getValue();
+            result.put(node.key, node.value);
+        }
+        return result;
+    }
+
+    public int size()
+    {
+        return stats.size.get();
+    }
+
+    public void clear()
+    {
+        for (K key : map.keySet())
+        {
+            remove(key);
+        }
+    }
+
+    public void destroy()
+    {
+        if (cleanupThread != null)
+        {
+            cleanupThread.stopThread();
+        }
+    }
+
+    public Stats getStats()
+    {
+        return stats;
+    }
+
+    private static final class Node<K, V>
+    {
+        final K key;
+        final V value;
+        volatile boolean referenced;
+        volatile boolean removed;
+        volatile long lastAccessed;
+
+        Node(K key, V value, long lastAccessed)
+        {
+            this.key = key;
+            this.value = value;
+            this.lastAccessed = lastAccessed;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "key: " + key + " value: " + value + " referenced:" + referenced;
+        }
+    }
+
+    public static class Stats
+    {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder puts = new LongAdder();
+        private final LongAdder nonLivePuts = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final AtomicInteger size = new AtomicInteger();
+
+        public long getCumulativeLookups()
+        {
+            return hits.sum() + misses.sum();
+        }
+
+        public long getCumulativeHits()
+        {
+            return hits.sum();
+        }
+
+        public long getCumulativePuts()
+        {
+            return puts.sum();
+        }
+
+        public long getCumulativeEvictions()
+        {
+            return evictions.sum();
+        }
+
+        public int getCurrentSize()
+        {
+            return size.get();
+        }
+
+        public long getCumulativeNonLivePuts()
+        {
+            return nonLivePuts.sum();
+        }
+
+        public long getCumulativeMisses()
+        {
+            return misses.sum();
+        }
+
+        public void add(Stats other)
+        {
+            hits.add(other.hits.sum());
+            misses.add(other.misses.sum());
+            puts.add(other.puts.sum());
+            nonLivePuts.add(other.nonLivePuts.sum());
+            evictions.add(other.evictions.sum());
+            size.set(Math.max(size.get(), other.size.get()));
+        }
+    }
+
+    public interface EvictionListener<K, V>
+    {
+        void evictedEntry(K key, V value);
+    }
+
+    private static class CleanupThread extends Thread
+    {
+        private final WeakReference<ConcurrentClockCache<?, ?>> cache;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean stop = false;
+
+        CleanupThread(ConcurrentClockCache<?, ?> c)
+        {
+            super("MyFaces ConcurrentClockCache cleanup");
+            setDaemon(true);
+            cache = new WeakReference<>(c);
+        }
+
+        @Override
+        public void run()
+        {
+            while (!stop)
+            {
+                synchronized (this)
+                {
+                    while (!scheduled.get() && !stop)
+                    {
+                        try
+                        {
+                            this.wait();
+                        }
+                        catch (InterruptedException e)
+                        {
+                            return;
+                        }
+                    }
+                }
+                scheduled.set(false);
+                ConcurrentClockCache<?, ?> c = cache.get();
+                if (c == null || stop)
+                {
+                    break;
+                }
+                c.evict(c.lowerWaterMark);
+            }
+        }
+
+        void wakeThread()
+        {
+            // only the first put above the water mark pays for the notify
+            if (scheduled.compareAndSet(false, true))
+            {
+                synchronized (this)
+                {
+                    this.notify();
+                }
+            }
+        }
+
+        void stopThread()
+        {
+            synchronized (this)
+            {
+                stop = true;
+                this.notify();
+            }
+        }
+    }
+}
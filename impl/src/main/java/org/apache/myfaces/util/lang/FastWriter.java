@@ -30,8 +30,11 @@
  */
 public final class FastWriter extends Writer
 {
+    private static final char[] EMPTY = new char[0];
+
     private char[] buff;
     private int size;
+    private CharBufferPool pool;
 
     public FastWriter()
     {
@@ -47,6 +50,20 @@ public FastWriter(int initialSize)
         this.buff = new char[initialSize];
     }
 
+    /**
+     * Creates a writer which takes its buffers from the given pool. {@link #release()} must be called to
+     * return the buffer once the content is not needed anymore.
+     */
+    public FastWriter(int initialSize, CharBufferPool pool)
+    {
+        if (initialSize < 0)
+        {
+            throw new IllegalArgumentException("Initial Size cannot be less than 0");
+        }
+        this.pool = pool;
+        this.buff = pool.borrow(initialSize);
+    }
+
     @Override
     public void close() throws IOException
     {
@@ -63,8 +80,13 @@ private void overflow(int len)
     {
         if (this.size + len > this.buff.length)
         {
-            char[] next = new char[(this.size + len) * 2];
+            int nextSize = (this.size + len) * 2;
+            char[] next = this.pool == null ? new char[nextSize] : this.pool.borrow(nextSize);
             System.arraycopy(this.buff, 0, next, 0, this.size);
+            if (this.pool != null)
+            {
+                this.pool.release(this.buff);
+            }
             this.buff = next;
         }
     }
@@ -110,6 +132,69 @@ public void reset()
         this.size = 0;
     }
 
+    /**
+     * Returns the buffer to the pool it was taken from. The content is discarded, the writer can still be used
+     * but doesn't take buffers from the pool anymore.
+     */
+    public void release()
+    {
+        if (this.pool != null)
+        {
+            this.pool.release(this.buff, this.size);
+            this.pool = null;
+            this.buff = EMPTY;
+            this.size = 0;
+        }
+    }
+
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * @return the index of the first occurrence of the given string at or after fromIndex, or -1
+     */
+    public int indexOf(String str, int fromIndex)
+    {
+        int length = str.length();
+        if (length == 0)
+        {
+            return fromIndex <= this.size ? fromIndex : -1;
+        }
+        char first = str.charAt(0);
+        int max = this.size - length;
+        for (int i = Math.max(0, fromIndex); i <= max; i++)
+        {
+            if (this.buff[i] != first)
+            {
+                continue;
+            }
+            int j = 1;
+            while (j < length && this.buff[i + j] == str.charAt(j))
+            {
+                j++;
+            }
+            if (j == length)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes a part of the content to the given writer without copying it into a String first.
+     */
+    public void writeTo(Writer out, int off, int len) throws IOException
+    {
+        if (off < 0 || len < 0 || off + len > this.size)
+        {
+            throw new IndexOutOfBoundsException(off + " + " + len + " > " + this.size);
+        }
+        out.write(this.buff, off, len);
+    }
+
     @Override
     public String toString()
     {
@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.util.lang;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writer encoding to UTF-8 into its own byte buffer, which is written to the underlying OutputStream
+ * when full or flushed. Text which is written over and over, like the literal markup of a page, can be
+ * encoded once with {@link #encode(String)} and then written as bytes with {@link #writeUtf8(byte[])}.
+ * <p>
+ * Unpaired surrogates are written as '?', like the UTF-8 encoder of the JDK does.</p>
+ */
+public final class Utf8Writer extends Writer
+{
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int count;
+    private char highSurrogate;
+    private char[] chars;
+
+    public Utf8Writer(OutputStream out)
+    {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    public Utf8Writer(OutputStream out, int bufferSize)
+    {
+        if (bufferSize < 16)
+        {
+            throw new IllegalArgumentException("Buffer size cannot be less than 16");
+        }
+        this.out = out;
+        this.buffer = new byte[bufferSize];
+    }
+
+    public static byte[] encode(String text)
+    {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void write(int c) throws IOException
+    {
+        if (buffer.length - count < 4)
+        {
+            flushBuffer();
+        }
+        encode((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException
+    {
+        int end = off + len;
+        while (off < end)
+        {
+            if (buffer.length - count < 4)
+            {
+                flushBuffer();
+            }
+            if (highSurrogate == 0)
+            {
+                // ASCII fast path, as much as fits into the buffer
+                int limit = Math.min(end, off + buffer.length - count);
+                while (off < limit && cbuf[off] < 0x80)
+                {
+                    buffer[count++] = (byte) cbuf[off++];
+                }
+                if (off == end || buffer.length - count < 4)
+                {
+                    continue;
+                }
+            }
+            encode(cbuf[off++]);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException
+    {
+        if (chars == null)
+        {
+            chars = new char[1024];
+        }
+        int end = off + len;
+        while (off < end)
+        {
+            int n = Math.min(chars.length, end - off);
+            str.getChars(off, off + n, chars, 0);
+            write(chars, 0, n);
+            off += n;
+        }
+    }
+
+    /**
+     * Writes bytes which are already UTF-8 encoded.
+     */
+    public void writeUtf8(byte[] utf8) throws IOException
+    {
+        writeUtf8(utf8, 0, utf8.length);
+    }
+
+    public void writeUtf8(byte[] utf8, int off, int len) throws IOException
+    {
+        if (highSurrogate != 0)
+        {
+            highSurrogate = 0;
+            write('?');
+        }
+        if (len > buffer.length - count)
+        {
+            flushBuffer();
+            if (len >= buffer.length)
+            {
+                out.write(utf8, off, len);
+                return;
+            }
+        }
+        System.arraycopy(utf8, off, buffer, count, len);
+        count += len;
+    }
+
+    private void encode(char c)
+    {
+        if (highSurrogate != 0)
+        {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c))
+            {
+                int codePoint = Character.toCodePoint(high, c);
+                buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+                return;
+            }
+            buffer[count++] = '?';
+        }
+
+        if (c < 0x80)
+        {
+            buffer[count++] = (byte) c;
+        }
+        else if (c < 0x800)
+        {
+            buffer[count++] = (byte) (0xC0 | (c >> 6));
+            buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        }
+        else if (Character.isHighSurrogate(c))
+        {
+            highSurrogate = c;
+        }
+        else if (Character.isLowSurrogate(c))
+        {
+            buffer[count++] = '?';
+        }
+        else
+        {
+            buffer[count++] = (byte) (0xE0 | (c >> 12));
+            buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    /**
+     * Writes the buffered bytes to the underlying stream, but does not flush the stream.
+     */
+    public void flushBuffer() throws IOException
+    {
+        if (count > 0)
+        {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    /**
+     * Discards the buffered bytes, e.g. when the response is reset.
+     */
+    public void reset()
+    {
+        count = 0;
+        highSurrogate = 0;
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (highSurrogate != 0)
+        {
+            highSurrogate = 0;
+            write('?');
+        }
+        flush();
+        out.close();
+    }
+}
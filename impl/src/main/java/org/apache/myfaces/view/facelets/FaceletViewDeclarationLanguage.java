@@ -93,6 +93,8 @@
 import org.apache.myfaces.config.RuntimeConfig;
 import org.apache.myfaces.config.webparameters.MyfacesConfig;
 import org.apache.myfaces.application.ViewIdSupport;
+import org.apache.myfaces.util.lang.CharBufferPool;
+import org.apache.myfaces.util.lang.FastWriter;
 import org.apache.myfaces.util.lang.StringUtils;
 import org.apache.myfaces.component.visit.MyFacesVisitHints;
 import org.apache.myfaces.core.api.shared.lang.Assert;
@@ -1748,7 +1750,8 @@ public void renderView(FacesContext context, UIViewRoot view) throws IOException
             ExternalContext extContext = context.getExternalContext();
             Writer outputWriter = extContext.getResponseOutputWriter();
 
-            StateWriter stateWriter = new StateWriter(outputWriter, 1024, context);
+            StateWriter stateWriter = new StateWriter(outputWriter, 1024, context,
+                    CharBufferPool.getInstance(context));
             try
             {
                 try (ResponseWriter writer = origWriter.cloneWithWriter(stateWriter))
@@ -1801,8 +1804,10 @@ public void renderView(FacesContext context, UIViewRoot view) throws IOException
                         // org.apache.myfaces.application.ViewHandlerImpl.writeState(FacesContext)
                         // TODO this class and ViewHandlerImpl contain same constant <!--@@JSF_FORM_STATE_MARKER@@-->
                         Object stateObj = sms.saveView(context);
-                        String content = stateWriter.getAndResetBuffer();
-                        int end = content.indexOf(STATE_KEY);
+                        // Read the buffered content in place, the state itself is written directly
+                        // to origWriter, so the buffer doesn't change until it is reset
+                        FastWriter content = stateWriter.getBuffer();
+                        int end = content.indexOf(STATE_KEY, 0);
                         // See if we can find any trace of the saved state.
                         // If so, we need to perform token replacement
                         if (end >= 0)
@@ -1812,40 +1817,35 @@ public void renderView(FacesContext context, UIViewRoot view) throws IOException
 
                             while (end != -1)
                             {
-                                origWriter.write(content, start, end - start);
+                                content.writeTo(origWriter, start, end - start);
                                 
-                                String stateStr;
-                                if (view.isTransient())
+                                // Transient views force state saving
+                                if (view.isTransient() || stateObj != null)
                                 {
-                                    // Force state saving
-                                    stateMgr.writeState(context, stateObj);
-                                    stateStr = stateWriter.getAndResetBuffer();
-                                }
-                                else if (stateObj == null)
-                                {
-                                    stateStr = null;
-                                }
-                                else
-                                {
-                                    stateMgr.writeState(context, stateObj);
-                                    stateStr = stateWriter.getAndResetBuffer();
-                                }                                
-                                
-                                if (stateStr != null)
-                                {
-                                    origWriter.write(stateStr);
+                                    // write the state straight to origWriter instead of buffering it
+                                    stateWriter.startDirectWrite(origWriter);
+                                    try
+                                    {
+                                        stateMgr.writeState(context, stateObj);
+                                        writer.flush();
+                                    }
+                                    finally
+                                    {
+                                        stateWriter.endDirectWrite();
+                                    }
                                 }
                                 start = end + STATE_KEY_LEN;
                                 end = content.indexOf(STATE_KEY, start);
                             }
 
-                            origWriter.write(content, start, content.length() - start);
+                            content.writeTo(origWriter, start, content.size() - start);
                             // No trace of any saved state, so we just need to flush the buffer
                         }
                         else
                         {
-                            origWriter.write(content);
+                            content.writeTo(origWriter, 0, content.size());
                         }
+                        content.reset();
                     }
                     else if (stateWriter.isStateWrittenWithoutWrapper())
                     {
@@ -57,6 +57,7 @@
 import org.apache.myfaces.util.lang.HashMapUtils;
 import org.apache.myfaces.component.visit.MyFacesVisitHints;
 import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.spi.ViewStateMetrics;
 import org.apache.myfaces.view.facelets.compiler.CheckDuplicateIdFaceletUtils;
 import org.apache.myfaces.view.facelets.pool.ViewEntry;
 import org.apache.myfaces.view.facelets.pool.ViewPool;
@@ -138,6 +139,8 @@ public class PartialStateManagementStrategy extends StateManagementStrategy
     private String checkIdsProductionMode;
 
     private ViewPoolProcessor _viewPoolProcessor;
+
+    private ViewStateMetrics _metrics;
     
     public PartialStateManagementStrategy()
     {
@@ -150,11 +153,28 @@ public PartialStateManagementStrategy(FacesContext context)
                 FactoryFinder.getFactory(FactoryFinder.VIEW_DECLARATION_LANGUAGE_FACTORY);
         _viewPoolProcessor = ViewPoolProcessor.getInstance(context);
         checkIdsProductionMode = MyfacesConfig.getCurrentInstance(context).getCheckIdProductionMode();
+        _metrics = ViewStateMetrics.getInstance(context.getExternalContext());
     }
     
-    @SuppressWarnings("unchecked")
     @Override
     public UIViewRoot restoreView (FacesContext context, String viewId, String renderKitId)
+    {
+        if (_metrics == null)
+        {
+            return internalRestoreView(context, viewId, renderKitId);
+        }
+
+        long start = System.nanoTime();
+        UIViewRoot view = internalRestoreView(context, viewId, renderKitId);
+        if (view != null)
+        {
+            _metrics.viewRestored(viewId, System.nanoTime() - start);
+        }
+        return view;
+    }
+
+    @SuppressWarnings("unchecked")
+    private UIViewRoot internalRestoreView(FacesContext context, String viewId, String renderKitId)
     {
         Map<String, Object> states;
         UIViewRoot view = null;
@@ -704,6 +724,7 @@ public Object saveView(FacesContext context)
         //document rendering and the other one when it is called StateManager.getViewState method.
         if (serializedView == null)
         {
+            long start = _metrics != null ? System.nanoTime() : 0;
             try
             {
                 context.getAttributes().put(StateManager.IS_SAVING_STATE, Boolean.TRUE);
@@ -816,6 +837,10 @@ else if (states == null)
             finally
             {
                 context.getAttributes().remove(StateManager.IS_SAVING_STATE);
+                if (_metrics != null)
+                {
+                    _metrics.viewSaved(view.getViewId(), System.nanoTime() - start);
+                }
             }
         }
         
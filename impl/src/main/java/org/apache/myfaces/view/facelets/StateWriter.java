@@ -18,7 +18,9 @@
  */
 package org.apache.myfaces.view.facelets;
 
+import org.apache.myfaces.util.lang.CharBufferPool;
 import org.apache.myfaces.util.lang.FastWriter;
+import org.apache.myfaces.util.lang.Utf8Writer;
 
 import jakarta.faces.context.FacesContext;
 import java.io.IOException;
@@ -54,6 +56,8 @@ public final class StateWriter extends Writer
     private FastWriter fast;
     private boolean writtenState;
     private boolean writtenStateWithoutWrapper;
+    private long writtenCount;
+    private CharBufferPool pool;
 
     static public StateWriter getCurrentInstance()
     {
@@ -117,6 +121,16 @@ public StateWriter(Writer initialOut, int initialSize, FacesContext facesContext
         setCurrentInstance(this, facesContext);
     }
 
+    /**
+     * @param pool if not null, the buffer for the content behind the state marker is taken from this pool and
+     * returned on {@link #release(FacesContext)}
+     */
+    public StateWriter(Writer initialOut, int initialSize, FacesContext facesContext, CharBufferPool pool)
+    {
+        this(initialOut, initialSize, facesContext);
+        this.pool = pool;
+    }
+
     /**
      * Mark that state is about to be written. Contrary to what you'd expect, we cannot and should not assume that this
      * location is really going to have state; it is perfectly legit to have a ResponseWriter that filters out content,
@@ -129,7 +143,9 @@ public void writingState()
         {
             this.writtenState = true;
             this.writtenStateWithoutWrapper = false;
-            this.fast = new FastWriter(this.initialSize);
+            this.fast = this.pool == null
+                    ? new FastWriter(this.initialSize)
+                    : new FastWriter(this.initialSize, this.pool);
             this.out = this.fast;
         }
     }
@@ -170,33 +186,70 @@ public void flush() throws IOException
     @Override
     public void write(char[] cbuf, int off, int len) throws IOException
     {
+        this.writtenCount += len;
         this.out.write(cbuf, off, len);
     }
 
     @Override
     public void write(char[] cbuf) throws IOException
     {
+        this.writtenCount += cbuf.length;
         this.out.write(cbuf);
     }
 
     @Override
     public void write(int c) throws IOException
     {
+        this.writtenCount++;
         this.out.write(c);
     }
 
     @Override
     public void write(String str, int off, int len) throws IOException
     {
+        this.writtenCount += len;
         this.out.write(str, off, len);
     }
 
     @Override
     public void write(String str) throws IOException
     {
+        this.writtenCount += str.length();
         this.out.write(str);
     }
 
+    /**
+     * @return true if the content is currently not buffered and written to a {@link Utf8Writer}
+     */
+    public boolean isUtf8Output()
+    {
+        return this.out instanceof Utf8Writer;
+    }
+
+    /**
+     * Writes already UTF-8 encoded bytes if the current target is a {@link Utf8Writer}.
+     *
+     * @return false if the bytes were not written because the content is buffered or the target is a char writer
+     */
+    public boolean writeUtf8(byte[] utf8) throws IOException
+    {
+        if (this.out instanceof Utf8Writer)
+        {
+            this.writtenCount += utf8.length;
+            ((Utf8Writer) this.out).writeUtf8(utf8);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of characters written so far, bytes for content written with {@link #writeUtf8(byte[])}
+     */
+    public long getWrittenCount()
+    {
+        return this.writtenCount;
+    }
+
     public String getAndResetBuffer()
     {
         if (!this.writtenState)
@@ -209,16 +262,56 @@ public String getAndResetBuffer()
         return result;
     }
 
+    /**
+     * @return the content written since the state marker, to be read without copying it into a String
+     */
+    public FastWriter getBuffer()
+    {
+        if (!this.writtenState)
+        {
+            throw new IllegalStateException("Did not write state;  no buffer is available");
+        }
+        return this.fast;
+    }
+
+    /**
+     * Until {@link #endDirectWrite()} is called, everything is written to the given writer instead of the buffer.
+     * Used to write the state in place of a state marker without buffering and copying it once more.
+     */
+    public void startDirectWrite(Writer target)
+    {
+        if (!this.writtenState)
+        {
+            throw new IllegalStateException("Did not write state;  no buffer is available");
+        }
+        this.out = target;
+    }
+
+    public void endDirectWrite()
+    {
+        this.out = this.fast;
+    }
+
     public void release()
     {
         // remove from FacesContext attribute Map
         setCurrentInstance(null);
+        releaseBuffer();
     }
     
     public void release(FacesContext facesContext)
     {
         // remove from FacesContext attribute Map
         setCurrentInstance(null, facesContext);
+        releaseBuffer();
+    }
+
+    private void releaseBuffer()
+    {
+        if (this.fast != null)
+        {
+            this.fast.release();
+        }
     }
 
 }
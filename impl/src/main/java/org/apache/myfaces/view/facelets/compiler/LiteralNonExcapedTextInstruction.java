@@ -23,6 +23,10 @@
 import jakarta.el.ELContext;
 import jakarta.el.ExpressionFactory;
 import jakarta.faces.context.FacesContext;
+import jakarta.faces.context.ResponseWriter;
+
+import org.apache.myfaces.renderkit.html.HtmlResponseWriterImpl;
+import org.apache.myfaces.util.lang.Utf8Writer;
 
 /**
  * 
@@ -32,6 +36,7 @@
 final class LiteralNonExcapedTextInstruction implements Instruction
 {
     private final String text;
+    private volatile byte[] utf8;
 
     public LiteralNonExcapedTextInstruction(String text)
     {
@@ -41,7 +46,21 @@ public LiteralNonExcapedTextInstruction(String text)
     @Override
     public void write(FacesContext context) throws IOException
     {
-        context.getResponseWriter().write(this.text);
+        ResponseWriter rw = context.getResponseWriter();
+        if (rw instanceof HtmlResponseWriterImpl htmlWriter && htmlWriter.isUtf8Output())
+        {
+            byte[] bytes = this.utf8;
+            if (bytes == null)
+            {
+                bytes = Utf8Writer.encode(this.text);
+                this.utf8 = bytes;
+            }
+            htmlWriter.writeUtf8(this.text, bytes);
+        }
+        else
+        {
+            rw.write(this.text);
+        }
     }
 
     @Override
@@ -23,10 +23,17 @@
 import jakarta.el.ELContext;
 import jakarta.el.ExpressionFactory;
 import jakarta.faces.context.FacesContext;
+import jakarta.faces.context.ResponseWriter;
+
+import org.apache.myfaces.renderkit.html.HtmlResponseWriterImpl;
+import org.apache.myfaces.renderkit.html.util.HTMLEncoder;
+import org.apache.myfaces.util.lang.FastWriter;
+import org.apache.myfaces.util.lang.Utf8Writer;
 
 final class LiteralTextInstruction implements Instruction
 {
     private final String text;
+    private volatile byte[] escapedUtf8;
 
     public LiteralTextInstruction(String text)
     {
@@ -36,7 +43,24 @@ public LiteralTextInstruction(String text)
     @Override
     public void write(FacesContext context) throws IOException
     {
-        context.getResponseWriter().writeText(this.text, null);
+        ResponseWriter rw = context.getResponseWriter();
+        if (rw instanceof HtmlResponseWriterImpl htmlWriter && htmlWriter.isUtf8Output())
+        {
+            byte[] bytes = this.escapedUtf8;
+            if (bytes == null)
+            {
+                // the escaping done by writeText for UTF-8
+                FastWriter escaped = new FastWriter(this.text.length() + 16);
+                HTMLEncoder.encode(escaped, this.text, false, false, false);
+                bytes = Utf8Writer.encode(escaped.toString());
+                this.escapedUtf8 = bytes;
+            }
+            htmlWriter.writeTextUtf8(this.text, bytes);
+        }
+        else
+        {
+            rw.writeText(this.text, null);
+        }
     }
 
     @Override
@@ -25,6 +25,9 @@
 import jakarta.faces.context.FacesContext;
 import jakarta.faces.context.ResponseWriter;
 
+import org.apache.myfaces.renderkit.html.HtmlResponseWriterImpl;
+import org.apache.myfaces.util.lang.Utf8Writer;
+
 final class LiteralXMLInstruction implements Instruction
 {
 
@@ -32,6 +35,7 @@ final class LiteralXMLInstruction implements Instruction
 
     private final char[] instruction;
     private final int len;
+    private volatile byte[] utf8;
 
     public LiteralXMLInstruction(String literal)
     {
@@ -44,7 +48,20 @@ public void write(FacesContext context) throws IOException
     {
         ResponseWriter rw = context.getResponseWriter();
         rw.writeText(STOP, 0, 0); // hack to get closing elements
-        rw.write(this.instruction, 0, this.len);
+        if (rw instanceof HtmlResponseWriterImpl htmlWriter && htmlWriter.isUtf8Output())
+        {
+            byte[] bytes = this.utf8;
+            if (bytes == null)
+            {
+                bytes = Utf8Writer.encode(new String(this.instruction));
+                this.utf8 = bytes;
+            }
+            htmlWriter.writeUtf8(this.instruction, bytes);
+        }
+        else
+        {
+            rw.write(this.instruction, 0, this.len);
+        }
     }
 
     @Override
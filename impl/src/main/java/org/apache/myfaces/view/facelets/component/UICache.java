@@ -0,0 +1,360 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.view.facelets.component;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.faces.FacesException;
+import jakarta.faces.component.UIComponentBase;
+import jakarta.faces.component.UIViewRoot;
+import jakarta.faces.context.ExternalContext;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.context.ResponseWriter;
+
+import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFComponent;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFProperty;
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.util.lang.FastWriter;
+
+/**
+ * Caches the rendered markup of its children. On a hit the markup is written as is and the children are not
+ * encoded at all, so it fits expensive content which rarely changes, like menus, footers or navigation trees.
+ *
+ * <p>The children must not depend on the request they are rendered in: forms, inputs and components writing
+ * the view state or ajax behaviors must not be placed inside, their markup would be outdated on a hit.</p>
+ *
+ * <p>The markup can be removed from the cache before it expires with {@link #invalidate} and
+ * {@link #invalidateAll}. The number of fragments per scope is limited by
+ * {@link MyfacesConfig#FRAGMENT_CACHE_SIZE}.</p>
+ */
+@JSFComponent(name="ui:cache")
+public class UICache extends UIComponentBase
+{
+    public static final String COMPONENT_TYPE = "facelets.ui.Cache";
+    public static final String COMPONENT_FAMILY = "facelets";
+
+    public static final String SCOPE_APPLICATION = "application";
+    public static final String SCOPE_SESSION = "session";
+    public static final String SCOPE_VIEW = "view";
+
+    private static final String CACHE_KEY = UICache.class.getName() + ".CACHE";
+
+    enum PropertyKeys
+    {
+        key,
+        scope,
+        timeToLive,
+        disabled
+    }
+
+    public UICache()
+    {
+        setRendererType(null);
+    }
+
+    @Override
+    public String getFamily()
+    {
+        return COMPONENT_FAMILY;
+    }
+
+    @Override
+    public boolean getRendersChildren()
+    {
+        return true;
+    }
+
+    /**
+     * The key of the cached markup. If not set, the markup is cached per view and client id of this component.
+     * 
+     * @return the key
+     */
+    @JSFProperty
+    public String getKey()
+    {
+        Object key = getStateHelper().eval(PropertyKeys.key);
+        return key == null ? null : key.toString();
+    }
+
+    public void setKey(String key)
+    {
+        getStateHelper().put(PropertyKeys.key, key);
+    }
+
+    /**
+     * The scope the markup is cached in: application, session or view. Defaults to application.
+     * 
+     * @return the scope
+     */
+    @JSFProperty
+    public String getScope()
+    {
+        return (String) getStateHelper().eval(PropertyKeys.scope, SCOPE_APPLICATION);
+    }
+
+    public void setScope(String scope)
+    {
+        getStateHelper().put(PropertyKeys.scope, scope);
+    }
+
+    /**
+     * The time in seconds the markup is cached, 0 or less means until it is invalidated or evicted.
+     * 
+     * @return the time to live
+     */
+    @JSFProperty
+    public int getTimeToLive()
+    {
+        return (Integer) getStateHelper().eval(PropertyKeys.timeToLive, 0);
+    }
+
+    public void setTimeToLive(int timeToLive)
+    {
+        getStateHelper().put(PropertyKeys.timeToLive, timeToLive);
+    }
+
+    /**
+     * If true, the children are always encoded and the cache is not used.
+     * 
+     * @return true if the cache is disabled
+     */
+    @JSFProperty
+    public boolean isDisabled()
+    {
+        return (Boolean) getStateHelper().eval(PropertyKeys.disabled, Boolean.FALSE);
+    }
+
+    public void setDisabled(boolean disabled)
+    {
+        getStateHelper().put(PropertyKeys.disabled, disabled);
+    }
+
+    @Override
+    public void encodeChildren(FacesContext context) throws IOException
+    {
+        if (!isRendered() || getChildCount() == 0 || isDisabled())
+        {
+            super.encodeChildren(context);
+            return;
+        }
+
+        String key = getKey();
+        if (key == null)
+        {
+            key = context.getViewRoot().getViewId() + '#' + getClientId(context);
+        }
+        String scope = getScope();
+
+        ResponseWriter writer = context.getResponseWriter();
+        FragmentCache cache = getCache(context, scope, false);
+        String markup = cache == null ? null : cache.get(key);
+        if (markup == null)
+        {
+            FastWriter buffer = new FastWriter(1024);
+            context.setResponseWriter(writer.cloneWithWriter(buffer));
+            try
+            {
+                super.encodeChildren(context);
+                context.getResponseWriter().flush();
+            }
+            finally
+            {
+                context.setResponseWriter(writer);
+            }
+            markup = buffer.toString();
+
+            int timeToLive = getTimeToLive();
+            getCache(context, scope, true).put(key, markup,
+                    timeToLive > 0 ? System.currentTimeMillis() + timeToLive * 1000L : Long.MAX_VALUE);
+        }
+        writer.write(markup);
+    }
+
+    /**
+     * Removes the markup cached under the given key.
+     * 
+     * @param scope application, session or view
+     */
+    public static void invalidate(FacesContext context, String scope, String key)
+    {
+        FragmentCache cache = getCache(context, scope, false);
+        if (cache != null)
+        {
+            cache.remove(key);
+        }
+    }
+
+    /**
+     * Removes all the markup cached in the given scope.
+     * 
+     * @param scope application, session or view
+     */
+    public static void invalidateAll(FacesContext context, String scope)
+    {
+        FragmentCache cache = getCache(context, scope, false);
+        if (cache != null)
+        {
+            cache.clear();
+        }
+    }
+
+    private static FragmentCache getCache(FacesContext context, String scope, boolean create)
+    {
+        ExternalContext externalContext = context.getExternalContext();
+        Map<String, Object> map;
+        if (SCOPE_APPLICATION.equals(scope))
+        {
+            map = externalContext.getApplicationMap();
+        }
+        else if (SCOPE_SESSION.equals(scope))
+        {
+            map = create || externalContext.getSession(false) != null ? externalContext.getSessionMap() : null;
+        }
+        else if (SCOPE_VIEW.equals(scope))
+        {
+            UIViewRoot viewRoot = context.getViewRoot();
+            map = viewRoot == null ? null : viewRoot.getViewMap(create);
+        }
+        else
+        {
+            throw new FacesException("Invalid scope " + scope + " of ui:cache, expected application, session or "
+                    + "view");
+        }
+
+        if (map == null)
+        {
+            return null;
+        }
+        FragmentCache cache = (FragmentCache) map.get(CACHE_KEY);
+        if (cache == null && create)
+        {
+            cache = new FragmentCache(MyfacesConfig.getCurrentInstance(context).getFragmentCacheSize());
+            map.put(CACHE_KEY, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * The fragments of a scope. Kept serializable, as it is stored in the session and the view map.
+     */
+    static final class FragmentCache implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Map<String, Fragment> fragments = new ConcurrentHashMap<>();
+        private final int maxSize;
+
+        FragmentCache(int maxSize)
+        {
+            this.maxSize = maxSize;
+        }
+
+        String get(String key)
+        {
+            Fragment fragment = fragments.get(key);
+            if (fragment == null)
+            {
+                return null;
+            }
+            if (fragment.expires <= System.currentTimeMillis())
+            {
+                fragments.remove(key, fragment);
+                return null;
+            }
+            return fragment.markup;
+        }
+
+        void put(String key, String markup, long expires)
+        {
+            if (maxSize <= 0)
+            {
+                return;
+            }
+            if (fragments.size() >= maxSize && !fragments.containsKey(key))
+            {
+                evict();
+            }
+            fragments.put(key, new Fragment(markup, System.currentTimeMillis(), expires));
+        }
+
+        /**
+         * Discards the expired fragments, or the oldest one if none has expired.
+         */
+        private void evict()
+        {
+            long now = System.currentTimeMillis();
+            boolean expired = false;
+            String oldestKey = null;
+            long oldest = Long.MAX_VALUE;
+            for (Iterator<Map.Entry<String, Fragment>> it = fragments.entrySet().iterator(); it.hasNext();)
+            {
+                Map.Entry<String, Fragment> entry = it.next();
+                if (entry.getValue().expires <= now)
+                {
+                    it.remove();
+                    expired = true;
+                }
+                else if (entry.getValue().created < oldest)
+                {
+                    oldest = entry.getValue().created;
+                    oldestKey = entry.getKey();
+                }
+            }
+            if (!expired && oldestKey != null)
+            {
+                fragments.remove(oldestKey);
+            }
+        }
+
+        void remove(String key)
+        {
+            fragments.remove(key);
+        }
+
+        void clear()
+        {
+            fragments.clear();
+        }
+
+        int size()
+        {
+            return fragments.size();
+        }
+    }
+
+    private static final class Fragment implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final String markup;
+        private final long created;
+        private final long expires;
+
+        Fragment(String markup, long created, long expires)
+        {
+            this.markup = markup;
+            this.created = created;
+            this.expires = expires;
+        }
+    }
+}
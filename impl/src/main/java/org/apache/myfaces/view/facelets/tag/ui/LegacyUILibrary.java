@@ -18,6 +18,7 @@
  */
 package org.apache.myfaces.view.facelets.tag.ui;
 
+import org.apache.myfaces.view.facelets.component.UICache;
 import org.apache.myfaces.view.facelets.component.UIRepeat;
 import org.apache.myfaces.view.facelets.tag.AbstractTagLibrary;
 
@@ -56,5 +57,7 @@ public LegacyUILibrary()
         this.addComponent("repeat", UIRepeat.COMPONENT_TYPE, null, RepeatHandler.class);
 
         this.addComponent("debug", UIDebug.COMPONENT_TYPE, null);
+
+        this.addComponent("cache", UICache.COMPONENT_TYPE, null);
     }
 }
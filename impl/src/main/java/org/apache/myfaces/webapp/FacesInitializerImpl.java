@@ -40,6 +40,7 @@
 import jakarta.websocket.DeploymentException;
 import jakarta.websocket.server.ServerContainer;
 import jakarta.websocket.server.ServerEndpointConfig;
+import org.apache.myfaces.application.viewstate.StateCacheProviderImpl;
 import org.apache.myfaces.application.viewstate.StateUtils;
 import org.apache.myfaces.cdi.util.BeanEntry;
 import org.apache.myfaces.cdi.util.CDIUtils;
@@ -54,11 +55,15 @@
 import org.apache.myfaces.push.EndpointImpl;
 import org.apache.myfaces.push.WebsocketConfigurator;
 import org.apache.myfaces.push.cdi.WebsocketSessionManager;
+import org.apache.myfaces.resource.ResourceIndex;
 import org.apache.myfaces.spi.InjectionProvider;
 import org.apache.myfaces.spi.InjectionProviderException;
 import org.apache.myfaces.spi.InjectionProviderFactory;
+import org.apache.myfaces.spi.LifecycleMetrics;
+import org.apache.myfaces.spi.RenderProfiler;
 import org.apache.myfaces.spi.ServiceProviderFinder;
 import org.apache.myfaces.spi.ServiceProviderFinderFactory;
+import org.apache.myfaces.spi.ViewStateMetrics;
 import org.apache.myfaces.util.ExternalSpecifications;
 import org.apache.myfaces.util.WebConfigParamUtils;
 import org.apache.myfaces.util.lang.ClassUtils;
@@ -206,6 +211,9 @@ public void initFaces(ServletContext servletContext)
             //Start ViewPoolProcessor if necessary
             ViewPoolProcessor.initialize(facesContext);
 
+            //Build the resource index if necessary
+            ResourceIndex.initialize(facesContext);
+
             MyfacesConfig config = MyfacesConfig.getCurrentInstance(facesContext.getExternalContext());
             if (config.isAutomaticExtensionlessMapping())
             {
@@ -334,6 +342,11 @@ public void destroyFaces(ServletContext servletContext)
         // clear the cache of MetaRulesetImpl in order to prevent a memory leak
         MetaRulesetImpl.clearMetadataTargetCache();
 
+        ViewStateMetrics.release(facesContext.getExternalContext());
+        RenderProfiler.release(facesContext.getExternalContext());
+        LifecycleMetrics.release(facesContext.getExternalContext());
+        StateCacheProviderImpl.release(facesContext.getExternalContext());
+
         if (facesContext.getExternalContext().getApplicationMap().containsKey(PUSH_INITIALIZED))
         {
             BeanManager beanManager = CDIUtils.getBeanManager(facesContext);
@@ -18,25 +18,42 @@
  */
 package org.apache.myfaces.application;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import org.apache.myfaces.test.base.junit.AbstractFacesTestCase;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import jakarta.faces.application.ProjectStage;
 import jakarta.faces.application.Resource;
 import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
 import org.apache.myfaces.resource.ClassLoaderResourceLoader;
+import org.apache.myfaces.resource.PrecompressedResourceCache;
+import org.apache.myfaces.resource.ResourceBundler;
+import org.apache.myfaces.resource.ResourceFingerprints;
 import org.apache.myfaces.resource.ResourceHandlerCache;
 import org.apache.myfaces.resource.ResourceHandlerSupport;
 import org.apache.myfaces.resource.ResourceLoader;
 import org.apache.myfaces.resource.ResourceMeta;
 import org.apache.myfaces.resource.ResourceMetaImpl;
+import org.apache.myfaces.test.mock.MockServletOutputStream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
 
 /**
@@ -318,4 +335,203 @@ public void testResourceExistsCache()
         Mockito.verify(loader, Mockito.never()).getResourceInputStream(Mockito.any());
         
     }
+
+    @Test
+    public void testResourceBodyCache() throws Exception
+    {
+        ResourceLoader loader = Mockito.spy(new ClassLoaderResourceLoader(
+                "org/apache/myfaces/view/facelets/impl/resources"));
+        // not backed by a file, like resources inside a jar or a bundle
+        Mockito.when(loader.getResourceURL(Mockito.any())).thenAnswer(invocation ->
+        {
+            URL url = (URL) invocation.callRealMethod();
+            return url == null ? null : new URL(null, "bundle:" + url.getPath(), new URLStreamHandler()
+            {
+                @Override
+                protected URLConnection openConnection(URL u) throws IOException
+                {
+                    return url.openConnection();
+                }
+            });
+        });
+
+        ResourceHandlerSupport support = Mockito.spy(new DefaultResourceHandlerSupport());
+        Mockito.when(support.getResourceLoaders()).thenReturn(new ResourceLoader[] { loader });
+
+        resourceHandler = Mockito.spy(resourceHandler);
+        Mockito.when(resourceHandler.getResourceHandlerSupport()).thenReturn(support);
+        application.setResourceHandler(resourceHandler);
+
+        request.setPathElements("/xxx", "/faces", "/jakarta.faces.resource/a.js", null);
+        request.addParameter("ln", "js");
+
+        resourceHandler.handleResourceRequest(facesContext);
+        MockServletOutputStream out = (MockServletOutputStream) response.getOutputStream();
+        byte[] body = out.content();
+        Assertions.assertTrue(body.length > 0);
+
+        out.reset();
+        resourceHandler.handleResourceRequest(facesContext);
+        Assertions.assertArrayEquals(body, out.content());
+
+        Mockito.verify(loader, Mockito.times(1)).getResourceInputStream(Mockito.any());
+        Assertions.assertEquals(1, resourceHandler.getResourceBodyCache().getHits());
+        Assertions.assertEquals(1, resourceHandler.getResourceBodyCache().getMisses());
+    }
+
+    @Test
+    public void testPrecompressedResource(@TempDir Path directory) throws Exception
+    {
+        ResourceLoader loader = Mockito.spy(new ClassLoaderResourceLoader(
+                "org/apache/myfaces/view/facelets/impl/resources"));
+
+        ResourceHandlerSupport support = Mockito.spy(new DefaultResourceHandlerSupport());
+        Mockito.when(support.getResourceLoaders()).thenReturn(new ResourceLoader[] { loader });
+
+        PrecompressedResourceCache precompressedCache = new PrecompressedResourceCache(directory.toFile(), 1024);
+
+        resourceHandler = Mockito.spy(resourceHandler);
+        Mockito.when(resourceHandler.getResourceHandlerSupport()).thenReturn(support);
+        Mockito.when(resourceHandler.getPrecompressedResourceCache()).thenReturn(precompressedCache);
+        application.setResourceHandler(resourceHandler);
+
+        request.setPathElements("/xxx", "/faces", "/jakarta.faces.resource/a.js", null);
+        request.addParameter("ln", "js");
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+        servletContext.addMimeType("js", "text/javascript");
+
+        resourceHandler.handleResourceRequest(facesContext);
+
+        Assertions.assertEquals("gzip", response.getHeader("Content-Encoding"));
+        Assertions.assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        byte[] compressed = ((MockServletOutputStream) response.getOutputStream()).content();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed));
+                InputStream original = getClass().getClassLoader().getResourceAsStream(
+                        "org/apache/myfaces/view/facelets/impl/resources/js/a.js"))
+        {
+            Assertions.assertArrayEquals(original.readAllBytes(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    public void testETagAndFingerprintedUrl() throws Exception
+    {
+        ResourceLoader loader = new ClassLoaderResourceLoader("org/apache/myfaces/view/facelets/impl/resources");
+
+        ResourceHandlerSupport support = Mockito.spy(new DefaultResourceHandlerSupport());
+        Mockito.when(support.getResourceLoaders()).thenReturn(new ResourceLoader[] { loader });
+        Mockito.when(support.getResourceFingerprints()).thenReturn(new ResourceFingerprints(true, true, 1024));
+
+        resourceHandler = Mockito.spy(resourceHandler);
+        Mockito.when(resourceHandler.getResourceHandlerSupport()).thenReturn(support);
+        application.setResourceHandler(resourceHandler);
+
+        String requestPath = resourceHandler.createResource("a.js", "js").getRequestPath();
+        Assertions.assertTrue(requestPath.matches(".*\\?ln=js&v=[0-9a-f]{24}"), requestPath);
+        String hash = requestPath.substring(requestPath.indexOf("v=") + 2);
+
+        request.setPathElements("/xxx", "/faces", "/jakarta.faces.resource/a.js", null);
+        request.addParameter("ln", "js");
+        request.addParameter("v", hash);
+        facesContext.getAttributes().clear();
+
+        resourceHandler.handleResourceRequest(facesContext);
+        Assertions.assertEquals("\"" + hash + "\"", response.getHeader("ETag"));
+        Assertions.assertEquals(ResourceFingerprints.IMMUTABLE_CACHE_CONTROL, response.getHeader("Cache-Control"));
+        Assertions.assertTrue(((MockServletOutputStream) response.getOutputStream()).size() > 0);
+
+        request.addHeader("If-None-Match", "\"" + hash + "\"");
+        Assertions.assertFalse(resourceHandler.createResource("a.js", "js").userAgentNeedsUpdate(facesContext));
+    }
+
+    @Test
+    public void testFileResourceRange() throws Exception
+    {
+        ResourceLoader loader = new ClassLoaderResourceLoader("org/apache/myfaces/view/facelets/impl/resources");
+
+        ResourceHandlerSupport support = Mockito.spy(new DefaultResourceHandlerSupport());
+        Mockito.when(support.getResourceLoaders()).thenReturn(new ResourceLoader[] { loader });
+
+        resourceHandler = Mockito.spy(resourceHandler);
+        Mockito.when(resourceHandler.getResourceHandlerSupport()).thenReturn(support);
+        application.setResourceHandler(resourceHandler);
+
+        request.setPathElements("/xxx", "/faces", "/jakarta.faces.resource/a.js", null);
+        request.addParameter("ln", "js");
+        request.addHeader("Range", "bytes=3-12");
+
+        byte[] original;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(
+                "org/apache/myfaces/view/facelets/impl/resources/js/a.js"))
+        {
+            original = in.readAllBytes();
+        }
+
+        resourceHandler.handleResourceRequest(facesContext);
+
+        Assertions.assertEquals(206, response.getStatus());
+        Assertions.assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        Assertions.assertEquals("bytes 3-12/" + original.length, response.getHeader("Content-Range"));
+        Assertions.assertArrayEquals(Arrays.copyOfRange(original, 3, 13),
+                ((MockServletOutputStream) response.getOutputStream()).content());
+    }
+
+    @Test
+    public void testResourceBundle() throws Exception
+    {
+        ResourceLoader loader = new ClassLoaderResourceLoader("org/apache/myfaces/view/facelets/impl/resources");
+
+        ResourceHandlerSupport support = Mockito.spy(new DefaultResourceHandlerSupport());
+        Mockito.when(support.getResourceLoaders()).thenReturn(new ResourceLoader[] { loader });
+
+        resourceHandler = Mockito.spy(resourceHandler);
+        Mockito.when(resourceHandler.getResourceHandlerSupport()).thenReturn(support);
+        application.setResourceHandler(resourceHandler);
+
+        servletContext.addMimeType("js", "text/javascript");
+        servletContext.addInitParameter(ProjectStage.PROJECT_STAGE_PARAM_NAME, ProjectStage.Production.name());
+        servletContext.addInitParameter(MyfacesConfig.RESOURCE_BUNDLING_ENABLED, "true");
+        externalContext.getApplicationMap().remove(MyfacesConfig.class.getName());
+
+        Resource a = resourceHandler.createResource("a.js", "js");
+        Resource b = resourceHandler.createResource("b.js", "js");
+        Resource bundle = ResourceBundler.getInstance(facesContext).getBundle(facesContext, List.of(a, b));
+        Assertions.assertTrue(bundle.getRequestPath().matches(
+                ".*/jakarta.faces.resource/[0-9a-f]{24}\\.js\\?ln=myfaces.bundle&b=js:a.js,js:b.js"),
+                bundle.getRequestPath());
+
+        // a new application instance, the bundle is rebuilt from the request
+        externalContext.getApplicationMap().remove(ResourceBundler.class.getName());
+        request.setPathElements("/xxx", "/faces", "/jakarta.faces.resource/" + bundle.getResourceName(), null);
+        request.addParameter("ln", ResourceBundler.LIBRARY_NAME);
+        request.addParameter(ResourceBundler.MEMBERS_PARAM, "js:a.js,js:b.js");
+
+        resourceHandler.handleResourceRequest(facesContext);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(a.getInputStream().readAllBytes());
+        expected.write("\n;\n".getBytes(StandardCharsets.US_ASCII));
+        expected.write(b.getInputStream().readAllBytes());
+        Assertions.assertArrayEquals(expected.toByteArray(),
+                ((MockServletOutputStream) response.getOutputStream()).content());
+        Assertions.assertEquals("text/javascript", response.getContentType());
+        Assertions.assertEquals(ResourceFingerprints.IMMUTABLE_CACHE_CONTROL, response.getHeader("Cache-Control"));
+        Assertions.assertEquals(ResourceFingerprints.toETag(bundle.getResourceName().substring(0, 24)),
+                response.getHeader("ETag"));
+
+        ResourceBundler bundler = ResourceBundler.getInstance(facesContext);
+        Assertions.assertNull(bundler.getBundle(facesContext, "000000000000000000000000.js", "js:a.js,js:b.js",
+                name -> false));
+        Assertions.assertNull(bundler.getBundle(facesContext, bundle.getResourceName(), "js:a.js,js:missing.js",
+                name -> false));
+        Assertions.assertNull(bundler.getBundle(facesContext, bundle.getResourceName(), "js:a.js,js:b.js",
+                "b.js"::equals));
+
+        // the members are chosen by the request, so the rebuilt bundle is not cached
+        Resource rebuilt = bundler.getBundle(facesContext, bundle.getResourceName(), "js:a.js,js:b.js",
+                name -> false);
+        Assertions.assertNotNull(rebuilt);
+        Assertions.assertNotSame(rebuilt, bundler.getBundle(facesContext, bundle.getResourceName(),
+                "js:a.js,js:b.js", name -> false));
+    }
 }
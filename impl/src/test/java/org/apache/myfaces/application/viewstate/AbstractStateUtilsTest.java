@@ -24,7 +24,13 @@
 import org.apache.myfaces.test.base.junit.AbstractFacesTestCase;
 
 import java.io.Serializable;
+import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -84,6 +90,72 @@ public void testConstruction()
         Assertions.assertTrue(TEST_DATA.equals(object));
     }
 
+    @Test
+    public void testStreamingConstruction() throws Exception
+    {
+        Object[] state = new Object[] { TEST_DATA, new char[5000], sensitiveString };
+
+        StringWriter writer = new StringWriter();
+        StateUtils.construct(state, externalContext, writer);
+
+        for (String constructed : new String[] { writer.toString(), StateUtils.construct(state, externalContext) })
+        {
+            Object[] restored = (Object[]) StateUtils.reconstruct(constructed, externalContext);
+            Assertions.assertEquals(TEST_DATA, restored[0]);
+            Assertions.assertArrayEquals((char[]) state[1], (char[]) restored[1]);
+        }
+    }
+
+    @Test
+    public void testReconstructionOfByteArrayPipeline() throws Exception
+    {
+        servletContext.addInitParameter(StateUtils.COMPRESS_STATE_IN_CLIENT, "true");
+
+        byte[] bytes = StateUtils.compress(StateUtils.getAsByteArray(TEST_DATA, externalContext));
+        bytes = StateUtils.encode(StateUtils.encrypt(bytes, externalContext));
+        String constructed = new String(bytes, StateUtils.ZIP_CHARSET);
+
+        Assertions.assertEquals(TEST_DATA, StateUtils.reconstruct(constructed, externalContext));
+        Assertions.assertEquals(TEST_DATA,
+                StateUtils.getAsObject(StateUtils.decompress(StateUtils.decrypt(StateUtils.decode(
+                        StateUtils.construct(TEST_DATA, externalContext).getBytes(StateUtils.ZIP_CHARSET)),
+                        externalContext)), externalContext));
+    }
+
+    @Test
+    public void testConcurrentConstruction() throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++)
+            {
+                String data = TEST_DATA + i;
+                results.add(executor.submit(() ->
+                {
+                    for (int j = 0; j < 200; j++)
+                    {
+                        if (!data.equals(StateUtils.reconstruct(StateUtils.construct(data, externalContext),
+                                externalContext)))
+                        {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results)
+            {
+                Assertions.assertTrue(result.get());
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void testSerialization()
     {
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.myfaces.application.viewstate;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>This TestCase uses the Advanced Encryption Standard with
+ * Galois/Counter mode, which authenticates the state without a separate MAC.</p>
+ */
+public class CachedStateUtilsAES_GCMTest extends AbstractStateUtilsTest
+{
+    @Override
+    @BeforeEach
+    public void setUp() throws Exception
+    {
+        super.setUp();
+
+        servletContext.addInitParameter(StateUtils.INIT_SECRET, BASE64_KEY_SIZE_16);
+        servletContext.addInitParameter(StateUtils.INIT_ALGORITHM, "AES");
+        servletContext.addInitParameter(StateUtils.INIT_ALGORITHM_PARAM, "GCM/NoPadding");
+        StateUtils.initSecret(servletContext);
+    }
+
+    @Test
+    public void testNoncePerState()
+    {
+        String first = StateUtils.construct(sensitiveString, externalContext);
+        String second = StateUtils.construct(sensitiveString, externalContext);
+
+        Assertions.assertNotEquals(first, second);
+        Assertions.assertEquals(sensitiveString, StateUtils.reconstruct(first, externalContext));
+        Assertions.assertEquals(sensitiveString, StateUtils.reconstruct(second, externalContext));
+    }
+
+    @Test
+    public void testTamperedStateIsRejected()
+    {
+        byte[] secure = StateUtils.decode(StateUtils.construct(sensitiveString, externalContext).getBytes());
+        secure[secure.length / 2] ^= 1;
+        String tampered = new String(StateUtils.encode(secure));
+
+        Assertions.assertNull(StateUtils.reconstruct(tampered, externalContext));
+        Assertions.assertThrows(jakarta.faces.FacesException.class,
+                () -> StateUtils.decrypt(secure, externalContext));
+    }
+}
@@ -18,9 +18,12 @@
  */
 package org.apache.myfaces.application.viewstate;
 
+import java.util.Base64;
+
 import jakarta.faces.application.StateManager;
 
 import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.spi.impl.DefaultSerialFactory;
 import org.apache.myfaces.test.base.junit.AbstractFacesConfigurableMultipleRequestsTestCase;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -212,4 +215,33 @@ public void testSaveRestoreStateClientTimeout() throws Exception
     }
 
     
+
+    @Test
+    public void testCompressionNeverUsesTrainedDictionary() throws Exception
+    {
+        servletContext.addInitParameter(StateUtils.USE_ENCRYPTION, "false");
+        servletContext.addInitParameter(StateUtils.COMPRESS_STATE_IN_CLIENT, "true");
+        servletContext.addInitParameter(MyfacesConfig.VIEW_STATE_COMPRESSION_DICTIONARY_SAMPLES, "1");
+        servletContext.setAttribute(StateUtils.SERIAL_FACTORY, new DefaultSerialFactory());
+
+        try
+        {
+            setupRequest();
+            facesContext.getViewRoot().setViewId("/view1.xhtml");
+
+            StateUtils.construct(new Object[] { "form:input", "value" }, externalContext);
+            String state = StateUtils.construct(new Object[] { "form:input", "other" }, externalContext);
+
+            byte[] bytes = Base64.getDecoder().decode(state);
+            Assertions.assertEquals((byte) 0x1f, bytes[0]);
+            Assertions.assertEquals((byte) 0x8b, bytes[1]);
+            Assertions.assertEquals(0, ViewStateDictionaryCompressor.getInstance(externalContext)
+                    .getDictionaryCount());
+            Assertions.assertEquals("other", ((Object[]) StateUtils.reconstruct(state, externalContext))[1]);
+        }
+        finally
+        {
+            tearDownRequest();
+        }
+    }
 }
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class OffHeapViewStateStoreTest
+{
+    private static byte[] bytes(int length, int seed)
+    {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++)
+        {
+            bytes[i] = (byte) (i * 31 + seed);
+        }
+        return bytes;
+    }
+
+    @Test
+    public void testPutGetRemove() throws Exception
+    {
+        OffHeapViewStateStore store = new OffHeapViewStateStore(64 * 1024, 1024, 0, null);
+
+        byte[] small = bytes(10, 1);
+        byte[] large = bytes(5000, 2);
+        Long smallId = store.put(small);
+        Long largeId = store.put(large);
+
+        Assertions.assertArrayEquals(small, store.get(smallId));
+        Assertions.assertArrayEquals(large, store.get(largeId));
+        Assertions.assertEquals(5010, store.getBytesHeld());
+        Assertions.assertEquals(2, store.getEntryCount());
+
+        store.remove(largeId);
+        Assertions.assertNull(store.get(largeId));
+        Assertions.assertEquals(10, store.getBytesHeld());
+        Assertions.assertEquals(2, store.getHits());
+        Assertions.assertEquals(1, store.getMisses());
+        Assertions.assertEquals(2d / 3d, store.getHitRate(), 0.0001);
+    }
+
+    @Test
+    public void testEmptyState() throws Exception
+    {
+        OffHeapViewStateStore store = new OffHeapViewStateStore(4096, 1024, 0, null);
+
+        Long id = store.put(new byte[0]);
+
+        Assertions.assertArrayEquals(new byte[0], store.get(id));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() throws Exception
+    {
+        OffHeapViewStateStore store = new OffHeapViewStateStore(4 * 1024, 1024, 0, null);
+
+        Long first = store.put(bytes(2048, 1));
+        Long second = store.put(bytes(2048, 2));
+        // touch the first one, so the second one is the eldest
+        Assertions.assertNotNull(store.get(first));
+
+        Long third = store.put(bytes(1500, 3));
+
+        Assertions.assertNull(store.get(second));
+        Assertions.assertArrayEquals(bytes(2048, 1), store.get(first));
+        Assertions.assertArrayEquals(bytes(1500, 3), store.get(third));
+        Assertions.assertEquals(1, store.getEvictions());
+    }
+
+    @Test
+    public void testTooLarge() throws Exception
+    {
+        OffHeapViewStateStore store = new OffHeapViewStateStore(4 * 1024, 1024, 0, null);
+
+        Assertions.assertNull(store.put(bytes(5000, 1)));
+    }
+
+    @Test
+    public void testTimeToLive() throws Exception
+    {
+        OffHeapViewStateStore store = new OffHeapViewStateStore(4 * 1024, 1024, 50, null);
+
+        Long id = store.put(bytes(100, 1));
+        Assertions.assertNotNull(store.get(id));
+
+        Thread.sleep(120);
+
+        Assertions.assertNull(store.get(id));
+        Assertions.assertEquals(0, store.getBytesHeld());
+        Assertions.assertEquals(1, store.getEvictions());
+    }
+
+    @Test
+    public void testMappedFile() throws Exception
+    {
+        Path directory = Files.createTempDirectory("myfaces-offheap-test");
+        OffHeapViewStateStore store = new OffHeapViewStateStore(16 * 1024, 1024, 0, directory);
+
+        byte[] state = bytes(3333, 7);
+        Long id = store.put(state);
+
+        Assertions.assertTrue(Arrays.equals(state, store.get(id)));
+        Assertions.assertEquals(16 * 1024, store.getCapacity());
+    }
+}
@@ -16,9 +16,22 @@
 
 package org.apache.myfaces.application.viewstate;
 
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import jakarta.faces.context.FacesContext;
 
 import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.spi.ViewStateMetrics;
 import org.apache.myfaces.test.base.junit.AbstractFacesTestCase;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -266,4 +279,259 @@ public void testSerializedViewCollection6()
         
         Assertions.assertEquals(destroyed.get(), 5);
     }
+
+    private static byte[] serializedState(int i)
+    {
+        byte[] state = new byte[4000];
+        for (int j = 0; j < state.length; j++)
+        {
+            state[j] = (byte) (j * 31 % 251);
+        }
+        state[100 + i] = (byte) i;
+        state[3000 - i] = (byte) i;
+        return state;
+    }
+
+    @Test
+    public void testDeltaEncodedStates()
+    {
+        servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_VIEWS_IN_SESSION, "4");
+        servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_SEQUENTIAL_VIEWS_IN_SESSION, "10");
+        servletContext.addInitParameter(MyfacesConfig.VIEW_STATE_DELTA_SNAPSHOT_INTERVAL, "3");
+
+        SerializedViewCollection collection = new SerializedViewCollection();
+        String viewId = "/test.xhtml";
+        SerializedViewKey[] keys = new SerializedViewKey[8];
+        for (int i = 0; i < keys.length; i++)
+        {
+            keys[i] = new SerializedViewKeyIntInt(viewId.hashCode(), i);
+            collection.put(facesContext, serializedState(i), keys[i], i == 0 ? null : keys[i - 1], null,
+                    (id) -> {});
+            // the oldest views are evicted, the deltas based on them keep their state
+            for (int j = Math.max(0, i - 3); j <= i; j++)
+            {
+                Assertions.assertArrayEquals(serializedState(j), (byte[]) collection.get(keys[j]), "view " + j);
+            }
+        }
+        Assertions.assertNull(collection.get(keys[3]));
+
+        // replacing the state of a base keeps the dependent view intact
+        collection.put(facesContext, serializedState(20), keys[6], null, null, (id) -> {});
+        Assertions.assertArrayEquals(serializedState(20), (byte[]) collection.get(keys[6]));
+        Assertions.assertArrayEquals(serializedState(7), (byte[]) collection.get(keys[7]));
+    }
+
+    @Test
+    public void testUnresolvableDeltaIsRemoved() throws Exception
+    {
+        servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_VIEWS_IN_SESSION, "4");
+        servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_SEQUENTIAL_VIEWS_IN_SESSION, "10");
+        servletContext.addInitParameter(MyfacesConfig.VIEW_STATE_DELTA_SNAPSHOT_INTERVAL, "3");
+
+        List<SerializedViewKey> removed = new ArrayList<>();
+        SerializedViewCollection collection = new SerializedViewCollection()
+        {
+            @Override
+            protected void stateRemoved(SerializedViewKey key, Object state)
+            {
+                removed.add(key);
+            }
+        };
+        List<String> destroyed = new ArrayList<>();
+        String viewId = "/test.xhtml";
+        SerializedViewKey[] keys = new SerializedViewKey[5];
+        for (int i = 0; i < keys.length; i++)
+        {
+            keys[i] = new SerializedViewKeyIntInt(viewId.hashCode(), i);
+        }
+
+        collection.put(facesContext, serializedState(0), keys[0], null, "scope0", destroyed::add);
+        collection.put(facesContext, serializedState(1), keys[1], keys[0], "scope1", destroyed::add);
+
+        // corrupt the delta of the second view, so it cannot be applied when its base is evicted
+        Field views = SerializedViewCollection.class.getDeclaredField("_serializedViews");
+        views.setAccessible(true);
+        Object delta = ((Map<?, ?>) views.get(collection)).get(keys[1]);
+        Field bytes = delta.getClass().getDeclaredField("delta");
+        bytes.setAccessible(true);
+        Arrays.fill((byte[]) bytes.get(delta), (byte) 1);
+
+        for (int i = 2; i < keys.length; i++)
+        {
+            collection.put(facesContext, serializedState(i), keys[i], null, "scope" + i, destroyed::add);
+        }
+
+        Assertions.assertNull(collection.get(keys[0]));
+        Assertions.assertNull(collection.get(keys[1]));
+        Assertions.assertEquals(List.of("scope1", "scope0"), destroyed);
+        Assertions.assertTrue(removed.contains(keys[1]));
+        for (int i = 2; i < keys.length; i++)
+        {
+            Assertions.assertArrayEquals(serializedState(i), (byte[]) collection.get(keys[i]));
+        }
+    }
+
+    @Test
+    public void testPendingStates() throws Exception
+    {
+        servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_VIEWS_IN_SESSION, "2");
+
+        SerializedViewCollection collection = new SerializedViewCollection();
+        AsyncViewStateSerializer serializer = new AsyncViewStateSerializer(2);
+        SerializedViewKey key1 = new SerializedViewKeyIntInt(1, 1);
+        SerializedViewKey key2 = new SerializedViewKeyIntInt(1, 2);
+        SerializedViewKey key3 = new SerializedViewKeyIntInt(1, 3);
+
+        CountDownLatch release = new CountDownLatch(1);
+        AsyncViewStateSerializer.PendingState pending1 = serializer.reserve();
+        AsyncViewStateSerializer.PendingState pending2 = serializer.reserve();
+        Assertions.assertNull(serializer.reserve(), "the number of pending views is bounded");
+
+        collection.put(facesContext, pending1, key1, null, null, (id) -> {});
+        collection.put(facesContext, pending2, key2, null, null, (id) -> {});
+        serializer.submit(collection, key1, pending1, () -> awaitAndSerialize(release, 1));
+        serializer.submit(collection, key2, pending2, () -> awaitAndSerialize(release, 2));
+
+        // key1 is evicted while still pending, its serialized state is dropped once done
+        collection.put(facesContext, serializedState(3), key3, null, null, (id) -> {});
+        Assertions.assertFalse(pending2.isDone());
+
+        release.countDown();
+        Assertions.assertArrayEquals(serializedState(2), (byte[]) collection.get(key2));
+        Assertions.assertArrayEquals(serializedState(2), (byte[]) pending2.await());
+        pending1.await();
+        Assertions.assertNull(collection.get(key1));
+        Assertions.assertNotNull(serializer.reserve(), "permits are released");
+    }
+
+    private static byte[] awaitAndSerialize(CountDownLatch latch, int i)
+    {
+        try
+        {
+            latch.await(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        return serializedState(i);
+    }
+
+    @Test
+    public void testZeroAndNullState()
+    {
+        SerializedViewCollection collection = new SerializedViewCollection();
+        SerializedViewKey key1 = new SerializedViewKeyIntInt(1, 1);
+        SerializedViewKey key2 = new SerializedViewKeyIntInt(1, 2);
+
+        collection.put(facesContext, null, key1, null, null, (id) -> { });
+        collection.put(facesContext, new Object[]{null, null}, key2, null, null, (id) -> { });
+
+        Assertions.assertNull(collection.get(key1));
+        Assertions.assertArrayEquals(new Object[]{null, null}, (Object[]) collection.get(key2));
+    }
+
+    @Test
+    public void testConcurrentPutAndGet() throws Exception
+    {
+        final int views = 20;
+        final int sequentialViews = 4;
+        final int threads = 8;
+        final int iterations = 2000;
+
+        SerializedViewCollection collection = new SerializedViewCollection()
+        {
+            @Override
+            protected Integer getNumberOfSequentialViewsInSession(FacesContext context)
+            {
+                return sequentialViews;
+            }
+
+            @Override
+            protected int getNumberOfViewsInSession(FacesContext context)
+            {
+                return views;
+            }
+
+            @Override
+            protected ViewStateMetrics getViewStateMetrics(FacesContext context)
+            {
+                return null;
+            }
+        };
+
+        AtomicInteger destroyed = new AtomicInteger();
+        AtomicInteger sequence = new AtomicInteger();
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++)
+            {
+                final String windowId = "window" + t;
+                futures.add(executor.submit(() ->
+                {
+                    try
+                    {
+                        start.await();
+                        SerializedViewKey previous = null;
+                        for (int i = 0; i < iterations; i++)
+                        {
+                            int id = sequence.incrementAndGet();
+                            SerializedViewKey key = new SerializedViewKeyIntInt(windowId.hashCode(), id);
+                            Object[] state = new Object[] {null, null, id};
+
+                            collection.put(null, state, key, collection.getLastWindowKey(null, windowId),
+                                    String.valueOf(id), (viewScopeId) -> destroyed.incrementAndGet());
+                            collection.putLastWindowKey(null, windowId, key);
+
+                            Object restored = collection.get(key);
+                            if (restored != null && restored != state)
+                            {
+                                errors.add(new AssertionError("Unexpected state for " + id));
+                            }
+                            if (previous != null)
+                            {
+                                // may have been evicted already, but must never fail
+                                collection.get(previous);
+                            }
+                            previous = key;
+                        }
+                    }
+                    catch (Throwable e)
+                    {
+                        errors.add(e);
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures)
+            {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertTrue(errors.isEmpty(), errors.toString());
+
+        int remaining = 0;
+        for (int id = 1; id <= sequence.get(); id++)
+        {
+            for (int t = 0; t < threads; t++)
+            {
+                if (collection.get(new SerializedViewKeyIntInt(("window" + t).hashCode(), id)) != null)
+                {
+                    remaining++;
+                }
+            }
+        }
+        Assertions.assertTrue(remaining <= views, "remaining views: " + remaining);
+        // every put used its own view scope id, so all evicted views destroyed their scope
+        Assertions.assertEquals(threads * iterations - remaining, destroyed.get());
+    }
 }
@@ -20,12 +20,23 @@
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import jakarta.faces.application.ProjectStage;
 import jakarta.faces.application.StateManager;
+import jakarta.faces.context.FacesContext;
 
+import org.apache.myfaces.spi.ViewStateMetrics;
+import org.apache.myfaces.spi.impl.BinarySerialFactory;
+import org.apache.myfaces.spi.impl.DefaultViewStateMetrics;
+import org.apache.myfaces.spi.impl.ViewStateStatistics;
 import org.apache.myfaces.test.base.junit.AbstractFacesConfigurableMultipleRequestsTestCase;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -109,6 +120,327 @@ public void testNumberOfSequentialViewsInSession() throws Exception
         }
     }
     
+    @Test
+    public void testSerializeStateInSessionWithBinarySerialFactory() throws Exception
+    {
+        servletContext.addInitParameter(StateManager.STATE_SAVING_METHOD_PARAM_NAME, StateManager.StateSavingMethod.SERVER.name());
+        servletContext.addInitParameter(StateManager.SERIALIZE_SERVER_STATE_PARAM_NAME, "true");
+        servletContext.addInitParameter("org.apache.myfaces.COMPRESS_STATE_IN_SESSION", "true");
+        servletContext.setAttribute(StateUtils.SERIAL_FACTORY, new BinarySerialFactory());
+
+        // Initialization
+        setupRequest();
+        StateCache stateCache = new StateCacheServerSide();
+        tearDownRequest();
+
+        Object savedToken;
+        try
+        {
+            setupRequest();
+
+            facesContext.getViewRoot().setViewId("/view1.xhtml");
+            savedToken = stateCache.saveSerializedView(facesContext, new Object[] { null, "state", 2 });
+        }
+        finally
+        {
+            tearDownRequest();
+        }
+
+        try
+        {
+            setupRequest();
+
+            Object[] value = (Object[]) stateCache.restoreSerializedView(facesContext, "/view1.xhtml", savedToken);
+
+            Assertions.assertArrayEquals(new Object[] { null, "state", 2 }, value);
+        }
+        finally
+        {
+            tearDownRequest();
+        }
+    }
+
+    @Test
+    public void testCompressionDictionary() throws Exception
+    {
+        servletContext.addInitParameter(StateManager.STATE_SAVING_METHOD_PARAM_NAME, StateManager.StateSavingMethod.SERVER.name());
+        servletContext.addInitParameter(StateManager.SERIALIZE_SERVER_STATE_PARAM_NAME, "true");
+        servletContext.addInitParameter("org.apache.myfaces.COMPRESS_STATE_IN_SESSION", "true");
+        servletContext.addInitParameter("org.apache.myfaces.VIEW_STATE_COMPRESSION_DICTIONARY_SAMPLES", "2");
+
+        setupRequest();
+        StateCacheServerSide stateCache = new StateCacheServerSide();
+        tearDownRequest();
+
+        Object[] tokens = new Object[4];
+        for (int i = 0; i < tokens.length; i++)
+        {
+            try
+            {
+                setupRequest();
+                facesContext.getViewRoot().setViewId("/view1.xhtml");
+                tokens[i] = stateCache.saveSerializedView(facesContext, new Object[] { null, "value" + i });
+            }
+            finally
+            {
+                tearDownRequest();
+            }
+        }
+
+        for (int i = 0; i < tokens.length; i++)
+        {
+            try
+            {
+                setupRequest();
+                Object[] value = (Object[]) stateCache.restoreSerializedView(facesContext, "/view1.xhtml",
+                        tokens[i]);
+                Assertions.assertEquals("value" + i, value[1]);
+            }
+            finally
+            {
+                tearDownRequest();
+            }
+        }
+
+        try
+        {
+            setupRequest();
+            facesContext.getViewRoot().setViewId("/view1.xhtml");
+            byte[] serialized = (byte[]) stateCache.serializeView(facesContext, new Object[] { null, "value" });
+            Assertions.assertEquals(StateCacheServerSide.DICTIONARY_COMPRESSED_FLAG, serialized[0]);
+            Assertions.assertEquals(1, ViewStateDictionaryCompressor.getInstance(externalContext).getDictionaryCount());
+        }
+        finally
+        {
+            tearDownRequest();
+        }
+    }
+
+    @Test
+    public void testAsyncSerialization() throws Exception
+    {
+        servletContext.addInitParameter(StateManager.STATE_SAVING_METHOD_PARAM_NAME, StateManager.StateSavingMethod.SERVER.name());
+        servletContext.addInitParameter(StateManager.SERIALIZE_SERVER_STATE_PARAM_NAME, "true");
+        servletContext.addInitParameter("org.apache.myfaces.ASYNC_SERIALIZE_SERVER_STATE", "true");
+
+        setupRequest();
+        StateCacheServerSide stateCache = new StateCacheServerSide();
+        tearDownRequest();
+
+        SlowValue.latch = new CountDownLatch(1);
+        Object token;
+        try
+        {
+            setupRequest();
+            facesContext.getViewRoot().setViewId("/view1.xhtml");
+            // does not wait for the serialization
+            token = stateCache.saveSerializedView(facesContext, new Object[] { null, new SlowValue("value") });
+        }
+        finally
+        {
+            tearDownRequest();
+        }
+
+        new Thread(() -> SlowValue.latch.countDown()).start();
+        try
+        {
+            setupRequest();
+            // waits for the pending serialization
+            Object[] value = (Object[]) stateCache.restoreSerializedView(facesContext, "/view1.xhtml", token);
+            Assertions.assertEquals("value", ((SlowValue) value[1]).value);
+
+            StateCacheServerSide.release(externalContext);
+            // serialized on the request thread once the executor is shut down
+            facesContext.getViewRoot().setViewId("/view2.xhtml");
+            SlowValue.latch = new CountDownLatch(0);
+            token = stateCache.saveSerializedView(facesContext, new Object[] { null, new SlowValue("other") });
+        }
+        finally
+        {
+            tearDownRequest();
+        }
+
+        try
+        {
+            setupRequest();
+            Object[] value = (Object[]) stateCache.restoreSerializedView(facesContext, "/view2.xhtml", token);
+            Assertions.assertEquals("other", ((SlowValue) value[1]).value);
+        }
+        finally
+        {
+            tearDownRequest();
+        }
+    }
+
+    @Test
+    public void testAsyncSerializationWithOverriddenSerializeView() throws Exception
+    {
+        servletContext.addInitParameter(StateManager.STATE_SAVING_METHOD_PARAM_NAME, StateManager.StateSavingMethod.SERVER.name());
+        servletContext.addInitParameter(StateManager.SERIALIZE_SERVER_STATE_PARAM_NAME, "true");
+        servletContext.addInitParameter("org.apache.myfaces.ASYNC_SERIALIZE_SERVER_STATE", "true");
+
+        AtomicInteger calls = new AtomicInteger();
+        setupRequest();
+        StateCacheServerSide stateCache = new StateCacheServerSide()
+        {
+            @Override
+            protected Object serializeView(FacesContext context, Object serializedView)
+            {
+                calls.incrementAndGet();
+                return super.serializeView(context, serializedView);
+            }
+        };
+        tearDownRequest();
+
+        try
+        {
+            setupRequest();
+            facesContext.getViewRoot().setViewId("/view1.xhtml");
+            stateCache.saveSerializedView(facesContext, new Object[] { null, "value" });
+            Assertions.assertEquals(1, calls.get());
+        }
+        finally
+        {
+            tearDownRequest();
+        }
+    }
+
+    public static class SlowValue implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        static volatile CountDownLatch latch;
+
+        private final String value;
+
+        public SlowValue(String value)
+        {
+            this.value = value;
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException
+        {
+            try
+            {
+                latch.await(10, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                throw new InterruptedIOException();
+            }
+            out.defaultWriteObject();
+        }
+    }
+
+    @Test
+    public void testViewStateMetrics() throws Exception
+    {
+        servletContext.addInitParameter(StateManager.STATE_SAVING_METHOD_PARAM_NAME, StateManager.StateSavingMethod.SERVER.name());
+        servletContext.addInitParameter(StateManager.SERIALIZE_SERVER_STATE_PARAM_NAME, "true");
+        servletContext.addInitParameter("org.apache.myfaces.COMPRESS_STATE_IN_SESSION", "true");
+        servletContext.addInitParameter("org.apache.myfaces.NUMBER_OF_VIEWS_IN_SESSION", "2");
+        servletContext.addInitParameter("org.apache.myfaces.VIEW_STATE_METRICS", "true");
+
+        setupRequest();
+        StateCacheServerSide stateCache = new StateCacheServerSide();
+        DefaultViewStateMetrics metrics = (DefaultViewStateMetrics) ViewStateMetrics.getInstance(externalContext);
+        tearDownRequest();
+
+        try
+        {
+            for (int i = 0; i < 3; i++)
+            {
+                try
+                {
+                    setupRequest();
+                    facesContext.getViewRoot().setViewId("/view1.xhtml");
+                    stateCache.saveSerializedView(facesContext, new Object[] { null, "value".repeat(100) });
+                }
+                finally
+                {
+                    tearDownRequest();
+                }
+            }
+
+            ViewStateStatistics statistics = metrics.getView("/view1.xhtml");
+            Assertions.assertEquals(3, statistics.getSerializeCount());
+            Assertions.assertTrue(statistics.getStateSizeMean() > 0);
+            Assertions.assertTrue(statistics.getCompressionRatio() > 1, "ratio " + statistics.getCompressionRatio());
+            Assertions.assertEquals(1, metrics.getViewsEvicted());
+        }
+        finally
+        {
+            setupRequest();
+            ViewStateMetrics.release(externalContext);
+            tearDownRequest();
+        }
+    }
+
+    @Test
+    public void testOffHeapViewStateStore() throws Exception
+    {
+        servletContext.addInitParameter(StateManager.STATE_SAVING_METHOD_PARAM_NAME, StateManager.StateSavingMethod.SERVER.name());
+        servletContext.addInitParameter(StateManager.SERIALIZE_SERVER_STATE_PARAM_NAME, "true");
+        servletContext.addInitParameter("org.apache.myfaces.NUMBER_OF_VIEWS_IN_SESSION", "1");
+        servletContext.addInitParameter("org.apache.myfaces.OFF_HEAP_VIEW_STATE_STORE_SIZE", "1");
+
+        // Initialization
+        setupRequest();
+        StateCache stateCache = new StateCacheServerSide();
+        OffHeapViewStateStore store = (OffHeapViewStateStore) externalContext.getApplicationMap()
+                .get(StateCacheServerSide.OFF_HEAP_VIEW_STATE_STORE_ATTR);
+        Assertions.assertNotNull(store);
+        tearDownRequest();
+
+        Object firstToken;
+        Object secondToken;
+        try
+        {
+            setupRequest();
+
+            facesContext.getViewRoot().setViewId("/view1.xhtml");
+            firstToken = stateCache.saveSerializedView(facesContext, new Object[] { null, "first" });
+        }
+        finally
+        {
+            tearDownRequest();
+        }
+
+        Assertions.assertEquals(1, store.getEntryCount());
+        Object collection = session.getAttribute(StateCacheServerSide.SERIALIZED_VIEW_SESSION_ATTR);
+        Assertions.assertTrue(collection instanceof OffHeapSerializedViewCollection);
+
+        try
+        {
+            setupRequest();
+
+            Object[] value = (Object[]) stateCache.restoreSerializedView(facesContext, "/view1.xhtml", firstToken);
+            Assertions.assertEquals("first", value[1]);
+
+            facesContext.getViewRoot().setViewId("/view2.xhtml");
+            secondToken = stateCache.saveSerializedView(facesContext, new Object[] { null, "second" });
+        }
+        finally
+        {
+            tearDownRequest();
+        }
+
+        // Only one view in session, the first one is released from the store too
+        Assertions.assertEquals(1, store.getEntryCount());
+
+        try
+        {
+            setupRequest();
+
+            Object[] value = (Object[]) stateCache.restoreSerializedView(facesContext, "/view2.xhtml", secondToken);
+            Assertions.assertEquals("second", value[1]);
+        }
+        finally
+        {
+            tearDownRequest();
+        }
+    }
+
     @Test
     public void testSaveRestoreStateWrongViewId() throws Exception
     {
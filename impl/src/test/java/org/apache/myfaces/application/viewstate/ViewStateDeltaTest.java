@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ViewStateDeltaTest
+{
+    @Test
+    public void testSmallChanges() throws Exception
+    {
+        Random random = new Random(42);
+        byte[] base = new byte[20000];
+        random.nextBytes(base);
+
+        byte[] target = Arrays.copyOf(base, base.length + 50);
+        target[10] = 1;
+        target[5000] = 2;
+        System.arraycopy(base, 7000, target, 9000, 300);
+        target[target.length - 1] = 3;
+
+        byte[] delta = ViewStateDelta.encode(base, target);
+        Assertions.assertNotNull(delta);
+        Assertions.assertTrue(delta.length < 200, "delta of " + delta.length + " bytes");
+        Assertions.assertArrayEquals(target, ViewStateDelta.decode(base, delta));
+    }
+
+    @Test
+    public void testUnrelatedStates()
+    {
+        Random random = new Random(42);
+        byte[] base = new byte[5000];
+        byte[] target = new byte[5000];
+        random.nextBytes(base);
+        random.nextBytes(target);
+
+        Assertions.assertNull(ViewStateDelta.encode(base, target));
+        Assertions.assertNull(ViewStateDelta.encode(new byte[0], target));
+    }
+
+    @Test
+    public void testInvalidDelta()
+    {
+        byte[] base = new byte[100];
+        Assertions.assertThrows(IOException.class, () -> ViewStateDelta.decode(base, new byte[] { 50, 3, 127 }));
+        Assertions.assertThrows(IOException.class, () -> ViewStateDelta.decode(base, new byte[] { 50 }));
+    }
+}
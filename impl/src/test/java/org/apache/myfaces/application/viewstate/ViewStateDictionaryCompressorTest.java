@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ViewStateDictionaryCompressorTest
+{
+    private static byte[] state(int i)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int j = 0; j < 40; j++)
+        {
+            sb.append("form:table:").append(j).append(":input|jakarta.faces.component.html.HtmlInputText|")
+                .append(j % 7 == 0 ? "value" + i : "styleClass").append('\n');
+        }
+        return sb.toString().getBytes();
+    }
+
+    private static byte[] compress(ViewStateDictionaryCompressor compressor, String viewId, byte[] data)
+            throws IOException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (OutputStream out = compressor.compress(viewId, baos))
+        {
+            out.write(data);
+        }
+        return baos.toByteArray();
+    }
+
+    private static byte[] decompress(ViewStateDictionaryCompressor compressor, byte[] data) throws IOException
+    {
+        try (InputStream in = compressor.decompress(new ByteArrayInputStream(data)))
+        {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    public void testTrainsDictionaryPerView() throws Exception
+    {
+        ViewStateDictionaryCompressor compressor = new ViewStateDictionaryCompressor(3, 10);
+
+        byte[] untrained = compress(compressor, "/view.xhtml", state(0));
+        compress(compressor, "/view.xhtml", state(1));
+        Assertions.assertEquals(0, compressor.getDictionaryCount());
+        compress(compressor, "/view.xhtml", state(2));
+        Assertions.assertEquals(1, compressor.getDictionaryCount());
+
+        byte[] trained = compress(compressor, "/view.xhtml", state(3));
+        Assertions.assertTrue(trained.length < untrained.length / 2,
+                "with dictionary " + trained.length + " bytes, without " + untrained.length + " bytes");
+
+        Assertions.assertArrayEquals(state(0), decompress(compressor, untrained));
+        Assertions.assertArrayEquals(state(3), decompress(compressor, trained));
+    }
+
+    @Test
+    public void testMaxViews() throws Exception
+    {
+        ViewStateDictionaryCompressor compressor = new ViewStateDictionaryCompressor(1, 2);
+
+        compress(compressor, "/a.xhtml", state(0));
+        compress(compressor, "/b.xhtml", state(0));
+        compress(compressor, "/c.xhtml", state(0));
+
+        Assertions.assertEquals(2, compressor.getDictionaryCount());
+        byte[] data = compress(compressor, "/c.xhtml", state(1));
+        Assertions.assertArrayEquals(state(1), decompress(compressor, data));
+    }
+
+    @Test
+    public void testGzipAndUnknownDictionary() throws Exception
+    {
+        ViewStateDictionaryCompressor compressor = new ViewStateDictionaryCompressor(1, 10);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(baos))
+        {
+            out.write(state(0));
+        }
+        Assertions.assertArrayEquals(state(0), decompress(compressor, baos.toByteArray()));
+
+        compress(compressor, "/view.xhtml", state(0));
+        byte[] trained = compress(compressor, "/view.xhtml", state(1));
+
+        // e.g. after a restart
+        ViewStateDictionaryCompressor other = new ViewStateDictionaryCompressor(1, 10);
+        Assertions.assertThrows(IOException.class, () -> decompress(other, trained));
+    }
+}
@@ -18,7 +18,13 @@
  */
 package org.apache.myfaces.context.servlet;
 
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
 import org.apache.myfaces.test.base.junit.AbstractFacesTestCase;
+import org.apache.myfaces.test.mock.MockServletOutputStream;
+import org.apache.myfaces.util.lang.Utf8Writer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -146,4 +152,33 @@ public void testSameParameterNames()
         Assertions.assertTrue(redirectUrl.contains("par=test2"));
 
     }
+
+    @Test
+    public void testUtf8ResponseWriter() throws Exception
+    {
+        servletContext.addInitParameter(MyfacesConfig.UTF8_RESPONSE_WRITER_ENABLED, "true");
+        externalContext.getApplicationMap().remove(MyfacesConfig.class.getName());
+        response.setCharacterEncoding("UTF-8");
+
+        Writer writer = _testExternalContext.getResponseOutputWriter();
+        Assertions.assertTrue(writer instanceof Utf8Writer);
+        Assertions.assertSame(writer, _testExternalContext.getResponseOutputWriter());
+
+        writer.write("<p>\u00e4</p>");
+        // the buffered bytes are written when the request ends
+        _testExternalContext.release();
+
+        MockServletOutputStream stream = (MockServletOutputStream) response.getOutputStream();
+        Assertions.assertEquals("<p>\u00e4</p>", new String(stream.content(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testUtf8ResponseWriterOtherEncoding() throws Exception
+    {
+        servletContext.addInitParameter(MyfacesConfig.UTF8_RESPONSE_WRITER_ENABLED, "true");
+        externalContext.getApplicationMap().remove(MyfacesConfig.class.getName());
+        response.setCharacterEncoding("ISO-8859-1");
+
+        Assertions.assertFalse(_testExternalContext.getResponseOutputWriter() instanceof Utf8Writer);
+    }
 }
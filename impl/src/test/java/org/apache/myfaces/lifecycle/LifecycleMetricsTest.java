@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.lifecycle;
+
+import java.util.Arrays;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.spi.LifecycleMetrics;
+import org.apache.myfaces.spi.impl.DefaultLifecycleMetrics;
+import org.apache.myfaces.spi.impl.LifecyclePhaseStatistics;
+import org.apache.myfaces.test.core.AbstractMyFacesRequestTestCase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LifecycleMetricsTest extends AbstractMyFacesRequestTestCase
+{
+    @Override
+    protected void setUpWebConfigParams() throws Exception
+    {
+        super.setUpWebConfigParams();
+        servletContext.addInitParameter(MyfacesConfig.LIFECYCLE_METRICS, "true");
+    }
+
+    private static long count(LifecyclePhaseStatistics[] statistics, String viewId, String phase)
+    {
+        return Arrays.stream(statistics)
+                .filter((s) -> phase.equals(s.getPhase()) && (viewId == null || viewId.equals(s.getViewId())))
+                .mapToLong(LifecyclePhaseStatistics::getCount)
+                .findFirst().orElse(0);
+    }
+
+    @Test
+    public void testPhasesOfInitialRequestAndPostback() throws Exception
+    {
+        startViewRequest("/dummy.xhtml");
+        processLifecycleExecuteAndRender();
+        DefaultLifecycleMetrics metrics = (DefaultLifecycleMetrics) LifecycleMetrics.getInstance(externalContext);
+
+        client.submit("mainForm:submit");
+        processLifecycleExecuteAndRender();
+        endRequest();
+
+        LifecyclePhaseStatistics[] phases = metrics.getPhases();
+        Assertions.assertEquals(2, count(phases, "/dummy.xhtml", "RESTORE_VIEW"));
+        Assertions.assertEquals(1, count(phases, "/dummy.xhtml", "APPLY_REQUEST_VALUES"));
+        Assertions.assertEquals(1, count(phases, "/dummy.xhtml", "INVOKE_APPLICATION"));
+        Assertions.assertEquals(2, count(phases, "/dummy.xhtml", "RENDER_RESPONSE"));
+        Assertions.assertEquals(2, count(phases, "/dummy.xhtml", "REQUEST"));
+
+        LifecyclePhaseStatistics[] totals = metrics.getPhaseTotals();
+        Assertions.assertEquals(6 + 1, totals.length);
+        Assertions.assertEquals(1, count(totals, null, "UPDATE_MODEL_VALUES"));
+    }
+}
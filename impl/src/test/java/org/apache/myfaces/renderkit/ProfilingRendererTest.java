@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.renderkit;
+
+import java.util.Arrays;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.spi.RenderProfiler;
+import org.apache.myfaces.spi.impl.DefaultRenderProfiler;
+import org.apache.myfaces.spi.impl.RenderProfileStatistics;
+import org.apache.myfaces.test.core.AbstractMyFacesRequestTestCase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ProfilingRendererTest extends AbstractMyFacesRequestTestCase
+{
+    @Override
+    protected void setUpWebConfigParams() throws Exception
+    {
+        super.setUpWebConfigParams();
+        servletContext.addInitParameter(MyfacesConfig.RENDER_PROFILER, "true");
+    }
+
+    @Test
+    public void testProfileIsAggregatedAcrossRequests() throws Exception
+    {
+        DefaultRenderProfiler profiler = null;
+        for (int i = 0; i < 2; i++)
+        {
+            startViewRequest("/profile.xhtml");
+            processLifecycleExecuteAndRender();
+            Assertions.assertTrue(getRenderedContent(facesContext).contains("profiled"));
+            profiler = (DefaultRenderProfiler) RenderProfiler.getInstance(externalContext);
+            endRequest();
+        }
+
+        RenderProfileStatistics text = Arrays.stream(profiler.getClientIds())
+                .filter((s) -> s.getName().equals("/profile.xhtml#form:text"))
+                .findFirst().orElseThrow();
+        Assertions.assertEquals(2, text.getCount());
+        Assertions.assertTrue(text.getWritten() > 0);
+
+        RenderProfileStatistics form = Arrays.stream(profiler.getClientIds())
+                .filter((s) -> s.getName().equals("/profile.xhtml#form"))
+                .findFirst().orElseThrow();
+        Assertions.assertTrue(form.getWritten() > text.getWritten());
+        Assertions.assertTrue(form.getTotalTime() >= form.getSelfTime());
+
+        String stacks = profiler.dumpCollapsedStacks();
+        Assertions.assertTrue(stacks.contains("/profile.xhtml;HtmlBody;HtmlForm;HtmlPanelGroup;HtmlOutputText "),
+                stacks);
+    }
+}
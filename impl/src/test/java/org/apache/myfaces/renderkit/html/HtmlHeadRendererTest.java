@@ -20,8 +20,19 @@
 
 import java.io.StringWriter;
 
+import jakarta.faces.application.ProjectStage;
+import jakarta.faces.component.UIOutput;
 import jakarta.faces.component.html.HtmlHead;
 
+import org.apache.myfaces.application.DefaultResourceHandlerSupport;
+import org.apache.myfaces.application.ResourceHandlerImpl;
+import org.apache.myfaces.component.ComponentResourceContainer;
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.renderkit.html.util.ResourceUtils;
+import org.apache.myfaces.resource.ClassLoaderResourceLoader;
+import org.apache.myfaces.resource.ResourceBundler;
+import org.apache.myfaces.resource.ResourceHandlerSupport;
+import org.apache.myfaces.resource.ResourceLoader;
 import org.apache.myfaces.test.base.junit.AbstractFacesTestCase;
 import org.apache.myfaces.test.mock.MockRenderKitFactory;
 import org.apache.myfaces.test.mock.MockResponseWriter;
@@ -84,4 +95,93 @@ public void testHtmlPropertyPassTru() throws Exception
             Assertions.fail(HtmlCheckAttributesUtil.constructErrorMessage(attrs, writer.getWriter().toString()));
         }
     }
+
+    @Test
+    public void testResourceBundling() throws Exception
+    {
+        setUpResourceBundling();
+        addScript("a.js");
+        addScript("b.js");
+        addScript("a.js");
+
+        head.encodeAll(facesContext);
+
+        String output = writer.getWriter().toString();
+        Assertions.assertEquals(output.indexOf("<script"), output.lastIndexOf("<script"), output);
+        Assertions.assertTrue(output.contains("ln=myfaces.bundle&amp;b=js:a.js,js:b.js"), output);
+        Assertions.assertTrue(ResourceUtils.isRenderedScript(facesContext, "js", "b.js"));
+    }
+
+    @Test
+    public void testResourceBundlingSkipsPassThroughAttributes() throws Exception
+    {
+        setUpResourceBundling();
+        addScript("a.js");
+        addScript("b.js").getPassThroughAttributes().put("nonce", "abc");
+        addScript("x.js");
+
+        head.encodeAll(facesContext);
+
+        // every script is rendered by its own renderer, a and x are not adjacent
+        String output = writer.getWriter().toString();
+        Assertions.assertFalse(output.contains(ResourceBundler.LIBRARY_NAME), output);
+        Assertions.assertEquals(3, output.split("<script", -1).length - 1, output);
+        Assertions.assertTrue(ResourceUtils.isRenderedScript(facesContext, "js", "b.js"));
+    }
+
+    @Test
+    public void testResourceBundlingSkipsCustomAttributes() throws Exception
+    {
+        setUpResourceBundling();
+        addScript("a.js").getAttributes().put("defer", "true");
+        addScript("b.js");
+
+        head.encodeAll(facesContext);
+
+        String output = writer.getWriter().toString();
+        Assertions.assertFalse(output.contains(ResourceBundler.LIBRARY_NAME), output);
+        Assertions.assertEquals(2, output.split("<script", -1).length - 1, output);
+    }
+
+    private void setUpResourceBundling()
+    {
+        request.setPathElements("/xxx", "/faces", "/test.xhtml", null);
+        servletContext.addMimeType("js", "text/javascript");
+        servletContext.addInitParameter(ProjectStage.PROJECT_STAGE_PARAM_NAME, ProjectStage.Production.name());
+        servletContext.addInitParameter(MyfacesConfig.RESOURCE_BUNDLING_ENABLED, "true");
+        externalContext.getApplicationMap().remove(MyfacesConfig.class.getName());
+
+        ResourceLoader loader = new ClassLoaderResourceLoader("org/apache/myfaces/view/facelets/impl/resources");
+        ResourceHandlerSupport support = new DefaultResourceHandlerSupport()
+        {
+            @Override
+            public ResourceLoader[] getResourceLoaders()
+            {
+                return new ResourceLoader[] { loader };
+            }
+        };
+        application.setResourceHandler(new ResourceHandlerImpl()
+        {
+            @Override
+            protected ResourceHandlerSupport getResourceHandlerSupport()
+            {
+                return support;
+            }
+        });
+
+        facesContext.getViewRoot().getFacets().put("head", new ComponentResourceContainer());
+        facesContext.getRenderKit().addRenderer(head.getFamily(), head.getRendererType(), new HtmlHeadRenderer());
+        facesContext.getRenderKit().addRenderer(UIOutput.COMPONENT_FAMILY,
+                ResourceUtils.DEFAULT_SCRIPT_RENDERER_TYPE, new HtmlScriptRenderer());
+    }
+
+    private UIOutput addScript(String name)
+    {
+        UIOutput script = new UIOutput();
+        script.setRendererType(ResourceUtils.DEFAULT_SCRIPT_RENDERER_TYPE);
+        script.getAttributes().put("name", name);
+        script.getAttributes().put("library", "js");
+        facesContext.getViewRoot().addComponentResource(facesContext, script, "head");
+        return script;
+    }
 }
@@ -18,11 +18,15 @@
  */
 package org.apache.myfaces.renderkit.html;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
 
 import org.apache.myfaces.util.CommentUtils;
+import org.apache.myfaces.util.lang.Utf8Writer;
+import org.apache.myfaces.view.facelets.StateWriter;
 import org.apache.myfaces.renderkit.html.util.HTML;
 import org.apache.myfaces.test.base.junit.AbstractFacesTestCase;
 import org.junit.jupiter.api.AfterEach;
@@ -386,4 +390,34 @@ public void testEmptyTagNotRenderEndOnXhtmlUppercase() throws IOException
         Assertions.assertTrue(output.contains("<BR>"));
         Assertions.assertTrue(output.contains("</BR>"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testUtf8Output() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Utf8Writer utf8Writer = new Utf8Writer(bytes);
+        StateWriter stateWriter = new StateWriter(utf8Writer, 64, facesContext);
+        _writer = new HtmlResponseWriterImpl(stateWriter, "text/html", "UTF-8", false);
+
+        _writer.startElement("div", null);
+        Assertions.assertTrue(_writer.isUtf8Output());
+        // the bytes are written as they are, without looking at the chars
+        _writer.writeUtf8("<span>", Utf8Writer.encode("<p>\u00e4"));
+        _writer.writeTextUtf8("a < b", Utf8Writer.encode("a &lt; b"));
+        _writer.startElement("script", null);
+        // script content is buffered and not escaped
+        _writer.writeTextUtf8("a < b", Utf8Writer.encode("a &lt; b"));
+        _writer.endElement("script");
+
+        stateWriter.writingState();
+        Assertions.assertFalse(_writer.isUtf8Output());
+        _writer.writeUtf8("<b>\u00e4</b>", Utf8Writer.encode("<i></i>"));
+        _writer.endElement("div");
+        utf8Writer.flush();
+
+        Assertions.assertEquals("<div><p>\u00e4a &lt; b<script>a < b</script>",
+                new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+        Assertions.assertEquals("<b>\u00e4</b></div>", stateWriter.getAndResetBuffer());
+        stateWriter.release(facesContext);
+    }
+}
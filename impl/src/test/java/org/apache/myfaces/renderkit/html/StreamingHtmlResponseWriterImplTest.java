@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.renderkit.html;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.apache.myfaces.view.facelets.StateWriter;
+import org.apache.myfaces.test.base.junit.AbstractFacesTestCase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class StreamingHtmlResponseWriterImplTest extends AbstractFacesTestCase
+{
+    /**
+     * Records the content written up to each flush.
+     */
+    private static class FlushRecordingWriter extends StringWriter
+    {
+        private final StringBuilder flushes = new StringBuilder();
+
+        @Override
+        public void flush()
+        {
+            flushes.append(getBuffer().length()).append(' ');
+        }
+    }
+
+    private StreamingHtmlResponseWriterImpl createWriter(StateWriter stateWriter, int flushSize)
+    {
+        return new StreamingHtmlResponseWriterImpl(stateWriter, "text/html", "UTF-8", false, "text/html",
+                new String[] { "head", "form" }, flushSize);
+    }
+
+    @Test
+    public void testFlushAfterElements() throws IOException
+    {
+        FlushRecordingWriter out = new FlushRecordingWriter();
+        StateWriter stateWriter = new StateWriter(out, 1024, facesContext);
+        StreamingHtmlResponseWriterImpl writer = createWriter(stateWriter, 0);
+
+        writer.startElement("head", null);
+        writer.endElement("head");
+        writer.startElement("body", null);
+        writer.startElement("form", null);
+        writer.writeText("text", null);
+        writer.endElement("form");
+        writer.startElement("div", null);
+        writer.endElement("div");
+        writer.endElement("body");
+
+        Assertions.assertEquals("<head></head><body><form>text</form><div></div></body>", out.toString());
+        Assertions.assertEquals("13 36 ", out.flushes.toString());
+        stateWriter.release(facesContext);
+    }
+
+    @Test
+    public void testFlushBySize() throws IOException
+    {
+        FlushRecordingWriter out = new FlushRecordingWriter();
+        StateWriter stateWriter = new StateWriter(out, 1024, facesContext);
+        StreamingHtmlResponseWriterImpl writer = createWriter(stateWriter, 10);
+
+        writer.startElement("span", null);
+        writer.endElement("span");
+        writer.startElement("span", null);
+        writer.writeText("0123456789", null);
+        writer.endElement("span");
+        writer.startElement("b", null);
+        writer.endElement("b");
+
+        Assertions.assertEquals("13 36 ", out.flushes.toString());
+        stateWriter.release(facesContext);
+    }
+
+    @Test
+    public void testNoFlushWhileStateIsBuffered() throws IOException
+    {
+        FlushRecordingWriter out = new FlushRecordingWriter();
+        StateWriter stateWriter = new StateWriter(out, 1024, facesContext);
+        StreamingHtmlResponseWriterImpl writer = createWriter(stateWriter, 0);
+
+        writer.startElement("form", null);
+        stateWriter.writingState();
+        writer.endElement("form");
+        writer.startElement("form", null);
+        writer.endElement("form");
+
+        Assertions.assertEquals("", out.flushes.toString());
+        Assertions.assertEquals("<form", out.toString());
+        stateWriter.release(facesContext);
+    }
+
+    @Test
+    public void testNoFlushForAjaxRequests() throws IOException
+    {
+        facesContext.getPartialViewContext().setPartialRequest(true);
+        FlushRecordingWriter out = new FlushRecordingWriter();
+        StateWriter stateWriter = new StateWriter(out, 1024, facesContext);
+        StreamingHtmlResponseWriterImpl writer = createWriter(stateWriter, 0);
+
+        writer.startElement("form", null);
+        writer.endElement("form");
+
+        Assertions.assertEquals("", out.flushes.toString());
+        stateWriter.release(facesContext);
+    }
+}
@@ -385,6 +385,37 @@ public void testWriteURIAttribute() throws Exception {
         //assertEquals(cad14,cad15);
     }
 
+    @Test
+    public void testEncodeVariantsAreEquivalent() throws Exception {
+        String source = "  a  <b> & \"c\"\n\u0001\td\u00E4\u00A0\u0080\u0081\u20AC\uFFFF   ";
+        boolean[] flags = new boolean[]{false, true};
+        for (boolean newline : flags) {
+            for (boolean nbsp : flags) {
+                for (boolean nonLatin : flags) {
+                    StringWriter expected = new StringWriter();
+                    HTMLEncoder.encode(expected, source, newline, nbsp, nonLatin);
+
+                    StringWriter sequence = new StringWriter();
+                    HTMLEncoder.encode(sequence, new StringBuilder(source), newline, nbsp, nonLatin);
+                    Assertions.assertEquals(expected.toString(), sequence.toString());
+
+                    CharArrayWriter array = new CharArrayWriter();
+                    HTMLEncoder.encode(source.toCharArray(), 0, source.length(), newline, nbsp, nonLatin, array);
+                    Assertions.assertEquals(expected.toString(), array.toString());
+
+                    Assertions.assertEquals(expected.toString(),
+                            HTMLEncoder.encode(facesContext, source, newline, nbsp, nonLatin));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEncodeNbspAndNonLatin() throws Exception {
+        HTMLEncoder.encode(sw, " a  b\u00E4\u0101", false, true, true);
+        Assertions.assertEquals("&#160;a &#160;b&auml;&#257;", sw.toString());
+    }
+
     private void assertCharArrayEquals(char[] expected, char[] actual) {
         if ((expected == null ^ actual == null) || expected.length != actual.length) {
             Assertions.fail();
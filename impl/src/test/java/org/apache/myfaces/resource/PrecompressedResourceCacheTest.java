@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.faces.application.Resource;
+import jakarta.faces.context.FacesContext;
+
+import org.apache.myfaces.resource.ResourceHandlerCache.ResourceKey;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PrecompressedResourceCacheTest
+{
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testAcceptsGzip()
+    {
+        Assertions.assertTrue(PrecompressedResourceCache.acceptsGzip("gzip, deflate, br"));
+        Assertions.assertTrue(PrecompressedResourceCache.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        Assertions.assertTrue(PrecompressedResourceCache.acceptsGzip("*"));
+        Assertions.assertFalse(PrecompressedResourceCache.acceptsGzip("gzip;q=0"));
+        Assertions.assertFalse(PrecompressedResourceCache.acceptsGzip("deflate, br"));
+        Assertions.assertFalse(PrecompressedResourceCache.acceptsGzip(null));
+    }
+
+    @Test
+    public void testIsCompressible()
+    {
+        PrecompressedResourceCache cache = new PrecompressedResourceCache(tempDir.toFile(), 1024);
+
+        Assertions.assertTrue(cache.isCompressible("text/javascript"));
+        Assertions.assertTrue(cache.isCompressible("text/css; charset=UTF-8"));
+        Assertions.assertTrue(cache.isCompressible("application/json"));
+        Assertions.assertTrue(cache.isCompressible("image/svg+xml"));
+        Assertions.assertFalse(cache.isCompressible("image/png"));
+        Assertions.assertFalse(cache.isCompressible("font/woff2"));
+        Assertions.assertFalse(cache.isCompressible(null));
+    }
+
+    @Test
+    public void testCompressOnce() throws Exception
+    {
+        PrecompressedResourceCache cache = new PrecompressedResourceCache(tempDir.toFile(), 1024);
+        String content = "var value = 'compress me';\n".repeat(100);
+        TestResource resource = new TestResource(content, null);
+        ResourceKey key = new ResourceKey("a.js", "lib", "text/javascript", null);
+
+        File variant = cache.getGzipVariant(key, resource);
+        Assertions.assertNotNull(variant);
+        Assertions.assertTrue(variant.length() < content.length());
+        Assertions.assertEquals(content, gunzip(variant));
+
+        Assertions.assertSame(variant, cache.getGzipVariant(key, resource));
+        Assertions.assertEquals(1, resource.opened);
+    }
+
+    @Test
+    public void testSmallResourcesStayUncompressed()
+    {
+        PrecompressedResourceCache cache = new PrecompressedResourceCache(tempDir.toFile(), 1024);
+        TestResource resource = new TestResource("x", null);
+        ResourceKey key = new ResourceKey("x.js", "lib", "text/javascript", null);
+
+        Assertions.assertNull(cache.getGzipVariant(key, resource));
+        Assertions.assertNull(cache.getGzipVariant(key, resource));
+        Assertions.assertEquals(1, resource.opened);
+    }
+
+    @Test
+    public void testShippedVariant() throws Exception
+    {
+        Path source = Files.createDirectory(tempDir.resolve("source"));
+        Path file = source.resolve("b.js");
+        Files.writeString(file, "uncompressed");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(source.resolve("b.js.gz"))))
+        {
+            out.write("shipped".getBytes(StandardCharsets.UTF_8));
+        }
+
+        PrecompressedResourceCache cache = new PrecompressedResourceCache(
+                tempDir.resolve("variants").toFile(), 1024);
+        TestResource resource = new TestResource("uncompressed", file.toUri().toURL());
+
+        File variant = cache.getGzipVariant(new ResourceKey("b.js", "lib", "text/javascript", null), resource);
+        Assertions.assertEquals("shipped", gunzip(variant));
+        Assertions.assertEquals(0, resource.opened);
+    }
+
+    @Test
+    public void testCompressOutsideOfTheMap() throws Exception
+    {
+        PrecompressedResourceCache cache = new PrecompressedResourceCache(tempDir.toFile(), 1024);
+        String content = "var value = 'compress me';\n".repeat(100);
+        CountDownLatch opened = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        AtomicInteger reads = new AtomicInteger();
+        TestResource slow = new TestResource(content, null)
+        {
+            @Override
+            public InputStream getInputStream()
+            {
+                reads.incrementAndGet();
+                opened.countDown();
+                try
+                {
+                    proceed.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getInputStream();
+            }
+        };
+        ResourceKey key = new ResourceKey("slow.js", "lib", "text/javascript", null);
+
+        CompletableFuture<File> first = CompletableFuture.supplyAsync(() -> cache.getGzipVariant(key, slow));
+        Assertions.assertTrue(opened.await(10, TimeUnit.SECONDS));
+        CompletableFuture<File> second = CompletableFuture.supplyAsync(() -> cache.getGzipVariant(key, slow));
+
+        // other resources are not blocked while the slow one is compressed
+        Assertions.assertNotNull(cache.getGzipVariant(new ResourceKey("a.js", "lib", "text/javascript", null),
+                new TestResource(content, null)));
+        Assertions.assertFalse(second.isDone());
+
+        proceed.countDown();
+        File variant = first.get(10, TimeUnit.SECONDS);
+        Assertions.assertNotNull(variant);
+        Assertions.assertSame(variant, second.get(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, reads.get());
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        PrecompressedResourceCache cache = new PrecompressedResourceCache(null, 1024);
+
+        Assertions.assertFalse(cache.isEnabled());
+        Assertions.assertNull(cache.getGzipVariant(new ResourceKey("a.js", "lib", "text/javascript", null),
+                new TestResource("var value = 1;".repeat(100), null)));
+    }
+
+    private static String gunzip(File file) throws IOException
+    {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file.toPath())))
+        {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static class TestResource extends Resource
+    {
+        private final String content;
+        private final URL url;
+        private int opened;
+
+        TestResource(String content, URL url)
+        {
+            this.content = content;
+            this.url = url;
+        }
+
+        @Override
+        public InputStream getInputStream()
+        {
+            opened++;
+            return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public Map<String, String> getResponseHeaders()
+        {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public String getRequestPath()
+        {
+            return null;
+        }
+
+        @Override
+        public URL getURL()
+        {
+            return url;
+        }
+
+        @Override
+        public boolean userAgentNeedsUpdate(FacesContext context)
+        {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.myfaces.resource.ResourceHandlerCache.ResourceKey;
+import org.apache.myfaces.test.base.junit.AbstractFacesTestCase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ResourceBodyCacheTest extends AbstractFacesTestCase
+{
+    private static ResourceKey key(String name)
+    {
+        return new ResourceKey(name, "lib", "text/javascript", null);
+    }
+
+    @Test
+    public void testGetAndPut() throws Exception
+    {
+        ResourceBodyCache cache = new ResourceBodyCache(1024, 512);
+        byte[] body = "var a = 1;".getBytes(StandardCharsets.UTF_8);
+
+        Assertions.assertNull(cache.get(key("a.js")));
+        cache.put(key("a.js"), body, body.length);
+
+        ByteBuffer cached = cache.get(key("a.js"));
+        Assertions.assertTrue(cached.isReadOnly());
+        Assertions.assertEquals(body.length, cached.remaining());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Assertions.assertEquals(body.length, ResourceBodyCache.write(cached, out, new byte[3]));
+        Assertions.assertArrayEquals(body, out.toByteArray());
+
+        // every caller gets its own position
+        Assertions.assertEquals(body.length, cache.get(key("a.js")).remaining());
+
+        Assertions.assertEquals(2, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+        Assertions.assertEquals(body.length, cache.getBytesHeld());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedBySize()
+    {
+        ResourceBodyCache cache = new ResourceBodyCache(300, 200);
+
+        cache.put(key("a.js"), new byte[100], 100);
+        cache.put(key("b.js"), new byte[100], 100);
+        cache.put(key("c.js"), new byte[100], 100);
+        Assertions.assertNotNull(cache.get(key("a.js")));
+
+        cache.put(key("d.js"), new byte[150], 150);
+
+        Assertions.assertNotNull(cache.get(key("a.js")));
+        Assertions.assertNull(cache.get(key("b.js")));
+        Assertions.assertNull(cache.get(key("c.js")));
+        Assertions.assertNotNull(cache.get(key("d.js")));
+        Assertions.assertEquals(250, cache.getBytesHeld());
+        Assertions.assertEquals(2, cache.getEvictions());
+
+        // too big for a single entry
+        cache.put(key("e.js"), new byte[201], 201);
+        Assertions.assertNull(cache.get(key("e.js")));
+        Assertions.assertEquals(2, cache.getEntryCount());
+    }
+
+    @Test
+    public void testReplaceKeepsSize()
+    {
+        ResourceBodyCache cache = new ResourceBodyCache(300, 200);
+
+        cache.put(key("a.js"), new byte[100], 100);
+        cache.put(key("a.js"), new byte[120], 50);
+
+        Assertions.assertEquals(50, cache.getBytesHeld());
+        Assertions.assertEquals(50, cache.get(key("a.js")).remaining());
+    }
+
+    @Test
+    public void testCacheableResources()
+    {
+        ResourceBodyCache cache = new ResourceBodyCache(1024, 512);
+        ResourceLoader loader = new ClassLoaderResourceLoader(null);
+        ResourceHandlerSupport support = new BaseResourceHandlerSupport();
+
+        ResourceMeta js = new ResourceMetaImpl(null, "lib", null, "a.js", null);
+        ResourceMeta css = new ResourceMetaImpl(null, "lib", null, "a.css", null);
+
+        Assertions.assertNotNull(cache.getKey(new ResourceImpl(js, loader, support, "text/javascript")));
+        Assertions.assertEquals(cache.getKey(new ResourceImpl(js, loader, support, "text/javascript")),
+                cache.getKey(new ResourceImpl(js, loader, support, "text/javascript")));
+        Assertions.assertNull(cache.getKey(new ResourceImpl(css, loader, support, "text/css")));
+        Assertions.assertNull(cache.getKey(null));
+
+        Assertions.assertFalse(new ResourceBodyCache(0, 512).isEnabled());
+        Assertions.assertNull(new ResourceBodyCache(0, 512)
+                .getKey(new ResourceImpl(js, loader, support, "text/javascript")));
+    }
+}
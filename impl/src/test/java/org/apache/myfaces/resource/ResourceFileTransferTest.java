@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.resource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.apache.myfaces.test.base.junit.AbstractFacesTestCase;
+import org.apache.myfaces.test.mock.MockServletOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ResourceFileTransferTest extends AbstractFacesTestCase
+{
+    @Test
+    public void testParseRange()
+    {
+        Assertions.assertArrayEquals(new long[] { 0, 99 }, ResourceFileTransfer.parseRange("bytes=0-99", 1000));
+        Assertions.assertArrayEquals(new long[] { 500, 999 }, ResourceFileTransfer.parseRange("bytes=500-", 1000));
+        Assertions.assertArrayEquals(new long[] { 900, 999 }, ResourceFileTransfer.parseRange("bytes=-100", 1000));
+        Assertions.assertArrayEquals(new long[] { 0, 999 }, ResourceFileTransfer.parseRange("bytes=-2000", 1000));
+        Assertions.assertArrayEquals(new long[] { 990, 999 },
+                ResourceFileTransfer.parseRange("bytes=990-2000", 1000));
+
+        Assertions.assertSame(ResourceFileTransfer.UNSATISFIABLE,
+                ResourceFileTransfer.parseRange("bytes=1000-", 1000));
+        Assertions.assertSame(ResourceFileTransfer.UNSATISFIABLE, ResourceFileTransfer.parseRange("bytes=-0", 1000));
+
+        Assertions.assertNull(ResourceFileTransfer.parseRange(null, 1000));
+        Assertions.assertNull(ResourceFileTransfer.parseRange("bytes=0-1,5-6", 1000));
+        Assertions.assertNull(ResourceFileTransfer.parseRange("bytes=9-1", 1000));
+        Assertions.assertNull(ResourceFileTransfer.parseRange("bytes=a-b", 1000));
+        Assertions.assertNull(ResourceFileTransfer.parseRange("items=0-1", 1000));
+    }
+
+    @Test
+    public void testIfRange()
+    {
+        Map<String, String> headers = Map.of("ETag", "\"abc\"", "Last-Modified", "Sat, 17 Oct 2026 10:00:00 GMT");
+
+        Assertions.assertTrue(ResourceFileTransfer.isIfRangeSatisfied(null, headers));
+        Assertions.assertTrue(ResourceFileTransfer.isIfRangeSatisfied("\"abc\"", headers));
+        Assertions.assertTrue(ResourceFileTransfer.isIfRangeSatisfied("Sat, 17 Oct 2026 10:00:00 GMT", headers));
+        Assertions.assertFalse(ResourceFileTransfer.isIfRangeSatisfied("W/\"abc\"", headers));
+        Assertions.assertFalse(ResourceFileTransfer.isIfRangeSatisfied("\"other\"", headers));
+        Assertions.assertFalse(ResourceFileTransfer.isIfRangeSatisfied("Fri, 16 Oct 2026 10:00:00 GMT", headers));
+    }
+
+    @Test
+    public void testIfRangeWeakETag()
+    {
+        Map<String, String> headers = Map.of("ETag", "W/\"abc\"");
+
+        Assertions.assertFalse(ResourceFileTransfer.isIfRangeSatisfied("W/\"abc\"", headers));
+        Assertions.assertFalse(ResourceFileTransfer.isIfRangeSatisfied("\"abc\"", headers));
+    }
+
+    @Test
+    public void testSend(@TempDir Path directory) throws Exception
+    {
+        Path file = directory.resolve("data.bin");
+        Files.write(file, "0123456789".getBytes());
+
+        ResourceFileTransfer.send(externalContext, response, file.toFile(), 2, 5);
+
+        Assertions.assertEquals("23456", new String(((MockServletOutputStream) response.getOutputStream()).content()));
+    }
+
+    @Test
+    public void testContainerSendfile(@TempDir Path directory) throws Exception
+    {
+        Path file = directory.resolve("data.bin");
+        Files.write(file, "0123456789".getBytes());
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+
+        ResourceFileTransfer.send(externalContext, response, file.toFile(), 2, 5);
+
+        Assertions.assertEquals(file.toFile().getCanonicalPath(),
+                request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        Assertions.assertEquals(2L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        Assertions.assertEquals(7L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        Assertions.assertEquals(0, ((MockServletOutputStream) response.getOutputStream()).size());
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.resource;
+
+import org.apache.myfaces.test.base.junit.AbstractFacesTestCase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ResourceFingerprintsTest extends AbstractFacesTestCase
+{
+    private static final String RESOURCES = "org/apache/myfaces/view/facelets/impl/resources";
+
+    @Test
+    public void testHash()
+    {
+        ResourceFingerprints fingerprints = new ResourceFingerprints(true, true, 1024);
+        ResourceLoader loader = new ClassLoaderResourceLoader(RESOURCES);
+        ResourceHandlerSupport support = new BaseResourceHandlerSupport();
+
+        ResourceImpl a = new ResourceImpl(new ResourceMetaImpl(null, "js", null, "a.js", null),
+                loader, support, "text/javascript");
+        ResourceImpl b = new ResourceImpl(new ResourceMetaImpl(null, "js", null, "b.js", null),
+                loader, support, "text/javascript");
+
+        String hash = fingerprints.getHash(a);
+        Assertions.assertNotNull(hash);
+        Assertions.assertEquals(24, hash.length());
+        Assertions.assertEquals(hash, fingerprints.getHash(new ResourceImpl(
+                new ResourceMetaImpl(null, "js", null, "a.js", null), loader, support, "text/javascript")));
+        Assertions.assertNotEquals(hash, fingerprints.getHash(b));
+
+        ResourceImpl css = new ResourceImpl(new ResourceMetaImpl(null, "js", null, "a.js", null),
+                loader, support, "text/css");
+        Assertions.assertNull(fingerprints.getHash(css));
+    }
+
+    @Test
+    public void testMatches()
+    {
+        Assertions.assertTrue(ResourceFingerprints.matches("\"abc\"", "abc"));
+        Assertions.assertTrue(ResourceFingerprints.matches("\"xyz\", W/\"abc\"", "abc"));
+        Assertions.assertTrue(ResourceFingerprints.matches("\"abc-gzip\"", "abc"));
+        Assertions.assertTrue(ResourceFingerprints.matches("*", "abc"));
+        Assertions.assertFalse(ResourceFingerprints.matches("\"abcd\"", "abc"));
+        Assertions.assertFalse(ResourceFingerprints.matches("abc", "abc"));
+    }
+
+    @Test
+    public void testETag()
+    {
+        Assertions.assertEquals("\"abc\"", ResourceFingerprints.toETag("abc"));
+        Assertions.assertEquals("\"abc-gzip\"", ResourceFingerprints.toGzipETag("\"abc\""));
+    }
+}
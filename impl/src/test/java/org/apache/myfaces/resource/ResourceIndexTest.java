@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.resource;
+
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.apache.myfaces.test.base.junit.AbstractFacesTestCase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ResourceIndexTest extends AbstractFacesTestCase
+{
+    private static void write(Path file) throws Exception
+    {
+        Files.createDirectories(file.getParent());
+        Files.write(file, "x".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testWebappIndex(@TempDir Path root) throws Exception
+    {
+        write(root.resolve("resources/lib/1_0/a.js"));
+        write(root.resolve("resources/lib/1_10/a.js"));
+        write(root.resolve("resources/plain.js"));
+        servletContext.setDocumentRoot(root.toFile());
+
+        ExternalContextResourceLoader loader = new ExternalContextResourceLoader("/resources");
+        ExternalContextResourceLoader indexed = new ExternalContextResourceLoader("/resources");
+        indexed.setResourceIndex(ResourceIndex.scan(externalContext, "/resources"));
+
+        Assertions.assertEquals(Set.of("/resources/lib/1_0/", "/resources/lib/1_10/"),
+                indexed.getResourcePaths("lib"));
+        Assertions.assertEquals("1_10", indexed.getLibraryVersion("lib"));
+        Assertions.assertTrue(indexed.libraryExists("lib"));
+        Assertions.assertFalse(indexed.libraryExists("missing"));
+        Assertions.assertTrue(indexed.resourceExists(indexed.createResourceMeta(null, "lib", "1_10", "a.js", null)));
+        Assertions.assertTrue(indexed.resourceExists(indexed.createResourceMeta(null, null, null, "plain.js", null)));
+
+        // the index is a snapshot, later changes are only seen by the loader doing lookups
+        write(root.resolve("resources/other/b.js"));
+        Assertions.assertTrue(loader.libraryExists("other"));
+        Assertions.assertFalse(indexed.libraryExists("other"));
+    }
+
+    @Test
+    public void testJarWithoutDirectoryEntries(@TempDir Path root) throws Exception
+    {
+        Path jar = root.resolve("library.jar");
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar.toFile()), manifest))
+        {
+            out.putNextEntry(new JarEntry("META-INF/resources/lib/css/a.css"));
+            out.write("x".getBytes(StandardCharsets.US_ASCII));
+            out.closeEntry();
+        }
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] { jar.toUri().toURL() }, null))
+        {
+            ResourceIndex index = ResourceIndex.scan("META-INF/resources", classLoader);
+
+            Assertions.assertNotNull(index);
+            Assertions.assertTrue(index.exists("lib"));
+            Assertions.assertTrue(index.exists("lib/css/a.css"));
+            Assertions.assertFalse(index.exists("lib/css/b.css"));
+            Assertions.assertEquals(Set.of("META-INF/resources/lib/css/"),
+                    index.getResourcePaths("META-INF/resources", "lib"));
+            Assertions.assertEquals(1, index.getFileCount());
+        }
+    }
+
+    @Test
+    public void testClassPathDirectory() throws Exception
+    {
+        String root = "org/apache/myfaces/view/facelets/impl/resources";
+        ResourceIndex index = ResourceIndex.scan(root, getClass().getClassLoader());
+
+        Assertions.assertNotNull(index);
+        Assertions.assertTrue(index.exists("js"));
+        Assertions.assertTrue(index.exists("/js/a.js"));
+        Assertions.assertFalse(index.exists("js/missing.js"));
+
+        ClassLoaderResourceLoader loader = new ClassLoaderResourceLoader(root);
+        loader.setResourceIndex(index);
+        Assertions.assertTrue(loader.libraryExists("js"));
+        Assertions.assertTrue(loader.resourceExists(loader.createResourceMeta(null, "js", null, "b.js", null)));
+        Assertions.assertFalse(loader.resourceExists(loader.createResourceMeta(null, "js", null, "c.js", null)));
+    }
+}
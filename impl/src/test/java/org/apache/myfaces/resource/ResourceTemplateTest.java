@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.myfaces.test.base.junit.AbstractFacesTestCase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class ResourceTemplateTest extends AbstractFacesTestCase
+{
+    private static ResourceTemplate compile(String content) throws IOException
+    {
+        return ResourceTemplate.compile(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String render(ResourceTemplate template) throws IOException
+    {
+        return new String(template.render(facesContext, "lib", "style.css"), StandardCharsets.UTF_8);
+    }
+
+    private String filter(String content) throws IOException
+    {
+        try (InputStream in = new ValueExpressionFilterInputStream(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), "lib", "style.css"))
+        {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testLiteral() throws Exception
+    {
+        ResourceTemplate template = compile(".a { color: #fff; } .b { content: '#' }");
+
+        Assertions.assertFalse(template.hasExpressions());
+        Assertions.assertEquals(".a { color: #fff; } .b { content: '#' }", render(template));
+    }
+
+    @Test
+    public void testExpressions() throws Exception
+    {
+        externalContext.getRequestMap().put("image", "/ctx/jakarta.faces.resource/a.png");
+        String content = ".a { background: url(#{image}); }\n.b { background: url(#{image}) }#{image}";
+
+        ResourceTemplate template = compile(content);
+
+        Assertions.assertTrue(template.hasExpressions());
+        Assertions.assertEquals(filter(content), render(template));
+        Assertions.assertEquals(".a { background: url(/ctx/jakarta.faces.resource/a.png); }\n"
+                + ".b { background: url(/ctx/jakarta.faces.resource/a.png) }/ctx/jakarta.faces.resource/a.png",
+                render(template));
+
+        // the expressions are evaluated on every rendering
+        externalContext.getRequestMap().put("image", "b.png");
+        Assertions.assertEquals(".a { background: url(b.png); }\n.b { background: url(b.png) }b.png",
+                render(template));
+    }
+
+    @Test
+    public void testUnterminatedExpression() throws Exception
+    {
+        externalContext.getRequestMap().put("image", "a.png");
+        String content = "url(#{image}) #{image";
+
+        Assertions.assertEquals("url(a.png) #{image", render(compile(content)));
+    }
+
+    @Test
+    public void testResourceCompiledOnce() throws Exception
+    {
+        ResourceLoader loader = Mockito.spy(new ClassLoaderResourceLoader(
+                "org/apache/myfaces/view/facelets/impl/resources"));
+        ResourceTemplateCache templateCache = new ResourceTemplateCache(10);
+        ResourceHandlerSupport support = new BaseResourceHandlerSupport()
+        {
+            @Override
+            public ResourceTemplateCache getResourceTemplateCache()
+            {
+                return templateCache;
+            }
+        };
+        ResourceMeta meta = new ResourceMetaImpl(null, "js", null, "a.js", null);
+
+        byte[] first;
+        try (InputStream in = new ResourceImpl(meta, loader, support, "text/css").getInputStream())
+        {
+            first = in.readAllBytes();
+        }
+        byte[] second;
+        try (InputStream in = new ResourceImpl(meta, loader, support, "text/css").getInputStream())
+        {
+            second = in.readAllBytes();
+        }
+
+        Assertions.assertArrayEquals(first, second);
+        Assertions.assertTrue(first.length > 0);
+        Mockito.verify(loader, Mockito.times(1)).getResourceInputStream(Mockito.any());
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.faces.component.UIComponent;
+import jakarta.faces.component.UIInput;
+import jakarta.faces.convert.NumberConverter;
+import jakarta.faces.validator.LengthValidator;
+
+import org.apache.myfaces.application.viewstate.StateUtils;
+import org.apache.myfaces.test.base.junit.AbstractFacesTestCase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BinarySerialFactoryTest extends AbstractFacesTestCase
+{
+    private final BinarySerialFactory factory = new BinarySerialFactory();
+
+    private Object roundTrip(Object value) throws Exception
+    {
+        return factory.toObject(factory.toByteArray(value));
+    }
+
+    @Test
+    public void testSimpleValues() throws Exception
+    {
+        Object[] values = new Object[] {
+            null, Boolean.TRUE, Boolean.FALSE, 0, 1, -1, Integer.MAX_VALUE, Integer.MIN_VALUE,
+            Long.MIN_VALUE, (short) -3, (byte) 7, 'x', 1.5f, -2.25d, "", "hello",
+            "\u0000 surrogate \uD800 and umlaut ä", Locale.GERMAN,
+            Thread.State.BLOCKED, String.class, UIInput.class
+        };
+
+        Object[] restored = (Object[]) roundTrip(values);
+
+        Assertions.assertArrayEquals(values, restored);
+        for (int i = 0; i < values.length; i++)
+        {
+            if (values[i] != null)
+            {
+                Assertions.assertEquals(values[i].getClass(), restored[i].getClass());
+            }
+        }
+    }
+
+    @Test
+    public void testLongString() throws Exception
+    {
+        char[] chars = new char[100000];
+        Arrays.fill(chars, '€');
+        String value = new String(chars);
+
+        Assertions.assertEquals(value, roundTrip(value));
+    }
+
+    @Test
+    public void testCollections() throws Exception
+    {
+        Map<String, Object> map = new HashMap<>();
+        map.put("form:input", new Object[] { "a", null, 3 });
+        map.put("form:list", new ArrayList<>(Arrays.asList("x", "y", "x")));
+        map.put("form:decimal", new BigDecimal("12.50"));
+
+        Object[] state = new Object[] { null, map, 5 };
+        Object[] restored = (Object[]) roundTrip(state);
+
+        Assertions.assertNull(restored[0]);
+        Assertions.assertEquals(5, restored[2]);
+        Map<?, ?> restoredMap = (Map<?, ?>) restored[1];
+        Assertions.assertEquals(3, restoredMap.size());
+        Assertions.assertArrayEquals((Object[]) map.get("form:input"), (Object[]) restoredMap.get("form:input"));
+        Assertions.assertEquals(map.get("form:list"), restoredMap.get("form:list"));
+        Assertions.assertEquals(map.get("form:decimal"), restoredMap.get("form:decimal"));
+    }
+
+    @Test
+    public void testSerializableFallbackKeepsSharedReferences() throws Exception
+    {
+        Bean bean = new Bean("shared");
+        Object[] restored = (Object[]) roundTrip(new Object[] { bean, "other", bean });
+
+        Assertions.assertEquals("shared", ((Bean) restored[0]).name);
+        Assertions.assertSame(restored[0], restored[2]);
+    }
+
+    @Test
+    public void testComponentStateRoundTrip() throws Exception
+    {
+        UIInput input = new UIInput();
+        input.setId("input");
+        input.setConverter(new NumberConverter());
+        input.addValidator(new LengthValidator(10, 2));
+        input.getAttributes().put("styleClass", "big");
+        input.markInitialState();
+        input.setValue(42);
+        input.setSubmittedValue("42");
+        input.getAttributes().put("title", "changed");
+        input.addValidator(new LengthValidator(5));
+
+        Object state = input.saveState(facesContext);
+        Object restoredState = roundTrip(state);
+
+        UIInput restored = new UIInput();
+        restored.setId("input");
+        restored.setConverter(new NumberConverter());
+        restored.addValidator(new LengthValidator(10, 2));
+        restored.getAttributes().put("styleClass", "big");
+        restored.markInitialState();
+        restored.restoreState(facesContext, restoredState);
+
+        Assertions.assertEquals(42, restored.getValue());
+        Assertions.assertEquals("42", restored.getSubmittedValue());
+        Assertions.assertEquals("changed", restored.getAttributes().get("title"));
+        Assertions.assertEquals("big", restored.getAttributes().get("styleClass"));
+        Assertions.assertEquals(2, restored.getValidators().length);
+        Assertions.assertEquals(5, ((LengthValidator) restored.getValidators()[1]).getMaximum());
+    }
+
+    @Test
+    public void testFullComponentStateRoundTrip() throws Exception
+    {
+        UIInput input = new UIInput();
+        input.setId("input");
+        input.setValue("value");
+        input.setConverter(new NumberConverter());
+        input.addValidator(new LengthValidator(10, 2));
+
+        Object state = input.saveState(facesContext);
+        byte[] binary = factory.toByteArray(state);
+        byte[] java = new DefaultSerialFactory().toByteArray(state);
+        Assertions.assertTrue(binary.length < java.length,
+                "binary " + binary.length + " bytes, java serialization " + java.length + " bytes");
+
+        UIComponent restored = new UIInput();
+        restored.restoreState(facesContext, factory.toObject(binary));
+
+        Assertions.assertEquals("value", ((UIInput) restored).getValue());
+        Assertions.assertTrue(((UIInput) restored).getConverter() instanceof NumberConverter);
+        Assertions.assertEquals(10, ((LengthValidator) ((UIInput) restored).getValidators()[0]).getMaximum());
+    }
+
+    @Test
+    public void testReadsJavaSerializedState() throws Exception
+    {
+        List<Object> value = new ArrayList<>(Arrays.asList("a", 1, new Bean("b")));
+        byte[] java = new DefaultSerialFactory().toByteArray(value);
+
+        List<?> restored = (List<?>) factory.toObject(java);
+
+        Assertions.assertEquals(3, restored.size());
+        Assertions.assertEquals("b", ((Bean) restored.get(2)).name);
+    }
+
+    @Test
+    public void testStreamRoundTripWithCompression() throws Exception
+    {
+        Object[] state = new Object[] { "view", new Object[] { 1, 2L, "view" } };
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(baos))
+        {
+            factory.writeObject(state, out);
+        }
+
+        Object[] restored;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(baos.toByteArray())))
+        {
+            restored = (Object[]) factory.readObject(in);
+        }
+        Assertions.assertEquals("view", restored[0]);
+        Assertions.assertArrayEquals((Object[]) state[1], (Object[]) restored[1]);
+    }
+
+    @Test
+    public void testInvalidStream()
+    {
+        Assertions.assertThrows(IOException.class, () -> factory.toObject(new byte[] { 1, 2, 3 }));
+        Assertions.assertThrows(IOException.class,
+                () -> factory.toObject(new byte[] { BinarySerialFactory.MAGIC, BinarySerialFactory.VERSION, 0, 99 }));
+    }
+
+    @Test
+    public void testClientSideStateUtils() throws Exception
+    {
+        externalContext.getApplicationMap().put(StateUtils.SERIAL_FACTORY, factory);
+        servletContext.addInitParameter(StateUtils.USE_ENCRYPTION, "false");
+
+        Object[] state = new Object[] { null, new HashMap<>(Map.of("id", "value")) };
+        Object[] restored = (Object[]) StateUtils.reconstruct(StateUtils.construct(state, externalContext),
+                externalContext);
+
+        Assertions.assertEquals("value", ((Map<?, ?>) restored[1]).get("id"));
+    }
+
+    public static class Bean implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+
+        public Bean(String name)
+        {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi.impl;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import jakarta.faces.event.PhaseId;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.spi.LifecycleMetrics;
+import org.apache.myfaces.test.base.junit.AbstractFacesTestCase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DefaultLifecycleMetricsTest extends AbstractFacesTestCase
+{
+    private static long[] phaseNanos(long restoreView, long renderResponse)
+    {
+        long[] nanos = new long[PhaseId.VALUES.size()];
+        nanos[PhaseId.RESTORE_VIEW.getOrdinal()] = restoreView;
+        nanos[PhaseId.RENDER_RESPONSE.getOrdinal()] = renderResponse;
+        return nanos;
+    }
+
+    @Test
+    public void testDisabledByDefault()
+    {
+        Assertions.assertNull(LifecycleMetrics.getInstance(externalContext));
+    }
+
+    @Test
+    public void testMBean() throws Exception
+    {
+        servletContext.addInitParameter(MyfacesConfig.LIFECYCLE_METRICS, "true");
+        servletContext.addInitParameter(MyfacesConfig.LIFECYCLE_METRICS_SLOW_REQUEST_THRESHOLD, "5");
+
+        LifecycleMetrics metrics = LifecycleMetrics.getInstance(externalContext);
+        Assertions.assertTrue(metrics instanceof DefaultLifecycleMetrics);
+        Assertions.assertSame(metrics, LifecycleMetrics.getInstance(externalContext));
+        try
+        {
+            metrics.phaseExecuted("/view.xhtml", PhaseId.RESTORE_VIEW, 1000000);
+            metrics.phaseExecuted("/view.xhtml", PhaseId.RENDER_RESPONSE, 3000000);
+            metrics.requestCompleted("/view.xhtml", 4000000, phaseNanos(1000000, 3000000));
+            metrics.phaseExecuted("/other.xhtml", PhaseId.RESTORE_VIEW, 2000000);
+            metrics.phaseExecuted("/other.xhtml", PhaseId.RENDER_RESPONSE, 8000000);
+            metrics.requestCompleted("/other.xhtml", 10000000, phaseNanos(2000000, 8000000));
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = server.queryNames(new ObjectName("org.apache.myfaces:type=LifecycleMetrics,*"), null)
+                    .iterator().next();
+            Assertions.assertEquals(5L, server.getAttribute(name, "SlowRequestThreshold"));
+            Assertions.assertEquals(6, ((CompositeData[]) server.getAttribute(name, "Phases")).length);
+
+            CompositeData[] totals = (CompositeData[]) server.getAttribute(name, "PhaseTotals");
+            Assertions.assertEquals(3, totals.length);
+            for (CompositeData total : totals)
+            {
+                Assertions.assertEquals(2L, total.get("count"));
+                if ("RESTORE_VIEW".equals(total.get("phase")))
+                {
+                    Assertions.assertEquals(1500L, total.get("timeMean"));
+                    Assertions.assertEquals(2000L, total.get("timeMax"));
+                    Assertions.assertEquals(3000L, total.get("totalTime"));
+                }
+            }
+
+            CompositeData[] slowRequests = (CompositeData[]) server.getAttribute(name, "SlowRequests");
+            Assertions.assertEquals(1, slowRequests.length);
+            Assertions.assertEquals("/other.xhtml", slowRequests[0].get("viewId"));
+            Assertions.assertEquals(10000L, slowRequests[0].get("time"));
+            Assertions.assertEquals(8000L, slowRequests[0].get("renderResponseTime"));
+            Assertions.assertEquals(0L, slowRequests[0].get("invokeApplicationTime"));
+
+            server.invoke(name, "reset", null, null);
+            Assertions.assertEquals(0, ((CompositeData[]) server.getAttribute(name, "Phases")).length);
+            Assertions.assertEquals(0, ((CompositeData[]) server.getAttribute(name, "SlowRequests")).length);
+
+            LifecycleMetrics.release(externalContext);
+            Assertions.assertFalse(server.isRegistered(name));
+        }
+        finally
+        {
+            LifecycleMetrics.release(externalContext);
+        }
+    }
+
+    @Test
+    public void testSlowRequestsAreBounded()
+    {
+        DefaultLifecycleMetrics metrics = new DefaultLifecycleMetrics();
+        metrics.setSlowRequestThreshold(1);
+        for (int i = 0; i < DefaultLifecycleMetrics.MAX_SLOW_REQUESTS + 10; i++)
+        {
+            metrics.requestCompleted("/view" + i + ".xhtml", 2000000, phaseNanos(0, 2000000));
+        }
+        SlowRequestSample[] samples = metrics.getSlowRequests();
+        Assertions.assertEquals(DefaultLifecycleMetrics.MAX_SLOW_REQUESTS, samples.length);
+        Assertions.assertEquals("/view" + (DefaultLifecycleMetrics.MAX_SLOW_REQUESTS + 9) + ".xhtml",
+                samples[0].getViewId());
+        Assertions.assertEquals("/view10.xhtml", samples[samples.length - 1].getViewId());
+    }
+
+    @Test
+    public void testNumberOfViewsIsBounded()
+    {
+        DefaultLifecycleMetrics metrics = new DefaultLifecycleMetrics();
+        for (int i = 0; i < DefaultLifecycleMetrics.MAX_VIEWS + 10; i++)
+        {
+            metrics.phaseExecuted("/view" + i + ".xhtml", PhaseId.RESTORE_VIEW, 1000);
+        }
+        Assertions.assertEquals(DefaultLifecycleMetrics.MAX_VIEWS + 1, metrics.getPhases().length);
+        Assertions.assertEquals(DefaultLifecycleMetrics.MAX_VIEWS + 10, metrics.getPhaseTotals()[0].getCount());
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi.impl;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.spi.RenderProfiler;
+import org.apache.myfaces.test.base.junit.AbstractFacesTestCase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DefaultRenderProfilerTest extends AbstractFacesTestCase
+{
+    @Test
+    public void testDisabledByDefault()
+    {
+        Assertions.assertNull(RenderProfiler.getInstance(externalContext));
+    }
+
+    @Test
+    public void testMBean() throws Exception
+    {
+        servletContext.addInitParameter(MyfacesConfig.RENDER_PROFILER, "true");
+
+        RenderProfiler profiler = RenderProfiler.getInstance(externalContext);
+        Assertions.assertTrue(profiler instanceof DefaultRenderProfiler);
+        Assertions.assertSame(profiler, RenderProfiler.getInstance(externalContext));
+        try
+        {
+            profiler.componentRendered("/view.xhtml", "jakarta.faces.component.html.HtmlOutputText", "form:a",
+                    "/view.xhtml;HtmlForm;HtmlOutputText", 2000000, 2000000, 10);
+            profiler.componentRendered("/view.xhtml", "jakarta.faces.component.html.HtmlOutputText", "form:b",
+                    "/view.xhtml;HtmlForm;HtmlOutputText", 4000000, 4000000, 30);
+            profiler.componentRendered("/view.xhtml", "jakarta.faces.component.html.HtmlForm", "form",
+                    "/view.xhtml;HtmlForm", 7000000, 1000000, 100);
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = server.queryNames(new ObjectName("org.apache.myfaces:type=RenderProfiler,*"), null)
+                    .iterator().next();
+
+            CompositeData[] types = (CompositeData[]) server.getAttribute(name, "ComponentTypes");
+            Assertions.assertEquals(2, types.length);
+            for (CompositeData type : types)
+            {
+                if ("jakarta.faces.component.html.HtmlOutputText".equals(type.get("name")))
+                {
+                    Assertions.assertEquals(2L, type.get("count"));
+                    Assertions.assertEquals(6000L, type.get("totalTime"));
+                    Assertions.assertEquals(3000L, type.get("meanTime"));
+                    Assertions.assertEquals(4000L, type.get("maxTime"));
+                    Assertions.assertEquals(40L, type.get("written"));
+                }
+                else
+                {
+                    Assertions.assertEquals(7000L, type.get("totalTime"));
+                    Assertions.assertEquals(1000L, type.get("selfTime"));
+                }
+            }
+            Assertions.assertEquals(3, ((CompositeData[]) server.getAttribute(name, "ClientIds")).length);
+
+            String stacks = (String) server.invoke(name, "dumpCollapsedStacks", null, null);
+            Assertions.assertEquals("/view.xhtml;HtmlForm 1000\n/view.xhtml;HtmlForm;HtmlOutputText 6000\n",
+                    stacks);
+
+            server.invoke(name, "reset", null, null);
+            Assertions.assertEquals("", server.invoke(name, "dumpCollapsedStacks", null, null));
+
+            RenderProfiler.release(externalContext);
+            Assertions.assertFalse(server.isRegistered(name));
+        }
+        finally
+        {
+            RenderProfiler.release(externalContext);
+        }
+    }
+
+    @Test
+    public void testNumberOfClientIdsIsBounded()
+    {
+        DefaultRenderProfiler profiler = new DefaultRenderProfiler();
+        for (int i = 0; i < DefaultRenderProfiler.MAX_ENTRIES + 10; i++)
+        {
+            profiler.componentRendered("/view.xhtml", "Type", "id" + i, "/view.xhtml;Type", 1000, 1000, 1);
+        }
+        Assertions.assertEquals(1, profiler.getComponentTypes().length);
+        Assertions.assertEquals(DefaultRenderProfiler.MAX_ENTRIES + 1, profiler.getClientIds().length);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi.impl;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.spi.ViewStateMetrics;
+import org.apache.myfaces.test.base.junit.AbstractFacesTestCase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DefaultViewStateMetricsTest extends AbstractFacesTestCase
+{
+    @Test
+    public void testHistogram()
+    {
+        DefaultViewStateMetrics.Histogram histogram = new DefaultViewStateMetrics.Histogram();
+        Assertions.assertEquals(0, histogram.getPercentile(0.95));
+
+        for (int i = 1; i <= 100; i++)
+        {
+            histogram.record(i);
+        }
+        Assertions.assertEquals(100, histogram.getCount());
+        Assertions.assertEquals(50, histogram.getMean());
+        Assertions.assertEquals(100, histogram.getMax());
+        // 95 is in the bucket 64..127, limited by the max value
+        Assertions.assertEquals(100, histogram.getPercentile(0.95));
+        Assertions.assertEquals(63, histogram.getPercentile(0.5));
+        Assertions.assertEquals(1, histogram.getPercentile(0.01));
+    }
+
+    @Test
+    public void testDisabledByDefault()
+    {
+        Assertions.assertNull(ViewStateMetrics.getInstance(externalContext));
+    }
+
+    @Test
+    public void testMBean() throws Exception
+    {
+        servletContext.addInitParameter(MyfacesConfig.VIEW_STATE_METRICS, "true");
+
+        ViewStateMetrics metrics = ViewStateMetrics.getInstance(externalContext);
+        Assertions.assertTrue(metrics instanceof DefaultViewStateMetrics);
+        Assertions.assertSame(metrics, ViewStateMetrics.getInstance(externalContext));
+        try
+        {
+            metrics.stateSerialized("/view.xhtml", 100, 400, 2000000);
+            metrics.stateSerialized("/view.xhtml", 300, 800, 4000000);
+            metrics.viewSaved("/view.xhtml", 5000000);
+            metrics.viewRestored("/view.xhtml", 1000000);
+            metrics.restoreMissed("/view.xhtml");
+            metrics.restoreMissed("/other.xhtml");
+            metrics.viewsEvicted(3);
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = server.queryNames(new ObjectName("org.apache.myfaces:type=ViewStateMetrics,*"), null)
+                    .iterator().next();
+            Assertions.assertEquals(2L, server.getAttribute(name, "RestoreMisses"));
+            Assertions.assertEquals(3L, server.getAttribute(name, "ViewsEvicted"));
+
+            CompositeData view = (CompositeData) server.invoke(name, "getView", new Object[] { "/view.xhtml" },
+                    new String[] { String.class.getName() });
+            Assertions.assertEquals(2L, view.get("serializeCount"));
+            Assertions.assertEquals(200L, view.get("stateSizeMean"));
+            Assertions.assertEquals(300L, view.get("stateSizeMax"));
+            Assertions.assertEquals(3.0, (Double) view.get("compressionRatio"), 0.001);
+            Assertions.assertEquals(5000L, view.get("saveTimeMean"));
+            Assertions.assertEquals(1000L, view.get("restoreTimeMax"));
+            Assertions.assertEquals(1L, view.get("restoreMisses"));
+            Assertions.assertEquals(2, ((CompositeData[]) server.getAttribute(name, "Views")).length);
+
+            ViewStateMetrics.release(externalContext);
+            Assertions.assertFalse(server.isRegistered(name));
+        }
+        finally
+        {
+            ViewStateMetrics.release(externalContext);
+        }
+    }
+
+    @Test
+    public void testNumberOfViewsIsBounded()
+    {
+        DefaultViewStateMetrics metrics = new DefaultViewStateMetrics();
+        for (int i = 0; i < DefaultViewStateMetrics.MAX_VIEWS + 10; i++)
+        {
+            metrics.restoreMissed("/view" + i + ".xhtml");
+        }
+        Assertions.assertEquals(DefaultViewStateMetrics.MAX_VIEWS + 1, metrics.getViews().length);
+        Assertions.assertEquals(10, metrics.getView(DefaultViewStateMetrics.OTHER_VIEWS).getRestoreMisses());
+    }
+}
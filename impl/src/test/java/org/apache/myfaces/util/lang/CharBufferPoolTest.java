@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.util.lang;
+
+import java.io.CharArrayWriter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CharBufferPoolTest
+{
+    @Test
+    public void testBorrowAndRelease()
+    {
+        CharBufferPool pool = new CharBufferPool(2);
+
+        char[] first = pool.borrow(100);
+        char[] second = pool.borrow(100);
+        char[] third = pool.borrow(100);
+        Assertions.assertTrue(first.length >= 1024);
+
+        pool.release(first, 100);
+        pool.release(second, 100);
+        pool.release(third, 100);
+        Assertions.assertEquals(2, pool.getPooledCount());
+
+        char[] again = pool.borrow(100);
+        Assertions.assertTrue(again == first || again == second);
+        Assertions.assertEquals(1, pool.getPooledCount());
+    }
+
+    @Test
+    public void testTooSmallBufferIsNotBorrowed()
+    {
+        CharBufferPool pool = new CharBufferPool(2);
+        char[] buffer = pool.borrow(1024);
+        pool.release(buffer, 1000);
+
+        char[] larger = pool.borrow(buffer.length + 1);
+        Assertions.assertNotSame(buffer, larger);
+        Assertions.assertEquals(1, pool.getPooledCount());
+    }
+
+    @Test
+    public void testLargeBufferIsDropped()
+    {
+        CharBufferPool pool = new CharBufferPool(2);
+        pool.release(new char[64 * 1024], 64 * 1024);
+
+        Assertions.assertEquals(0, pool.getPooledCount());
+    }
+
+    @Test
+    public void testAverageSize()
+    {
+        CharBufferPool pool = new CharBufferPool(2);
+        for (int i = 0; i < 100; i++)
+        {
+            pool.release(pool.borrow(0), 5000);
+        }
+
+        Assertions.assertTrue(pool.getAverageSize() > 4900, "average " + pool.getAverageSize());
+        Assertions.assertTrue(pool.borrow(0).length >= pool.getAverageSize() / 2);
+        // either a pooled buffer of that size or a new one
+        Assertions.assertTrue(pool.borrow(pool.getAverageSize()).length >= 4900);
+    }
+
+    @Test
+    public void testFastWriterWithPool() throws Exception
+    {
+        CharBufferPool pool = new CharBufferPool(4);
+        FastWriter writer = new FastWriter(16, pool);
+
+        for (int i = 0; i < 500; i++)
+        {
+            writer.write("abc");
+        }
+        writer.write("<!--marker-->");
+        writer.write("xyz");
+
+        Assertions.assertEquals(1500, writer.indexOf("<!--marker-->", 0));
+        Assertions.assertEquals(-1, writer.indexOf("<!--marker-->", 1501));
+        Assertions.assertEquals(3, writer.indexOf("abc", 1));
+
+        CharArrayWriter out = new CharArrayWriter();
+        writer.writeTo(out, 1513, writer.size() - 1513);
+        Assertions.assertEquals("xyz", out.toString());
+
+        // the buffers replaced while growing are pooled as well
+        Assertions.assertEquals(1, pool.getPooledCount());
+        writer.release();
+        Assertions.assertEquals(2, pool.getPooledCount());
+        Assertions.assertEquals(0, writer.size());
+
+        writer.write("still usable");
+        Assertions.assertEquals("still usable", writer.toString());
+    }
+}
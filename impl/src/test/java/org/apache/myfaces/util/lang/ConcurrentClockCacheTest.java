@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.util.lang;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentClockCacheTest
+{
+    @Test
+    public void testPutGetRemove()
+    {
+        ConcurrentClockCache<String, String> cache = new ConcurrentClockCache<>(10, 5);
+
+        Assertions.assertNull(cache.put("a", "1"));
+        Assertions.assertEquals("1", cache.put("a", "2"));
+        Assertions.assertNull(cache.put("b", null));
+        Assertions.assertEquals("2", cache.get("a"));
+        Assertions.assertNull(cache.get("b"));
+        Assertions.assertEquals(1, cache.size());
+
+        Assertions.assertEquals("2", cache.remove("a"));
+        Assertions.assertNull(cache.remove("a"));
+        Assertions.assertEquals(0, cache.size());
+
+        Assertions.assertEquals(1, cache.getStats().getCumulativeHits());
+        Assertions.assertEquals(1, cache.getStats().getCumulativeMisses());
+        Assertions.assertEquals(2, cache.getStats().getCumulativePuts());
+    }
+
+    @Test
+    public void testReferencedEntriesSurvive()
+    {
+        ConcurrentClockCache<Integer, Integer> cache = new ConcurrentClockCache<>(8, 4);
+        for (int i = 0; i < 4; i++)
+        {
+            cache.put(i, i);
+        }
+        // second chance for the first two entries
+        cache.get(0);
+        cache.get(1);
+
+        for (int i = 4; i < 8; i++)
+        {
+            cache.put(i, i);
+        }
+        Assertions.assertEquals(8, cache.size());
+
+        // exceeds the upper water mark
+        cache.put(8, 8);
+
+        Assertions.assertEquals(4, cache.size());
+        for (int i = 2; i < 7; i++)
+        {
+            Assertions.assertNull(cache.get(i));
+        }
+        Assertions.assertEquals(0, cache.get(0));
+        Assertions.assertEquals(1, cache.get(1));
+        Assertions.assertEquals(7, cache.get(7));
+        Assertions.assertEquals(8, cache.get(8));
+    }
+
+    @Test
+    public void testWaterMarks()
+    {
+        List<Integer> evicted = new ArrayList<>();
+        ConcurrentClockCache<Integer, Integer> cache = new ConcurrentClockCache<>(100, 75, 16, false,
+                (key, value) -> evicted.add(key));
+        for (int i = 0; i < 1000; i++)
+        {
+            cache.put(i, i);
+            Assertions.assertTrue(cache.size() <= 100);
+            if (i < 100)
+            {
+                Assertions.assertTrue(evicted.isEmpty());
+            }
+            else if (i == 100)
+            {
+                // the put exceeding the upper water mark evicts down to the lower one
+                Assertions.assertEquals(75, cache.size());
+            }
+        }
+
+        Assertions.assertTrue(cache.size() >= 75, "size " + cache.size());
+        Assertions.assertEquals(1000 - cache.size(), evicted.size());
+        Assertions.assertEquals(evicted.size(), cache.getStats().getCumulativeEvictions());
+        Assertions.assertEquals(0, evicted.get(0));
+        Assertions.assertEquals(999, cache.get(999));
+    }
+
+    @Test
+    public void testAccessedItems()
+    {
+        ConcurrentClockCache<String, String> cache = new ConcurrentClockCache<>(10, 5);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+        cache.get("a");
+
+        Map<String, String> latest = cache.getLatestAccessedItems(2);
+        Assertions.assertEquals(List.of("a", "c"), new ArrayList<>(latest.keySet()));
+
+        Map<String, String> oldest = cache.getOldestAccessedItems(1);
+        Assertions.assertEquals(List.of("b"), new ArrayList<>(oldest.keySet()));
+        Assertions.assertTrue(cache.getOldestAccessedItems(0).isEmpty());
+    }
+
+    @Test
+    public void testClearAndRepeatedPuts()
+    {
+        ConcurrentClockCache<String, String> cache = new ConcurrentClockCache<>(10, 5);
+        for (int i = 0; i < 1000; i++)
+        {
+            cache.put("key", "value" + i);
+        }
+        Assertions.assertEquals(1, cache.size());
+        Assertions.assertEquals("value999", cache.get("key"));
+
+        cache.put("other", "value");
+        cache.clear();
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertNull(cache.get("key"));
+    }
+
+    @Test
+    public void testCleanupThread() throws Exception
+    {
+        ConcurrentClockCache<Integer, Integer> cache = new ConcurrentClockCache<>(1000, 100, 16, true, null);
+        try
+        {
+            for (int i = 0; i < 1000; i++)
+            {
+                cache.put(i, i);
+            }
+            Assertions.assertEquals(1000, cache.size());
+
+            cache.put(1000, 1000);
+            long end = System.currentTimeMillis() + 5000;
+            while (cache.size() > 100 && System.currentTimeMillis() < end)
+            {
+                Thread.sleep(10);
+            }
+            Assertions.assertTrue(cache.size() <= 100, "size " + cache.size());
+        }
+        finally
+        {
+            cache.destroy();
+        }
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception
+    {
+        ConcurrentClockCache<Integer, Integer> cache = new ConcurrentClockCache<>(200, 150);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++)
+            {
+                int seed = t;
+                futures.add(executor.submit(() ->
+                {
+                    XorShiftRandom random = new XorShiftRandom(seed + 1);
+                    for (int i = 0; i < 50000; i++)
+                    {
+                        int key = (int) ((random.random() >>> 1) % 1000);
+                        Integer value = cache.get(key);
+                        if (value == null)
+                        {
+                            cache.put(key, key);
+                        }
+                        else
+                        {
+                            Assertions.assertEquals(key, value);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures)
+            {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        Assertions.assertTrue(cache.size() <= 200, "size " + cache.size());
+        Assertions.assertEquals(cache.size(), cache.getLatestAccessedItems(1000).size());
+    }
+}
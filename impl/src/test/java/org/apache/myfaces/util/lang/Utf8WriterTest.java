@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.util.lang;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class Utf8WriterTest
+{
+    private static final String MIXED = "plain ascii, äöü € 😀 中文 <b>&</b>";
+
+    @Test
+    public void testEncoding() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Utf8Writer writer = new Utf8Writer(bytes, 16);
+        for (int i = 0; i < 100; i++)
+        {
+            writer.write(MIXED);
+        }
+        writer.write(MIXED.toCharArray(), 3, 20);
+        writer.write('ß');
+        writer.flush();
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++)
+        {
+            expected.append(MIXED);
+        }
+        expected.append(MIXED, 3, 23).append('ß');
+        Assertions.assertArrayEquals(expected.toString().getBytes(StandardCharsets.UTF_8), bytes.toByteArray());
+    }
+
+    @Test
+    public void testSurrogates() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Utf8Writer writer = new Utf8Writer(bytes, 16);
+        // a pair split over two writes
+        writer.write("a\uD83D");
+        writer.write("\uDE00b");
+        // unpaired surrogates
+        writer.write("\uDE00c\uD83Dd");
+        writer.write('\uD83D');
+        writer.writeUtf8(Utf8Writer.encode("e"));
+        writer.write('\uD83D');
+        writer.close();
+
+        Assertions.assertEquals("a😀b?c?d?e?", new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testWriteUtf8() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Utf8Writer writer = new Utf8Writer(bytes, 16);
+        byte[] small = Utf8Writer.encode("<div>ä</div>");
+        byte[] large = Utf8Writer.encode(MIXED);
+
+        writer.write("x");
+        writer.writeUtf8(small);
+        writer.writeUtf8(large);
+        writer.write("y");
+        writer.flushBuffer();
+
+        Assertions.assertEquals("x<div>ä</div>" + MIXED + "y",
+                new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReset() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Utf8Writer writer = new Utf8Writer(bytes);
+        writer.write("discarded");
+        writer.reset();
+        writer.write("kept");
+        writer.flush();
+
+        Assertions.assertEquals("kept", bytes.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.view.facelets.buffer;
+
+import jakarta.faces.application.StateManager;
+import jakarta.faces.render.ResponseStateManager;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.test.core.AbstractMyFacesRequestTestCase;
+import org.apache.myfaces.util.lang.CharBufferPool;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RenderBufferPoolTest extends AbstractMyFacesRequestTestCase
+{
+    @Override
+    protected void setUpWebConfigParams() throws Exception
+    {
+        super.setUpWebConfigParams();
+        servletContext.addInitParameter(StateManager.STATE_SAVING_METHOD_PARAM_NAME,
+                StateManager.StateSavingMethod.CLIENT.name());
+        servletContext.addInitParameter(MyfacesConfig.RENDER_BUFFER_POOL_SIZE, "4");
+    }
+
+    @Test
+    public void testClientStateWithPooledBuffer() throws Exception
+    {
+        for (int i = 0; i < 2; i++)
+        {
+            startViewRequest("/forms.xhtml");
+            processLifecycleExecuteAndRender();
+
+            String text = getRenderedContent(facesContext);
+            Assertions.assertFalse(text.contains("JSF_FORM_STATE_MARKER"), text);
+            Assertions.assertTrue(text.contains("between the forms"), text);
+            String viewState = "name=\"" + ResponseStateManager.VIEW_STATE_PARAM + "\"";
+            int first = text.indexOf(viewState);
+            Assertions.assertTrue(first > 0, text);
+            Assertions.assertTrue(text.indexOf(viewState, first + 1) > 0, text);
+
+            CharBufferPool pool = (CharBufferPool)
+                    externalContext.getApplicationMap().get(CharBufferPool.class.getName());
+            Assertions.assertEquals(1, pool.getPooledCount());
+
+            endRequest();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.view.facelets.component;
+
+import org.apache.myfaces.test.core.AbstractMyFacesRequestTestCase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class UICacheTest extends AbstractMyFacesRequestTestCase
+{
+    private String render(String text) throws Exception
+    {
+        startViewRequest("/cache.xhtml");
+        externalContext.getApplicationMap().put("text", text);
+        processLifecycleExecuteAndRender();
+        return getRenderedContent(facesContext);
+    }
+
+    @Test
+    public void testMarkupIsCached() throws Exception
+    {
+        servletContext.setAttribute("cacheKey", "menu");
+
+        String first = render("first");
+        Assertions.assertTrue(first.contains("first menu"), first);
+        Assertions.assertTrue(first.contains("first footer"), first);
+        endRequest();
+
+        String second = render("second");
+        Assertions.assertTrue(second.contains("first menu"), second);
+        Assertions.assertTrue(second.contains("first footer"), second);
+        Assertions.assertTrue(second.contains("second disabled"), second);
+        Assertions.assertTrue(second.contains("second live"), second);
+        Assertions.assertEquals(second.indexOf("<span class=\"menu\">"),
+                second.lastIndexOf("<span class=\"menu\">"), second);
+        endRequest();
+    }
+
+    @Test
+    public void testKeyAndInvalidation() throws Exception
+    {
+        servletContext.setAttribute("cacheKey", "menu");
+        render("first");
+        endRequest();
+
+        servletContext.setAttribute("cacheKey", "other");
+        String second = render("second");
+        Assertions.assertTrue(second.contains("second menu"), second);
+        endRequest();
+
+        servletContext.setAttribute("cacheKey", "menu");
+        String third = render("third");
+        Assertions.assertTrue(third.contains("first menu"), third);
+        UICache.invalidate(facesContext, UICache.SCOPE_APPLICATION, "menu");
+        endRequest();
+
+        String fourth = render("fourth");
+        Assertions.assertTrue(fourth.contains("fourth menu"), fourth);
+        Assertions.assertTrue(fourth.contains("first footer"), fourth);
+        UICache.invalidateAll(facesContext, UICache.SCOPE_SESSION);
+        endRequest();
+
+        String fifth = render("fifth");
+        Assertions.assertTrue(fifth.contains("fourth menu"), fifth);
+        Assertions.assertTrue(fifth.contains("fifth footer"), fifth);
+        endRequest();
+    }
+
+    @Test
+    public void testFragmentCache() throws Exception
+    {
+        UICache.FragmentCache cache = new UICache.FragmentCache(2);
+        cache.put("expired", "a", System.currentTimeMillis() - 1);
+        Assertions.assertNull(cache.get("expired"));
+
+        cache.put("first", "a", Long.MAX_VALUE);
+        Thread.sleep(2);
+        cache.put("second", "b", Long.MAX_VALUE);
+        cache.put("third", "c", Long.MAX_VALUE);
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertNull(cache.get("first"));
+        Assertions.assertEquals("c", cache.get("third"));
+
+        cache.put("second", "d", Long.MAX_VALUE);
+        Assertions.assertEquals("d", cache.get("second"));
+        Assertions.assertEquals("c", cache.get("third"));
+    }
+}